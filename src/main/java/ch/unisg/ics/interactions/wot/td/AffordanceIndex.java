@@ -0,0 +1,123 @@
+package ch.unisg.ics.interactions.wot.td;
+
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+
+import java.util.*;
+
+/**
+ * Inverted indexes over a list of interaction affordances: semantic type to affordances, and
+ * operation type to affordances (i.e., the affordances that have at least one form for the operation
+ * type). Affordances are indexed by their positions in the list, in ascending order, such that query
+ * results keep list order and multi-type queries are answered by intersecting sorted positions.
+ *
+ * @param <T> the type of interaction affordances
+ */
+final class AffordanceIndex<T extends InteractionAffordance> {
+  private static final int[] NONE = new int[0];
+
+  private final List<T> affordances;
+  private final Map<String, int[]> bySemanticType;
+  private final Map<String, int[]> byOperationType;
+
+  AffordanceIndex(List<T> affordances) {
+    Map<String, List<Integer>> semanticTypes = new HashMap<>();
+    Map<String, List<Integer>> operationTypes = new HashMap<>();
+
+    for (int i = 0; i < affordances.size(); i++) {
+      T affordance = affordances.get(i);
+
+      for (String type : affordance.getSemanticTypes()) {
+        semanticTypes.computeIfAbsent(type, t -> new ArrayList<>()).add(i);
+      }
+
+      Set<String> affordanceOperationTypes = new HashSet<>();
+      for (Form form : affordance.getForms()) {
+        affordanceOperationTypes.addAll(form.getOperationTypes());
+      }
+      for (String type : affordanceOperationTypes) {
+        operationTypes.computeIfAbsent(type, t -> new ArrayList<>()).add(i);
+      }
+    }
+
+    this.affordances = affordances;
+    this.bySemanticType = toPositions(semanticTypes);
+    this.byOperationType = toPositions(operationTypes);
+  }
+
+  Optional<T> getFirstBySemanticType(String type) {
+    int[] positions = bySemanticType.getOrDefault(type, NONE);
+    return (positions.length == 0) ? Optional.empty() : Optional.of(affordances.get(positions[0]));
+  }
+
+  /*
+   * Gets the affordances annotated with all the given semantic types (all affordances if no type is
+   * given).
+   */
+  List<T> getBySemanticTypes(Collection<String> types) {
+    if (types.isEmpty()) {
+      return new ArrayList<>(affordances);
+    }
+
+    int[][] postings = new int[types.size()][];
+    int i = 0;
+    for (String type : types) {
+      postings[i++] = bySemanticType.getOrDefault(type, NONE);
+    }
+
+    return toAffordances(intersect(postings));
+  }
+
+  List<T> getByOperationType(String type) {
+    return toAffordances(byOperationType.getOrDefault(type, NONE));
+  }
+
+  Set<String> getSemanticTypes() {
+    return bySemanticType.keySet();
+  }
+
+  private List<T> toAffordances(int[] positions) {
+    List<T> result = new ArrayList<>(positions.length);
+    for (int position : positions) {
+      result.add(affordances.get(position));
+    }
+    return result;
+  }
+
+  /*
+   * Intersects sorted arrays of positions, starting with the shortest one.
+   */
+  private static int[] intersect(int[][] postings) {
+    Arrays.sort(postings, Comparator.comparingInt(positions -> positions.length));
+
+    int[] result = postings[0];
+    for (int i = 1; i < postings.length && result.length > 0; i++) {
+      int[] other = postings[i];
+      int[] intersection = new int[result.length];
+      int size = 0;
+
+      for (int j = 0, k = 0; j < result.length && k < other.length; ) {
+        if (result[j] < other[k]) {
+          j++;
+        } else if (result[j] > other[k]) {
+          k++;
+        } else {
+          intersection[size++] = result[j];
+          j++;
+          k++;
+        }
+      }
+
+      result = Arrays.copyOf(intersection, size);
+    }
+
+    return result;
+  }
+
+  private static Map<String, int[]> toPositions(Map<String, List<Integer>> index) {
+    Map<String, int[]> positions = new HashMap<>(index.size() * 4 / 3 + 1);
+    index.forEach((type, list) -> positions.put(type,
+      list.stream().mapToInt(Integer::intValue).toArray()));
+    return Collections.unmodifiableMap(positions);
+  }
+}
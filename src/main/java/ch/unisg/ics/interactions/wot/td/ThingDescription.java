@@ -2,24 +2,51 @@ package ch.unisg.ics.interactions.wot.td;
 
 import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
 import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.LazyAffordanceList;
 import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
 import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
+import ch.unisg.ics.interactions.wot.td.io.TDGraphWriter;
+import ch.unisg.ics.interactions.wot.td.io.TDJsonWriter;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
+import ch.unisg.ics.interactions.wot.td.util.CompactModel;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
-import org.eclipse.rdf4j.model.util.ModelBuilder;
-
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.rio.RDFFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * An immutable representation of a <a href="https://www.w3.org/TR/wot-thing-description/">W3C Web of
  * Things Thing Description (TD)</a>. A <code>ThingDescription</code> is instantiated using a
  * <code>ThingDescription.Builder</code>.
  * <p>
+ * A TD is deeply immutable: the collections and the RDF graph of the builder are copied into compact
+ * unmodifiable collections when the TD is built, and the interaction affordances, forms, and data
+ * schemas it holds are immutable as well. A TD can therefore be shared across threads without synchronization. The
+ * indexes and serializations that are computed on first use are published safely.
+ * <p>
+ * The lists of interaction affordances are unmodifiable and keep the order in which affordances were
+ * added to the builder. Affordances are indexed by name when the TD is built, such that looking up
+ * an affordance by name takes constant time. Queries by semantic type or operation type are answered
+ * from inverted indexes that are built on first use.
+ * <p>
+ * Interaction affordances can be provided as a {@link LazyAffordanceList}, in which case they are
+ * materialized on first access (see {@link ch.unisg.ics.interactions.wot.td.io.TDReadOptions}).
+ * <p>
  * The current version does not yet implement all the core vocabulary terms defined by the
  * W3C Recommendation.
  */
@@ -28,15 +55,27 @@ public class ThingDescription {
   private final Set<SecurityScheme> security;
   private final Map<String, SecurityScheme> securityDefinitions;
 
-  private final Optional<String> uri;
+  // Null if not specified
+  private final String uri;
   private final Set<String> types;
-  private final Optional<String> baseURI;
+  private final String baseURI;
 
   private final List<PropertyAffordance> properties;
   private final List<ActionAffordance> actions;
   private final List<EventAffordance> events;
 
-  private final Optional<Model> graph;
+  private final Map<String, PropertyAffordance> propertiesByName;
+  private final Map<String, ActionAffordance> actionsByName;
+  private final Map<String, EventAffordance> eventsByName;
+
+  private volatile AffordanceIndex<PropertyAffordance> propertyIndex;
+  private volatile AffordanceIndex<ActionAffordance> actionIndex;
+  private volatile AffordanceIndex<EventAffordance> eventIndex;
+
+  private final Model graph;
+
+  private final ConcurrentMap<TDFormat, byte[]> serializations;
+  private final ConcurrentMap<TDFormat, byte[]> compressedSerializations;
 
   protected ThingDescription(String title, Set<SecurityScheme> security, Map<String,
     SecurityScheme> securityDefinitions, Optional<String> uri, Set<String> types, Optional<String> baseURI,
@@ -48,29 +87,39 @@ public class ThingDescription {
     }
     this.title = title;
 
-    this.security = security;
-    this.securityDefinitions = securityDefinitions;
-
     // Set up nosec security
-    if (this.security.isEmpty()) {
-      if (getFirstSecuritySchemeByType(WoTSec.NoSecurityScheme).isPresent()) {
-        this.security.add(getFirstSecuritySchemeByType(WoTSec.NoSecurityScheme).get());
+    if (security.isEmpty()) {
+      Optional<SecurityScheme> nosec = getFirstSecuritySchemeByType(securityDefinitions,
+        WoTSec.NoSecurityScheme);
+
+      if (nosec.isPresent()) {
+        security = Collections.singleton(nosec.get());
       } else {
-        SecurityScheme nosec = SecurityScheme.getNoSecurityScheme();
-        this.security.add(nosec);
-        this.securityDefinitions.put("nosec", nosec);
+        security = Collections.singleton(SecurityScheme.getNoSecurityScheme());
+        securityDefinitions = new HashMap<>(securityDefinitions);
+        securityDefinitions.put("nosec", security.iterator().next());
       }
     }
 
-    this.uri = uri;
-    this.types = types;
-    this.baseURI = baseURI;
+    this.security = CompactCollections.copyOf(security);
+    this.securityDefinitions = CompactCollections.copyOf(securityDefinitions);
 
-    this.properties = properties;
-    this.actions = actions;
-    this.events = events;
+    this.uri = uri.orElse(null);
+    this.types = CompactCollections.copyOfStrings(types);
+    this.baseURI = baseURI.orElse(null);
 
-    this.graph = graph;
+    this.properties = copyOf(properties);
+    this.actions = copyOf(actions);
+    this.events = copyOf(events);
+
+    this.propertiesByName = indexByName(this.properties);
+    this.actionsByName = indexByName(this.actions);
+    this.eventsByName = indexByName(this.events);
+
+    this.graph = graph.map(ThingDescription::copyOf).orElse(null);
+
+    this.serializations = new ConcurrentHashMap<>();
+    this.compressedSerializations = new ConcurrentHashMap<>();
   }
 
   public String getTitle() {
@@ -121,6 +170,11 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the security scheme (empty if not found)
    */
   public Optional<SecurityScheme> getFirstSecuritySchemeByType(String type) {
+    return getFirstSecuritySchemeByType(securityDefinitions, type);
+  }
+
+  private static Optional<SecurityScheme> getFirstSecuritySchemeByType(
+      Map<String, SecurityScheme> securityDefinitions, String type) {
     for (SecurityScheme securityScheme : securityDefinitions.values()) {
 
       if (securityScheme.getSemanticTypes().contains(type)) {
@@ -131,7 +185,7 @@ public class ThingDescription {
   }
 
   public Optional<String> getThingURI() {
-    return uri;
+    return Optional.ofNullable(uri);
   }
 
   public Set<String> getSemanticTypes() {
@@ -139,7 +193,7 @@ public class ThingDescription {
   }
 
   public Optional<String> getBaseURI() {
-    return baseURI;
+    return Optional.ofNullable(baseURI);
   }
 
   /**
@@ -149,13 +203,7 @@ public class ThingDescription {
    * @return The set of semantic types, can be empty.
    */
   public Set<String> getSupportedActionTypes() {
-    Set<String> supportedActionTypes = new HashSet<String>();
-
-    for (ActionAffordance action : actions) {
-      supportedActionTypes.addAll(action.getSemanticTypes());
-    }
-
-    return supportedActionTypes;
+    return new HashSet<String>(getActionIndex().getSemanticTypes());
   }
 
   /**
@@ -167,14 +215,7 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the property affordance (empty if not found)
    */
   public Optional<PropertyAffordance> getPropertyByName(String name) {
-    for (PropertyAffordance property : properties) {
-      String propertyName = property.getName();
-      if (propertyName.equals(name)) {
-        return Optional.of(property);
-      }
-    }
-
-    return Optional.empty();
+    return getAffordanceByName(properties, propertiesByName, name);
   }
 
   /**
@@ -188,8 +229,7 @@ public class ThingDescription {
    * @return the list of property affordances
    */
   public List<PropertyAffordance> getPropertiesByOperationType(String operationType) {
-    return properties.stream().filter(property -> property.hasFormWithOperationType(operationType))
-      .collect(Collectors.toList());
+    return getPropertyIndex().getByOperationType(operationType);
   }
 
   /**
@@ -199,13 +239,17 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the property affordance (empty if not found)
    */
   public Optional<PropertyAffordance> getFirstPropertyBySemanticType(String propertyType) {
-    for (PropertyAffordance property : properties) {
-      if (property.getSemanticTypes().contains(propertyType)) {
-        return Optional.of(property);
-      }
-    }
+    return getPropertyIndex().getFirstBySemanticType(propertyType);
+  }
 
-    return Optional.empty();
+  /**
+   * Gets the property affordances annotated with all the given semantic types.
+   *
+   * @param propertyTypes the semantic types, typically IRIs defined in some ontology
+   * @return the list of property affordances, in list order (all properties if no type is given)
+   */
+  public List<PropertyAffordance> getPropertiesBySemanticTypes(Collection<String> propertyTypes) {
+    return getPropertyIndex().getBySemanticTypes(propertyTypes);
   }
 
   /**
@@ -217,14 +261,7 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the action affordance (empty if not found)
    */
   public Optional<ActionAffordance> getActionByName(String name) {
-    for (ActionAffordance action : actions) {
-      String actionName = action.getName();
-      if (actionName.equals(name)) {
-        return Optional.of(action);
-      }
-    }
-
-    return Optional.empty();
+    return getAffordanceByName(actions, actionsByName, name);
   }
 
   /**
@@ -238,8 +275,7 @@ public class ThingDescription {
    * @return the list of action affordances
    */
   public List<ActionAffordance> getActionsByOperationType(String operationType) {
-    return actions.stream().filter(action -> action.hasFormWithOperationType(operationType))
-      .collect(Collectors.toList());
+    return getActionIndex().getByOperationType(operationType);
   }
 
   /**
@@ -249,13 +285,17 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the action affordance (empty if not found)
    */
   public Optional<ActionAffordance> getFirstActionBySemanticType(String actionType) {
-    for (ActionAffordance action : actions) {
-      if (action.getSemanticTypes().contains(actionType)) {
-        return Optional.of(action);
-      }
-    }
+    return getActionIndex().getFirstBySemanticType(actionType);
+  }
 
-    return Optional.empty();
+  /**
+   * Gets the action affordances annotated with all the given semantic types.
+   *
+   * @param actionTypes the semantic types, typically IRIs defined in some ontology
+   * @return the list of action affordances, in list order (all actions if no type is given)
+   */
+  public List<ActionAffordance> getActionsBySemanticTypes(Collection<String> actionTypes) {
+    return getActionIndex().getBySemanticTypes(actionTypes);
   }
 
   /**
@@ -267,14 +307,7 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the event affordance (empty if not found)
    */
   public Optional<EventAffordance> getEventByName(String name) {
-    for (EventAffordance event : events) {
-      String eventName = event.getName();
-      if (eventName.equals(name)) {
-        return Optional.of(event);
-      }
-    }
-
-    return Optional.empty();
+    return getAffordanceByName(events, eventsByName, name);
   }
 
   /**
@@ -288,8 +321,7 @@ public class ThingDescription {
    * @return the list of event affordances
    */
   public List<EventAffordance> getEventsByOperationType(String operationType) {
-    return events.stream().filter(event -> event.hasFormWithOperationType(operationType))
-      .collect(Collectors.toList());
+    return getEventIndex().getByOperationType(operationType);
   }
 
   /**
@@ -299,13 +331,100 @@ public class ThingDescription {
    * @return an <code>Optional</code> with the event affordance (empty if not found)
    */
   public Optional<EventAffordance> getFirstEventBySemanticType(String eventType) {
-    for (EventAffordance event : events) {
-      if (event.getSemanticTypes().contains(eventType)) {
-        return Optional.of(event);
-      }
+    return getEventIndex().getFirstBySemanticType(eventType);
+  }
+
+  /**
+   * Gets the event affordances annotated with all the given semantic types.
+   *
+   * @param eventTypes the semantic types, typically IRIs defined in some ontology
+   * @return the list of event affordances, in list order (all events if no type is given)
+   */
+  public List<EventAffordance> getEventsBySemanticTypes(Collection<String> eventTypes) {
+    return getEventIndex().getBySemanticTypes(eventTypes);
+  }
+
+  /*
+   * The inverted indexes are built on first use, such that affordances in lazy lists are not
+   * materialized when the TD is built. Concurrent first uses may build the same index more than
+   * once, which is harmless.
+   */
+  private AffordanceIndex<PropertyAffordance> getPropertyIndex() {
+    AffordanceIndex<PropertyAffordance> index = propertyIndex;
+    if (index == null) {
+      index = new AffordanceIndex<>(properties);
+      propertyIndex = index;
+    }
+    return index;
+  }
+
+  private AffordanceIndex<ActionAffordance> getActionIndex() {
+    AffordanceIndex<ActionAffordance> index = actionIndex;
+    if (index == null) {
+      index = new AffordanceIndex<>(actions);
+      actionIndex = index;
     }
+    return index;
+  }
 
-    return Optional.empty();
+  private AffordanceIndex<EventAffordance> getEventIndex() {
+    AffordanceIndex<EventAffordance> index = eventIndex;
+    if (index == null) {
+      index = new AffordanceIndex<>(events);
+      eventIndex = index;
+    }
+    return index;
+  }
+
+  /*
+   * Affordances in a lazy list are looked up without materializing the other affordances.
+   */
+  private static <T extends InteractionAffordance> Optional<T> getAffordanceByName(List<T> affordances,
+      Map<String, T> affordancesByName, String name) {
+    if (affordances instanceof LazyAffordanceList) {
+      return ((LazyAffordanceList<T>) affordances).getByName(name);
+    }
+
+    return Optional.ofNullable(affordancesByName.get(name));
+  }
+
+  /*
+   * Lists of affordances are copied such that the TD is not affected if the builder is reused. Lazy
+   * lists are unmodifiable and are kept as is, such that their affordances are not materialized.
+   */
+  private static <T extends InteractionAffordance> List<T> copyOf(List<T> affordances) {
+    if (affordances instanceof LazyAffordanceList) {
+      return affordances;
+    }
+    return Collections.unmodifiableList(new ArrayList<>(affordances));
+  }
+
+  /*
+   * If several affordances have the same name, the first one in list order is indexed. Lazy lists
+   * maintain their own index of names.
+   */
+  private static <T extends InteractionAffordance> Map<String, T> indexByName(List<T> affordances) {
+    if (affordances instanceof LazyAffordanceList) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, T> affordancesByName = new HashMap<>(affordances.size() * 4 / 3 + 1);
+    for (T affordance : affordances) {
+      affordancesByName.putIfAbsent(affordance.getName(), affordance);
+    }
+
+    return Collections.unmodifiableMap(affordancesByName);
+  }
+
+  /*
+   * The graph is copied such that the TD is not affected if the builder or the source graph is
+   * modified. A compact graph is read-only and is kept as is.
+   */
+  private static Model copyOf(Model graph) {
+    if (graph instanceof CompactModel) {
+      return graph;
+    }
+    return new LinkedHashModel(graph).unmodifiable();
   }
 
   public List<PropertyAffordance> getProperties() {
@@ -320,17 +439,94 @@ public class ThingDescription {
     return this.events;
   }
 
+  /**
+   * Gets the RDF graph of this TD, if any (see {@link Builder#addGraph(Model)}).
+   *
+   * @return an <code>Optional</code> with an unmodifiable copy of the graph
+   */
   public Optional<Model> getGraph() {
-    return graph;
+    return Optional.ofNullable(graph);
+  }
+
+  /**
+   * Gets the serialization of this TD in a given format, encoded in UTF-8. The serialization is
+   * computed on first use and cached, such that serving the same TD repeatedly does not serialize it
+   * again.
+   * <p>
+   * The returned buffer is a read-only view of the cached serialization, which can be written to a
+   * channel without copying.
+   *
+   * @param format the serialization format
+   * @return a read-only buffer holding the serialization
+   * @throws IllegalArgumentException if the TD cannot be serialized in the given format
+   */
+  public ByteBuffer getSerialization(TDFormat format) {
+    return ByteBuffer.wrap(serializations.computeIfAbsent(format, this::serialize))
+      .asReadOnlyBuffer();
+  }
+
+  /**
+   * Gets a copy of the serialization of this TD in a given format (see
+   * {@link #getSerialization(TDFormat)}).
+   *
+   * @param format the serialization format
+   * @return the serialization encoded in UTF-8
+   * @throws IllegalArgumentException if the TD cannot be serialized in the given format
+   */
+  public byte[] getSerializationBytes(TDFormat format) {
+    return serializations.computeIfAbsent(format, this::serialize).clone();
+  }
+
+  /**
+   * Gets the serialization of this TD in a given format compressed with gzip (e.g., to be served
+   * with <code>Content-Encoding: gzip</code>). Like the uncompressed serialization, the compressed
+   * serialization is computed on first use and cached.
+   *
+   * @param format the serialization format
+   * @return a read-only buffer holding the compressed serialization
+   * @throws IllegalArgumentException if the TD cannot be serialized in the given format
+   */
+  public ByteBuffer getCompressedSerialization(TDFormat format) {
+    return ByteBuffer.wrap(compressedSerializations.computeIfAbsent(format, this::compress))
+      .asReadOnlyBuffer();
+  }
+
+  private byte[] serialize(TDFormat format) {
+    switch (format) {
+      case RDF_TURTLE:
+        return TDGraphWriter.write(this, RDFFormat.TURTLE).getBytes(StandardCharsets.UTF_8);
+      case RDF_JSONLD:
+        return TDGraphWriter.write(this, RDFFormat.JSONLD).getBytes(StandardCharsets.UTF_8);
+      case JSON:
+        return TDJsonWriter.write(this).getBytes(StandardCharsets.UTF_8);
+      default:
+        throw new IllegalArgumentException("Unsupported serialization format: " + format);
+    }
+  }
+
+  private byte[] compress(TDFormat format) {
+    byte[] serialization = serializations.computeIfAbsent(format, this::serialize);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(serialization.length / 4 + 32);
+
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(serialization);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return out.toByteArray();
   }
 
   /**
-   * Supported serialization formats -- currently only RDF serialization formats, namely Turtle and
-   * JSON-LD 1.0. The version of JSON-LD currently supported is the one provided by RDF4J.
+   * Supported serialization formats -- RDF serialization formats, namely Turtle and JSON-LD 1.0, and
+   * the plain JSON serialization defined by the W3C Recommendation. The version of JSON-LD currently
+   * supported is the one provided by RDF4J. TDs in plain JSON are read without JSON-LD expansion when
+   * possible, in which case they do not maintain an RDF graph.
    */
   public enum TDFormat {
     RDF_TURTLE,
-    RDF_JSONLD
+    RDF_JSONLD,
+    JSON
   }
 
   /**
@@ -345,12 +541,13 @@ public class ThingDescription {
     private final Set<SecurityScheme> security;
     private final HashMap<String, SecurityScheme> securityDefinitions;
     private final Set<String> types;
-    private final List<PropertyAffordance> properties;
-    private final List<ActionAffordance> actions;
-    private final List<EventAffordance> events;
+    private List<PropertyAffordance> properties;
+    private List<ActionAffordance> actions;
+    private List<EventAffordance> events;
     private Optional<String> uri;
     private Optional<String> baseURI;
-    private Optional<Model> graph;
+    // Null if no graph was added, or a CompactModel or a LinkedHashModel owned by the builder
+    private Model graph;
 
     public Builder(String title) {
       this.title = title;
@@ -365,7 +562,7 @@ public class ThingDescription {
       this.actions = new ArrayList<ActionAffordance>();
       this.events = new ArrayList<EventAffordance>();
 
-      this.graph = Optional.empty();
+      this.graph = null;
     }
 
     public Builder addSecurityScheme(String name, SecurityScheme security, boolean applied) {
@@ -413,48 +610,75 @@ public class ThingDescription {
     }
 
     public Builder addProperty(PropertyAffordance property) {
-      this.properties.add(property);
+      this.properties = append(this.properties, Collections.singletonList(property));
       return this;
     }
 
+    /**
+     * Adds a list of property affordances. A {@link LazyAffordanceList} added to an empty builder is kept as
+     * is, such that its affordances are not materialized when the TD is built.
+     *
+     * @param properties the property affordances to be added
+     * @return this <code>Builder</code>
+     */
     public Builder addProperties(List<PropertyAffordance> properties) {
-      this.properties.addAll(properties);
+      this.properties = append(this.properties, properties);
       return this;
     }
 
     public Builder addAction(ActionAffordance action) {
-      this.actions.add(action);
+      this.actions = append(this.actions, Collections.singletonList(action));
       return this;
     }
 
+    /**
+     * Adds a list of action affordances. A {@link LazyAffordanceList} added to an empty builder is kept as
+     * is, such that its affordances are not materialized when the TD is built.
+     *
+     * @param actions the action affordances to be added
+     * @return this <code>Builder</code>
+     */
     public Builder addActions(List<ActionAffordance> actions) {
-      this.actions.addAll(actions);
+      this.actions = append(this.actions, actions);
       return this;
     }
 
     public Builder addEvent(EventAffordance event) {
-      this.events.add(event);
+      this.events = append(this.events, Collections.singletonList(event));
       return this;
     }
 
+    /**
+     * Adds a list of event affordances. A {@link LazyAffordanceList} added to an empty builder is kept as
+     * is, such that its affordances are not materialized when the TD is built.
+     *
+     * @param events the event affordances to be added
+     * @return this <code>Builder</code>
+     */
     public Builder addEvents(List<EventAffordance> events) {
-      this.events.addAll(events);
+      this.events = append(this.events, events);
       return this;
     }
 
     /**
      * Adds an RDF graph. If an RDF graph is already present, it will be merged with the new graph.
+     * The statements and namespaces of the graph are copied, such that later changes to the graph do
+     * not affect the builder.
      *
      * @param graph the RDF graph to be added
      * @return this <code>Builder</code>
      */
     public Builder addGraph(Model graph) {
-      if (this.graph.isPresent()) {
-        this.graph.get().addAll(graph);
-      } else {
-        this.graph = Optional.of(graph);
+      if (this.graph == null && graph instanceof CompactModel) {
+        // Read-only, no need to copy
+        this.graph = graph;
+        return this;
       }
 
+      Model ownGraph = getOwnGraph();
+      graph.getNamespaces().forEach(ownGraph::setNamespace);
+      ownGraph.addAll(graph);
+
       return this;
     }
 
@@ -468,13 +692,31 @@ public class ThingDescription {
      * @return this <code>Builder</code>
      */
     public Builder addTriple(Resource subject, IRI predicate, Value object) {
-      if (this.graph.isPresent()) {
-        this.graph.get().add(subject, predicate, object);
-      } else {
-        this.graph = Optional.of(new ModelBuilder().add(subject, predicate, object).build());
+      getOwnGraph().add(subject, predicate, object);
+      return this;
+    }
+
+    /*
+     * Gets a modifiable graph owned by the builder, copying a compact graph if needed.
+     */
+    private Model getOwnGraph() {
+      if (!(this.graph instanceof LinkedHashModel)) {
+        this.graph = (this.graph == null) ? new LinkedHashModel() : new LinkedHashModel(this.graph);
+      }
+      return this.graph;
+    }
+
+    private static <T extends InteractionAffordance> List<T> append(List<T> affordances,
+        List<T> addedAffordances) {
+      if (affordances.isEmpty() && addedAffordances instanceof LazyAffordanceList) {
+        return addedAffordances;
       }
 
-      return this;
+      List<T> appended = (affordances instanceof LazyAffordanceList) ? new ArrayList<>(affordances)
+        : affordances;
+      appended.addAll(addedAffordances);
+
+      return appended;
     }
 
     /**
@@ -484,7 +726,7 @@ public class ThingDescription {
      */
     public ThingDescription build() {
       return new ThingDescription(title, security, securityDefinitions, uri, types, baseURI, properties, actions,
-        events, graph);
+        events, Optional.ofNullable(graph));
     }
   }
 }
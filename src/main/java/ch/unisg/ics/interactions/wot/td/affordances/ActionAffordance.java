@@ -6,21 +6,24 @@ import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import java.util.*;
 
 /**
- * TODO: add javadoc
+ * An immutable action affordance. Forms passed to the builder are copied with the
+ * <code>td:invokeAction</code> operation type and, if no method is specified, the <code>POST</code>
+ * method.
  *
  * @author Andrei Ciortea
  */
 public class ActionAffordance extends InteractionAffordance {
-  final private Optional<DataSchema> input;
-  final private Optional<DataSchema> output;
+  // Null if not specified
+  final private DataSchema input;
+  final private DataSchema output;
 
   // TODO: add safe, idempotent
 
   private ActionAffordance(String name, Optional<String> title, List<String> types,
                            List<Form> forms, Optional<Map<String,DataSchema>> uriVariables, Optional<DataSchema> input, Optional<DataSchema> output) {
     super(name, title, types, forms, uriVariables);
-    this.input = input;
-    this.output = output;
+    this.input = input.orElse(null);
+    this.output = output.orElse(null);
   }
 
   public Optional<Form> getFirstForm() {
@@ -28,11 +31,11 @@ public class ActionAffordance extends InteractionAffordance {
   }
 
   public Optional<DataSchema> getInputSchema() {
-    return input;
+    return Optional.ofNullable(input);
   }
 
   public Optional<DataSchema> getOutputSchema() {
-    return output;
+    return Optional.ofNullable(output);
   }
 
   public static class Builder
@@ -44,13 +47,8 @@ public class ActionAffordance extends InteractionAffordance {
     public Builder(String name, List<Form> forms) {
       super(name, forms);
 
-      for (Form form : this.forms) {
-        form.addOperationType(TD.invokeAction);
-
-        if (!form.getMethodName().isPresent()) {
-          form.setMethodName("POST");
-        }
-      }
+      this.forms.replaceAll(form -> form.withOperationTypes(TD.invokeAction)
+        .withDefaultMethodName("POST"));
 
       this.inputSchema = Optional.empty();
       this.outputSchema = Optional.empty();
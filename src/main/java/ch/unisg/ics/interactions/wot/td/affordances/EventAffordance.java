@@ -6,28 +6,29 @@ import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import java.util.*;
 
 public class EventAffordance extends InteractionAffordance {
-  private final Optional<DataSchema> subscription;
-  private final Optional<DataSchema> notification;
-  private final Optional<DataSchema> cancellation;
+  // Null if not specified
+  private final DataSchema subscription;
+  private final DataSchema notification;
+  private final DataSchema cancellation;
 
   private EventAffordance(String name, Optional<String> title, List<String> types,
                           List<Form> forms, Optional<Map<String,DataSchema>> uriVariables,
                           Optional<DataSchema> subscription, Optional<DataSchema> notification,
                           Optional<DataSchema> cancellation) {
     super(name, title, types, forms, uriVariables);
-    this.subscription = subscription;
-    this.notification = notification;
-    this.cancellation = cancellation;
+    this.subscription = subscription.orElse(null);
+    this.notification = notification.orElse(null);
+    this.cancellation = cancellation.orElse(null);
   }
 
   public Optional<DataSchema> getSubscriptionSchema() {
-    return subscription;
+    return Optional.ofNullable(subscription);
   }
 
-  public Optional<DataSchema> getNotificationSchema() { return notification; }
+  public Optional<DataSchema> getNotificationSchema() { return Optional.ofNullable(notification); }
 
   public Optional<DataSchema> getCancellationSchema() {
-    return cancellation;
+    return Optional.ofNullable(cancellation);
   }
 
   public static class Builder
@@ -40,12 +41,9 @@ public class EventAffordance extends InteractionAffordance {
     public Builder(String name, List<Form> forms) {
       super(name, forms);
 
-      for (Form form : this.forms) {
-        if (form.getOperationTypes().isEmpty()) {
-          form.addOperationType(TD.subscribeEvent);
-          form.addOperationType(TD.unsubscribeEvent);
-        }
-      }
+      this.forms.replaceAll(form -> form.getOperationTypes().isEmpty()
+        ? form.withOperationTypes(TD.subscribeEvent, TD.unsubscribeEvent)
+        : form);
 
       this.subscription = Optional.empty();
       this.notification = Optional.empty();
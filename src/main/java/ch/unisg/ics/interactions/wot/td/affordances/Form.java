@@ -1,45 +1,68 @@
 package ch.unisg.ics.interactions.wot.td.affordances;
 
+import ch.unisg.ics.interactions.wot.td.affordances.ProtocolBinding.Operation;
+import ch.unisg.ics.interactions.wot.td.affordances.ProtocolBinding.Protocol;
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
+
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
+/**
+ * A form of an interaction affordance, which describes how to perform operations on a target
+ * resource. A <code>Form</code> is instantiated using a <code>Form.Builder</code>.
+ * <p>
+ * Forms are immutable: the operation types are frozen when the form is built, and default values of
+ * interaction affordances (e.g., default operation types) are applied to copies of the forms passed
+ * to the affordance builders. Forms can thus be shared across threads without synchronization.
+ * <p>
+ * The protocol of a form is resolved from the URI scheme of its target when the form is built, such
+ * that default methods and subprotocols (see {@link ProtocolBinding}) are looked up without parsing
+ * the target again.
+ */
 public class Form {
 
   private final String target;
   private final String contentType;
   private final Set<String> operationTypes;
-  private final Optional<String> subProtocol;
-  private Optional<String> methodName;
-
-  private Form(String href, Optional<String> methodName, String mediaType, Set<String> operationTypes,
-               Optional<String> subProtocol) {
-    this.methodName = methodName;
+  // Null if not specified
+  private final String subProtocol;
+  private final String methodName;
+  private final Protocol protocol;
+  // Bit set of the operation types of this form that have default bindings, by ordinal
+  private final int operations;
+
+  private Form(String href, String methodName, String mediaType, Set<String> operationTypes,
+               String subProtocol) {
+    this.methodName = CompactCollections.intern(methodName);
     this.target = href;
-    this.contentType = mediaType;
-    this.operationTypes = operationTypes;
-    this.subProtocol = subProtocol;
+    this.contentType = CompactCollections.intern(mediaType);
+    this.operationTypes = CompactCollections.copyOfStrings(operationTypes);
+    this.subProtocol = CompactCollections.intern(subProtocol);
+    this.protocol = Protocol.fromHref(href);
+
+    int operations = 0;
+    for (String operationType : this.operationTypes) {
+      Operation operation = Operation.fromOperationType(operationType);
+      if (operation != null) {
+        operations |= 1 << operation.ordinal();
+      }
+    }
+    this.operations = operations;
   }
 
   public Optional<String> getMethodName() {
-    return methodName;
-  }
-
-  // Package-level access, used for setting affordance-specific default values after instantiation
-  void setMethodName(String methodName) {
-    this.methodName = Optional.of(methodName);
+    return Optional.ofNullable(methodName);
   }
 
   public Optional<String> getMethodName(String operationType) {
-    if (!operationTypes.contains(operationType)) {
-      throw new IllegalArgumentException("Unknown operation type: " + operationType);
-    }
+    Operation operation = getOperation(operationType);
 
-    if (methodName.isPresent()) {
-      return methodName;
+    if (methodName != null) {
+      return Optional.of(methodName);
     }
 
-    return ProtocolBinding.getDefaultMethod(target, operationType);
+    return Optional.ofNullable(ProtocolBinding.getDefaultMethod(protocol, operation));
   }
 
   public String getTarget() {
@@ -51,7 +74,9 @@ public class Form {
   }
 
   public boolean hasOperationType(String type) {
-    return operationTypes.contains(type);
+    Operation operation = Operation.fromOperationType(type);
+    return (operation == null) ? operationTypes.contains(type)
+      : (operations & (1 << operation.ordinal())) != 0;
   }
 
   public Set<String> getOperationTypes() {
@@ -59,46 +84,64 @@ public class Form {
   }
 
   public Optional<String> getSubProtocol() {
-    return subProtocol;
+    return Optional.ofNullable(subProtocol);
   }
 
-  // Package-level access, used for setting affordance-specific default values after instantiation
-  // Reserved for event affordances of op subscribeevent
-  /*
-  void addSubProtocol(String subProtocol) {
-    this.subProtocol = Optional.of(subProtocol);
-  }
-  */
-
   public boolean hasSubProtocol(String operationType, String subProtocol) {
     Optional<String> targetSubProtocol = getSubProtocol(operationType);
     return targetSubProtocol.isPresent() && subProtocol.equals(targetSubProtocol.get());
   }
 
   public Optional<String> getSubProtocol(String operationType) {
-    if (!operationTypes.contains(operationType)) {
-      throw new IllegalArgumentException("Unknown operation type: " + operationType);
-    }
+    Operation operation = getOperation(operationType);
 
-    if (subProtocol.isPresent()) {
-      return subProtocol;
+    if (subProtocol != null) {
+      return Optional.of(subProtocol);
     }
 
-    return ProtocolBinding.getDefaultSubProtocol(target, operationType);
+    return Optional.ofNullable(ProtocolBinding.getDefaultSubProtocol(protocol, operation));
   }
 
   public boolean hasProtocol(String protocol) {
-    Optional<String> targetProtocol = ProtocolBinding.getProtocol(target);
-    return targetProtocol.isPresent() && protocol.equals(targetProtocol.get());
+    return this.protocol != null && this.protocol.getName().equals(protocol);
   }
 
   public Optional<String> getProtocol() {
-    return ProtocolBinding.getProtocol(target);
+    return (protocol == null) ? Optional.empty() : Optional.of(protocol.getName());
+  }
+
+  /*
+   * Returns null if the operation type of this form has no default bindings.
+   */
+  private Operation getOperation(String operationType) {
+    if (!hasOperationType(operationType)) {
+      throw new IllegalArgumentException("Unknown operation type: " + operationType);
+    }
+
+    return Operation.fromOperationType(operationType);
+  }
+
+  // Package-level access, used for setting affordance-specific default values
+  Form withOperationTypes(String... operationTypes) {
+    Set<String> types = new HashSet<>(this.operationTypes);
+    for (String operationType : operationTypes) {
+      types.add(operationType);
+    }
+
+    if (types.size() == this.operationTypes.size()) {
+      return this;
+    }
+
+    return new Form(target, methodName, contentType, types, subProtocol);
   }
 
-  // Package-level access, used for setting affordance-specific default values after instantiation
-  void addOperationType(String operationType) {
-    this.operationTypes.add(operationType);
+  // Package-level access, used for setting affordance-specific default values
+  Form withDefaultMethodName(String methodName) {
+    if (this.methodName != null) {
+      return this;
+    }
+
+    return new Form(target, methodName, contentType, operationTypes, subProtocol);
   }
 
   public static class Builder {
@@ -142,8 +185,8 @@ public class Form {
     }
 
     public Form build() {
-      return new Form(this.target, this.methodName, this.contentType, this.operationTypes,
-        this.subProtocol);
+      return new Form(this.target, this.methodName.orElse(null), this.contentType,
+        this.operationTypes, this.subProtocol.orElse(null));
     }
 
   }
@@ -2,12 +2,18 @@ package ch.unisg.ics.interactions.wot.td.affordances;
 
 import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * TODO: add javadoc
+ * Base class of property, action, and event affordances. Interaction affordances are instantiated
+ * using the builders of their subclasses.
+ * <p>
+ * Interaction affordances are immutable: their semantic types, forms, and URI variables are copied
+ * into unmodifiable collections when they are built, so that a built affordance is not affected if
+ * its builder is reused. Affordances can thus be shared across threads without synchronization.
  *
  * @author Andrei Ciortea
  */
@@ -17,11 +23,11 @@ public class InteractionAffordance {
   public static final String ACTION = "action";
 
   protected final String name;
-  protected Optional<String> title;
-  protected List<String> types;
-  protected List<Form> forms;
+  protected final Optional<String> title;
+  protected final List<String> types;
+  protected final List<Form> forms;
 
-  protected Optional<Map<String, DataSchema>> uriVariables;
+  protected final Optional<Map<String, DataSchema>> uriVariables;
 
   protected InteractionAffordance(String name, Optional<String> title, List<String> types,
                                   List<Form> forms, Optional<Map<String,DataSchema>> uriVariables) {
@@ -30,9 +36,9 @@ public class InteractionAffordance {
     }
     this.name = name;
     this.title = title;
-    this.types = types;
-    this.forms = forms;
-    this.uriVariables = uriVariables;
+    this.types = CompactCollections.copyOfStringList(types);
+    this.forms = CompactCollections.copyOf(forms);
+    this.uriVariables = uriVariables.map(CompactCollections::copyOf);
   }
 
   public String getName() {
@@ -148,7 +154,7 @@ public class InteractionAffordance {
       this.name = name;
       this.title = Optional.empty();
       this.types = new ArrayList<String>();
-      this.forms = forms;
+      this.forms = new ArrayList<Form>(forms);
       this.uriVariables = Optional.empty();
     }
 
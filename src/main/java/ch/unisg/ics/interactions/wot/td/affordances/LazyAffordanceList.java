@@ -0,0 +1,100 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * An unmodifiable list of interaction affordances that are materialized on first access. The names
+ * of the affordances are known upfront and indexed, such that affordances can be looked up by name in
+ * constant time without materializing the other affordances in the list.
+ * <p>
+ * Materialized affordances are memoized. The list is safe for use by multiple threads: if several
+ * threads access the same affordance concurrently, all of them get the same instance.
+ * <p>
+ * The loader of an affordance is released once the affordance is materialized, such that any state
+ * captured by the loaders (e.g., the RDF graph of the TD) can be garbage collected once all the
+ * affordances are materialized.
+ *
+ * @param <T> the type of interaction affordances
+ */
+public final class LazyAffordanceList<T extends InteractionAffordance> extends AbstractList<T>
+    implements RandomAccess {
+  private final List<String> names;
+  private final Map<String, Integer> indexes;
+  // Null once the affordance at the same position is materialized
+  private final AtomicReferenceArray<Supplier<T>> loaders;
+  private final AtomicReferenceArray<T> affordances;
+
+  /**
+   * Creates a lazy list of affordances.
+   *
+   * @param names the names of the affordances, in list order
+   * @param loaders the functions used to materialize the affordances, in list order
+   */
+  public LazyAffordanceList(List<String> names, List<Supplier<T>> loaders) {
+    if (names.size() != loaders.size()) {
+      throw new IllegalArgumentException("Each affordance should have exactly one name.");
+    }
+
+    this.names = new ArrayList<>(names);
+    this.indexes = new HashMap<>(names.size() * 4 / 3 + 1);
+    for (int i = 0; i < names.size(); i++) {
+      this.indexes.putIfAbsent(names.get(i), i);
+    }
+    this.loaders = new AtomicReferenceArray<>(loaders.size());
+    for (int i = 0; i < loaders.size(); i++) {
+      this.loaders.set(i, loaders.get(i));
+    }
+    this.affordances = new AtomicReferenceArray<>(loaders.size());
+  }
+
+  @Override
+  public T get(int index) {
+    T affordance = affordances.get(index);
+
+    if (affordance == null) {
+      Supplier<T> loader = loaders.get(index);
+
+      // The affordance is stored before its loader is released
+      if (loader == null) {
+        return affordances.get(index);
+      }
+
+      affordance = loader.get();
+
+      if (!affordances.compareAndSet(index, null, affordance)) {
+        affordance = affordances.get(index);
+      }
+      loaders.set(index, null);
+    }
+
+    return affordance;
+  }
+
+  @Override
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Gets an affordance by name. Only the matching affordance is materialized.
+   *
+   * @param name the name of the affordance
+   * @return an <code>Optional</code> with the affordance (empty if not found)
+   */
+  public Optional<T> getByName(String name) {
+    Integer index = indexes.get(name);
+    return (index == null) ? Optional.empty() : Optional.of(get(index));
+  }
+
+  /**
+   * Checks if the affordance at a given position was already materialized.
+   *
+   * @param index the position of the affordance in the list
+   * @return <code>true</code> if the affordance was materialized
+   */
+  public boolean isMaterialized(int index) {
+    return affordances.get(index) != null;
+  }
+}
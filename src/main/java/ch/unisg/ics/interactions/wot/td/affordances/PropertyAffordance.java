@@ -33,12 +33,9 @@ public class PropertyAffordance extends InteractionAffordance {
     public Builder(String name, List<Form> forms) {
       super(name, forms);
 
-      for (Form form : this.forms) {
-        if (form.getOperationTypes().isEmpty()) {
-          form.addOperationType(TD.readProperty);
-          form.addOperationType(TD.writeProperty);
-        }
-      }
+      this.forms.replaceAll(form -> form.getOperationTypes().isEmpty()
+        ? form.withOperationTypes(TD.readProperty, TD.writeProperty)
+        : form);
 
       this.schema = DataSchema.getEmptySchema();
       this.observable = false;
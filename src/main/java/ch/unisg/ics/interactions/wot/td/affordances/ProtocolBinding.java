@@ -2,71 +2,163 @@ package ch.unisg.ics.interactions.wot.td.affordances;
 
 import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
-import org.apache.commons.collections4.map.MultiKeyMap;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Default protocol bindings of the supported protocols (HTTP and CoAP). The protocol of a form is
+ * determined by the URI scheme of its target, and default methods and subprotocols are looked up in
+ * tables indexed by protocol and operation type. Forms resolve their protocol once when they are
+ * built (see {@link Form#getProtocol()}).
+ */
 public final class ProtocolBinding {
 
-  private static final HashMap<String, String> URI_SCHEMES = new HashMap<>();
-  private static final MultiKeyMap DEFAULT_METHOD_BINDING = new MultiKeyMap();
-  private static final MultiKeyMap DEFAULT_SUBPROTOCOL_BINDING = new MultiKeyMap();
+  /*
+   * Supported protocols, by URI scheme.
+   */
+  enum Protocol {
+    HTTP("HTTP"),
+    COAP("CoAP");
 
-  static {
-    URI_SCHEMES.put("http:", "HTTP");
-    URI_SCHEMES.put("https:", "HTTP");
-    URI_SCHEMES.put("coap:", "CoAP");
-    URI_SCHEMES.put("coaps:", "CoAP");
-
-    DEFAULT_METHOD_BINDING.put("HTTP", TD.readProperty, "GET");
-    DEFAULT_METHOD_BINDING.put("HTTP", TD.writeProperty, "PUT");
-    DEFAULT_METHOD_BINDING.put("HTTP", TD.invokeAction, "POST");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.readProperty, "GET");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.writeProperty, "PUT");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.invokeAction, "POST");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.observeProperty, "GET");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.unobserveProperty, "GET");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.subscribeEvent, "GET");
-    DEFAULT_METHOD_BINDING.put("CoAP", TD.unsubscribeEvent, "GET");
-
-    DEFAULT_SUBPROTOCOL_BINDING.put("CoAP", TD.observeProperty, COV.observe);
-    DEFAULT_SUBPROTOCOL_BINDING.put("CoAP", TD.unobserveProperty, COV.observe);
-    DEFAULT_SUBPROTOCOL_BINDING.put("CoAP", TD.subscribeEvent, COV.observe);
-    DEFAULT_SUBPROTOCOL_BINDING.put("CoAP", TD.unsubscribeEvent, COV.observe);
-  }
+    private final String name;
 
-  private ProtocolBinding() {
-  }
+    Protocol(String name) {
+      this.name = name;
+    }
 
-  public static Optional<String> getDefaultMethod(String href, String operationType) {
-    if (getProtocol(href).isPresent()) {
-      String protocol = getProtocol(href).get();
+    String getName() {
+      return name;
+    }
+
+    /*
+     * Parses the URI scheme of an href (case-insensitive, see RFC 3986). Returns null if the href is
+     * relative or if the scheme is not supported.
+     */
+    static Protocol fromHref(String href) {
+      int end = getSchemeEnd(href);
 
-      if (DEFAULT_METHOD_BINDING.containsKey(protocol, operationType)) {
-        return Optional.of((String) DEFAULT_METHOD_BINDING.get(protocol, operationType));
+      switch (end) {
+        case 4:
+          return href.regionMatches(true, 0, "http", 0, 4) ? HTTP
+            : href.regionMatches(true, 0, "coap", 0, 4) ? COAP : null;
+        case 5:
+          return href.regionMatches(true, 0, "https", 0, 5) ? HTTP
+            : href.regionMatches(true, 0, "coaps", 0, 5) ? COAP : null;
+        default:
+          return null;
       }
     }
-    return Optional.empty();
+
+    private static int getSchemeEnd(String href) {
+      for (int i = 0; i < href.length(); i++) {
+        char c = href.charAt(i);
+
+        if (c == ':') {
+          return i;
+        }
+        if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z'
+            || i > 0 && (c >= '0' && c <= '9' || c == '+' || c == '-' || c == '.'))) {
+          return -1;
+        }
+      }
+
+      return -1;
+    }
   }
 
-  public static Optional<String> getDefaultSubProtocol(String href, String operationType) {
-    if (getProtocol(href).isPresent()) {
-      String protocol = getProtocol(href).get();
+  /*
+   * Operation types with default bindings.
+   */
+  enum Operation {
+    READ_PROPERTY(TD.readProperty),
+    WRITE_PROPERTY(TD.writeProperty),
+    INVOKE_ACTION(TD.invokeAction),
+    OBSERVE_PROPERTY(TD.observeProperty),
+    UNOBSERVE_PROPERTY(TD.unobserveProperty),
+    SUBSCRIBE_EVENT(TD.subscribeEvent),
+    UNSUBSCRIBE_EVENT(TD.unsubscribeEvent);
 
-      if (DEFAULT_SUBPROTOCOL_BINDING.containsKey(protocol, operationType)) {
-        return Optional.of((String) DEFAULT_SUBPROTOCOL_BINDING.get(protocol, operationType));
+    private static final Map<String, Operation> OPERATIONS = new HashMap<>();
+
+    static {
+      for (Operation operation : values()) {
+        OPERATIONS.put(operation.operationType, operation);
       }
     }
-    return Optional.empty();
+
+    private final String operationType;
+
+    Operation(String operationType) {
+      this.operationType = operationType;
+    }
+
+    /*
+     * Returns null if the operation type has no default bindings.
+     */
+    static Operation fromOperationType(String operationType) {
+      return OPERATIONS.get(operationType);
+    }
+  }
+
+  // Indexed by protocol and operation ordinals, null if there is no default binding
+  private static final String[][] DEFAULT_METHOD_BINDING =
+    new String[Protocol.values().length][Operation.values().length];
+  private static final String[][] DEFAULT_SUBPROTOCOL_BINDING =
+    new String[Protocol.values().length][Operation.values().length];
+
+  static {
+    bind(DEFAULT_METHOD_BINDING, Protocol.HTTP, Operation.READ_PROPERTY, "GET");
+    bind(DEFAULT_METHOD_BINDING, Protocol.HTTP, Operation.WRITE_PROPERTY, "PUT");
+    bind(DEFAULT_METHOD_BINDING, Protocol.HTTP, Operation.INVOKE_ACTION, "POST");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.READ_PROPERTY, "GET");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.WRITE_PROPERTY, "PUT");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.INVOKE_ACTION, "POST");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.OBSERVE_PROPERTY, "GET");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.UNOBSERVE_PROPERTY, "GET");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.SUBSCRIBE_EVENT, "GET");
+    bind(DEFAULT_METHOD_BINDING, Protocol.COAP, Operation.UNSUBSCRIBE_EVENT, "GET");
+
+    bind(DEFAULT_SUBPROTOCOL_BINDING, Protocol.COAP, Operation.OBSERVE_PROPERTY, COV.observe);
+    bind(DEFAULT_SUBPROTOCOL_BINDING, Protocol.COAP, Operation.UNOBSERVE_PROPERTY, COV.observe);
+    bind(DEFAULT_SUBPROTOCOL_BINDING, Protocol.COAP, Operation.SUBSCRIBE_EVENT, COV.observe);
+    bind(DEFAULT_SUBPROTOCOL_BINDING, Protocol.COAP, Operation.UNSUBSCRIBE_EVENT, COV.observe);
+  }
+
+  private ProtocolBinding() {
+  }
+
+  public static Optional<String> getDefaultMethod(String href, String operationType) {
+    return Optional.ofNullable(getDefaultMethod(Protocol.fromHref(href),
+      Operation.fromOperationType(operationType)));
+  }
+
+  public static Optional<String> getDefaultSubProtocol(String href, String operationType) {
+    return Optional.ofNullable(getDefaultSubProtocol(Protocol.fromHref(href),
+      Operation.fromOperationType(operationType)));
   }
 
   static Optional<String> getProtocol(String href) {
-    Optional<String> uriScheme = URI_SCHEMES.keySet()
-      .stream()
-      .filter(scheme -> href.contains(scheme))
-      .findFirst();
+    Protocol protocol = Protocol.fromHref(href);
+    return (protocol == null) ? Optional.empty() : Optional.of(protocol.getName());
+  }
+
+  static String getDefaultMethod(Protocol protocol, Operation operation) {
+    return lookup(DEFAULT_METHOD_BINDING, protocol, operation);
+  }
+
+  static String getDefaultSubProtocol(Protocol protocol, Operation operation) {
+    return lookup(DEFAULT_SUBPROTOCOL_BINDING, protocol, operation);
+  }
+
+  private static String lookup(String[][] bindings, Protocol protocol, Operation operation) {
+    return (protocol == null || operation == null) ? null
+      : bindings[protocol.ordinal()][operation.ordinal()];
+  }
 
-    return uriScheme.map(URI_SCHEMES::get);
+  private static void bind(String[][] bindings, Protocol protocol, Operation operation,
+      String value) {
+    bindings[protocol.ordinal()][operation.ordinal()] = value;
   }
 }
@@ -49,7 +49,7 @@ public class TDCoapRequest {
   }
 
   private TDCoapRequest(Form form, String target, String operationType) {
-    if (!form.getProtocol().isPresent() || !"CoAP".equals(form.getProtocol().get())) {
+    if (!form.hasProtocol("CoAP")) {
       throw new IllegalArgumentException("The CoAP protocol binding cannot be applied with the " +
         "given form");
     }
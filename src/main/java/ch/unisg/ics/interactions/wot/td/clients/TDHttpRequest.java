@@ -45,7 +45,7 @@ public class TDHttpRequest {
   }
 
   private TDHttpRequest(Form form, String target, String operationType) {
-    if (!form.getProtocol().isPresent() || !"HTTP".equals(form.getProtocol().get())) {
+    if (!form.hasProtocol("HTTP")) {
       throw new IllegalArgumentException("The HTTP protocol binding cannot be applied with the " +
         "given form");
     }
@@ -0,0 +1,211 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A <code>Reader</code> that percent-encodes curly braces found inside IRI references of a Turtle
+ * document (e.g. <code>&lt;http://example.org/{id}&gt;</code>), such that URI templates used in TDs
+ * can be handled by the RDF parser. The input is rewritten on the fly while it is being read, so the
+ * document is never copied as a whole. Braces in literals and comments are left untouched.
+ */
+class BraceEscapingReader extends FilterReader {
+  private static final char[] ESCAPED_OPENING_BRACE = new char[]{'%', '7', 'B'};
+  private static final char[] ESCAPED_CLOSING_BRACE = new char[]{'%', '7', 'D'};
+
+  private enum State {
+    DEFAULT, IRI, COMMENT, OPENING_QUOTES, SHORT_STRING, LONG_STRING
+  }
+
+  private State state = State.DEFAULT;
+  private char quote;
+  private int quoteCount;
+  private boolean escaped;
+
+  /* Escaped characters that did not fit in the caller's buffer */
+  private final char[] pending = new char[2];
+  private int pendingStart = 0;
+  private int pendingEnd = 0;
+
+  private char[] chunk = new char[0];
+
+  BraceEscapingReader(Reader in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    char[] c = new char[1];
+    int n = read(c, 0, 1);
+    return (n == -1) ? -1 : c[0];
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    int written = 0;
+    while (pendingStart < pendingEnd && written < len) {
+      cbuf[off + written++] = pending[pendingStart++];
+    }
+
+    if (written == len) {
+      return written;
+    }
+
+    // Each input character expands to at most three output characters
+    int toRead = Math.max(1, (len - written) / ESCAPED_OPENING_BRACE.length);
+    if (chunk.length < toRead) {
+      chunk = new char[toRead];
+    }
+
+    int n = in.read(chunk, 0, toRead);
+    if (n == -1) {
+      return (written == 0) ? -1 : written;
+    }
+
+    for (int i = 0; i < n; i++) {
+      char c = chunk[i];
+      char[] escapedBrace = escape(c);
+
+      if (escapedBrace == null) {
+        written = emit(c, cbuf, off, len, written);
+      } else {
+        for (char e : escapedBrace) {
+          written = emit(e, cbuf, off, len, written);
+        }
+      }
+    }
+
+    return written;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    char[] skipped = new char[(int) Math.min(n, 8192)];
+    long remaining = n;
+
+    while (remaining > 0) {
+      int r = read(skipped, 0, (int) Math.min(remaining, skipped.length));
+      if (r == -1) {
+        break;
+      }
+      remaining -= r;
+    }
+
+    return n - remaining;
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    return pendingStart < pendingEnd || in.ready();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    throw new IOException("mark() not supported");
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("reset() not supported");
+  }
+
+  private int emit(char c, char[] cbuf, int off, int len, int written) {
+    if (written < len) {
+      cbuf[off + written] = c;
+      return written + 1;
+    }
+
+    if (pendingStart == pendingEnd) {
+      pendingStart = 0;
+      pendingEnd = 0;
+    }
+    pending[pendingEnd++] = c;
+    return written;
+  }
+
+  /*
+   * Advances the lexical state by one character. Returns the percent-encoded form of the character
+   * if it is a curly brace inside an IRI reference, or null if the character is to be kept as is.
+   */
+  private char[] escape(char c) {
+    switch (state) {
+      case IRI:
+        if (c == '>') {
+          state = State.DEFAULT;
+        } else if (c == '{') {
+          return ESCAPED_OPENING_BRACE;
+        } else if (c == '}') {
+          return ESCAPED_CLOSING_BRACE;
+        }
+        break;
+      case COMMENT:
+        if (c == '\n' || c == '\r') {
+          state = State.DEFAULT;
+        }
+        break;
+      case OPENING_QUOTES:
+        if (c == quote) {
+          quoteCount++;
+          if (quoteCount == 3) {
+            state = State.LONG_STRING;
+            quoteCount = 0;
+          }
+        } else if (quoteCount == 2) {
+          // An empty short string, the current character is outside of it
+          state = State.DEFAULT;
+          return escape(c);
+        } else {
+          state = State.SHORT_STRING;
+          return escape(c);
+        }
+        break;
+      case SHORT_STRING:
+        if (escaped) {
+          escaped = false;
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == quote) {
+          state = State.DEFAULT;
+        }
+        break;
+      case LONG_STRING:
+        if (escaped) {
+          escaped = false;
+          quoteCount = 0;
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == quote) {
+          quoteCount++;
+          if (quoteCount == 3) {
+            state = State.DEFAULT;
+          }
+        } else {
+          quoteCount = 0;
+        }
+        break;
+      default:
+        if (c == '<') {
+          state = State.IRI;
+        } else if (c == '#') {
+          state = State.COMMENT;
+        } else if (c == '"' || c == '\'') {
+          state = State.OPENING_QUOTES;
+          quote = c;
+          quoteCount = 1;
+        }
+        break;
+    }
+
+    return null;
+  }
+}
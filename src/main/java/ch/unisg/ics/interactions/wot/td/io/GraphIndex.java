@@ -0,0 +1,176 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+
+import java.util.*;
+
+/**
+ * A read-only view of an RDF graph that indexes objects by subject and predicate. The index is built
+ * in a single pass over the graph, such that the lookups used when materializing TDs and data schemas
+ * are direct map hits instead of filtering the whole graph. Objects are kept in the order in which
+ * they appear in the graph.
+ * <p>
+ * The lookup methods mirror the ones provided by RDF4J's <code>Models</code> utility class. The index
+ * can optionally keep track of the objects returned by lookups, such that the statements that were
+ * not read can be retrieved afterwards. Tracking reads is not thread-safe.
+ */
+final class GraphIndex {
+  private final Map<Resource, Map<IRI, List<Value>>> index;
+  private final Map<Resource, Map<IRI, Set<Value>>> readObjects;
+
+  GraphIndex(Model model) {
+    this(model, false);
+  }
+
+  GraphIndex(Model model, boolean trackReads) {
+    this.index = new LinkedHashMap<>();
+    this.readObjects = trackReads ? new HashMap<>() : null;
+
+    for (Statement statement : model) {
+      index.computeIfAbsent(statement.getSubject(), subject -> new HashMap<>(4))
+        .computeIfAbsent(statement.getPredicate(), predicate -> new ArrayList<>(1))
+        .add(statement.getObject());
+    }
+  }
+
+  /**
+   * Gets all the objects of statements with the given subject and predicate.
+   *
+   * @param subject the subject
+   * @param predicate the predicate
+   * @return the list of objects (empty if none found)
+   */
+  List<Value> objects(Resource subject, IRI predicate) {
+    Map<IRI, List<Value>> predicates = index.get(subject);
+    if (predicates == null) {
+      return Collections.emptyList();
+    }
+
+    List<Value> objects = predicates.get(predicate);
+    return (objects == null) ? Collections.emptyList() : objects;
+  }
+
+  boolean contains(Resource subject, IRI predicate, Value object) {
+    return objects(subject, predicate).contains(object);
+  }
+
+  /**
+   * Gets the first subject of a statement with the given predicate.
+   *
+   * @param predicate the predicate
+   * @return an <code>Optional</code> with the subject (empty if not found)
+   */
+  Optional<Resource> subject(IRI predicate) {
+    for (Map.Entry<Resource, Map<IRI, List<Value>>> entry : index.entrySet()) {
+      if (entry.getValue().containsKey(predicate)) {
+        return Optional.of(entry.getKey());
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  Optional<Literal> objectLiteral(Resource subject, IRI predicate) {
+    return firstObject(subject, predicate, Literal.class);
+  }
+
+  Optional<IRI> objectIRI(Resource subject, IRI predicate) {
+    return firstObject(subject, predicate, IRI.class);
+  }
+
+  Optional<Resource> objectResource(Resource subject, IRI predicate) {
+    return firstObject(subject, predicate, Resource.class);
+  }
+
+  Optional<String> objectString(Resource subject, IRI predicate) {
+    List<Value> objects = objects(subject, predicate);
+    if (objects.isEmpty()) {
+      return Optional.empty();
+    }
+
+    markRead(subject, predicate, objects.get(0));
+    return Optional.of(objects.get(0).stringValue());
+  }
+
+  Set<Literal> objectLiterals(Resource subject, IRI predicate) {
+    return allObjects(subject, predicate, Literal.class);
+  }
+
+  Set<IRI> objectIRIs(Resource subject, IRI predicate) {
+    return allObjects(subject, predicate, IRI.class);
+  }
+
+  Set<Resource> objectResources(Resource subject, IRI predicate) {
+    return allObjects(subject, predicate, Resource.class);
+  }
+
+  Set<String> objectStrings(Resource subject, IRI predicate) {
+    Set<String> strings = new LinkedHashSet<>();
+
+    for (Value object : objects(subject, predicate)) {
+      markRead(subject, predicate, object);
+      strings.add(object.stringValue());
+    }
+
+    return strings;
+  }
+
+  private <T extends Value> Optional<T> firstObject(Resource subject, IRI predicate, Class<T> type) {
+    for (Value object : objects(subject, predicate)) {
+      if (type.isInstance(object)) {
+        markRead(subject, predicate, object);
+        return Optional.of(type.cast(object));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private <T extends Value> Set<T> allObjects(Resource subject, IRI predicate, Class<T> type) {
+    Set<T> values = new LinkedHashSet<>();
+
+    for (Value object : objects(subject, predicate)) {
+      if (type.isInstance(object)) {
+        markRead(subject, predicate, object);
+        values.add(type.cast(object));
+      }
+    }
+
+    return values;
+  }
+
+  /**
+   * Gets the statements of a graph that were not returned by any lookup on this index. Lookups are
+   * only tracked if the index was created with <code>trackReads</code> set.
+   *
+   * @param model the graph this index was created from
+   * @return a new graph with the unread statements and the namespaces of the given graph
+   */
+  Model unreadStatements(Model model) {
+    if (readObjects == null) {
+      throw new IllegalStateException("Reads are not tracked by this index.");
+    }
+
+    Model unread = new LinkedHashModel(model.getNamespaces());
+
+    for (Statement statement : model) {
+      Set<Value> objects = readObjects.getOrDefault(statement.getSubject(), Collections.emptyMap())
+        .get(statement.getPredicate());
+
+      if (objects == null || !objects.contains(statement.getObject())) {
+        unread.add(statement);
+      }
+    }
+
+    return unread;
+  }
+
+  private void markRead(Resource subject, IRI predicate, Value object) {
+    if (readObjects != null) {
+      readObjects.computeIfAbsent(subject, s -> new HashMap<>(4))
+        .computeIfAbsent(predicate, p -> new HashSet<>(2))
+        .add(object);
+    }
+  }
+}
@@ -2,62 +2,112 @@ package ch.unisg.ics.interactions.wot.td.io;
 
 import ch.unisg.ics.interactions.wot.td.schemas.*;
 import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
-import org.eclipse.rdf4j.model.*;
-import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
+/*
+ * Schemas are memoized by node, such that a schema node referenced several times in a TD is read
+ * once and the same instance is shared by all references. Cyclic schema definitions cannot be
+ * represented by the object model and are rejected.
+ */
 class SchemaGraphReader {
-  private final Model model;
-  private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private final GraphIndex index;
+  private final Optional<SchemaInterner> interner;
+  private final Map<Resource, Optional<DataSchema>> schemas;
+  private final Set<Resource> schemasInProgress;
 
-  SchemaGraphReader(Model model) {
-    this.model = model;
+  SchemaGraphReader(GraphIndex index) {
+    this(index, Optional.empty());
+  }
+
+  SchemaGraphReader(GraphIndex index, Optional<SchemaInterner> interner) {
+    this.index = index;
+    this.interner = interner;
+    this.schemas = new HashMap<>();
+    this.schemasInProgress = new HashSet<>();
   }
 
   static Optional<DataSchema> readDataSchema(Resource nodeId, Model model) {
-    SchemaGraphReader reader = new SchemaGraphReader(model);
+    return readDataSchema(nodeId, new GraphIndex(model));
+  }
+
+  static Optional<DataSchema> readDataSchema(Resource nodeId, GraphIndex index) {
+    SchemaGraphReader reader = new SchemaGraphReader(index);
     return reader.readDataSchema(nodeId);
   }
 
-  private Optional<DataSchema> readDataSchema(Resource schemaId) {
-    Set<IRI> types = Models.objectIRIs(model.filter(schemaId, RDF.TYPE, null));
+  /*
+   * Affordances of lazily read TDs can be materialized concurrently, hence the reader is
+   * synchronized. Schemas are read bottom-up, so interned schemas also share their interned
+   * subschemas.
+   */
+  synchronized Optional<DataSchema> readDataSchema(Resource schemaId) {
+    Optional<DataSchema> memoized = schemas.get(schemaId);
+    if (memoized != null) {
+      return memoized;
+    }
+
+    if (!schemasInProgress.add(schemaId)) {
+      throw new InvalidTDException("Cyclic data schema definition: " + schemaId);
+    }
+
+    Optional<DataSchema> schema;
+    try {
+      schema = intern(readSchemaOfType(schemaId));
+    } finally {
+      schemasInProgress.remove(schemaId);
+    }
+
+    schemas.put(schemaId, schema);
+    return schema;
+  }
+
+  private Optional<DataSchema> intern(Optional<DataSchema> schema) {
+    if (schema.isPresent() && interner.isPresent()) {
+      return Optional.of(interner.get().intern(schema.get()));
+    }
+
+    return schema;
+  }
+
+  private Optional<DataSchema> readSchemaOfType(Resource schemaId) {
+    Set<IRI> types = index.objectIRIs(schemaId, RDF.TYPE);
 
     if (!types.isEmpty()) {
-      if (types.contains(rdf.createIRI(JSONSchema.ObjectSchema))) {
+      if (types.contains(JSONSchema.OBJECT_SCHEMA)) {
         return readObjectSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.ArraySchema))) {
+      } else if (types.contains(JSONSchema.ARRAY_SCHEMA)) {
         return readArraySchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.BooleanSchema))) {
+      } else if (types.contains(JSONSchema.BOOLEAN_SCHEMA)) {
         BooleanSchema.Builder builder = new BooleanSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.NumberSchema))) {
+      } else if (types.contains(JSONSchema.NUMBER_SCHEMA)) {
         return readNumberSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.IntegerSchema))) {
+      } else if (types.contains(JSONSchema.INTEGER_SCHEMA)) {
         return readIntegerSchema(schemaId);
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.StringSchema))) {
+      } else if (types.contains(JSONSchema.STRING_SCHEMA)) {
         StringSchema.Builder builder = new StringSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.NullSchema))) {
+      } else if (types.contains(JSONSchema.NULL_SCHEMA)) {
         NullSchema.Builder builder = new NullSchema.Builder();
         readDataSchemaMetadata(builder, schemaId);
         return Optional.of(builder.build());
 
-      } else if (types.contains(rdf.createIRI(JSONSchema.DataSchema))) {
+      } else if (types.contains(JSONSchema.DATA_SCHEMA)) {
         return readSuperSchema(schemaId);
       }
     }
@@ -67,8 +117,7 @@ class SchemaGraphReader {
 
   private Optional<DataSchema> readSuperSchema(Resource schemaId) {
     DataSchema.Builder schemaBuilder = new DataSchema.Builder();
-    Set<Resource> oneOfSchemas = Models.objectResources(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.oneOf), null));
+    Set<Resource> oneOfSchemas = index.objectResources(schemaId, JSONSchema.ONE_OF);
     for (Resource oneSchemaId : oneOfSchemas) {
       Optional<DataSchema> oneSchema = readDataSchema(oneSchemaId);
       if (oneSchema.isPresent()) {
@@ -83,14 +132,12 @@ class SchemaGraphReader {
     readDataSchemaMetadata(builder, schemaId);
 
     /* Read properties */
-    Set<Resource> propertyIds = Models.objectResources(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.properties), null));
+    Set<Resource> propertyIds = index.objectResources(schemaId, JSONSchema.PROPERTIES);
     for (Resource property : propertyIds) {
       Optional<DataSchema> propertySchema = readDataSchema(property);
       if (propertySchema.isPresent()) {
         // Each property of an object should also have an associated property name
-        Optional<Literal> propertyName = Models.objectLiteral(model.filter(property,
-            rdf.createIRI(JSONSchema.propertyName), null));
+        Optional<Literal> propertyName = index.objectLiteral(property, JSONSchema.PROPERTY_NAME);
         if (!propertyName.isPresent()) {
           throw new InvalidTDException("ObjectSchema property is missing a property name.");
         }
@@ -99,8 +146,7 @@ class SchemaGraphReader {
     }
 
     /* Read required properties */
-    Set<Literal> requiredProperties = Models.objectLiterals(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.required), null));
+    Set<Literal> requiredProperties = index.objectLiterals(schemaId, JSONSchema.REQUIRED);
     for (Literal requiredProp : requiredProperties) {
       builder.addRequiredProperties(requiredProp.stringValue());
     }
@@ -113,22 +159,19 @@ class SchemaGraphReader {
     readDataSchemaMetadata(builder, schemaId);
 
     /* Read minItems */
-    Optional<Literal> minItems = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minItems), null));
+    Optional<Literal> minItems = index.objectLiteral(schemaId, JSONSchema.MIN_ITEMS);
     if (minItems.isPresent()) {
       builder.addMinItems(minItems.get().intValue());
     }
 
     /* Read maxItems */
-    Optional<Literal> maxItems = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maxItems), null));
+    Optional<Literal> maxItems = index.objectLiteral(schemaId, JSONSchema.MAX_ITEMS);
     if (maxItems.isPresent()) {
       builder.addMaxItems(maxItems.get().intValue());
     }
 
     /* Read items */
-    Set<Resource> itemIds = Models.objectResources(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.items), null));
+    Set<Resource> itemIds = index.objectResources(schemaId, JSONSchema.ITEMS);
     for (Resource itemId : itemIds) {
       Optional<DataSchema> item = readDataSchema(itemId);
       if (item.isPresent()) {
@@ -144,14 +187,12 @@ class SchemaGraphReader {
 
     readDataSchemaMetadata(builder, schemaId);
 
-    Optional<Literal> maximum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maximum), null));
+    Optional<Literal> maximum = index.objectLiteral(schemaId, JSONSchema.MAXIMUM);
     if (maximum.isPresent()) {
       builder.addMaximum(maximum.get().intValue());
     }
 
-    Optional<Literal> minimum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minimum), null));
+    Optional<Literal> minimum = index.objectLiteral(schemaId, JSONSchema.MINIMUM);
     if (minimum.isPresent()) {
       builder.addMinimum(minimum.get().intValue());
     }
@@ -164,14 +205,12 @@ class SchemaGraphReader {
 
     readDataSchemaMetadata(builder, schemaId);
 
-    Optional<Literal> maximum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.maximum), null));
+    Optional<Literal> maximum = index.objectLiteral(schemaId, JSONSchema.MAXIMUM);
     if (maximum.isPresent()) {
       builder.addMaximum(maximum.get().doubleValue());
     }
 
-    Optional<Literal> minimum = Models.objectLiteral(model.filter(schemaId,
-        rdf.createIRI(JSONSchema.minimum), null));
+    Optional<Literal> minimum = index.objectLiteral(schemaId, JSONSchema.MINIMUM);
     if (minimum.isPresent()) {
       builder.addMinimum(minimum.get().doubleValue());
     }
@@ -182,29 +221,26 @@ class SchemaGraphReader {
   @SuppressWarnings({ "rawtypes", "unchecked" })
   private void readDataSchemaMetadata(DataSchema.JsonSchemaBuilder builder, Resource schemaId) {
     /* Read semantic types (IRIs) */
-    Set<IRI> semIRIs = Models.objectIRIs(model.filter(schemaId, RDF.TYPE, null));
+    Set<IRI> semIRIs = index.objectIRIs(schemaId, RDF.TYPE);
     builder.addSemanticTypes(semIRIs.stream().map(iri -> iri.stringValue())
         .collect(Collectors.toSet()));
 
     /* Read semantic types (strings) */
-    Set<String> semTags = Models.objectStrings(model.filter(schemaId, RDF.TYPE, null));
+    Set<String> semTags = index.objectStrings(schemaId, RDF.TYPE);
     builder.addSemanticTypes(semTags);
 
     /* Read enumeration */
-    Set<String> enumeration = Models.objectStrings(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.enumeration), null));
+    Set<String> enumeration = index.objectStrings(schemaId, JSONSchema.ENUMERATION);
     builder.addEnum(enumeration);
 
     /* Read content media type */
-    Optional<Literal> contentMediaType = Models.objectLiteral(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.contentMediaType), null));
+    Optional<Literal> contentMediaType = index.objectLiteral(schemaId, JSONSchema.CONTENT_MEDIA_TYPE);
     if (contentMediaType.isPresent()) {
       builder.setContentMediaType(contentMediaType.get().stringValue());
     }
 
     /* Read one of schemas */
-    Set<Resource> oneOfSchemas = Models.objectResources(model.filter(schemaId,
-      rdf.createIRI(JSONSchema.oneOf), null));
+    Set<Resource> oneOfSchemas = index.objectResources(schemaId, JSONSchema.ONE_OF);
     for (Resource oneSchemaId : oneOfSchemas) {
       Optional<DataSchema> oneSchema = readDataSchema(oneSchemaId);
       if (oneSchema.isPresent()) {
@@ -5,10 +5,12 @@ import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 
 import java.util.Map;
 import java.util.Set;
@@ -17,19 +19,28 @@ import java.util.logging.Logger;
 class SchemaGraphWriter {
   private final static Logger LOGGER = Logger.getLogger(SchemaGraphWriter.class.getCanonicalName());
 
-  private final ModelBuilder graphBuilder;
+  private final StatementEmitter graph;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
 
 
-  SchemaGraphWriter(ModelBuilder builder) {
-    this.graphBuilder = builder;
+  SchemaGraphWriter(StatementEmitter graph) {
+    this.graph = graph;
   }
 
-  static void write(ModelBuilder builder, Resource nodeId, DataSchema schema) {
-    SchemaGraphWriter writer = new SchemaGraphWriter(builder);
+  static void write(StatementEmitter graph, Resource nodeId, DataSchema schema) {
+    SchemaGraphWriter writer = new SchemaGraphWriter(graph);
     writer.addDataSchema(nodeId, schema);
   }
 
+  static void write(ModelBuilder builder, Resource nodeId, DataSchema schema) {
+    write(new StatementEmitter(new AbstractRDFHandler() {
+      @Override
+      public void handleStatement(Statement st) {
+        builder.add(st.getSubject(), st.getPredicate(), st.getObject());
+      }
+    }), nodeId, schema);
+  }
+
   private void addDataSchema(Resource nodeId, DataSchema schema) {
     switch (schema.getDatatype()) {
       case DataSchema.OBJECT:
@@ -39,17 +50,17 @@ class SchemaGraphWriter {
         addArraySchema(nodeId, (ArraySchema) schema);
         break;
       case DataSchema.BOOLEAN:
-        addSimpleSchema(nodeId, schema, rdf.createIRI(JSONSchema.BooleanSchema));
+        addSimpleSchema(nodeId, schema, JSONSchema.BOOLEAN_SCHEMA);
         break;
       case DataSchema.INTEGER:
       case DataSchema.NUMBER:
         addNumberSchema(nodeId, (NumberSchema) schema);
         break;
       case DataSchema.STRING:
-        addSimpleSchema(nodeId, schema, rdf.createIRI(JSONSchema.StringSchema));
+        addSimpleSchema(nodeId, schema, JSONSchema.STRING_SCHEMA);
         break;
       case DataSchema.NULL:
-        addSimpleSchema(nodeId, schema, rdf.createIRI(JSONSchema.NullSchema));
+        addSimpleSchema(nodeId, schema, JSONSchema.NULL_SCHEMA);
         break;
       case DataSchema.DATA:
         addBaseSchema(nodeId, schema);
@@ -65,23 +76,23 @@ class SchemaGraphWriter {
     addObjectIRIs(nodeId, RDF.TYPE, schema.getSemanticTypes());
 
     /* Add enumeration */
-    addObjectIRIs(nodeId, rdf.createIRI(JSONSchema.enumeration), schema.getEnumeration());
+    addObjectIRIs(nodeId, JSONSchema.ENUMERATION, schema.getEnumeration());
 
     /* Add content media type */
     if (schema.getContentMediaType().isPresent()) {
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.contentMediaType), schema.getContentMediaType().get());
+      graph.add(nodeId, JSONSchema.CONTENT_MEDIA_TYPE, schema.getContentMediaType().get());
     }
 
     /* Add one of schemas */
     for (DataSchema oneSchema : schema.getValidSchemas()) {
       Resource oneSchemaId = rdf.createBNode();
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.oneOf), oneSchemaId);
+      graph.add(nodeId, JSONSchema.ONE_OF, oneSchemaId);
       addDataSchema(oneSchemaId, oneSchema);
     }
   }
 
   private void addObjectSchema(Resource nodeId, ObjectSchema schema) {
-    graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.ObjectSchema));
+    graph.add(nodeId, RDF.TYPE, JSONSchema.OBJECT_SCHEMA);
     addDataSchemaMetadata(nodeId, schema);
 
     /* Add object properties */
@@ -90,73 +101,73 @@ class SchemaGraphWriter {
     for (String propertyName : properties.keySet()) {
       Resource propertyId = rdf.createBNode();
 
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.properties), propertyId);
-      graphBuilder.add(propertyId, rdf.createIRI(JSONSchema.propertyName), propertyName);
+      graph.add(nodeId, JSONSchema.PROPERTIES, propertyId);
+      graph.add(propertyId, JSONSchema.PROPERTY_NAME, propertyName);
 
       addDataSchema(propertyId, properties.get(propertyName));
     }
 
     /* Add names of required properties */
     for (String required : schema.getRequiredProperties()) {
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.required), required);
+      graph.add(nodeId, JSONSchema.REQUIRED, required);
     }
   }
 
   private void addArraySchema(Resource nodeId, ArraySchema schema) {
-    graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.ArraySchema));
+    graph.add(nodeId, RDF.TYPE, JSONSchema.ARRAY_SCHEMA);
     addDataSchemaMetadata(nodeId, schema);
 
     if (schema.getMinItems().isPresent()) {
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.minItems),
+      graph.add(nodeId, JSONSchema.MIN_ITEMS,
           schema.getMinItems().get().intValue());
     }
 
     if (schema.getMaxItems().isPresent()) {
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.maxItems), schema.getMaxItems().get()
+      graph.add(nodeId, JSONSchema.MAX_ITEMS, schema.getMaxItems().get()
           .intValue());
     }
 
     for (DataSchema item : schema.getItems()) {
       BNode itemId = rdf.createBNode();
-      graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.items), itemId);
+      graph.add(nodeId, JSONSchema.ITEMS, itemId);
       addDataSchema(itemId, item);
     }
   }
 
   private void addBaseSchema(Resource nodeId, DataSchema schema) {
     if (!schema.getValidSchemas().isEmpty()){
-      addSimpleSchema(nodeId, schema, rdf.createIRI(JSONSchema.DataSchema));
+      addSimpleSchema(nodeId, schema, JSONSchema.DATA_SCHEMA);
     }
   }
 
   private void addSimpleSchema(Resource nodeId, DataSchema schema, IRI schemaType) {
-    graphBuilder.add(nodeId, RDF.TYPE, schemaType);
+    graph.add(nodeId, RDF.TYPE, schemaType);
     addDataSchemaMetadata(nodeId, schema);
   }
 
   private void addNumberSchema(Resource nodeId, NumberSchema numberSchema) {
     if (numberSchema.getDatatype().equals(DataSchema.INTEGER)) {
-      graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.IntegerSchema));
+      graph.add(nodeId, RDF.TYPE, JSONSchema.INTEGER_SCHEMA);
     } else {
-      graphBuilder.add(nodeId, RDF.TYPE, rdf.createIRI(JSONSchema.NumberSchema));
+      graph.add(nodeId, RDF.TYPE, JSONSchema.NUMBER_SCHEMA);
     }
     addDataSchemaMetadata(nodeId, numberSchema);
 
     if (numberSchema.getMinimum().isPresent()) {
       if (numberSchema.getDatatype().equals(DataSchema.INTEGER)) {
-        graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.minimum),
+        graph.add(nodeId, JSONSchema.MINIMUM,
             ((IntegerSchema) numberSchema).getMinimumAsInteger().get());
       } else {
-        graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.minimum), numberSchema.getMinimum().get());
+        graph.add(nodeId, JSONSchema.MINIMUM, numberSchema.getMinimum().get());
       }
     }
 
     if (numberSchema.getMaximum().isPresent()) {
       if (numberSchema.getDatatype().equals(DataSchema.INTEGER)) {
-        graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.maximum),
+        graph.add(nodeId, JSONSchema.MAXIMUM,
             ((IntegerSchema) numberSchema).getMaximumAsInteger().get());
       } else {
-        graphBuilder.add(nodeId, rdf.createIRI(JSONSchema.maximum), numberSchema.getMaximum().get());
+        graph.add(nodeId, JSONSchema.MAXIMUM, numberSchema.getMaximum().get());
       }
     }
   }
@@ -164,10 +175,10 @@ class SchemaGraphWriter {
   private void addObjectIRIs(Resource nodeId, IRI property, Set<String> objects) {
     for (String type : objects) {
       try {
-        graphBuilder.add(nodeId, property, rdf.createIRI(type));
+        graph.add(nodeId, property, VocabularyIRIs.toIRI(type));
       } catch (IllegalArgumentException e) {
         // The object is not an URI, but add it as a string
-        graphBuilder.add(nodeId, property, type);
+        graph.add(nodeId, property, type);
       }
     }
   }
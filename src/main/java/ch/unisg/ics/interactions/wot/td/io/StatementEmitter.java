@@ -0,0 +1,31 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Values;
+import org.eclipse.rdf4j.rio.RDFHandler;
+
+/**
+ * Passes the statements produced by the graph writers to an <code>RDFHandler</code> as soon as they
+ * are produced (e.g., to an <code>RDFWriter</code>), such that the writers do not need to hold the
+ * graph in memory. Objects that are not RDF values are converted to literals in the same way as with
+ * a <code>ModelBuilder</code>.
+ */
+final class StatementEmitter {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  private final RDFHandler handler;
+
+  StatementEmitter(RDFHandler handler) {
+    this.handler = handler;
+  }
+
+  void add(Resource subject, IRI predicate, Object object) {
+    Value value = (object instanceof Value) ? (Value) object : Values.literal(object);
+    handler.handleStatement(rdf.createStatement(subject, predicate, value));
+  }
+
+  void add(Statement statement) {
+    handler.handleStatement(statement);
+  }
+}
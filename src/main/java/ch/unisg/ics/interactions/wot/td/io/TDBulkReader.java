@@ -0,0 +1,196 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A reader for loading many TDs in parallel, e.g. all the TDs stored in a directory. TDs are read
+ * with {@link TDGraphReader} on a bounded <code>ForkJoinPool</code>. A TD that cannot be read does
+ * not abort the batch: the error is reported in the {@link Result} of the corresponding file.
+ * <p>
+ * The format of each file is inferred from its extension: <code>.ttl</code> files are read as
+ * Turtle, <code>.jsonld</code> files are read as JSON-LD, and <code>.json</code> files are read as
+ * plain TD JSON (see {@link TDFormat#JSON}).
+ */
+public class TDBulkReader {
+  private final int parallelism;
+  private final TDReadOptions options;
+
+  /**
+   * Creates a reader that uses one thread per available processor.
+   */
+  public TDBulkReader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a reader that uses at most the given number of threads.
+   *
+   * @param parallelism the maximum number of TDs read concurrently
+   */
+  public TDBulkReader(int parallelism) {
+    this(parallelism, new TDReadOptions.Builder().build());
+  }
+
+  /**
+   * Creates a reader that uses at most the given number of threads and reads TDs with the given
+   * options (e.g., to materialize affordances lazily).
+   *
+   * @param parallelism the maximum number of TDs read concurrently
+   * @param options the options used to read each TD
+   */
+  public TDBulkReader(int parallelism, TDReadOptions options) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism level should be at least 1.");
+    }
+    this.parallelism = parallelism;
+    this.options = options;
+  }
+
+  /**
+   * Reads all the TD files found in a directory and its subdirectories. Files with unknown
+   * extensions are ignored.
+   *
+   * @param directory the directory
+   * @return the results of reading each TD file, keyed by path and sorted by path
+   * @throws IOException if an I/O error occurs while walking the directory
+   */
+  public Map<Path, Result> readDirectory(Path directory) throws IOException {
+    List<Path> paths;
+
+    try (Stream<Path> files = Files.walk(directory)) {
+      paths = files.filter(Files::isRegularFile)
+        .filter(path -> getFormat(path).isPresent())
+        .sorted()
+        .collect(Collectors.toList());
+    }
+
+    return readPaths(paths);
+  }
+
+  /**
+   * Reads the TDs stored at the given paths.
+   *
+   * @param paths the paths of the TD files
+   * @return the results of reading each TD file, keyed by path in iteration order
+   */
+  public Map<Path, Result> readPaths(Collection<Path> paths) {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+    try {
+      List<Future<Result>> futures = new ArrayList<>(paths.size());
+      for (Path path : paths) {
+        futures.add(pool.submit(() -> read(path)));
+      }
+
+      Map<Path, Result> results = new LinkedHashMap<>();
+      Iterator<Path> pathIterator = paths.iterator();
+
+      for (Future<Result> future : futures) {
+        Path path = pathIterator.next();
+        results.put(path, getResult(path, future));
+      }
+
+      return results;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Reads the TDs stored at the given paths and returns the successfully read TDs.
+   *
+   * @param paths the paths of the TD files
+   * @return a stream of thing descriptions, in iteration order of the paths
+   */
+  public Stream<ThingDescription> readThingDescriptions(Collection<Path> paths) {
+    return readPaths(paths).values().stream()
+      .map(Result::getThingDescription)
+      .filter(Optional::isPresent)
+      .map(Optional::get);
+  }
+
+  static Optional<TDFormat> getFormat(Path path) {
+    String fileName = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+
+    if (fileName.endsWith(".ttl")) {
+      return Optional.of(TDFormat.RDF_TURTLE);
+    } else if (fileName.endsWith(".jsonld")) {
+      return Optional.of(TDFormat.RDF_JSONLD);
+    } else if (fileName.endsWith(".json")) {
+      return Optional.of(TDFormat.JSON);
+    }
+
+    return Optional.empty();
+  }
+
+  private Result read(Path path) {
+    Optional<TDFormat> format = getFormat(path);
+    if (!format.isPresent()) {
+      return new Result(path, null, new InvalidTDException("Unknown TD format: " + path));
+    }
+
+    try {
+      return new Result(path, TDGraphReader.readFromPath(format.get(), path, options), null);
+    } catch (IOException | RuntimeException e) {
+      return new Result(path, null, e);
+    }
+  }
+
+  private static Result getResult(Path path, Future<Result> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      return new Result(path, null, (Exception) cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new Result(path, null, e);
+    }
+  }
+
+  /**
+   * The outcome of reading one TD file: either a <code>ThingDescription</code> or the error that
+   * occurred while reading the file.
+   */
+  public static final class Result {
+    private final Path path;
+    private final Optional<ThingDescription> td;
+    private final Optional<Exception> error;
+
+    private Result(Path path, ThingDescription td, Exception error) {
+      this.path = path;
+      this.td = Optional.ofNullable(td);
+      this.error = Optional.ofNullable(error);
+    }
+
+    public Path getPath() {
+      return path;
+    }
+
+    public boolean isSuccess() {
+      return td.isPresent();
+    }
+
+    public Optional<ThingDescription> getThingDescription() {
+      return td;
+    }
+
+    public Optional<Exception> getError() {
+      return error;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A writer for exporting many TDs as a single line-oriented RDF document, e.g. to load a registry
+ * into a triple store. By default, the TDs are written as N-Quads and each TD is written in its own
+ * named graph: the graph is named after the Thing's IRI, or after a fresh blank node if the TD has
+ * no IRI. Alternatively, the TDs can be written as N-Triples (see {@link #setNamedGraphs(boolean)}).
+ * <p>
+ * Statements are written one per line with the RDF4J N-Quads (or N-Triples) writer as each TD is
+ * traversed, such that memory usage does not depend on the number of TDs. Blank node labels are unique across the
+ * document. With a parallelism level greater than 1, the TDs are serialized in chunks on a bounded
+ * <code>ForkJoinPool</code> and the chunks are written in iteration order; at most two chunks per
+ * thread are held in memory.
+ */
+public class TDBulkWriter {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private static final int DEFAULT_CHUNK_SIZE = 64;
+
+  private final int parallelism;
+  private int chunkSize;
+  private boolean namedGraphs;
+
+  /**
+   * Creates a writer that serializes TDs in the calling thread.
+   */
+  public TDBulkWriter() {
+    this(1);
+  }
+
+  /**
+   * Creates a writer that serializes chunks of TDs using at most the given number of threads.
+   *
+   * @param parallelism the maximum number of chunks serialized concurrently
+   */
+  public TDBulkWriter(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism level should be at least 1.");
+    }
+    this.parallelism = parallelism;
+    this.chunkSize = DEFAULT_CHUNK_SIZE;
+    this.namedGraphs = true;
+  }
+
+  /**
+   * Sets the number of TDs serialized together when writing in parallel (default: 64).
+   *
+   * @param chunkSize the number of TDs per chunk
+   * @return this <code>TDBulkWriter</code>
+   */
+  public TDBulkWriter setChunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size should be at least 1.");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * Sets whether each TD is written in its own named graph (N-Quads), or all TDs are written in the
+   * default graph (N-Triples). TDs are written in named graphs by default.
+   *
+   * @param namedGraphs <code>true</code> to write N-Quads, <code>false</code> to write N-Triples
+   * @return this <code>TDBulkWriter</code>
+   */
+  public TDBulkWriter setNamedGraphs(boolean namedGraphs) {
+    this.namedGraphs = namedGraphs;
+    return this;
+  }
+
+  /**
+   * Writes the given TDs to an output stream in UTF-8. The stream is not closed.
+   *
+   * @param tds the TDs to be written
+   * @param out the output stream
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(Iterable<ThingDescription> tds, OutputStream out) throws IOException {
+    if (parallelism > 1) {
+      writeChunks(tds, out);
+      return;
+    }
+
+    write(tds, 0, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+  }
+
+  private void writeChunks(Iterable<ThingDescription> tds, OutputStream out) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+    try {
+      Deque<Future<byte[]>> pending = new ArrayDeque<>();
+      Iterator<ThingDescription> iterator = tds.iterator();
+      long index = 0;
+
+      while (iterator.hasNext()) {
+        List<ThingDescription> chunk = new ArrayList<>(chunkSize);
+        while (iterator.hasNext() && chunk.size() < chunkSize) {
+          chunk.add(iterator.next());
+        }
+
+        long firstIndex = index;
+        pending.add(pool.submit(() -> serialize(chunk, firstIndex)));
+        index += chunk.size();
+
+        if (pending.size() >= 2 * parallelism) {
+          out.write(getChunk(pending.poll()));
+        }
+      }
+
+      while (!pending.isEmpty()) {
+        out.write(getChunk(pending.poll()));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private byte[] serialize(List<ThingDescription> chunk, long firstIndex) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(chunk, firstIndex, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    return out.toByteArray();
+  }
+
+  private static byte[] getChunk(Future<byte[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing TDs");
+    }
+  }
+
+  /*
+   * Writes the TDs and flushes the writer. The index of each TD is used to name its blank nodes.
+   */
+  private void write(Iterable<ThingDescription> tds, long firstIndex, Writer writer)
+      throws IOException {
+    RDFWriter rdfWriter = Rio.createWriter(namedGraphs ? RDFFormat.NQUADS : RDFFormat.NTRIPLES,
+      writer);
+
+    try {
+      rdfWriter.startRDF();
+
+      long index = firstIndex;
+      for (ThingDescription td : tds) {
+        new TDGraphWriter(td).write(new RelabelingHandler(rdfWriter, getGraphName(td, index), index));
+        index++;
+      }
+
+      rdfWriter.endRDF();
+    } catch (RDFHandlerException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private Resource getGraphName(ThingDescription td, long index) {
+    if (!namedGraphs) {
+      return null;
+    }
+
+    return td.getThingURI().isPresent() ? rdf.createIRI(td.getThingURI().get())
+      : rdf.createBNode("t" + index);
+  }
+
+  /*
+   * Forwards the statements of a TD to the document writer. Blank nodes are relabeled with a prefix
+   * that is unique for each TD, such that blank nodes from different TDs (e.g., read from different
+   * files) do not clash, and statements are moved to the named graph of the TD, if any.
+   */
+  private static final class RelabelingHandler extends AbstractRDFHandler {
+    private final RDFWriter writer;
+    private final Resource graphName;
+    private final String blankNodePrefix;
+    private final Map<String, BNode> blankNodes = new HashMap<>();
+
+    RelabelingHandler(RDFWriter writer, Resource graphName, long index) {
+      this.writer = writer;
+      this.graphName = graphName;
+      this.blankNodePrefix = "t" + index + "b";
+    }
+
+    @Override
+    public void handleStatement(Statement statement) {
+      Resource subject = (Resource) relabel(statement.getSubject());
+      Value object = relabel(statement.getObject());
+
+      writer.handleStatement((graphName == null)
+        ? rdf.createStatement(subject, statement.getPredicate(), object)
+        : rdf.createStatement(subject, statement.getPredicate(), object, graphName));
+    }
+
+    private Value relabel(Value value) {
+      if (!value.isBNode()) {
+        return value;
+      }
+
+      return blankNodes.computeIfAbsent(((BNode) value).getID(),
+        id -> rdf.createBNode(blankNodePrefix + blankNodes.size()));
+    }
+  }
+}
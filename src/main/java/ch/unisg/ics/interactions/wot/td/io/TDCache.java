@@ -0,0 +1,326 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A bounded, thread-safe cache of TDs read with {@link TDGraphReader}. TDs are keyed by a SHA-256
+ * hash of their format and representation, such that reading an unchanged TD again only costs a
+ * hash and a map lookup. TDs read from URLs are also keyed by URL: if the server sent an
+ * <code>ETag</code> or a <code>Last-Modified</code> header, the cached TD is revalidated with a
+ * conditional request.
+ * <p>
+ * When the cache is full, the least recently used entry is evicted. Entries older than the
+ * configured maximum age are evicted on access. A <code>TDCache</code> is instantiated using a
+ * <code>TDCache.Builder</code>.
+ * <p>
+ * Cached TDs are shared by all callers that read the same representation.
+ */
+public class TDCache {
+  private static final String CONTENT_KEY_PREFIX = "content:";
+  private static final String URL_KEY_PREFIX = "url:";
+
+  private final Duration maximumAge;
+  private final TDReadOptions options;
+  private final Clock clock;
+  private final Map<String, Entry> entries;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  private TDCache(int maximumSize, Duration maximumAge, TDReadOptions options, Clock clock) {
+    this.maximumAge = maximumAge;
+    this.options = options;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maximumSize) {
+          evictionCount++;
+          return true;
+        }
+
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns a ThingDescription object based on a string representation, read from the cache if the
+   * same representation was read before.
+   *
+   * @param format the format of the thing description
+   * @param representation the representation of the thing description
+   * @return the thing description
+   */
+  public ThingDescription readFromString(TDFormat format, String representation) {
+    String key = CONTENT_KEY_PREFIX + hash(format, representation);
+
+    Optional<ThingDescription> td = lookup(key);
+    if (td.isPresent()) {
+      synchronized (this) {
+        hitCount++;
+      }
+      return td.get();
+    }
+
+    ThingDescription parsed = TDGraphReader.readFromString(format, representation, options);
+
+    synchronized (this) {
+      missCount++;
+      entries.put(key, new Entry(parsed, clock.instant(), null, null));
+    }
+
+    return parsed;
+  }
+
+  /**
+   * Returns a ThingDescription object read from the given URL. If a TD read from the same URL is
+   * cached with an <code>ETag</code> or a <code>Last-Modified</code> validator, a conditional request
+   * is sent and the cached TD is returned if the server responds with <code>304 Not Modified</code>.
+   * Otherwise, the response body is read with {@link #readFromString(TDFormat, String)}.
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @return the thing description
+   * @throws IOException if the request fails or if an I/O error occurs reading the response
+   */
+  public ThingDescription readFromURL(TDFormat format, String url) throws IOException {
+    String key = URL_KEY_PREFIX + format + ":" + url;
+    Optional<Entry> cached = lookupEntry(key);
+
+    Request request = Request.get(url);
+    if (cached.isPresent()) {
+      if (cached.get().etag != null) {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, cached.get().etag);
+      }
+      if (cached.get().lastModified != null) {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.get().lastModified);
+      }
+    }
+
+    return request.execute().handleResponse((ClassicHttpResponse response) -> {
+      if (response.getCode() == HttpStatus.SC_NOT_MODIFIED && cached.isPresent()) {
+        EntityUtils.consume(response.getEntity());
+
+        synchronized (this) {
+          hitCount++;
+          entries.put(key, cached.get().revalidated(clock.instant()));
+        }
+
+        return cached.get().td;
+      }
+
+      if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+        EntityUtils.consume(response.getEntity());
+        throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+      }
+
+      ThingDescription td = readFromString(format, readBody(response.getEntity()));
+
+      String etag = headerValue(response, HttpHeaders.ETAG);
+      String lastModified = headerValue(response, HttpHeaders.LAST_MODIFIED);
+
+      synchronized (this) {
+        if (etag != null || lastModified != null) {
+          entries.put(key, new Entry(td, clock.instant(), etag, lastModified));
+        } else {
+          entries.remove(key);
+        }
+      }
+
+      return td;
+    });
+  }
+
+  /**
+   * Removes all entries from the cache. The metrics of the cache are not reset.
+   */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Gets the number of entries currently in the cache, including the entries for URLs.
+   *
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the number of reads that were served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Gets the number of reads that required parsing the TD.
+   *
+   * @return the number of cache misses
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Gets the number of entries evicted because the cache was full or the entries were too old.
+   *
+   * @return the number of evicted entries
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private Optional<ThingDescription> lookup(String key) {
+    return lookupEntry(key).map(entry -> entry.td);
+  }
+
+  private synchronized Optional<Entry> lookupEntry(String key) {
+    Entry entry = entries.get(key);
+
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    if (Duration.between(entry.created, clock.instant()).compareTo(maximumAge) > 0) {
+      entries.remove(key);
+      evictionCount++;
+      return Optional.empty();
+    }
+
+    return Optional.of(entry);
+  }
+
+  private static String hash(TDFormat format, String representation) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(format.name().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(representation.getBytes(StandardCharsets.UTF_8));
+
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String readBody(HttpEntity entity) throws IOException {
+    if (entity == null) {
+      return "";
+    }
+
+    try {
+      ContentType contentType = (entity.getContentType() == null) ? null
+        : ContentType.parseLenient(entity.getContentType());
+      return EntityUtils.toString(entity, ContentType.getCharset(contentType, StandardCharsets.UTF_8));
+    } catch (ParseException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static String headerValue(ClassicHttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return (header == null) ? null : header.getValue();
+  }
+
+  private static final class Entry {
+    private final ThingDescription td;
+    private final Instant created;
+    private final String etag;
+    private final String lastModified;
+
+    private Entry(ThingDescription td, Instant created, String etag, String lastModified) {
+      this.td = td;
+      this.created = created;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+
+    private Entry revalidated(Instant now) {
+      return new Entry(td, now, etag, lastModified);
+    }
+  }
+
+  /**
+   * Helper class used to construct a <code>TDCache</code>. By default, a cache holds up to 1000
+   * entries that never expire, and TDs are read with the default {@link TDReadOptions}.
+   * <p>
+   * Implements a fluent API.
+   */
+  public static class Builder {
+    private int maximumSize;
+    private Duration maximumAge;
+    private TDReadOptions options;
+    private Clock clock;
+
+    public Builder() {
+      this.maximumSize = 1000;
+      this.maximumAge = Duration.ofSeconds(Long.MAX_VALUE);
+      this.options = new TDReadOptions.Builder().build();
+      this.clock = Clock.systemUTC();
+    }
+
+    public Builder setMaximumSize(int maximumSize) {
+      if (maximumSize < 1) {
+        throw new IllegalArgumentException("The maximum size should be at least 1.");
+      }
+
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public Builder setMaximumAge(Duration maximumAge) {
+      if (maximumAge.isNegative()) {
+        throw new IllegalArgumentException("The maximum age should not be negative.");
+      }
+
+      this.maximumAge = maximumAge;
+      return this;
+    }
+
+    public Builder setReadOptions(TDReadOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    Builder setClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public TDCache build() {
+      return new TDCache(maximumSize, maximumAge, options, clock);
+    }
+  }
+}
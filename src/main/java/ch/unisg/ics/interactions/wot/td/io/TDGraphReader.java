@@ -7,8 +7,13 @@ import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
 import ch.unisg.ics.interactions.wot.td.security.*;
 import ch.unisg.ics.interactions.wot.td.security.DigestSecurityScheme.QualityOfProtection;
 import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import ch.unisg.ics.interactions.wot.td.util.CompactModel;
 import ch.unisg.ics.interactions.wot.td.vocabularies.*;
 import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.client5.http.impl.classic.AbstractHttpClientResponseHandler;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.eclipse.rdf4j.common.net.ParsedIRI;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
@@ -17,30 +22,86 @@ import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.rio.*;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
-import java.io.IOException;
-import java.io.StringReader;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.sql.Timestamp;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * A reader for deserializing TDs from RDF representations. The created <code>ThingDescription</code>
- * maintains the full RDF graph read as input, which can be retrieved with the <code>getGraph</code>
- * method.
+ * A reader for deserializing TDs from RDF representations. By default, the created
+ * <code>ThingDescription</code> maintains the full RDF graph read as input, which can be retrieved
+ * with the <code>getGraph</code> method. The retained graph can be configured with
+ * {@link TDReadOptions}.
+ * <p>
+ * TDs in the plain JSON format (see {@link TDFormat#JSON}) are read without JSON-LD expansion when
+ * they only use terms defined by the TD context, in which case no RDF graph is maintained.
  */
 public class TDGraphReader {
   private static final String[] HTTP_URI_SCHEMES = new String[]{"http", "https"};
   private static final String[] COAP_URI_SCHEMES = new String[]{"coap", "coaps"};
 
+  // Placeholder base URI used for parsing, the path is deep enough to keep track of '..' segments
+  private static final String UNRESOLVED_BASE_AUTHORITY = "http://unresolved.td.invalid/";
+  private static final String UNRESOLVED_BASE_URI = UNRESOLVED_BASE_AUTHORITY + "a/b/c/d/e/f/g/h/";
+
+  private static final TDReadOptions DEFAULT_OPTIONS = new TDReadOptions.Builder().build();
+
+  // Unrepresented statements of the graphs of TDs, keyed by TD identity and released with the TDs
+  private static final Map<ThingDescription, Model> UNREPRESENTED_GRAPHS =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
   private final Resource thingId;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private final GraphIndex index;
   private Model model;
+  private SchemaGraphReader schemaReader;
 
+  /**
+   * Returns a ThingDescription object read from the given URL. The response body is streamed to the
+   * RDF parser and decoded with the charset of the response (UTF-8 by default).
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @return the thing description
+   * @throws IOException if the request fails or if an I/O error occurs reading the response
+   */
   public static ThingDescription readFromURL(TDFormat format, String url) throws IOException {
-    String representation = Request.get(url).execute().returnContent().asString();
-    return readFromString(format, representation);
+    return readFromURL(format, url, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns a ThingDescription object read from the given URL with the given read options.
+   *
+   * @param format the format of the thing description
+   * @param url the URL of the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if the request fails or if an I/O error occurs reading the response
+   */
+  public static ThingDescription readFromURL(TDFormat format, String url, TDReadOptions options)
+      throws IOException {
+    return Request.get(url).execute().handleResponse(new AbstractHttpClientResponseHandler<ThingDescription>() {
+      @Override
+      public ThingDescription handleEntity(HttpEntity entity) throws IOException {
+        ContentType contentType = (entity.getContentType() == null) ? null
+          : ContentType.parseLenient(entity.getContentType());
+        Charset charset = ContentType.getCharset(contentType, StandardCharsets.UTF_8);
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset))) {
+          return readFromReader(format, reader, options);
+        }
+      }
+    });
   }
 
   /**
@@ -53,72 +114,388 @@ public class TDGraphReader {
    * @throws IOException if an I/O error occurs reading from the stream
    */
   public static ThingDescription readFromFile(TDFormat format, String path) throws IOException {
-    String content = new String(Files.readAllBytes(Paths.get(path)));
-    return readFromString(format, content);
+    return readFromPath(format, Paths.get(path));
+  }
+
+  /**
+   * Returns a ThingDescription object read from a file with the given read options.
+   *
+   * @param format the format of the thing description
+   * @param path the location of the file that contains the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the file
+   */
+  public static ThingDescription readFromFile(TDFormat format, String path, TDReadOptions options)
+      throws IOException {
+    return readFromPath(format, Paths.get(path), options);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded file. The file is streamed to the RDF
+   * parser without being loaded in memory first.
+   *
+   * @param format the format of the thing description
+   * @param path the location of the file that contains the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the file
+   */
+  public static ThingDescription readFromPath(TDFormat format, Path path) throws IOException {
+    return readFromPath(format, path, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded file with the given read options.
+   *
+   * @param format the format of the thing description
+   * @param path the location of the file that contains the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the file
+   */
+  public static ThingDescription readFromPath(TDFormat format, Path path, TDReadOptions options)
+      throws IOException {
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return readFromReader(format, reader, options);
+    }
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded stream. The stream is not closed.
+   *
+   * @param format the format of the thing description
+   * @param in the stream that contains the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the stream
+   */
+  public static ThingDescription readFromStream(TDFormat format, InputStream in) throws IOException {
+    return readFromStream(format, in, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded stream with the given read options.
+   * The stream is not closed.
+   *
+   * @param format the format of the thing description
+   * @param in the stream that contains the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the stream
+   */
+  public static ThingDescription readFromStream(TDFormat format, InputStream in, TDReadOptions options)
+      throws IOException {
+    return readFromReader(format, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+      options);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded channel. The channel is not closed.
+   *
+   * @param format the format of the thing description
+   * @param channel the channel that contains the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the channel
+   */
+  public static ThingDescription readFromChannel(TDFormat format, ReadableByteChannel channel)
+      throws IOException {
+    return readFromChannel(format, channel, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a UTF-8 encoded channel with the given read options.
+   * The channel is not closed.
+   *
+   * @param format the format of the thing description
+   * @param channel the channel that contains the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the channel
+   */
+  public static ThingDescription readFromChannel(TDFormat format, ReadableByteChannel channel,
+      TDReadOptions options) throws IOException {
+    return readFromReader(format, Channels.newReader(channel, StandardCharsets.UTF_8), options);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a character stream. The reader is not closed.
+   *
+   * @param format the format of the thing description
+   * @param reader the reader that contains the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the reader
+   */
+  public static ThingDescription readFromReader(TDFormat format, Reader reader) throws IOException {
+    return readFromReader(format, reader, DEFAULT_OPTIONS);
+  }
+
+  /**
+   * Returns a ThingDescription object read from a character stream with the given read options. The
+   * reader is not closed.
+   *
+   * @param format the format of the thing description
+   * @param reader the reader that contains the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   * @throws IOException if an I/O error occurs reading from the reader
+   */
+  public static ThingDescription readFromReader(TDFormat format, Reader reader, TDReadOptions options)
+      throws IOException {
+    try {
+      return read(format, reader, options);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
   }
 
   public static ThingDescription readFromString(TDFormat format, String representation) {
-    TDGraphReader reader;
+    return readFromString(format, representation, DEFAULT_OPTIONS);
+  }
 
-    if (format == TDFormat.RDF_TURTLE) {
-      reader = new TDGraphReader(RDFFormat.TURTLE, representation);
-    } else {
-      reader = new TDGraphReader(RDFFormat.JSONLD, representation);
+  /**
+   * Returns a ThingDescription object read from a string with the given read options.
+   *
+   * @param format the format of the thing description
+   * @param representation the representation of the thing description
+   * @param options the options used to read the thing description
+   * @return the thing description
+   */
+  public static ThingDescription readFromString(TDFormat format, String representation,
+      TDReadOptions options) {
+    return read(format, new StringReader(representation), options);
+  }
+
+  private static ThingDescription read(TDFormat format, Reader representation, TDReadOptions options) {
+    if (format == TDFormat.JSON) {
+      return TDJsonReader.read(representation, options);
     }
 
-    ThingDescription.Builder tdBuilder = new ThingDescription.Builder(reader.readThingTitle())
-      .addSemanticTypes(reader.readThingTypes())
-      .addSecuritySchemes(reader.readSecuritySchemes())
-      .addProperties(reader.readProperties())
-      .addActions(reader.readActions())
-      .addEvents(reader.readEvents())
-        .addGraph(reader.getGraph());
+    RDFFormat rdfFormat = (format == TDFormat.RDF_TURTLE) ? RDFFormat.TURTLE : RDFFormat.JSONLD;
+    boolean unrepresentedGraph = options.getGraphMode() == TDReadOptions.GraphMode.UNREPRESENTED;
+
+    TDGraphReader reader = new TDGraphReader(rdfFormat, representation, unrepresentedGraph);
+    reader.schemaReader = new SchemaGraphReader(reader.index, options.getSchemaInterner());
+    ThingDescription.Builder tdBuilder = reader.readThingDescription(options.isLazy()
+      && !unrepresentedGraph);
+
+    Optional<Model> graph;
+    switch (options.getGraphMode()) {
+      case UNREPRESENTED:
+        graph = Optional.of(reader.getUnreadGraph());
+        break;
+      case NONE:
+        graph = Optional.empty();
+        break;
+      default:
+        graph = Optional.of(reader.getGraph());
+    }
 
-    Optional<String> thingURI = reader.getThingURI();
-    if (thingURI.isPresent()) {
-      tdBuilder.addThingURI(thingURI.get());
+    if (graph.isPresent()) {
+      tdBuilder.addGraph(options.isCompactGraph() ? new CompactModel(graph.get()) : graph.get());
     }
 
-    Optional<String> base = reader.readBaseURI();
-    if (base.isPresent()) {
-      tdBuilder.addBaseURI(base.get());
+    ThingDescription td = tdBuilder.build();
+    if (unrepresentedGraph) {
+      // The reader already left out the represented statements
+      UNREPRESENTED_GRAPHS.put(td, td.getGraph().get());
     }
 
-    return tdBuilder.build();
+    return td;
   }
 
-  TDGraphReader(RDFFormat format, String representation) {
-    loadModel(format, representation, "");
+  /**
+   * Gets the statements of the RDF graph of a TD that are not represented by its object model (see
+   * {@link #removeRepresentedStatements(Model)}). The statements are computed on first use and cached
+   * per TD, such that the TD graph is read again at most once. TDs are immutable, so the cached
+   * statements never go stale.
+   *
+   * @param td the TD
+   * @return an <code>Optional</code> with an unmodifiable graph (empty if the TD has no graph)
+   */
+  static Optional<Model> getUnrepresentedGraph(ThingDescription td) {
+    Optional<Model> graph = td.getGraph();
+    if (!graph.isPresent()) {
+      return Optional.empty();
+    }
 
-    Optional<String> baseURI = readBaseURI();
-    if (baseURI.isPresent()) {
-      loadModel(format, representation, baseURI.get());
+    Model unrepresented = UNREPRESENTED_GRAPHS.get(td);
+    if (unrepresented == null) {
+      // Computed outside of the lock, concurrent first uses may compute the same graph twice
+      unrepresented = removeRepresentedStatements(graph.get()).unmodifiable();
+      Model previous = UNREPRESENTED_GRAPHS.putIfAbsent(td, unrepresented);
+      if (previous != null) {
+        unrepresented = previous;
+      }
     }
 
+    return Optional.of(unrepresented);
+  }
+
+  /**
+   * Removes from a graph the statements that are represented by the object model of the TD described
+   * in the graph, i.e. the statements that are read by <code>TDGraphReader</code>. If the graph does
+   * not contain a valid TD, it is returned as is.
+   * <p>
+   * This method reads the whole TD again. Writers should use
+   * {@link #getUnrepresentedGraph(ThingDescription)}, which caches the result per TD.
+   *
+   * @param graph the graph
+   * @return a graph with the statements that are not represented by the object model
+   */
+  static Model removeRepresentedStatements(Model graph) {
+    if (!graph.contains(null, TD.HAS_SECURITY_CONFIGURATION, null)) {
+      return graph;
+    }
+
+    try {
+      TDGraphReader reader = new TDGraphReader(graph, true);
+      reader.readThingDescription(false);
+      return reader.getUnreadGraph();
+    } catch (InvalidTDException e) {
+      return graph;
+    }
+  }
+
+  TDGraphReader(RDFFormat format, String representation) {
+    this(format, new StringReader(representation));
+  }
+
+  TDGraphReader(RDFFormat format, Reader representation) {
+    this(format, representation, false);
+  }
+
+  TDGraphReader(RDFFormat format, Reader representation, boolean trackReads) {
+    loadModel(format, representation);
+    this.index = new GraphIndex(model, trackReads);
+    this.schemaReader = new SchemaGraphReader(index);
+    this.thingId = readThingId();
+  }
+
+  private TDGraphReader(Model model, boolean trackReads) {
+    this.model = model;
+    this.index = new GraphIndex(model, trackReads);
+    this.schemaReader = new SchemaGraphReader(index);
+    this.thingId = readThingId();
+  }
+
+  private Resource readThingId() {
     try {
-      thingId = Models.subject(model.filter(null, rdf.createIRI(TD.hasSecurityConfiguration),
-          null)).get();
+      return index.subject(TD.HAS_SECURITY_CONFIGURATION).get();
     } catch (NoSuchElementException e) {
       throw new InvalidTDException("Missing mandatory security definitions.", e);
     }
   }
 
-  private void loadModel(RDFFormat format, String representation, String baseURI) {
+  private ThingDescription.Builder readThingDescription(boolean lazy) {
+    ThingDescription.Builder tdBuilder = new ThingDescription.Builder(readThingTitle())
+      .addSemanticTypes(readThingTypes())
+      .addSecuritySchemes(readSecuritySchemes())
+      .addProperties(readProperties(lazy))
+      .addActions(readActions(lazy))
+      .addEvents(readEvents(lazy));
+
+    Optional<String> thingURI = getThingURI();
+    if (thingURI.isPresent()) {
+      tdBuilder.addThingURI(thingURI.get());
+    }
+
+    Optional<String> base = readBaseURI();
+    if (base.isPresent()) {
+      tdBuilder.addBaseURI(base.get());
+    }
+
+    return tdBuilder;
+  }
+
+  /*
+   * I/O errors are rethrown as UncheckedIOException, to be told apart from syntax errors by the
+   * public read methods.
+   */
+  private void loadModel(RDFFormat format, Reader representation) {
     this.model = new LinkedHashModel();
 
     RDFParser parser = Rio.createParser(format);
     parser.setRDFHandler(new StatementCollector(model));
-    try (StringReader stringReader = conversion(representation, format)) {
-      parser.parse(stringReader, baseURI);
-    } catch (RDFParseException | RDFHandlerException | IOException e) {
+    try {
+      parser.parse(conversion(representation, format), UNRESOLVED_BASE_URI);
+    } catch (RDFParseException | RDFHandlerException e) {
       throw new InvalidTDException("RDF Syntax Error", e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
+
+    resolveRelativeIRIs(format);
+  }
+
+  /*
+   * The representation is parsed only once, with a placeholder base URI. Relative IRIs resolved
+   * against the placeholder are then resolved again against the td:hasBase of the TD, if any.
+   */
+  private void resolveRelativeIRIs(RDFFormat format) {
+    if (model.stream().noneMatch(this::hasUnresolvedIRI)) {
+      return;
+    }
+
+    Optional<String> baseURI = Models.objectIRI(model.filter(null, TD.HAS_BASE, null))
+      .map(IRI::stringValue)
+      .filter(iri -> !isUnresolvedIRI(iri));
+
+    Model resolvedModel = new LinkedHashModel(model.getNamespaces());
+
+    for (Statement statement : model) {
+      if (!hasUnresolvedIRI(statement)) {
+        resolvedModel.add(statement);
+      } else if (baseURI.isPresent()) {
+        ParsedIRI base = ParsedIRI.create(baseURI.get());
+
+        resolvedModel.add(rdf.createStatement(
+          (Resource) resolveIRI(base, statement.getSubject()),
+          (IRI) resolveIRI(base, statement.getPredicate()),
+          resolveIRI(base, statement.getObject()),
+          (Resource) resolveIRI(base, statement.getContext())));
+      } else if (format.equals(RDFFormat.TURTLE)) {
+        throw new InvalidTDException("RDF Syntax Error", new RDFParseException("Relative IRI "
+          + "cannot be resolved without a base URI: " + statement));
+      }
+      // Otherwise, the statement is dropped (as done by the JSON-LD parser for relative IRIs)
+    }
+
+    this.model = resolvedModel;
+  }
+
+  private boolean hasUnresolvedIRI(Statement statement) {
+    return isUnresolvedIRI(statement.getSubject()) || isUnresolvedIRI(statement.getPredicate())
+      || isUnresolvedIRI(statement.getObject()) || isUnresolvedIRI(statement.getContext());
+  }
+
+  private boolean isUnresolvedIRI(Value value) {
+    return value instanceof IRI && isUnresolvedIRI(value.stringValue());
+  }
+
+  private boolean isUnresolvedIRI(String iri) {
+    return iri.startsWith(UNRESOLVED_BASE_AUTHORITY);
+  }
+
+  private Value resolveIRI(ParsedIRI base, Value value) {
+    if (!isUnresolvedIRI(value)) {
+      return value;
+    }
+
+    ParsedIRI relativeIRI = ParsedIRI.create(UNRESOLVED_BASE_URI)
+      .relativize(ParsedIRI.create(value.stringValue()));
+    return rdf.createIRI(base.resolve(relativeIRI).toString());
   }
 
   Model getGraph() {
     return model;
   }
 
+  /*
+   * Only available if reads are tracked, and once the TD was read eagerly.
+   */
+  Model getUnreadGraph() {
+    return index.unreadStatements(model);
+  }
+
   Optional<String> getThingURI() {
     if (thingId instanceof IRI) {
       return Optional.of(thingId.stringValue());
@@ -131,7 +508,7 @@ public class TDGraphReader {
   	Literal thingTitle;
 
     try {
-      thingTitle = Models.objectLiteral(model.filter(thingId, rdf.createIRI(TD.title), null)).get();
+      thingTitle = index.objectLiteral(thingId, TD.TITLE).get();
     } catch (NoSuchElementException e) {
       throw new InvalidTDException("Missing mandatory title.", e);
     }
@@ -140,7 +517,7 @@ public class TDGraphReader {
   }
 
   Set<String> readThingTypes() {
-    Set<IRI> thingTypes = Models.objectIRIs(model.filter(thingId, RDF.TYPE, null));
+    Set<IRI> thingTypes = index.objectIRIs(thingId, RDF.TYPE);
 
     return thingTypes.stream()
       .map(iri -> iri.stringValue())
@@ -148,7 +525,7 @@ public class TDGraphReader {
   }
 
   final Optional<String> readBaseURI() {
-    Optional<IRI> baseURI = Models.objectIRI(model.filter(thingId, rdf.createIRI(TD.hasBase), null));
+    Optional<IRI> baseURI = index.objectIRI(thingId, TD.HAS_BASE);
 
     if (baseURI.isPresent()) {
       return Optional.of(baseURI.get().stringValue());
@@ -158,18 +535,17 @@ public class TDGraphReader {
   }
 
   Map<String, SecurityScheme> readSecuritySchemes() {
-    Set<Resource> schemeIds = Models.objectResources(model.filter(thingId,
-      rdf.createIRI(TD.hasSecurityConfiguration), null));
+    Set<Resource> schemeIds = index.objectResources(thingId, TD.HAS_SECURITY_CONFIGURATION);
 
     if (schemeIds.isEmpty()) {
       throw new InvalidTDException("Missing mandatory security configuration.");
     }
 
-    Map<String, SecurityScheme> schemes = new HashMap<String, SecurityScheme>();
+    Map<String, SecurityScheme> schemes = new LinkedHashMap<String, SecurityScheme>();
 
     for (Resource schemeId : schemeIds) {
       SecurityScheme scheme;
-      Set<IRI> schemeTypeIRIs = Models.objectIRIs(model.filter(schemeId, RDF.TYPE, null));
+      Set<IRI> schemeTypeIRIs = index.objectIRIs(schemeId, RDF.TYPE);
 
       Set<String> semanticTypes = schemeTypeIRIs.stream()
         .map(iri -> iri.stringValue())
@@ -194,7 +570,7 @@ public class TDGraphReader {
           throw new InvalidTDException("Unknown type of security scheme");
         }
 
-        String securityName = getUniqueSecurityName(scheme.getSchemeName());
+        String securityName = getUniqueSecurityName(schemeId, scheme, schemes.keySet());
         schemes.put(securityName, scheme);
       } catch (Exception e) {
         throw new InvalidTDException("Invalid security scheme configuration", e);
@@ -206,12 +582,12 @@ public class TDGraphReader {
 
   private SecurityScheme readTokenBasedSecurityScheme(TokenBasedSecurityScheme.Builder<?, ?> schemeBuilder, Resource schemeId,
                                               Set<String> semanticTypes) {
-    Optional<Literal> in = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.in), null));
+    Optional<Literal> in = index.objectLiteral(schemeId, WoTSec.IN);
     if (in.isPresent()) {
       schemeBuilder.addTokenLocation(TokenLocation.fromString(in.get().stringValue()));
     }
 
-    Optional<Literal> name = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.name), null));
+    Optional<Literal> name = index.objectLiteral(schemeId, WoTSec.NAME);
     if (name.isPresent()) {
       schemeBuilder.addTokenName(name.get().stringValue());
     }
@@ -233,7 +609,7 @@ public class TDGraphReader {
   private SecurityScheme readDigestSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     DigestSecurityScheme.Builder schemeBuilder = new DigestSecurityScheme.Builder();
 
-    Optional<Literal> qop = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.qop), null));
+    Optional<Literal> qop = index.objectLiteral(schemeId, WoTSec.QOP);
     if (qop.isPresent()) {
       schemeBuilder.addQoP(QualityOfProtection.fromString(qop.get().stringValue()));
     }
@@ -244,18 +620,17 @@ public class TDGraphReader {
   private SecurityScheme readBearerSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     BearerSecurityScheme.Builder schemeBuilder = new BearerSecurityScheme.Builder();
 
-    Optional<Literal> alg = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.alg), null));
+    Optional<Literal> alg = index.objectLiteral(schemeId, WoTSec.ALG);
     if (alg.isPresent()) {
       schemeBuilder.addAlg(alg.get().stringValue());
     }
 
-    Optional<IRI> authorization = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.authorization),
-      null));
+    Optional<IRI> authorization = index.objectIRI(schemeId, WoTSec.AUTHORIZATION);
     if (authorization.isPresent()) {
       schemeBuilder.addAuthorization(authorization.get().stringValue());
     }
 
-    Optional<Literal> format = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.format), null));
+    Optional<Literal> format = index.objectLiteral(schemeId, WoTSec.FORMAT);
     if (format.isPresent()) {
       schemeBuilder.addFormat(format.get().stringValue());
     }
@@ -266,8 +641,7 @@ public class TDGraphReader {
   private SecurityScheme readPSKSecurityScheme(Resource schemeId, Set<String> semanticTypes) {
     PSKSecurityScheme.Builder schemeBuilder = new PSKSecurityScheme.Builder();
 
-    Optional<Literal> identity = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.identity),
-      null));
+    Optional<Literal> identity = index.objectLiteral(schemeId, WoTSec.IDENTITY);
     if (identity.isPresent()) {
       schemeBuilder.addIdentity(identity.get().stringValue());
     }
@@ -278,29 +652,27 @@ public class TDGraphReader {
 
   private SecurityScheme readOAuth2SecurityScheme(Resource schemeId, Set<String> semanticTypes) {
 
-    Optional<Literal> flow = Models.objectLiteral(model.filter(schemeId, rdf.createIRI(WoTSec.flow),
-      null));
+    Optional<Literal> flow = index.objectLiteral(schemeId, WoTSec.FLOW);
 
     if (flow.isPresent()) {
       OAuth2SecurityScheme.Builder schemeBuilder = new OAuth2SecurityScheme.Builder(flow.get().stringValue());
 
-      Optional<IRI> authorization = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.authorization), null));
+      Optional<IRI> authorization = index.objectIRI(schemeId, WoTSec.AUTHORIZATION);
       if (authorization.isPresent()) {
         schemeBuilder.addAuthorization(authorization.get().stringValue());
       }
 
-      Optional<IRI> token = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.token), null));
+      Optional<IRI> token = index.objectIRI(schemeId, WoTSec.TOKEN);
       if (token.isPresent()) {
         schemeBuilder.addToken(token.get().stringValue());
       }
 
-      Optional<IRI> refresh = Models.objectIRI(model.filter(schemeId, rdf.createIRI(WoTSec.refresh), null));
+      Optional<IRI> refresh = index.objectIRI(schemeId, WoTSec.REFRESH);
       if (refresh.isPresent()) {
         schemeBuilder.addRefresh(refresh.get().stringValue());
       }
 
-      Set<String> scopes = Models.objectLiterals(model.filter(schemeId, rdf.createIRI(WoTSec.scopes),
-          null))
+      Set<String> scopes = index.objectLiterals(schemeId, WoTSec.SCOPES)
         .stream()
         .map(scope -> scope.stringValue())
         .collect(Collectors.toSet());
@@ -318,64 +690,50 @@ public class TDGraphReader {
 
 
   List<PropertyAffordance> readProperties() {
-    List<PropertyAffordance> properties = new ArrayList<>();
-
-    Set<Resource> propertyIds = Models.objectResources(model.filter(thingId,
-        rdf.createIRI(TD.hasPropertyAffordance), null));
+    return readProperties(false);
+  }
 
-    for (Resource propertyId : propertyIds) {
-      try {
-        List<Form> forms = readForms(propertyId, InteractionAffordance.PROPERTY);
-        String name = readAffordanceName(propertyId);
-        PropertyAffordance.Builder builder = new PropertyAffordance.Builder(name, forms);
+  List<PropertyAffordance> readProperties(boolean lazy) {
+    Set<Resource> propertyIds = index.objectResources(thingId, TD.HAS_PROPERTY_AFFORDANCE);
+    return readAffordances(propertyIds, this::readProperty, "Invalid property definition.", lazy);
+  }
 
-        Optional<DataSchema> schema = SchemaGraphReader.readDataSchema(propertyId, model);
+  private PropertyAffordance readProperty(Resource propertyId) {
+    List<Form> forms = readForms(propertyId, InteractionAffordance.PROPERTY);
+    String name = readAffordanceName(propertyId);
+    PropertyAffordance.Builder builder = new PropertyAffordance.Builder(name, forms);
 
-        if (schema.isPresent()) {
-          builder.addDataSchema(schema.get());
-        }
-        else {
-          builder.addDataSchema(new DataSchema.Builder().build());
-        }
+    Optional<DataSchema> schema = readDataSchema(propertyId);
 
-        readAffordanceMetadata(builder, propertyId);
-        readUriVariables(builder, propertyId);
+    if (schema.isPresent()) {
+      builder.addDataSchema(schema.get());
+    }
+    else {
+      builder.addDataSchema(new DataSchema.Builder().build());
+    }
 
-        Optional<Literal> observable = Models.objectLiteral(model.filter(propertyId,
-          rdf.createIRI(TD.isObservable), null));
-        if (observable.isPresent() && observable.get().booleanValue()) {
-          builder.addObserve();
-        }
+    readAffordanceMetadata(builder, propertyId);
+    readUriVariables(builder, propertyId);
 
-        properties.add(builder.build());
-      } catch (InvalidTDException e) {
-        throw new InvalidTDException("Invalid property definition.", e);
-      }
+    Optional<Literal> observable = index.objectLiteral(propertyId, TD.IS_OBSERVABLE);
+    if (observable.isPresent() && observable.get().booleanValue()) {
+      builder.addObserve();
     }
 
-    return properties;
+    return builder.build();
   }
 
-  List<ActionAffordance> readActions() {
-    List<ActionAffordance> actions = new ArrayList<>();
-
-    Set<Resource> affordanceIds = Models.objectResources(model.filter(thingId,
-        rdf.createIRI(TD.hasActionAffordance), null));
-
-    for (Resource affordanceId : affordanceIds) {
-      if (!model.contains(affordanceId, RDF.TYPE, rdf.createIRI(TD.ActionAffordance))) {
-        continue;
-      }
+  private Optional<DataSchema> readDataSchema(Resource schemaId) {
+    return schemaReader.readDataSchema(schemaId);
+  }
 
-      try {
-        ActionAffordance action = readAction(affordanceId);
-        actions.add(action);
-      } catch (InvalidTDException e) {
-        throw new InvalidTDException("Invalid action definition.", e);
-      }
-    }
+  List<ActionAffordance> readActions() {
+    return readActions(false);
+  }
 
-    return actions;
+  List<ActionAffordance> readActions(boolean lazy) {
+    List<Resource> affordanceIds = readAffordanceIds(TD.HAS_ACTION_AFFORDANCE, TD.ACTION_AFFORDANCE);
+    return readAffordances(affordanceIds, this::readAction, "Invalid action definition.", lazy);
   }
 
   private ActionAffordance readAction(Resource affordanceId) {
@@ -387,12 +745,11 @@ public class TDGraphReader {
     readUriVariables(actionBuilder, affordanceId);
 
     try {
-      Optional<Resource> inputSchemaId = Models.objectResource(model.filter(affordanceId,
-          rdf.createIRI(TD.hasInputSchema), null));
+      Optional<Resource> inputSchemaId = index.objectResource(affordanceId, TD.HAS_INPUT_SCHEMA);
 
       if (inputSchemaId.isPresent()) {
         try {
-          Optional<DataSchema> input = SchemaGraphReader.readDataSchema(inputSchemaId.get(), model);
+          Optional<DataSchema> input = readDataSchema(inputSchemaId.get());
           if (input.isPresent()) {
             actionBuilder.addInputSchema(input.get());
           }
@@ -401,11 +758,10 @@ public class TDGraphReader {
         }
       }
 
-      Optional<Resource> outSchemaId = Models.objectResource(model.filter(affordanceId,
-          rdf.createIRI(TD.hasOutputSchema), null));
+      Optional<Resource> outSchemaId = index.objectResource(affordanceId, TD.HAS_OUTPUT_SCHEMA);
 
       if (outSchemaId.isPresent()) {
-        Optional<DataSchema> output = SchemaGraphReader.readDataSchema(outSchemaId.get(), model);
+        Optional<DataSchema> output = readDataSchema(outSchemaId.get());
         if (output.isPresent()) {
           actionBuilder.addOutputSchema(output.get());
         }
@@ -418,25 +774,12 @@ public class TDGraphReader {
   }
 
   List<EventAffordance> readEvents() {
-    List<EventAffordance> events = new ArrayList<>();
-
-    Set<Resource> affordanceIds = Models.objectResources(model.filter(thingId,
-      rdf.createIRI(TD.hasEventAffordance), null));
-
-    for (Resource affordanceId : affordanceIds) {
-      if (!model.contains(affordanceId, RDF.TYPE, rdf.createIRI(TD.EventAffordance))) {
-        continue;
-      }
-
-      try {
-        EventAffordance event = readEvent(affordanceId);
-        events.add(event);
-      } catch (InvalidTDException e) {
-        throw new InvalidTDException("Invalid event definition.", e);
-      }
-    }
+    return readEvents(false);
+  }
 
-    return events;
+  List<EventAffordance> readEvents(boolean lazy) {
+    List<Resource> affordanceIds = readAffordanceIds(TD.HAS_EVENT_AFFORDANCE, TD.EVENT_AFFORDANCE);
+    return readAffordances(affordanceIds, this::readEvent, "Invalid event definition.", lazy);
   }
 
   private EventAffordance readEvent(Resource affordanceId) {
@@ -448,31 +791,28 @@ public class TDGraphReader {
     readUriVariables(eventBuilder, affordanceId);
 
     try {
-      Optional<Resource> subscriptionSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasSubscriptionSchema), null));
+      Optional<Resource> subscriptionSchemaId = index.objectResource(affordanceId, TD.HAS_SUBSCRIPTION_SCHEMA);
 
       if (subscriptionSchemaId.isPresent()) {
-        Optional<DataSchema> subscription = SchemaGraphReader.readDataSchema(subscriptionSchemaId.get(), model);
+        Optional<DataSchema> subscription = readDataSchema(subscriptionSchemaId.get());
         if (subscription.isPresent()) {
           eventBuilder.addSubscriptionSchema(subscription.get());
         }
       }
 
-      Optional<Resource> notificationSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasNotificationSchema), null));
+      Optional<Resource> notificationSchemaId = index.objectResource(affordanceId, TD.HAS_NOTIFICATION_SCHEMA);
 
       if (notificationSchemaId.isPresent()) {
-        Optional<DataSchema> notification = SchemaGraphReader.readDataSchema(notificationSchemaId.get(), model);
+        Optional<DataSchema> notification = readDataSchema(notificationSchemaId.get());
         if (notification.isPresent()) {
           eventBuilder.addNotificationSchema(notification.get());
         }
       }
 
-      Optional<Resource> cancellationSchemaId = Models.objectResource(model.filter(affordanceId,
-        rdf.createIRI(TD.hasCancellationSchema), null));
+      Optional<Resource> cancellationSchemaId = index.objectResource(affordanceId, TD.HAS_CANCELLATION_SCHEMA);
 
       if (cancellationSchemaId.isPresent()) {
-        Optional<DataSchema> cancellation = SchemaGraphReader.readDataSchema(cancellationSchemaId.get(), model);
+        Optional<DataSchema> cancellation = readDataSchema(cancellationSchemaId.get());
         if (cancellation.isPresent()) {
           eventBuilder.addCancellationSchema(cancellation.get());
         }
@@ -485,12 +825,59 @@ public class TDGraphReader {
     return eventBuilder.build();
   }
 
+  private List<Resource> readAffordanceIds(IRI affordancePredicate, IRI affordanceType) {
+    return index.objectResources(thingId, affordancePredicate).stream()
+      .filter(affordanceId -> index.contains(affordanceId, RDF.TYPE, affordanceType))
+      .collect(Collectors.toList());
+  }
+
+  /*
+   * In lazy mode, only the names of the affordances are read upfront. Each affordance is then read
+   * from the graph index on first access, which is safe for concurrent use as the index is no longer
+   * modified once the TD is loaded.
+   */
+  private <T extends InteractionAffordance> List<T> readAffordances(Collection<Resource> affordanceIds,
+      Function<Resource, T> affordanceReader, String errorMessage, boolean lazy) {
+    if (lazy) {
+      List<String> names = new ArrayList<>(affordanceIds.size());
+      List<Supplier<T>> loaders = new ArrayList<>(affordanceIds.size());
+
+      for (Resource affordanceId : affordanceIds) {
+        try {
+          names.add(readAffordanceName(affordanceId));
+        } catch (InvalidTDException e) {
+          throw new InvalidTDException(errorMessage, e);
+        }
+
+        loaders.add(() -> readAffordance(affordanceId, affordanceReader, errorMessage));
+      }
+
+      return new LazyAffordanceList<>(names, loaders);
+    }
+
+    List<T> affordances = new ArrayList<>(affordanceIds.size());
+
+    for (Resource affordanceId : affordanceIds) {
+      affordances.add(readAffordance(affordanceId, affordanceReader, errorMessage));
+    }
+
+    return affordances;
+  }
+
+  private <T extends InteractionAffordance> T readAffordance(Resource affordanceId,
+      Function<Resource, T> affordanceReader, String errorMessage) {
+    try {
+      return affordanceReader.apply(affordanceId);
+    } catch (InvalidTDException e) {
+      throw new InvalidTDException(errorMessage, e);
+    }
+  }
+
   private String readAffordanceName(Resource affordanceId) {
     Literal affordanceName;
 
     try {
-      affordanceName = Models.objectLiteral(model.filter(affordanceId, rdf.createIRI(TD.name),
-        null)).get();
+      affordanceName = index.objectLiteral(affordanceId, TD.NAME).get();
     } catch (NoSuchElementException e) {
       throw new InvalidTDException("Missing mandatory affordance name.", e);
     }
@@ -501,13 +888,12 @@ public class TDGraphReader {
   private void readAffordanceMetadata(InteractionAffordance
                                         .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource affordanceId) {
     /* Read semantic types */
-    Set<IRI> types = Models.objectIRIs(model.filter(affordanceId, RDF.TYPE, null));
+    Set<IRI> types = index.objectIRIs(affordanceId, RDF.TYPE);
     builder.addSemanticTypes(types.stream().map(type -> type.stringValue())
       .collect(Collectors.toList()));
 
     /* Read title */
-    Optional<Literal> title = Models.objectLiteral(model.filter(affordanceId,
-      rdf.createIRI(TD.title), null));
+    Optional<Literal> title = index.objectLiteral(affordanceId, TD.TITLE);
 
     if (title.isPresent()) {
       builder.addTitle(title.get().stringValue());
@@ -517,12 +903,10 @@ public class TDGraphReader {
   private List<Form> readForms(Resource affordanceId, String affordanceType) {
     List<Form> forms = new ArrayList<>();
 
-    Set<Resource> formIdSet = Models.objectResources(model.filter(affordanceId,
-        rdf.createIRI(TD.hasForm), null));
+    Set<Resource> formIdSet = index.objectResources(affordanceId, TD.HAS_FORM);
 
     for (Resource formId : formIdSet) {
-      Optional<IRI> targetOpt = Models.objectIRI(model.filter(formId, rdf.createIRI(HCTL.hasTarget),
-          null));
+      Optional<IRI> targetOpt = index.objectIRI(formId, HCTL.HAS_TARGET);
 
       if (!targetOpt.isPresent()) {
         continue;
@@ -530,23 +914,18 @@ public class TDGraphReader {
 
       Optional<Literal> methodNameOpt = Optional.empty();
       if (Arrays.stream(HTTP_URI_SCHEMES).anyMatch(targetOpt.toString()::contains)) {
-        methodNameOpt = Models.objectLiteral(model.filter(formId,
-          rdf.createIRI(HTV.methodName), null));
+        methodNameOpt = index.objectLiteral(formId, HTV.METHOD_NAME);
       } else if (Arrays.stream(COAP_URI_SCHEMES).anyMatch(targetOpt.toString()::contains)) {
-        methodNameOpt = Models.objectLiteral(model.filter(formId,
-          rdf.createIRI(COV.methodName), null));
+        methodNameOpt = index.objectLiteral(formId, COV.METHOD_NAME);
       }
 
-      Optional<Literal> contentTypeOpt = Models.objectLiteral(model.filter(formId,
-        rdf.createIRI(HCTL.forContentType), null));
+      Optional<Literal> contentTypeOpt = index.objectLiteral(formId, HCTL.FOR_CONTENT_TYPE);
       String contentType = contentTypeOpt.isPresent() ? contentTypeOpt.get().stringValue()
         : "application/json";
 
-      Optional<String> subprotocolOpt = Models.objectString(model.filter(formId,
-        rdf.createIRI(HCTL.forSubProtocol), null));
+      Optional<String> subprotocolOpt = index.objectString(formId, HCTL.FOR_SUB_PROTOCOL);
 
-      Set<IRI> opsIRIs = Models.objectIRIs(model.filter(formId, rdf.createIRI(HCTL.hasOperationType),
-        null));
+      Set<IRI> opsIRIs = index.objectIRIs(formId, HCTL.HAS_OPERATION_TYPE);
 
       Set<String> ops = opsIRIs.stream().map(op -> op.stringValue()).collect(Collectors.toSet());
       String target = targetOpt.get().stringValue();
@@ -575,7 +954,7 @@ public class TDGraphReader {
 
   private void readUriVariables(InteractionAffordance
                                   .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource affordanceId){
-    Set<Resource> uriVariableIds = Models.objectResources(model.filter(affordanceId, rdf.createIRI(TD.hasUriTemplateSchema), null));
+    Set<Resource> uriVariableIds = index.objectResources(affordanceId, TD.HAS_URI_TEMPLATE_SCHEMA);
     for (Resource uriVariableId : uriVariableIds){
       readUriVariable(builder, uriVariableId);
     }
@@ -583,8 +962,8 @@ public class TDGraphReader {
 
   private void readUriVariable(InteractionAffordance
                                   .Builder<?, ? extends InteractionAffordance.Builder<?, ?>> builder, Resource uriVariableId) {
-      Optional<DataSchema> opDataSchema = SchemaGraphReader.readDataSchema(uriVariableId, model);
-      Optional<Literal> opNameLiteral = Models.objectLiteral(model.filter(uriVariableId, rdf.createIRI(TD.name), null));
+      Optional<DataSchema> opDataSchema = readDataSchema(uriVariableId);
+      Optional<Literal> opNameLiteral = index.objectLiteral(uriVariableId, TD.NAME);
       if (opDataSchema.isPresent() && opNameLiteral.isPresent()){
         String name = opNameLiteral.get().stringValue();
         DataSchema schema = opDataSchema.get();
@@ -592,29 +971,64 @@ public class TDGraphReader {
       }
   }
 
-  private StringReader conversion(String str, RDFFormat format){
-    String newStr = "";
+  private Reader conversion(Reader reader, RDFFormat format) {
     if (format.equals(RDFFormat.TURTLE)) {
-      for (int i = 0; i < str.length(); i++) {
-        char c = str.charAt(i);
-        if (c == '{') {
-          newStr = newStr + "%7B";
-        } else if (c == '}') {
-          newStr = newStr + "%7D";
-        } else {
-          newStr = newStr + c;
-        }
-      }
+      return new BraceEscapingReader(reader);
+    }
+    return reader;
+  }
+
+  /*
+   * Security definition names are not part of the RDF graph. Schemes identified by an IRI are named
+   * after the local name of the IRI, and other schemes after a hash of their configuration, such that
+   * reading the same TD always yields the same names.
+   */
+  private String getUniqueSecurityName(Resource schemeId, SecurityScheme scheme, Set<String> names) {
+    String name;
+    if (schemeId.isIRI() && !((IRI) schemeId).getLocalName().isEmpty()) {
+      name = ((IRI) schemeId).getLocalName();
     } else {
-      newStr = str;
+      name = scheme.getSchemeName() + "_" + hashSecurityScheme(scheme);
     }
-    return new StringReader(newStr);
+
+    String uniqueName = name;
+    for (int i = 2; names.contains(uniqueName); i++) {
+      uniqueName = name + "_" + i;
+    }
+
+    return uniqueName;
   }
 
-  private String getUniqueSecurityName(String securitySchemeName) {
-    Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-    Date date = new Date();
-    return securitySchemeName + "_" + timestamp.getTime();
+  private static String hashSecurityScheme(SecurityScheme scheme) {
+    List<String> entries = new ArrayList<>();
+    scheme.getSemanticTypes().forEach(type -> entries.add(RDF.TYPE + "=" + type));
+
+    for (Map.Entry<String, Object> entry : scheme.getConfiguration().entrySet()) {
+      if (entry.getValue() instanceof Collection) {
+        ((Collection<?>) entry.getValue()).forEach(value -> entries.add(entry.getKey() + "=" + value));
+      } else {
+        entries.add(entry.getKey() + "=" + entry.getValue());
+      }
+    }
+
+    Collections.sort(entries);
+
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (String entry : entries) {
+        digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+
+      byte[] hash = digest.digest();
+      StringBuilder hex = new StringBuilder();
+      for (int i = 0; i < 4; i++) {
+        hex.append(String.format("%02x", hash[i]));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
 }
@@ -6,16 +6,25 @@ import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
 import ch.unisg.ics.interactions.wot.td.vocabularies.*;
 import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
-import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.*;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.*;
 
 /**
  * A writer for serializing TDs as RDF graphs. Provides a fluent API for adding prefix bindings to be
  * used in the serialization.
+ * <p>
+ * TDs can be written to a string, or directly to an <code>OutputStream</code> or a
+ * <code>Writer</code>. When writing to a stream, the statements are passed to the RDF writer as the
+ * TD is traversed, such that the TD graph is not held in memory (for serialization formats that can
+ * be written incrementally, e.g. Turtle or N-Triples).
  */
 public class TDGraphWriter {
   private static final String[] HTTP_URI_SCHEMES = new String[]{"http:", "https:"};
@@ -23,15 +32,17 @@ public class TDGraphWriter {
 
   private final Resource thingId;
   private final ThingDescription td;
-  private final ModelBuilder graphBuilder;
+  private final Map<String, String> namespaces;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
 
+  private StatementEmitter graph;
+
   public TDGraphWriter(ThingDescription td) {
     this.thingId = td.getThingURI().isPresent() ? rdf.createIRI(td.getThingURI().get())
       : rdf.createBNode();
 
     this.td = td;
-    this.graphBuilder = new ModelBuilder();
+    this.namespaces = new LinkedHashMap<>();
   }
 
   public static String write(ThingDescription td) {
@@ -50,11 +61,64 @@ public class TDGraphWriter {
    * @return this <code>TDGraphWriter</code>
    */
   public TDGraphWriter setNamespace(String prefix, String namespace) {
-    this.graphBuilder.setNamespace(prefix, namespace);
+    this.namespaces.put(prefix, namespace);
     return this;
   }
 
   public String write(RDFFormat format) {
+    Model model = new LinkedHashModel();
+    write(new StatementCollector(model));
+
+    getNamespaces().forEach(model::setNamespace);
+    return ReadWriteUtils.writeToString(format, model);
+  }
+
+  /**
+   * Writes the TD to an output stream. The stream is not closed.
+   *
+   * @param out    the output stream
+   * @param format the serialization format
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(OutputStream out, RDFFormat format) throws IOException {
+    writeTo(Rio.createWriter(format, out));
+  }
+
+  /**
+   * Writes the TD to a character stream. The stream is not closed.
+   *
+   * @param writer the character stream
+   * @param format the serialization format
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(Writer writer, RDFFormat format) throws IOException {
+    writeTo(Rio.createWriter(format, writer));
+  }
+
+  private void writeTo(RDFWriter writer) throws IOException {
+    try {
+      writer.startRDF();
+      getNamespaces().forEach(writer::handleNamespace);
+      write(writer);
+      writer.endRDF();
+    } catch (RDFHandlerException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Passes the statements of the TD graph to an RDF handler as the TD is traversed, e.g. to add them
+   * to a store. The RDF document is not started or ended and no namespaces are reported, such that
+   * the statements of many TDs can be passed to the same handler.
+   *
+   * @param handler the RDF handler
+   */
+  public void write(RDFHandler handler) {
+    this.graph = new StatementEmitter(handler);
+
     this.addTypes()
         .addTitle()
         .addSecurity()
@@ -63,31 +127,39 @@ public class TDGraphWriter {
         .addActions()
         .addEvents()
         .addGraph();
-    return ReadWriteUtils.writeToString(format, getModel());
   }
 
-  private Model getModel() {
-    return graphBuilder.build();
+  /*
+   * The namespaces of the TD graph are used for prefixes that were not set explicitly.
+   */
+  private Map<String, String> getNamespaces() {
+    Map<String, String> allNamespaces = new LinkedHashMap<>(namespaces);
+
+    if (td.getGraph().isPresent()) {
+      td.getGraph().get().getNamespaces()
+        .forEach(ns -> allNamespaces.putIfAbsent(ns.getPrefix(), ns.getName()));
+    }
+
+    return allNamespaces;
   }
 
   private TDGraphWriter addSecurity() {
     Map<String, SecurityScheme> securitySchemes = td.getSecurityDefinitions();
 
-    List<IRI> confTypesForIris = new ArrayList<>(Arrays.asList(rdf.createIRI(WoTSec.authorization),
-      rdf.createIRI(WoTSec.token), rdf.createIRI(WoTSec.refresh)));
+    List<IRI> confTypesForIris = Arrays.asList(WoTSec.AUTHORIZATION, WoTSec.TOKEN, WoTSec.REFRESH);
 
     for (SecurityScheme scheme : securitySchemes.values()) {
       BNode schemeId = rdf.createBNode();
-      graphBuilder.add(thingId, rdf.createIRI(TD.hasSecurityConfiguration), schemeId);
+      graph.add(thingId, TD.HAS_SECURITY_CONFIGURATION, schemeId);
 
       Map<String, Object> configuration = scheme.getConfiguration();
 
       for (String semanticType : scheme.getSemanticTypes()) {
-        graphBuilder.add(schemeId, RDF.TYPE, rdf.createIRI(semanticType));
+        graph.add(schemeId, RDF.TYPE, VocabularyIRIs.toIRI(semanticType));
       }
 
       for (Map.Entry<String, Object> configurationEntry : configuration.entrySet()) {
-        IRI confTypeIri = rdf.createIRI(configurationEntry.getKey());
+        IRI confTypeIri = VocabularyIRIs.toIRI(configurationEntry.getKey());
         Object confValue = configurationEntry.getValue();
         List<Object> confValues = new ArrayList<>();
         if (confValue instanceof Set) {
@@ -98,13 +170,13 @@ public class TDGraphWriter {
         for (Object objConfValue : confValues) {
           if (confTypesForIris.contains(confTypeIri)) {
             try {
-              graphBuilder.add(schemeId, confTypeIri, rdf.createIRI((String) objConfValue));
+              graph.add(schemeId, confTypeIri, rdf.createIRI((String) objConfValue));
             } catch (IllegalArgumentException e) {
               throw new InvalidTDException("Invalid security scheme configuration. " + confTypeIri + " value should" +
                 " be a valid IRI.", e);
             }
           } else {
-            graphBuilder.add(schemeId, confTypeIri, objConfValue);
+            graph.add(schemeId, confTypeIri, objConfValue);
           }
         }
       }
@@ -114,23 +186,23 @@ public class TDGraphWriter {
   }
 
   private TDGraphWriter addTypes() {
-    graphBuilder.add(thingId, RDF.TYPE, rdf.createIRI(TD.Thing));
+    graph.add(thingId, RDF.TYPE, TD.THING);
 
     for (String type : td.getSemanticTypes()) {
-      graphBuilder.add(thingId, RDF.TYPE, rdf.createIRI(type));
+      graph.add(thingId, RDF.TYPE, VocabularyIRIs.toIRI(type));
     }
 
     return this;
   }
 
   private TDGraphWriter addTitle() {
-    graphBuilder.add(thingId, rdf.createIRI(TD.title), td.getTitle());
+    graph.add(thingId, TD.TITLE, td.getTitle());
     return this;
   }
 
   private TDGraphWriter addBaseURI() {
     if (td.getBaseURI().isPresent()) {
-      graphBuilder.add(thingId, rdf.createIRI(TD.hasBase),
+      graph.add(thingId, TD.HAS_BASE,
         rdf.createIRI(td.getBaseURI().get()));
     }
 
@@ -139,10 +211,10 @@ public class TDGraphWriter {
 
   private TDGraphWriter addProperties() {
     for (PropertyAffordance property : td.getProperties()) {
-      Resource propertyId = addAffordance(property, TD.hasPropertyAffordance, TD.PropertyAffordance);
-      graphBuilder.add(propertyId, rdf.createIRI(TD.isObservable), property.isObservable());
+      Resource propertyId = addAffordance(property, TD.HAS_PROPERTY_AFFORDANCE, TD.PROPERTY_AFFORDANCE);
+      graph.add(propertyId, TD.IS_OBSERVABLE, property.isObservable());
 
-      SchemaGraphWriter.write(graphBuilder, propertyId, property.getDataSchema());
+      SchemaGraphWriter.write(graph, propertyId, property.getDataSchema());
     }
 
     return this;
@@ -150,24 +222,24 @@ public class TDGraphWriter {
 
   private TDGraphWriter addActions() {
     for (ActionAffordance action : td.getActions()) {
-      Resource actionId = addAffordance(action, TD.hasActionAffordance, TD.ActionAffordance);
+      Resource actionId = addAffordance(action, TD.HAS_ACTION_AFFORDANCE, TD.ACTION_AFFORDANCE);
 
       if (action.getInputSchema().isPresent()) {
         DataSchema schema = action.getInputSchema().get();
 
         Resource inputId = rdf.createBNode();
-        graphBuilder.add(actionId, rdf.createIRI(TD.hasInputSchema), inputId);
+        graph.add(actionId, TD.HAS_INPUT_SCHEMA, inputId);
 
-        SchemaGraphWriter.write(graphBuilder, inputId, schema);
+        SchemaGraphWriter.write(graph, inputId, schema);
       }
 
       if (action.getOutputSchema().isPresent()) {
         DataSchema schema = action.getOutputSchema().get();
 
         Resource outputId = rdf.createBNode();
-        graphBuilder.add(actionId, rdf.createIRI(TD.hasOutputSchema), outputId);
+        graph.add(actionId, TD.HAS_OUTPUT_SCHEMA, outputId);
 
-        SchemaGraphWriter.write(graphBuilder, outputId, schema);
+        SchemaGraphWriter.write(graph, outputId, schema);
       }
     }
 
@@ -176,60 +248,59 @@ public class TDGraphWriter {
 
   private TDGraphWriter addEvents() {
     for (EventAffordance event : td.getEvents()) {
-      Resource eventId = addAffordance(event, TD.hasEventAffordance, TD.EventAffordance);
+      Resource eventId = addAffordance(event, TD.HAS_EVENT_AFFORDANCE, TD.EVENT_AFFORDANCE);
 
       if (event.getSubscriptionSchema().isPresent()) {
         DataSchema schema = event.getSubscriptionSchema().get();
 
         Resource subscriptionId = rdf.createBNode();
-        graphBuilder.add(eventId, rdf.createIRI(TD.hasSubscriptionSchema), subscriptionId);
+        graph.add(eventId, TD.HAS_SUBSCRIPTION_SCHEMA, subscriptionId);
 
-        SchemaGraphWriter.write(graphBuilder, subscriptionId, schema);
+        SchemaGraphWriter.write(graph, subscriptionId, schema);
       }
 
       if (event.getNotificationSchema().isPresent()) {
         DataSchema schema = event.getNotificationSchema().get();
 
         Resource notificationId = rdf.createBNode();
-        graphBuilder.add(eventId, rdf.createIRI(TD.hasNotificationSchema), notificationId);
+        graph.add(eventId, TD.HAS_NOTIFICATION_SCHEMA, notificationId);
 
-        SchemaGraphWriter.write(graphBuilder, notificationId, schema);
+        SchemaGraphWriter.write(graph, notificationId, schema);
       }
 
       if (event.getCancellationSchema().isPresent()) {
         DataSchema schema = event.getCancellationSchema().get();
 
         Resource cancellationId = rdf.createBNode();
-        graphBuilder.add(eventId, rdf.createIRI(TD.hasCancellationSchema), cancellationId);
+        graph.add(eventId, TD.HAS_CANCELLATION_SCHEMA, cancellationId);
 
-        SchemaGraphWriter.write(graphBuilder, cancellationId, schema);
+        SchemaGraphWriter.write(graph, cancellationId, schema);
       }
     }
 
     return this;
   }
 
+  /*
+   * Statements of the TD graph that are represented by the object model were already written with new
+   * nodes, so they are left out to avoid writing the same affordances twice. The remaining statements
+   * are computed once per TD.
+   */
   private TDGraphWriter addGraph() {
-    if (td.getGraph().isPresent()) {
-      getModel().addAll(td.getGraph().get());
-
-      td.getGraph().get().getNamespaces().stream()
-        .filter(ns -> !getModel().getNamespace(ns.getPrefix()).isPresent())
-        .forEach(graphBuilder::setNamespace);
-    }
+    TDGraphReader.getUnrepresentedGraph(td).ifPresent(unrepresented -> unrepresented.forEach(graph::add));
     return this;
   }
 
-  private Resource addAffordance(InteractionAffordance affordance, String affordanceProp,
-                                 String affordanceClass) {
+  private Resource addAffordance(InteractionAffordance affordance, IRI affordanceProp,
+                                 IRI affordanceClass) {
     BNode affordanceId = rdf.createBNode();
 
-    graphBuilder.add(thingId, rdf.createIRI(affordanceProp), affordanceId);
-    graphBuilder.add(affordanceId, RDF.TYPE, rdf.createIRI(affordanceClass));
-    graphBuilder.add(affordanceId, rdf.createIRI(TD.name), rdf.createLiteral(affordance.getName()));
+    graph.add(thingId, affordanceProp, affordanceId);
+    graph.add(affordanceId, RDF.TYPE, affordanceClass);
+    graph.add(affordanceId, TD.NAME, rdf.createLiteral(affordance.getName()));
 
     for (String type : affordance.getSemanticTypes()) {
-      graphBuilder.add(affordanceId, RDF.TYPE, rdf.createIRI(type));
+      graph.add(affordanceId, RDF.TYPE, VocabularyIRIs.toIRI(type));
     }
 
     Optional<Map<String,DataSchema>> uriVariable = affordance.getUriVariables();
@@ -238,15 +309,15 @@ public class TDGraphWriter {
       for (String key: map.keySet()){
         DataSchema value = map.get(key);
         Resource uriId = rdf.createBNode();
-        graphBuilder.add(affordanceId, rdf.createIRI(TD.hasUriTemplateSchema), uriId);
-        SchemaGraphWriter.write(graphBuilder, uriId, value);
-        graphBuilder.add(uriId, rdf.createIRI(TD.name), key);
+        graph.add(affordanceId, TD.HAS_URI_TEMPLATE_SCHEMA, uriId);
+        SchemaGraphWriter.write(graph, uriId, value);
+        graph.add(uriId, TD.NAME, key);
       }
 
     }
 
     if (affordance.getTitle().isPresent()) {
-      graphBuilder.add(affordanceId, rdf.createIRI(TD.title), affordance.getTitle().get());
+      graph.add(affordanceId, TD.TITLE, affordance.getTitle().get());
     }
 
     addFormsForInteraction(affordanceId, affordance);
@@ -258,25 +329,25 @@ public class TDGraphWriter {
     for (Form form : interaction.getForms()) {
       BNode formId = rdf.createBNode();
 
-      graphBuilder.add(interactionId, rdf.createIRI(TD.hasForm), formId);
+      graph.add(interactionId, TD.HAS_FORM, formId);
 
       // Only writes the method name for forms with one operation type (to avoid ambiguity)
       if (form.getMethodName().isPresent() && form.getOperationTypes().size() == 1) {
         if (Arrays.stream(HTTP_URI_SCHEMES).anyMatch(form.getTarget()::contains)) {
-          graphBuilder.add(formId, rdf.createIRI(HTV.methodName), form.getMethodName().get());
+          graph.add(formId, HTV.METHOD_NAME, form.getMethodName().get());
         } else if (Arrays.stream(COAP_URI_SCHEMES).anyMatch(form.getTarget()::contains)) {
-          graphBuilder.add(formId, rdf.createIRI(COV.methodName), form.getMethodName().get());
+          graph.add(formId, COV.METHOD_NAME, form.getMethodName().get());
         }
       }
-      graphBuilder.add(formId, rdf.createIRI(HCTL.hasTarget), rdf.createIRI(conversion(form.getTarget())));
-      graphBuilder.add(formId, rdf.createIRI(HCTL.forContentType), form.getContentType());
+      graph.add(formId, HCTL.HAS_TARGET, rdf.createIRI(conversion(form.getTarget())));
+      graph.add(formId, HCTL.FOR_CONTENT_TYPE, form.getContentType());
 
       for (String opType : form.getOperationTypes()) {
         try {
-          IRI opTypeIri = rdf.createIRI(opType);
-          graphBuilder.add(formId, rdf.createIRI(HCTL.hasOperationType), opTypeIri);
+          IRI opTypeIri = VocabularyIRIs.toIRI(opType);
+          graph.add(formId, HCTL.HAS_OPERATION_TYPE, opTypeIri);
         } catch (IllegalArgumentException e) {
-          graphBuilder.add(formId, rdf.createIRI(HCTL.hasOperationType), opType);
+          graph.add(formId, HCTL.HAS_OPERATION_TYPE, opType);
         }
       }
 
@@ -284,28 +355,15 @@ public class TDGraphWriter {
       if (subProtocol.isPresent()) {
         try {
           IRI subProtocolIri = rdf.createIRI(subProtocol.get());
-          graphBuilder.add(formId, rdf.createIRI(HCTL.forSubProtocol), subProtocolIri);
+          graph.add(formId, HCTL.FOR_SUB_PROTOCOL, subProtocolIri);
         } catch (IllegalArgumentException e) {
-          graphBuilder.add(formId, rdf.createIRI(HCTL.forSubProtocol), subProtocol.get());
+          graph.add(formId, HCTL.FOR_SUB_PROTOCOL, subProtocol.get());
         }
       }
     }
   }
 
-  private String conversion(String str){
-    String newStr = "";
-    for (int i = 0; i<str.length();i++){
-      char c = str.charAt(i);
-      if (c == '{'){
-        newStr = newStr + "%7B";
-      }
-      else if (c == '}'){
-        newStr = newStr + "%7D";
-      }
-      else {
-        newStr = newStr + c;
-      }
-    }
-    return newStr;
+  private String conversion(String str) {
+    return str.replace("{", "%7B").replace("}", "%7D");
   }
 }
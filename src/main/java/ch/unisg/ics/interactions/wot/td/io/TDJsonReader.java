@@ -0,0 +1,845 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.*;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.*;
+import ch.unisg.ics.interactions.wot.td.security.DigestSecurityScheme.QualityOfProtection;
+import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.rdf4j.common.net.ParsedIRI;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A reader for plain JSON representations of TDs, as defined by the W3C Recommendation. TDs are read
+ * with a streaming <code>JsonReader</code> directly into the builders of the object model, without
+ * expanding the document into RDF. The created <code>ThingDescription</code> does not maintain an
+ * RDF graph.
+ * <p>
+ * Documents that need a JSON-LD processor are read with {@link TDGraphReader} as JSON-LD instead:
+ * documents that are not JSON objects, that use contexts other than the TD context and prefix
+ * definitions, that use JSON-LD keywords or compact IRIs as keys (e.g., semantic annotations), or
+ * that use relative IRIs before declaring a base URI.
+ */
+final class TDJsonReader {
+  private static final Set<String> TD_CONTEXTS = new HashSet<>(Arrays.asList(
+    "https://www.w3.org/2019/wot/td/v1", "https://www.w3.org/2022/wot/td/v1.1",
+    "http://www.w3.org/ns/td"));
+
+  static final Map<String, String> TD_CONTEXT_PREFIXES = new HashMap<>();
+  static final Map<String, String> OPERATION_TYPES = new HashMap<>();
+
+  private static final Pattern URI_SCHEME = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*:");
+
+  static {
+    TD_CONTEXT_PREFIXES.put("td", TD.PREFIX);
+    TD_CONTEXT_PREFIXES.put("jsonschema", JSONSchema.PREFIX);
+    TD_CONTEXT_PREFIXES.put("wotsec", WoTSec.PREFIX);
+    TD_CONTEXT_PREFIXES.put("hctl", HCTL.PREFIX);
+    TD_CONTEXT_PREFIXES.put("htv", HTV.PREFIX);
+    TD_CONTEXT_PREFIXES.put("dct", DCT.PREFIX);
+
+    for (String operationType : Arrays.asList("readProperty", "writeProperty", "observeProperty",
+        "unobserveProperty", "invokeAction", "queryAction", "cancelAction", "subscribeEvent",
+        "unsubscribeEvent", "readAllProperties", "writeAllProperties", "readMultipleProperties",
+        "writeMultipleProperties", "observeAllProperties", "unobserveAllProperties", "queryAllActions",
+        "subscribeAllEvents", "unsubscribeAllEvents")) {
+      OPERATION_TYPES.put(operationType.toLowerCase(Locale.ENGLISH), TD.PREFIX + operationType);
+    }
+  }
+
+  private final JsonReader json;
+  private final Map<String, String> prefixes;
+  private final Optional<SchemaInterner> schemaInterner;
+  private Optional<String> base;
+
+  private TDJsonReader(String representation, Optional<SchemaInterner> schemaInterner) {
+    this.json = new JsonReader(new StringReader(representation));
+    this.prefixes = new HashMap<>(TD_CONTEXT_PREFIXES);
+    this.schemaInterner = schemaInterner;
+    this.base = Optional.empty();
+  }
+
+  /*
+   * The representation is buffered such that it can be read again as JSON-LD. I/O errors are rethrown
+   * as UncheckedIOException, as done by TDGraphReader.
+   */
+  static ThingDescription read(Reader representation, TDReadOptions options) {
+    String content;
+
+    try {
+      content = IOUtils.toString(representation);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    try {
+      return new TDJsonReader(content, options.getSchemaInterner()).readThingDescription();
+    } catch (ExpansionRequiredException e) {
+      return TDGraphReader.readFromString(TDFormat.RDF_JSONLD, content, options);
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      throw new InvalidTDException("JSON Syntax Error", e);
+    }
+  }
+
+  private ThingDescription readThingDescription() throws IOException {
+    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+      throw new ExpansionRequiredException();
+    }
+
+    String title = null;
+    Optional<String> thingURI = Optional.empty();
+    Set<String> types = new HashSet<>();
+    Map<String, SecurityScheme> securityDefinitions = new LinkedHashMap<>();
+    List<String> security = new ArrayList<>();
+    List<PropertyAffordance> properties = new ArrayList<>();
+    List<ActionAffordance> actions = new ArrayList<>();
+    List<EventAffordance> events = new ArrayList<>();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String key = json.nextName();
+
+      switch (key) {
+        case "@context":
+          readContext();
+          break;
+        case "@type":
+          types.addAll(readTypes());
+          break;
+        case "id":
+          thingURI = Optional.of(json.nextString());
+          break;
+        case "title":
+          title = json.nextString();
+          break;
+        case "base":
+          base = Optional.of(json.nextString());
+          break;
+        case "securityDefinitions":
+          securityDefinitions = readSecurityDefinitions();
+          break;
+        case "security":
+          security = readStrings();
+          break;
+        case "properties":
+          json.beginObject();
+          while (json.hasNext()) {
+            properties.add(readAffordance(json.nextName(), InteractionAffordance.PROPERTY));
+          }
+          json.endObject();
+          break;
+        case "actions":
+          json.beginObject();
+          while (json.hasNext()) {
+            actions.add(readAffordance(json.nextName(), InteractionAffordance.ACTION));
+          }
+          json.endObject();
+          break;
+        case "events":
+          json.beginObject();
+          while (json.hasNext()) {
+            events.add(readAffordance(json.nextName(), InteractionAffordance.EVENT));
+          }
+          json.endObject();
+          break;
+        default:
+          skipTerm(key);
+      }
+    }
+    json.endObject();
+
+    if (title == null) {
+      throw new InvalidTDException("Missing mandatory title.");
+    }
+
+    if (securityDefinitions.isEmpty()) {
+      throw new InvalidTDException("Missing mandatory security definitions.");
+    }
+
+    ThingDescription.Builder tdBuilder = new ThingDescription.Builder(title)
+      .addSemanticTypes(types)
+      .addProperties(properties)
+      .addActions(actions)
+      .addEvents(events);
+
+    for (Map.Entry<String, SecurityScheme> definition : securityDefinitions.entrySet()) {
+      tdBuilder.addSecurityScheme(definition.getKey(), definition.getValue(),
+        security.contains(definition.getKey()));
+    }
+
+    if (thingURI.isPresent()) {
+      tdBuilder.addThingURI(thingURI.get());
+    }
+
+    if (base.isPresent()) {
+      tdBuilder.addBaseURI(base.get());
+    }
+
+    return tdBuilder.build();
+  }
+
+  private void readContext() throws IOException {
+    if (json.peek() == JsonToken.BEGIN_ARRAY) {
+      json.beginArray();
+      while (json.hasNext()) {
+        readContextEntry();
+      }
+      json.endArray();
+    } else {
+      readContextEntry();
+    }
+  }
+
+  /*
+   * Only the TD context and prefix definitions are supported, all other context definitions require
+   * JSON-LD expansion.
+   */
+  private void readContextEntry() throws IOException {
+    if (json.peek() == JsonToken.STRING) {
+      if (!TD_CONTEXTS.contains(json.nextString())) {
+        throw new ExpansionRequiredException();
+      }
+    } else if (json.peek() == JsonToken.BEGIN_OBJECT) {
+      json.beginObject();
+      while (json.hasNext()) {
+        String term = json.nextName();
+
+        if (term.equals("@language")) {
+          json.skipValue();
+        } else if (!term.startsWith("@") && json.peek() == JsonToken.STRING) {
+          String namespace = json.nextString();
+
+          if (!namespace.endsWith("#") && !namespace.endsWith("/") && !namespace.endsWith(":")) {
+            throw new ExpansionRequiredException();
+          }
+
+          prefixes.put(term, namespace);
+        } else {
+          throw new ExpansionRequiredException();
+        }
+      }
+      json.endObject();
+    } else {
+      throw new ExpansionRequiredException();
+    }
+  }
+
+  private Map<String, SecurityScheme> readSecurityDefinitions() throws IOException {
+    Map<String, SecurityScheme> definitions = new LinkedHashMap<>();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+
+      try {
+        definitions.put(name, readSecurityScheme());
+      } catch (InvalidTDException | IllegalArgumentException e) {
+        throw new InvalidTDException("Invalid security scheme configuration", e);
+      }
+    }
+    json.endObject();
+
+    return definitions;
+  }
+
+  private SecurityScheme readSecurityScheme() throws IOException {
+    Map<String, String> configuration = new HashMap<>();
+    Set<String> types = new HashSet<>();
+    Set<String> scopes = new HashSet<>();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String key = json.nextName();
+
+      switch (key) {
+        case "@type":
+          types.addAll(readTypes());
+          break;
+        case "scopes":
+          scopes.addAll(readStrings());
+          break;
+        case "scheme":
+        case "in":
+        case "name":
+        case "qop":
+        case "alg":
+        case "authorization":
+        case "format":
+        case "identity":
+        case "flow":
+        case "token":
+        case "refresh":
+          configuration.put(key, json.nextString());
+          break;
+        default:
+          skipTerm(key);
+      }
+    }
+    json.endObject();
+
+    String scheme = configuration.get("scheme");
+    if (scheme == null) {
+      throw new InvalidTDException("Missing mandatory security scheme name.");
+    }
+
+    switch (scheme) {
+      case SecurityScheme.NOSEC:
+        return SecurityScheme.getNoSecurityScheme();
+      case SecurityScheme.APIKEY:
+        return readTokenBasedSecurityScheme(new APIKeySecurityScheme.Builder(), configuration, types);
+      case SecurityScheme.BASIC:
+        return readTokenBasedSecurityScheme(new BasicSecurityScheme.Builder(), configuration, types);
+      case SecurityScheme.DIGEST:
+        DigestSecurityScheme.Builder digestBuilder = new DigestSecurityScheme.Builder();
+        if (configuration.containsKey("qop")) {
+          digestBuilder.addQoP(QualityOfProtection.fromString(configuration.get("qop")));
+        }
+        return readTokenBasedSecurityScheme(digestBuilder, configuration, types);
+      case SecurityScheme.BEARER:
+        BearerSecurityScheme.Builder bearerBuilder = new BearerSecurityScheme.Builder();
+        if (configuration.containsKey("alg")) {
+          bearerBuilder.addAlg(configuration.get("alg"));
+        }
+        if (configuration.containsKey("authorization")) {
+          bearerBuilder.addAuthorization(configuration.get("authorization"));
+        }
+        if (configuration.containsKey("format")) {
+          bearerBuilder.addFormat(configuration.get("format"));
+        }
+        return readTokenBasedSecurityScheme(bearerBuilder, configuration, types);
+      case SecurityScheme.PSK:
+        PSKSecurityScheme.Builder pskBuilder = new PSKSecurityScheme.Builder();
+        if (configuration.containsKey("identity")) {
+          pskBuilder.addIdentity(configuration.get("identity"));
+        }
+        return pskBuilder.addSemanticTypes(types).build();
+      case SecurityScheme.OAUTH2:
+        if (!configuration.containsKey("flow")) {
+          throw new InvalidTDException("Missing or invalid configuration value of type " + WoTSec.flow +
+            " on defining security scheme");
+        }
+        OAuth2SecurityScheme.Builder oauthBuilder = new OAuth2SecurityScheme.Builder(configuration.get("flow"));
+        if (configuration.containsKey("authorization")) {
+          oauthBuilder.addAuthorization(configuration.get("authorization"));
+        }
+        if (configuration.containsKey("token")) {
+          oauthBuilder.addToken(configuration.get("token"));
+        }
+        if (configuration.containsKey("refresh")) {
+          oauthBuilder.addRefresh(configuration.get("refresh"));
+        }
+        if (!scopes.isEmpty()) {
+          oauthBuilder.addScopes(scopes);
+        }
+        return oauthBuilder.addSemanticTypes(types).build();
+      default:
+        throw new InvalidTDException("Unknown type of security scheme");
+    }
+  }
+
+  private SecurityScheme readTokenBasedSecurityScheme(TokenBasedSecurityScheme.Builder<?, ?> schemeBuilder,
+      Map<String, String> configuration, Set<String> types) {
+    if (configuration.containsKey("in")) {
+      schemeBuilder.addTokenLocation(TokenLocation.fromString(configuration.get("in")));
+    }
+
+    if (configuration.containsKey("name")) {
+      schemeBuilder.addTokenName(configuration.get("name"));
+    }
+
+    schemeBuilder.addSemanticTypes(types);
+    return schemeBuilder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends InteractionAffordance> T readAffordance(String name, String affordanceType)
+      throws IOException {
+    Optional<String> title = Optional.empty();
+    List<String> types = new ArrayList<>();
+    List<Form> forms = new ArrayList<>();
+    Map<String, DataSchema> uriVariables = new LinkedHashMap<>();
+    SchemaFields schema = new SchemaFields();
+    Map<String, DataSchema> affordanceSchemas = new HashMap<>();
+    boolean observable = false;
+
+    try {
+      json.beginObject();
+      while (json.hasNext()) {
+        String key = json.nextName();
+
+        switch (key) {
+          case "@type":
+            types.addAll(readTypes());
+            break;
+          case "title":
+            title = Optional.of(json.nextString());
+            break;
+          case "forms":
+            forms = readForms();
+            break;
+          case "uriVariables":
+            uriVariables = readSchemas();
+            break;
+          case "observable":
+            observable = json.nextBoolean();
+            break;
+          case "input":
+          case "output":
+          case "subscription":
+          case "data":
+          case "cancellation":
+            Optional<DataSchema> affordanceSchema = readSchema();
+            if (affordanceSchema.isPresent()) {
+              affordanceSchemas.put(key, affordanceSchema.get());
+            }
+            break;
+          default:
+            // Property affordances are also data schemas
+            if (!affordanceType.equals(InteractionAffordance.PROPERTY) || !readSchemaTerm(key, schema)) {
+              skipTerm(key);
+            }
+        }
+      }
+      json.endObject();
+
+      if (forms.isEmpty()) {
+        throw new InvalidTDException("[" + affordanceType + "] All interaction affordances should have "
+          + "at least one valid.");
+      }
+
+      InteractionAffordance.Builder<?, ?> builder;
+
+      if (affordanceType.equals(InteractionAffordance.PROPERTY)) {
+        schema.types.addAll(types);
+        PropertyAffordance.Builder propertyBuilder = new PropertyAffordance.Builder(name, forms)
+          .addDataSchema(buildSchema(schema).orElse(new DataSchema.Builder().build()));
+        if (observable) {
+          propertyBuilder.addObserve();
+        }
+        builder = propertyBuilder.addSemanticType(TD.PropertyAffordance);
+      } else if (affordanceType.equals(InteractionAffordance.ACTION)) {
+        ActionAffordance.Builder actionBuilder = new ActionAffordance.Builder(name, forms);
+        if (affordanceSchemas.containsKey("input")) {
+          actionBuilder.addInputSchema(affordanceSchemas.get("input"));
+        }
+        if (affordanceSchemas.containsKey("output")) {
+          actionBuilder.addOutputSchema(affordanceSchemas.get("output"));
+        }
+        builder = actionBuilder.addSemanticType(TD.ActionAffordance);
+      } else {
+        EventAffordance.Builder eventBuilder = new EventAffordance.Builder(name, forms);
+        if (affordanceSchemas.containsKey("subscription")) {
+          eventBuilder.addSubscriptionSchema(affordanceSchemas.get("subscription"));
+        }
+        if (affordanceSchemas.containsKey("data")) {
+          eventBuilder.addNotificationSchema(affordanceSchemas.get("data"));
+        }
+        if (affordanceSchemas.containsKey("cancellation")) {
+          eventBuilder.addCancellationSchema(affordanceSchemas.get("cancellation"));
+        }
+        builder = eventBuilder.addSemanticType(TD.EventAffordance);
+      }
+
+      builder.addSemanticTypes(types).addUriVariables(uriVariables);
+      if (title.isPresent()) {
+        builder.addTitle(title.get());
+      }
+
+      return (T) builder.build();
+    } catch (InvalidTDException | IllegalArgumentException e) {
+      throw new InvalidTDException("Invalid " + affordanceType + " definition.", e);
+    }
+  }
+
+  private List<Form> readForms() throws IOException {
+    List<Form> forms = new ArrayList<>();
+
+    json.beginArray();
+    while (json.hasNext()) {
+      Optional<Form> form = readForm();
+      if (form.isPresent()) {
+        forms.add(form.get());
+      }
+    }
+    json.endArray();
+
+    return forms;
+  }
+
+  private Optional<Form> readForm() throws IOException {
+    Optional<String> target = Optional.empty();
+    Optional<String> contentType = Optional.empty();
+    Optional<String> methodName = Optional.empty();
+    Optional<String> subProtocol = Optional.empty();
+    Set<String> operationTypes = new HashSet<>();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String key = json.nextName();
+
+      switch (key) {
+        case "href":
+          target = Optional.of(resolveIRI(json.nextString()));
+          break;
+        case "contentType":
+          contentType = Optional.of(json.nextString());
+          break;
+        case "op":
+          for (String operationType : readStrings()) {
+            operationTypes.add(expandOperationType(operationType));
+          }
+          break;
+        case "subprotocol":
+          subProtocol = Optional.of(json.nextString());
+          break;
+        default:
+          if (key.indexOf(':') >= 0 && (expandIRI(key).equals(HTV.methodName)
+              || expandIRI(key).equals(COV.methodName))) {
+            methodName = Optional.of(json.nextString());
+          } else {
+            skipTerm(key);
+          }
+      }
+    }
+    json.endObject();
+
+    if (!target.isPresent()) {
+      return Optional.empty();
+    }
+
+    Form.Builder builder = new Form.Builder(target.get())
+      .addOperationTypes(operationTypes);
+
+    if (contentType.isPresent()) {
+      builder.setContentType(contentType.get());
+    }
+
+    if (methodName.isPresent()) {
+      builder.setMethodName(methodName.get());
+    }
+
+    if (subProtocol.isPresent()) {
+      builder.addSubProtocol(subProtocol.get());
+    }
+
+    return Optional.of(builder.build());
+  }
+
+  private Map<String, DataSchema> readSchemas() throws IOException {
+    Map<String, DataSchema> schemas = new LinkedHashMap<>();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      Optional<DataSchema> schema = readSchema();
+
+      if (schema.isPresent()) {
+        schemas.put(name, schema.get());
+      }
+    }
+    json.endObject();
+
+    return schemas;
+  }
+
+  private List<DataSchema> readSchemaList() throws IOException {
+    List<DataSchema> schemas = new ArrayList<>();
+
+    if (json.peek() == JsonToken.BEGIN_OBJECT) {
+      readSchema().ifPresent(schemas::add);
+      return schemas;
+    }
+
+    json.beginArray();
+    while (json.hasNext()) {
+      readSchema().ifPresent(schemas::add);
+    }
+    json.endArray();
+
+    return schemas;
+  }
+
+  private Optional<DataSchema> readSchema() throws IOException {
+    SchemaFields schema = new SchemaFields();
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String key = json.nextName();
+
+      if (!readSchemaTerm(key, schema)) {
+        skipTerm(key);
+      }
+    }
+    json.endObject();
+
+    return buildSchema(schema);
+  }
+
+  private boolean readSchemaTerm(String key, SchemaFields schema) throws IOException {
+    switch (key) {
+      case "@type":
+        schema.types.addAll(readTypes());
+        return true;
+      case "type":
+        schema.type = json.nextString();
+        return true;
+      case "enum":
+        schema.enumeration.addAll(readStrings());
+        return true;
+      case "contentMediaType":
+        schema.contentMediaType = Optional.of(json.nextString());
+        return true;
+      case "minimum":
+        schema.minimum = Optional.of(json.nextDouble());
+        return true;
+      case "maximum":
+        schema.maximum = Optional.of(json.nextDouble());
+        return true;
+      case "minItems":
+        schema.minItems = Optional.of(json.nextInt());
+        return true;
+      case "maxItems":
+        schema.maxItems = Optional.of(json.nextInt());
+        return true;
+      case "properties":
+        schema.properties.putAll(readSchemas());
+        return true;
+      case "required":
+        schema.required.addAll(readStrings());
+        return true;
+      case "items":
+        schema.items.addAll(readSchemaList());
+        return true;
+      case "oneOf":
+        schema.oneOf.addAll(readSchemaList());
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /*
+   * Subschemas are built first, so interned schemas also share their interned subschemas.
+   */
+  private Optional<DataSchema> buildSchema(SchemaFields schema) {
+    Optional<DataSchema> dataSchema = buildSchemaOfType(schema);
+
+    if (dataSchema.isPresent() && schemaInterner.isPresent()) {
+      return Optional.of(schemaInterner.get().intern(dataSchema.get()));
+    }
+
+    return dataSchema;
+  }
+
+  private Optional<DataSchema> buildSchemaOfType(SchemaFields schema) {
+    if (schema.type == null) {
+      if (schema.oneOf.isEmpty()) {
+        return Optional.empty();
+      }
+
+      return Optional.of(addSchemaMetadata(new DataSchema.Builder(), schema, JSONSchema.DataSchema)
+        .build());
+    }
+
+    switch (schema.type) {
+      case DataSchema.OBJECT:
+        ObjectSchema.Builder objectBuilder = addSchemaMetadata(new ObjectSchema.Builder(), schema,
+          JSONSchema.ObjectSchema);
+        for (Map.Entry<String, DataSchema> property : schema.properties.entrySet()) {
+          objectBuilder.addProperty(property.getKey(), property.getValue());
+        }
+        return Optional.of(objectBuilder
+          .addRequiredProperties(schema.required.toArray(new String[0]))
+          .build());
+      case DataSchema.ARRAY:
+        ArraySchema.Builder arrayBuilder = addSchemaMetadata(new ArraySchema.Builder(), schema,
+          JSONSchema.ArraySchema);
+        schema.minItems.ifPresent(arrayBuilder::addMinItems);
+        schema.maxItems.ifPresent(arrayBuilder::addMaxItems);
+        schema.items.forEach(arrayBuilder::addItem);
+        return Optional.of(arrayBuilder.build());
+      case DataSchema.NUMBER:
+        NumberSchema.Builder numberBuilder = addSchemaMetadata(new NumberSchema.Builder(), schema,
+          JSONSchema.NumberSchema);
+        schema.minimum.ifPresent(numberBuilder::addMinimum);
+        schema.maximum.ifPresent(numberBuilder::addMaximum);
+        return Optional.of(numberBuilder.build());
+      case DataSchema.INTEGER:
+        IntegerSchema.Builder integerBuilder = addSchemaMetadata(new IntegerSchema.Builder(), schema,
+          JSONSchema.IntegerSchema);
+        schema.minimum.ifPresent(minimum -> integerBuilder.addMinimum(minimum.intValue()));
+        schema.maximum.ifPresent(maximum -> integerBuilder.addMaximum(maximum.intValue()));
+        return Optional.of(integerBuilder.build());
+      case DataSchema.BOOLEAN:
+        return Optional.of(addSchemaMetadata(new BooleanSchema.Builder(), schema,
+          JSONSchema.BooleanSchema).build());
+      case DataSchema.STRING:
+        return Optional.of(addSchemaMetadata(new StringSchema.Builder(), schema,
+          JSONSchema.StringSchema).build());
+      case DataSchema.NULL:
+        return Optional.of(addSchemaMetadata(new NullSchema.Builder(), schema,
+          JSONSchema.NullSchema).build());
+      default:
+        throw new InvalidTDException("Unknown type of data schema: " + schema.type);
+    }
+  }
+
+  /*
+   * As in SchemaGraphReader, the semantic types of a schema include its JSON Schema class.
+   */
+  private <B extends DataSchema.JsonSchemaBuilder<?, B>> B addSchemaMetadata(B builder, SchemaFields schema,
+      String schemaClass) {
+    builder.addSemanticType(schemaClass)
+      .addSemanticTypes(schema.types)
+      .addEnum(schema.enumeration);
+
+    if (schema.contentMediaType.isPresent()) {
+      builder.setContentMediaType(schema.contentMediaType.get());
+    }
+
+    if (!schema.oneOf.isEmpty()) {
+      builder.oneOf(schema.oneOf.toArray(new DataSchema[0]));
+    }
+
+    return builder;
+  }
+
+  private List<String> readTypes() throws IOException {
+    List<String> types = new ArrayList<>();
+
+    for (String type : readStrings()) {
+      types.add(expandIRI(type));
+    }
+
+    return types;
+  }
+
+  /*
+   * Reads a string or an array of values as a list of strings.
+   */
+  private List<String> readStrings() throws IOException {
+    List<String> values = new ArrayList<>();
+
+    if (json.peek() != JsonToken.BEGIN_ARRAY) {
+      values.add(readString());
+      return values;
+    }
+
+    json.beginArray();
+    while (json.hasNext()) {
+      values.add(readString());
+    }
+    json.endArray();
+
+    return values;
+  }
+
+  private String readString() throws IOException {
+    if (json.peek() == JsonToken.BOOLEAN) {
+      return String.valueOf(json.nextBoolean());
+    }
+
+    return json.nextString();
+  }
+
+  /*
+   * Terms defined by the TD context are skipped if not represented in the object model. JSON-LD
+   * keywords and IRIs used as keys (e.g., semantic annotations) require JSON-LD expansion.
+   */
+  private void skipTerm(String key) throws IOException {
+    if ((key.startsWith("@") && !key.equals("@id")) || key.indexOf(':') >= 0) {
+      throw new ExpansionRequiredException();
+    }
+
+    json.skipValue();
+  }
+
+  private String expandIRI(String value) {
+    int colon = value.indexOf(':');
+
+    if (colon < 0) {
+      if (value.equals("Thing")) {
+        return TD.Thing;
+      }
+
+      throw new ExpansionRequiredException();
+    }
+
+    String namespace = prefixes.get(value.substring(0, colon));
+    if (namespace != null && !value.startsWith("//", colon + 1)) {
+      return namespace + value.substring(colon + 1);
+    }
+
+    // Compact IRIs with undefined prefixes are absolute IRIs
+    return value;
+  }
+
+  private String expandOperationType(String operationType) {
+    String expanded = OPERATION_TYPES.get(operationType);
+
+    if (expanded == null) {
+      return expandIRI(operationType);
+    }
+
+    return expanded;
+  }
+
+  /*
+   * URI templates are kept as is (e.g., braces are not percent-encoded).
+   */
+  private String resolveIRI(String iri) {
+    if (URI_SCHEME.matcher(iri).find()) {
+      return iri;
+    }
+
+    if (!base.isPresent()) {
+      throw new ExpansionRequiredException();
+    }
+
+    try {
+      ParsedIRI relativeIRI = new ParsedIRI(iri.replace("{", "%7B").replace("}", "%7D"));
+      return new ParsedIRI(base.get()).resolve(relativeIRI).toString()
+        .replace("%7B", "{").replace("%7D", "}");
+    } catch (URISyntaxException e) {
+      throw new InvalidTDException("Invalid IRI: " + iri, e);
+    }
+  }
+
+  private static final class SchemaFields {
+    private String type;
+    private final Set<String> types = new HashSet<>();
+    private final Set<String> enumeration = new HashSet<>();
+    private Optional<String> contentMediaType = Optional.empty();
+    private Optional<Double> minimum = Optional.empty();
+    private Optional<Double> maximum = Optional.empty();
+    private Optional<Integer> minItems = Optional.empty();
+    private Optional<Integer> maxItems = Optional.empty();
+    private final Map<String, DataSchema> properties = new LinkedHashMap<>();
+    private final List<String> required = new ArrayList<>();
+    private final List<DataSchema> items = new ArrayList<>();
+    private final List<DataSchema> oneOf = new ArrayList<>();
+  }
+
+  /*
+   * Thrown when the document cannot be read without a JSON-LD processor.
+   */
+  private static final class ExpansionRequiredException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private ExpansionRequiredException() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,516 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.*;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.*;
+import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A writer for serializing TDs in the plain JSON format defined by the W3C Recommendation (see
+ * {@link ThingDescription.TDFormat#JSON}). The TD is written with a streaming <code>JsonWriter</code>
+ * while walking the object model, without creating an RDF graph. Semantic types are compacted with
+ * the prefixes of the TD context and the prefix bindings set with {@link #setNamespace}.
+ * <p>
+ * Statements of the TD graph that are not represented by the object model are not written. Such
+ * statements can be serialized with {@link TDGraphWriter} as JSON-LD.
+ */
+public class TDJsonWriter {
+  private static final String TD_CONTEXT = "https://www.w3.org/2019/wot/td/v1";
+
+  private static final String[] HTTP_URI_SCHEMES = new String[]{"http:", "https:"};
+  private static final String[] COAP_URI_SCHEMES = new String[]{"coap:", "coaps:"};
+
+  private static final Map<String, String> SCHEMA_CLASSES = new HashMap<>();
+  private static final String[] SECURITY_SCHEME_CLASSES = new String[]{WoTSec.NoSecurityScheme,
+    WoTSec.APIKeySecurityScheme, WoTSec.BasicSecurityScheme, WoTSec.DigestSecurityScheme,
+    WoTSec.BearerSecurityScheme, WoTSec.PSKSecurityScheme, WoTSec.OAuth2SecurityScheme};
+
+  static {
+    SCHEMA_CLASSES.put(DataSchema.DATA, JSONSchema.DataSchema);
+    SCHEMA_CLASSES.put(DataSchema.OBJECT, JSONSchema.ObjectSchema);
+    SCHEMA_CLASSES.put(DataSchema.ARRAY, JSONSchema.ArraySchema);
+    SCHEMA_CLASSES.put(DataSchema.STRING, JSONSchema.StringSchema);
+    SCHEMA_CLASSES.put(DataSchema.NUMBER, JSONSchema.NumberSchema);
+    SCHEMA_CLASSES.put(DataSchema.INTEGER, JSONSchema.IntegerSchema);
+    SCHEMA_CLASSES.put(DataSchema.BOOLEAN, JSONSchema.BooleanSchema);
+    SCHEMA_CLASSES.put(DataSchema.NULL, JSONSchema.NullSchema);
+  }
+
+  private final ThingDescription td;
+  private final Map<String, String> namespaces;
+  private JsonWriter json;
+
+  public TDJsonWriter(ThingDescription td) {
+    this.td = td;
+    this.namespaces = new LinkedHashMap<>();
+  }
+
+  public static String write(ThingDescription td) {
+    return new TDJsonWriter(td).write();
+  }
+
+  /**
+   * Sets a prefix binding for a given namespace. Prefix bindings are added to the
+   * <code>@context</code> of the TD.
+   *
+   * @param prefix    the prefix to be used in the serialized representation
+   * @param namespace the given namespace
+   * @return this <code>TDJsonWriter</code>
+   */
+  public TDJsonWriter setNamespace(String prefix, String namespace) {
+    this.namespaces.put(prefix, namespace);
+    return this;
+  }
+
+  public String write() {
+    StringWriter writer = new StringWriter();
+
+    try {
+      write(writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return writer.toString();
+  }
+
+  /**
+   * Writes the TD to an output stream encoded in UTF-8. The stream is not closed.
+   *
+   * @param out the output stream
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    write(writer);
+    writer.flush();
+  }
+
+  /**
+   * Writes the TD to a character stream. The stream is not closed.
+   *
+   * @param writer the character stream
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(Writer writer) throws IOException {
+    json = new JsonWriter(writer);
+    json.setHtmlSafe(false);
+
+    json.beginObject();
+    writeContext();
+    writeTypes(td.getSemanticTypes());
+
+    if (td.getThingURI().isPresent()) {
+      json.name("id").value(td.getThingURI().get());
+    }
+
+    json.name("title").value(td.getTitle());
+
+    if (td.getBaseURI().isPresent()) {
+      json.name("base").value(td.getBaseURI().get());
+    }
+
+    writeSecurity();
+
+    if (!td.getProperties().isEmpty()) {
+      json.name("properties").beginObject();
+      for (PropertyAffordance property : td.getProperties()) {
+        writeProperty(property);
+      }
+      json.endObject();
+    }
+
+    if (!td.getActions().isEmpty()) {
+      json.name("actions").beginObject();
+      for (ActionAffordance action : td.getActions()) {
+        writeAction(action);
+      }
+      json.endObject();
+    }
+
+    if (!td.getEvents().isEmpty()) {
+      json.name("events").beginObject();
+      for (EventAffordance event : td.getEvents()) {
+        writeEvent(event);
+      }
+      json.endObject();
+    }
+
+    json.endObject();
+    json.flush();
+  }
+
+  /*
+   * The CoAP binding vocabulary is not part of the TD context, so its prefix is only added if a form
+   * uses a CoAP method name.
+   */
+  private void writeContext() throws IOException {
+    Map<String, String> contextPrefixes = new LinkedHashMap<>(namespaces);
+
+    if (hasCoAPMethodName()) {
+      contextPrefixes.putIfAbsent("cov", COV.PREFIX);
+    }
+
+    json.name("@context");
+
+    if (contextPrefixes.isEmpty()) {
+      json.value(TD_CONTEXT);
+      return;
+    }
+
+    json.beginArray().value(TD_CONTEXT).beginObject();
+    for (Map.Entry<String, String> prefix : contextPrefixes.entrySet()) {
+      json.name(prefix.getKey()).value(prefix.getValue());
+    }
+    json.endObject().endArray();
+  }
+
+  private boolean hasCoAPMethodName() {
+    List<InteractionAffordance> affordances = new ArrayList<>(td.getProperties());
+    affordances.addAll(td.getActions());
+    affordances.addAll(td.getEvents());
+
+    for (InteractionAffordance affordance : affordances) {
+      for (Form form : affordance.getForms()) {
+        if (getMethodNameKey(form).equals(Optional.of("cov:methodName"))) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private void writeSecurity() throws IOException {
+    json.name("securityDefinitions").beginObject();
+    for (Map.Entry<String, SecurityScheme> definition : td.getSecurityDefinitions().entrySet()) {
+      json.name(definition.getKey());
+      writeSecurityScheme(definition.getValue());
+    }
+    json.endObject();
+
+    json.name("security").beginArray();
+    for (Map.Entry<String, SecurityScheme> definition : td.getSecurityDefinitions().entrySet()) {
+      if (td.getSecuritySchemes().contains(definition.getValue())) {
+        json.value(definition.getKey());
+      }
+    }
+    json.endArray();
+  }
+
+  private void writeSecurityScheme(SecurityScheme scheme) throws IOException {
+    json.beginObject();
+    writeTypes(scheme.getSemanticTypes(), SECURITY_SCHEME_CLASSES);
+    json.name("scheme").value(scheme.getSchemeName());
+
+    if (scheme instanceof TokenBasedSecurityScheme) {
+      TokenBasedSecurityScheme tokenScheme = (TokenBasedSecurityScheme) scheme;
+      json.name("in").value(tokenScheme.getTokenLocation().toString());
+      writeOptional("name", tokenScheme.getTokenName());
+    }
+
+    if (scheme instanceof DigestSecurityScheme) {
+      json.name("qop").value(((DigestSecurityScheme) scheme).getQoP().toString());
+    } else if (scheme instanceof BearerSecurityScheme) {
+      BearerSecurityScheme bearerScheme = (BearerSecurityScheme) scheme;
+      writeOptional("authorization", bearerScheme.getAuthorization());
+      json.name("alg").value(bearerScheme.getAlg());
+      json.name("format").value(bearerScheme.getFormat());
+    } else if (scheme instanceof PSKSecurityScheme) {
+      writeOptional("identity", ((PSKSecurityScheme) scheme).getIdentity());
+    } else if (scheme instanceof OAuth2SecurityScheme) {
+      OAuth2SecurityScheme oauthScheme = (OAuth2SecurityScheme) scheme;
+      json.name("flow").value(oauthScheme.getFlow());
+      writeOptional("authorization", oauthScheme.getAuthorization());
+      writeOptional("token", oauthScheme.getToken());
+      writeOptional("refresh", oauthScheme.getRefresh());
+      if (oauthScheme.getScopes().isPresent()) {
+        writeStrings("scopes", oauthScheme.getScopes().get());
+      }
+    }
+
+    json.endObject();
+  }
+
+  /*
+   * Property affordances are also data schemas, so the schema terms are written inline.
+   */
+  private void writeProperty(PropertyAffordance property) throws IOException {
+    DataSchema schema = property.getDataSchema();
+    List<String> types = new ArrayList<>(property.getSemanticTypes());
+    types.addAll(schema.getSemanticTypes());
+
+    json.name(property.getName()).beginObject();
+    writeTypes(types, TD.PropertyAffordance, SCHEMA_CLASSES.get(schema.getDatatype()));
+    writeAffordanceTerms(property);
+    writeSchemaTerms(schema);
+
+    if (property.isObservable()) {
+      json.name("observable").value(true);
+    }
+
+    json.endObject();
+  }
+
+  private void writeAction(ActionAffordance action) throws IOException {
+    json.name(action.getName()).beginObject();
+    writeTypes(action.getSemanticTypes(), TD.ActionAffordance);
+    writeAffordanceTerms(action);
+    writeOptionalSchema("input", action.getInputSchema());
+    writeOptionalSchema("output", action.getOutputSchema());
+    json.endObject();
+  }
+
+  private void writeEvent(EventAffordance event) throws IOException {
+    json.name(event.getName()).beginObject();
+    writeTypes(event.getSemanticTypes(), TD.EventAffordance);
+    writeAffordanceTerms(event);
+    writeOptionalSchema("subscription", event.getSubscriptionSchema());
+    writeOptionalSchema("data", event.getNotificationSchema());
+    writeOptionalSchema("cancellation", event.getCancellationSchema());
+    json.endObject();
+  }
+
+  private void writeAffordanceTerms(InteractionAffordance affordance) throws IOException {
+    writeOptional("title", affordance.getTitle());
+
+    if (affordance.getUriVariables().isPresent()) {
+      json.name("uriVariables");
+      writeSchemaMap(affordance.getUriVariables().get());
+    }
+
+    json.name("forms").beginArray();
+    for (Form form : affordance.getForms()) {
+      writeForm(form);
+    }
+    json.endArray();
+  }
+
+  private void writeForm(Form form) throws IOException {
+    json.beginObject();
+    json.name("href").value(form.getTarget());
+    json.name("contentType").value(form.getContentType());
+
+    Optional<String> methodNameKey = getMethodNameKey(form);
+    if (methodNameKey.isPresent()) {
+      json.name(methodNameKey.get()).value(form.getMethodName().get());
+    }
+
+    if (!form.getOperationTypes().isEmpty()) {
+      json.name("op").beginArray();
+      for (String operationType : form.getOperationTypes()) {
+        json.value(compactOperationType(operationType));
+      }
+      json.endArray();
+    }
+
+    writeOptional("subprotocol", form.getSubProtocol());
+    json.endObject();
+  }
+
+  /*
+   * As with TDGraphWriter, method names are only written for forms with one operation type (to avoid
+   * ambiguity).
+   */
+  private static Optional<String> getMethodNameKey(Form form) {
+    if (!form.getMethodName().isPresent() || form.getOperationTypes().size() != 1) {
+      return Optional.empty();
+    }
+
+    if (Arrays.stream(HTTP_URI_SCHEMES).anyMatch(form.getTarget()::contains)) {
+      return Optional.of("htv:methodName");
+    }
+
+    if (Arrays.stream(COAP_URI_SCHEMES).anyMatch(form.getTarget()::contains)) {
+      return Optional.of("cov:methodName");
+    }
+
+    return Optional.empty();
+  }
+
+  private void writeOptionalSchema(String key, Optional<DataSchema> schema) throws IOException {
+    if (schema.isPresent()) {
+      json.name(key);
+      writeSchema(schema.get());
+    }
+  }
+
+  private void writeSchema(DataSchema schema) throws IOException {
+    json.beginObject();
+    writeTypes(schema.getSemanticTypes(), SCHEMA_CLASSES.get(schema.getDatatype()));
+    writeSchemaTerms(schema);
+    json.endObject();
+  }
+
+  private void writeSchemaTerms(DataSchema schema) throws IOException {
+    if (!schema.getDatatype().equals(DataSchema.DATA)) {
+      json.name("type").value(schema.getDatatype());
+    }
+
+    if (!schema.getEnumeration().isEmpty()) {
+      writeStrings("enum", schema.getEnumeration());
+    }
+
+    writeOptional("contentMediaType", schema.getContentMediaType());
+
+    if (!schema.getValidSchemas().isEmpty()) {
+      json.name("oneOf");
+      writeSchemaList(schema.getValidSchemas());
+    }
+
+    if (schema instanceof ObjectSchema) {
+      ObjectSchema objectSchema = (ObjectSchema) schema;
+
+      if (!objectSchema.getProperties().isEmpty()) {
+        json.name("properties");
+        writeSchemaMap(objectSchema.getProperties());
+      }
+
+      if (!objectSchema.getRequiredProperties().isEmpty()) {
+        writeStrings("required", objectSchema.getRequiredProperties());
+      }
+    } else if (schema instanceof ArraySchema) {
+      ArraySchema arraySchema = (ArraySchema) schema;
+
+      if (!arraySchema.getItems().isEmpty()) {
+        json.name("items");
+        writeSchemaList(arraySchema.getItems());
+      }
+
+      if (arraySchema.getMinItems().isPresent()) {
+        json.name("minItems").value(arraySchema.getMinItems().get());
+      }
+
+      if (arraySchema.getMaxItems().isPresent()) {
+        json.name("maxItems").value(arraySchema.getMaxItems().get());
+      }
+    } else if (schema instanceof IntegerSchema) {
+      IntegerSchema integerSchema = (IntegerSchema) schema;
+
+      if (integerSchema.getMinimumAsInteger().isPresent()) {
+        json.name("minimum").value(integerSchema.getMinimumAsInteger().get());
+      }
+
+      if (integerSchema.getMaximumAsInteger().isPresent()) {
+        json.name("maximum").value(integerSchema.getMaximumAsInteger().get());
+      }
+    } else if (schema instanceof NumberSchema) {
+      NumberSchema numberSchema = (NumberSchema) schema;
+
+      if (numberSchema.getMinimum().isPresent()) {
+        json.name("minimum").value(numberSchema.getMinimum().get());
+      }
+
+      if (numberSchema.getMaximum().isPresent()) {
+        json.name("maximum").value(numberSchema.getMaximum().get());
+      }
+    }
+  }
+
+  private void writeSchemaMap(Map<String, DataSchema> schemas) throws IOException {
+    json.beginObject();
+    for (Map.Entry<String, DataSchema> entry : schemas.entrySet()) {
+      json.name(entry.getKey());
+      writeSchema(entry.getValue());
+    }
+    json.endObject();
+  }
+
+  private void writeSchemaList(List<DataSchema> schemas) throws IOException {
+    json.beginArray();
+    for (DataSchema schema : schemas) {
+      writeSchema(schema);
+    }
+    json.endArray();
+  }
+
+  /*
+   * Types implied by the structure of the TD (e.g., the class of an affordance) are left out.
+   */
+  private void writeTypes(Collection<String> types, String... implicitTypes) throws IOException {
+    List<String> explicitTypes = new ArrayList<>();
+    List<String> implicit = Arrays.asList(implicitTypes);
+
+    for (String type : types) {
+      if (!implicit.contains(type) && !explicitTypes.contains(type)) {
+        explicitTypes.add(type);
+      }
+    }
+
+    if (explicitTypes.isEmpty()) {
+      return;
+    }
+
+    json.name("@type");
+    if (explicitTypes.size() == 1) {
+      json.value(compactIRI(explicitTypes.get(0)));
+    } else {
+      json.beginArray();
+      for (String type : explicitTypes) {
+        json.value(compactIRI(type));
+      }
+      json.endArray();
+    }
+  }
+
+  private void writeOptional(String key, Optional<String> value) throws IOException {
+    if (value.isPresent()) {
+      json.name(key).value(value.get());
+    }
+  }
+
+  private void writeStrings(String key, Collection<String> values) throws IOException {
+    json.name(key).beginArray();
+    for (String value : values) {
+      json.value(value);
+    }
+    json.endArray();
+  }
+
+  /*
+   * Operation types defined by the TD context are written with their lowercase names (e.g.,
+   * readproperty).
+   */
+  private String compactOperationType(String operationType) {
+    if (operationType.startsWith(TD.PREFIX)) {
+      String name = operationType.substring(TD.PREFIX.length()).toLowerCase(Locale.ENGLISH);
+
+      if (operationType.equals(TDJsonReader.OPERATION_TYPES.get(name))) {
+        return name;
+      }
+    }
+
+    return compactIRI(operationType);
+  }
+
+  private String compactIRI(String iri) {
+    if (iri.equals(TD.Thing)) {
+      return "Thing";
+    }
+
+    Optional<String> compactIRI = compactIRI(iri, namespaces);
+    return compactIRI.orElseGet(() -> compactIRI(iri, TDJsonReader.TD_CONTEXT_PREFIXES).orElse(iri));
+  }
+
+  private static Optional<String> compactIRI(String iri, Map<String, String> prefixes) {
+    for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+      String namespace = prefix.getValue();
+
+      if (iri.length() > namespace.length() && iri.startsWith(namespace)) {
+        String localName = iri.substring(namespace.length());
+
+        if (localName.indexOf('/') < 0 && localName.indexOf('#') < 0 && !localName.startsWith("//")) {
+          return Optional.of(prefix.getKey() + ":" + localName);
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,128 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.schemas.SchemaInterner;
+
+import java.util.Optional;
+
+/**
+ * Options used by {@link TDGraphReader} to control how a <code>ThingDescription</code> is
+ * materialized. A <code>TDReadOptions</code> is instantiated using a
+ * <code>TDReadOptions.Builder</code>; the default options read TDs eagerly and retain the full RDF
+ * graph read as input.
+ */
+public class TDReadOptions {
+  private final boolean lazy;
+  private final GraphMode graphMode;
+  private final boolean compactGraph;
+  private final Optional<SchemaInterner> schemaInterner;
+
+  private TDReadOptions(boolean lazy, GraphMode graphMode, boolean compactGraph,
+      Optional<SchemaInterner> schemaInterner) {
+    this.lazy = lazy;
+    this.graphMode = graphMode;
+    this.compactGraph = compactGraph;
+    this.schemaInterner = schemaInterner;
+  }
+
+  /**
+   * Checks if interaction affordances are materialized lazily. In lazy mode, the reader only
+   * validates the names of the affordances; each affordance (and its data schemas) is read from the
+   * RDF graph on first access, and an <code>InvalidTDException</code> is thrown at that point if the
+   * affordance is invalid.
+   * <p>
+   * Affordances are always read eagerly when the graph mode is {@link GraphMode#UNREPRESENTED}.
+   * <p>
+   * Until all the affordances of a TD are materialized, the TD retains the parsed RDF graph and its
+   * index, even if the graph mode is {@link GraphMode#NONE}. The graph is released once the last
+   * affordance is materialized.
+   *
+   * @return <code>true</code> if affordances are materialized on first access
+   */
+  public boolean isLazy() {
+    return lazy;
+  }
+
+  public GraphMode getGraphMode() {
+    return graphMode;
+  }
+
+  /**
+   * Checks if the retained RDF graph is stored in a compact read-only encoding. A compact graph uses
+   * less memory, but lookups scan all its statements.
+   *
+   * @return <code>true</code> if the retained graph is compact and read-only
+   */
+  public boolean isCompactGraph() {
+    return compactGraph;
+  }
+
+  /**
+   * Gets the pool used to intern the data schemas read, if any. Structurally equal schemas read
+   * with the same pool share one instance, also across TDs.
+   *
+   * @return an <code>Optional</code> with the schema pool (empty if schemas are not interned)
+   */
+  public Optional<SchemaInterner> getSchemaInterner() {
+    return schemaInterner;
+  }
+
+  /**
+   * The part of the RDF graph read as input that is retained by the <code>ThingDescription</code>.
+   */
+  public enum GraphMode {
+    /** The full RDF graph is retained. */
+    FULL,
+    /**
+     * Only the statements that are not represented by the object model are retained (e.g.,
+     * additional metadata about the Thing). Statements about blank nodes that are represented by the
+     * object model (e.g., affordances without IRIs) are retained as well, but they are no longer
+     * linked to the Thing once the TD is written with {@link TDGraphWriter}.
+     */
+    UNREPRESENTED,
+    /** No RDF graph is retained. */
+    NONE
+  }
+
+  /**
+   * Helper class used to construct <code>TDReadOptions</code>.
+   * <p>
+   * Implements a fluent API.
+   */
+  public static class Builder {
+    private boolean lazy;
+    private GraphMode graphMode;
+    private boolean compactGraph;
+    private Optional<SchemaInterner> schemaInterner;
+
+    public Builder() {
+      this.lazy = false;
+      this.graphMode = GraphMode.FULL;
+      this.compactGraph = false;
+      this.schemaInterner = Optional.empty();
+    }
+
+    public Builder setLazy(boolean lazy) {
+      this.lazy = lazy;
+      return this;
+    }
+
+    public Builder setGraphMode(GraphMode graphMode) {
+      this.graphMode = graphMode;
+      return this;
+    }
+
+    public Builder setCompactGraph(boolean compactGraph) {
+      this.compactGraph = compactGraph;
+      return this;
+    }
+
+    public Builder setSchemaInterner(SchemaInterner schemaInterner) {
+      this.schemaInterner = Optional.of(schemaInterner);
+      return this;
+    }
+
+    public TDReadOptions build() {
+      return new TDReadOptions(lazy, graphMode, compactGraph, schemaInterner);
+    }
+  }
+}
@@ -0,0 +1,460 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.*;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.*;
+import ch.unisg.ics.interactions.wot.td.security.DigestSecurityScheme.QualityOfProtection;
+import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static ch.unisg.ics.interactions.wot.td.io.TDSnapshotWriter.*;
+
+/**
+ * A reader for binary snapshots of TDs written with {@link TDSnapshotWriter}. Loading a snapshot
+ * does not parse any RDF, such that a large number of TDs can be loaded quickly (e.g., when an
+ * application starts). Snapshot files are memory-mapped while they are read.
+ * <p>
+ * Strings and data schemas are shared among all TDs loaded from the same snapshot.
+ */
+public final class TDSnapshotReader {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  private final ByteBuffer buffer;
+  private String[] strings;
+  private DataSchema[] schemas;
+  private boolean includesGraphs;
+
+  private TDSnapshotReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Reads the TDs in a snapshot file.
+   *
+   * @param path the path of the snapshot file
+   * @return the TDs in the order in which they were written
+   * @throws IOException if an I/O error occurs reading the file
+   * @throws InvalidTDException if the file is not a valid snapshot
+   */
+  public static List<ThingDescription> readFromPath(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot files larger than 2 GB are not supported: " + path);
+      }
+
+      return readFromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads the TDs in a snapshot held in a byte buffer. The snapshot is read from the position of the
+   * buffer, and the position is not changed.
+   *
+   * @param buffer the buffer holding the snapshot
+   * @return the TDs in the order in which they were written
+   * @throws InvalidTDException if the buffer does not hold a valid snapshot
+   */
+  public static List<ThingDescription> readFromBuffer(ByteBuffer buffer) {
+    try {
+      return new TDSnapshotReader(buffer.duplicate()).readSnapshot();
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new InvalidTDException("Corrupted TD snapshot", e);
+    }
+  }
+
+  /**
+   * Reads the TDs in a snapshot held in a byte array.
+   *
+   * @param bytes the snapshot
+   * @return the TDs in the order in which they were written
+   * @throws InvalidTDException if the array does not hold a valid snapshot
+   */
+  public static List<ThingDescription> readFromBytes(byte[] bytes) {
+    return readFromBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  private List<ThingDescription> readSnapshot() {
+    if (buffer.remaining() < 7 || buffer.getInt() != MAGIC) {
+      throw new InvalidTDException("Not a TD snapshot");
+    }
+
+    int version = buffer.getShort();
+    if (version != VERSION) {
+      throw new InvalidTDException("Unsupported TD snapshot version: " + version);
+    }
+
+    includesGraphs = (buffer.get() & FLAG_GRAPHS) != 0;
+
+    strings = new String[readCount()];
+    for (int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[readCount()];
+      buffer.get(bytes);
+      strings[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    schemas = new DataSchema[readCount()];
+    for (int i = 0; i < schemas.length; i++) {
+      schemas[i] = readSchema(i);
+    }
+
+    int count = readCount();
+    List<ThingDescription> tds = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      tds.add(readThingDescription());
+    }
+
+    return tds;
+  }
+
+  private ThingDescription readThingDescription() {
+    ThingDescription.Builder builder = new ThingDescription.Builder(readString());
+    readOptionalString().ifPresent(builder::addThingURI);
+    readOptionalString().ifPresent(builder::addBaseURI);
+    builder.addSemanticTypes(readStringSet());
+
+    int definitions = readCount();
+    for (int i = 0; i < definitions; i++) {
+      String name = readString();
+      boolean applied = readBoolean();
+      builder.addSecurityScheme(name, readSecurityScheme(), applied);
+    }
+
+    int properties = readCount();
+    for (int i = 0; i < properties; i++) {
+      PropertyAffordance.Builder property = readAffordance(PropertyAffordance.Builder::new);
+      property.addDataSchema(readSchemaReference());
+      if (readBoolean()) {
+        property.addObserve();
+      }
+      builder.addProperty(property.build());
+    }
+
+    int actions = readCount();
+    for (int i = 0; i < actions; i++) {
+      ActionAffordance.Builder action = readAffordance(ActionAffordance.Builder::new);
+      readOptionalSchema().ifPresent(action::addInputSchema);
+      readOptionalSchema().ifPresent(action::addOutputSchema);
+      builder.addAction(action.build());
+    }
+
+    int events = readCount();
+    for (int i = 0; i < events; i++) {
+      EventAffordance.Builder event = readAffordance(EventAffordance.Builder::new);
+      readOptionalSchema().ifPresent(event::addSubscriptionSchema);
+      readOptionalSchema().ifPresent(event::addNotificationSchema);
+      readOptionalSchema().ifPresent(event::addCancellationSchema);
+      builder.addEvent(event.build());
+    }
+
+    if (includesGraphs && readBoolean()) {
+      builder.addGraph(readGraph());
+    }
+
+    return builder.build();
+  }
+
+  private SecurityScheme readSecurityScheme() {
+    int kind = buffer.get();
+    SecurityScheme.Builder<?, ?> builder;
+
+    switch (kind) {
+      case SECURITY_NOSEC:
+        readStringSet();
+        return SecurityScheme.getNoSecurityScheme();
+      case SECURITY_APIKEY:
+        builder = readTokenBasedSecurityScheme(new APIKeySecurityScheme.Builder());
+        break;
+      case SECURITY_BASIC:
+        builder = readTokenBasedSecurityScheme(new BasicSecurityScheme.Builder());
+        break;
+      case SECURITY_DIGEST:
+        builder = readTokenBasedSecurityScheme(new DigestSecurityScheme.Builder())
+          .addQoP(QualityOfProtection.fromString(readString()));
+        break;
+      case SECURITY_BEARER:
+        BearerSecurityScheme.Builder bearer =
+          readTokenBasedSecurityScheme(new BearerSecurityScheme.Builder());
+        readOptionalString().ifPresent(bearer::addAuthorization);
+        builder = bearer.addAlg(readString()).addFormat(readString());
+        break;
+      case SECURITY_PSK:
+        PSKSecurityScheme.Builder psk = new PSKSecurityScheme.Builder();
+        readOptionalString().ifPresent(psk::addIdentity);
+        builder = psk;
+        break;
+      case SECURITY_OAUTH2:
+        OAuth2SecurityScheme.Builder oauth = new OAuth2SecurityScheme.Builder(readString());
+        readOptionalString().ifPresent(oauth::addAuthorization);
+        readOptionalString().ifPresent(oauth::addToken);
+        readOptionalString().ifPresent(oauth::addRefresh);
+        Set<String> scopes = readStringSet();
+        if (!scopes.isEmpty()) {
+          oauth.addScopes(scopes);
+        }
+        builder = oauth;
+        break;
+      default:
+        throw new InvalidTDException("Unknown security scheme in TD snapshot: " + kind);
+    }
+
+    builder.addSemanticTypes(readStringSet());
+    return builder.build();
+  }
+
+  private <T extends TokenBasedSecurityScheme.Builder<?, T>> T readTokenBasedSecurityScheme(
+      T builder) {
+    builder.addTokenLocation(TokenLocation.fromString(readString()));
+    readOptionalString().ifPresent(builder::addTokenName);
+    return builder;
+  }
+
+  private <B extends InteractionAffordance.Builder<?, B>> B readAffordance(AffordanceFactory<B> factory) {
+    String name = readString();
+    Optional<String> title = readOptionalString();
+    List<String> types = readStringList();
+
+    int formCount = readCount();
+    List<Form> forms = new ArrayList<>(formCount);
+    for (int i = 0; i < formCount; i++) {
+      Form.Builder form = new Form.Builder(readString())
+        .setContentType(readString());
+      readOptionalString().ifPresent(form::setMethodName);
+      readOptionalString().ifPresent(form::addSubProtocol);
+      form.addOperationTypes(readStringSet());
+      forms.add(form.build());
+    }
+
+    B builder = factory.create(name, forms);
+    title.ifPresent(builder::addTitle);
+    builder.addSemanticTypes(types);
+
+    if (readBoolean()) {
+      builder.addUriVariables(readSchemaMap());
+    }
+
+    return builder;
+  }
+
+  private DataSchema readSchema(int index) {
+    int kind = buffer.get();
+    Set<String> semanticTypes = readStringSet();
+    Set<String> enumeration = readStringSet();
+    Optional<String> contentMediaType = readOptionalString();
+    List<DataSchema> validSchemas = readSchemaList(index);
+
+    DataSchema.JsonSchemaBuilder<?, ?> builder;
+    switch (kind) {
+      case SCHEMA_OBJECT:
+        ObjectSchema.Builder object = new ObjectSchema.Builder();
+        readSchemaMap(index).forEach(object::addProperty);
+        object.addRequiredProperties(readStringList().toArray(new String[0]));
+        builder = object;
+        break;
+      case SCHEMA_ARRAY:
+        ArraySchema.Builder array = new ArraySchema.Builder();
+        readSchemaList(index).forEach(array::addItem);
+        readOptionalInt().ifPresent(array::addMinItems);
+        readOptionalInt().ifPresent(array::addMaxItems);
+        builder = array;
+        break;
+      case SCHEMA_STRING:
+        builder = new StringSchema.Builder();
+        break;
+      case SCHEMA_NUMBER:
+        NumberSchema.Builder number = new NumberSchema.Builder();
+        readOptionalDouble().ifPresent(number::addMinimum);
+        readOptionalDouble().ifPresent(number::addMaximum);
+        builder = number;
+        break;
+      case SCHEMA_INTEGER:
+        IntegerSchema.Builder integer = new IntegerSchema.Builder();
+        readOptionalDouble().ifPresent(minimum -> integer.addMinimum(minimum.intValue()));
+        readOptionalDouble().ifPresent(maximum -> integer.addMaximum(maximum.intValue()));
+        builder = integer;
+        break;
+      case SCHEMA_BOOLEAN:
+        builder = new BooleanSchema.Builder();
+        break;
+      case SCHEMA_NULL:
+        builder = new NullSchema.Builder();
+        break;
+      case SCHEMA_DATA:
+        builder = new DataSchema.Builder();
+        break;
+      default:
+        throw new InvalidTDException("Unknown data schema in TD snapshot: " + kind);
+    }
+
+    builder.addSemanticTypes(semanticTypes);
+    if (!enumeration.isEmpty()) {
+      builder.addEnum(enumeration);
+    }
+    contentMediaType.ifPresent(builder::setContentMediaType);
+    if (!validSchemas.isEmpty()) {
+      builder.oneOf(validSchemas.toArray(new DataSchema[0]));
+    }
+
+    return builder.build();
+  }
+
+  private DataSchema readSchemaReference() {
+    return schemas[readVarInt()];
+  }
+
+  /*
+   * Within the schema table, a schema may only refer to the schemas written before it.
+   */
+  private DataSchema readSchemaReference(int limit) {
+    int index = readVarInt();
+    if (index >= limit) {
+      throw new InvalidTDException("Invalid data schema reference in TD snapshot: " + index);
+    }
+    return schemas[index];
+  }
+
+  private Optional<DataSchema> readOptionalSchema() {
+    int reference = readVarInt();
+    return (reference == 0) ? Optional.empty() : Optional.of(schemas[reference - 1]);
+  }
+
+  private Map<String, DataSchema> readSchemaMap() {
+    return readSchemaMap(schemas.length);
+  }
+
+  private Map<String, DataSchema> readSchemaMap(int limit) {
+    int size = readCount();
+    Map<String, DataSchema> schemaMap = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      schemaMap.put(readString(), readSchemaReference(limit));
+    }
+    return schemaMap;
+  }
+
+  private List<DataSchema> readSchemaList(int limit) {
+    int size = readCount();
+    List<DataSchema> schemaList = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      schemaList.add(readSchemaReference(limit));
+    }
+    return schemaList;
+  }
+
+  private Model readGraph() {
+    Model graph = new LinkedHashModel();
+
+    int namespaces = readCount();
+    for (int i = 0; i < namespaces; i++) {
+      graph.setNamespace(readString(), readString());
+    }
+
+    int statements = readCount();
+    for (int i = 0; i < statements; i++) {
+      Resource subject = (Resource) readTerm();
+      IRI predicate = (IRI) readTerm();
+      Value object = readTerm();
+      Resource context = (Resource) readTerm();
+
+      if (context == null) {
+        graph.add(subject, predicate, object);
+      } else {
+        graph.add(subject, predicate, object, context);
+      }
+    }
+
+    return graph;
+  }
+
+  private Value readTerm() {
+    int kind = buffer.get();
+
+    switch (kind) {
+      case TERM_NONE:
+        return null;
+      case TERM_IRI:
+        return VocabularyIRIs.toIRI(readString());
+      case TERM_BNODE:
+        return rdf.createBNode(readString());
+      case TERM_TYPED_LITERAL:
+        return rdf.createLiteral(readString(), VocabularyIRIs.toIRI(readString()));
+      case TERM_LANGUAGE_LITERAL:
+        return rdf.createLiteral(readString(), readString());
+      default:
+        throw new InvalidTDException("Unknown RDF term in TD snapshot: " + kind);
+    }
+  }
+
+  private String readString() {
+    return strings[readVarInt()];
+  }
+
+  private Optional<String> readOptionalString() {
+    return readBoolean() ? Optional.of(readString()) : Optional.empty();
+  }
+
+  private List<String> readStringList() {
+    int size = readCount();
+    List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(readString());
+    }
+    return values;
+  }
+
+  private Set<String> readStringSet() {
+    return new LinkedHashSet<>(readStringList());
+  }
+
+  private boolean readBoolean() {
+    return buffer.get() != 0;
+  }
+
+  private Optional<Integer> readOptionalInt() {
+    return readBoolean() ? Optional.of(readVarInt()) : Optional.empty();
+  }
+
+  private Optional<Double> readOptionalDouble() {
+    return readBoolean() ? Optional.of(buffer.getDouble()) : Optional.empty();
+  }
+
+  /*
+   * Reads the number of elements of an array or a collection. Each element takes at least one byte,
+   * so a count that exceeds the remaining bytes is corrupted and is rejected before anything is
+   * allocated.
+   */
+  private int readCount() {
+    int count = readVarInt();
+    if (count < 0 || count > buffer.remaining()) {
+      throw new InvalidTDException("Invalid count in TD snapshot: " + count);
+    }
+    return count;
+  }
+
+  private int readVarInt() {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new InvalidTDException("Corrupted TD snapshot");
+  }
+
+  @FunctionalInterface
+  private interface AffordanceFactory<B> {
+    B create(String name, List<Form> forms);
+  }
+}
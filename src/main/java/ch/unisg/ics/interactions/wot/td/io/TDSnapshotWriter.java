@@ -0,0 +1,433 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.*;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.*;
+import org.eclipse.rdf4j.model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A writer for binary snapshots of TDs, which can be loaded with {@link TDSnapshotReader} without
+ * parsing any RDF. A snapshot contains the object model of a collection of TDs (affordances, forms,
+ * data schemas, and security schemes) and, optionally, the RDF graph of each TD.
+ * <p>
+ * All strings are stored once in a string table, and structurally equal data schemas are stored
+ * once in a schema table, such that TDs of devices of the same model take little space. The format
+ * is versioned: snapshots written with a newer version of the format are rejected by older readers.
+ * <p>
+ * Only the security schemes defined in the <code>security</code> package are supported.
+ */
+public class TDSnapshotWriter {
+  static final int MAGIC = 0x57544453;
+  static final int VERSION = 1;
+
+  static final int FLAG_GRAPHS = 1;
+
+  /* Data schema kinds */
+  static final int SCHEMA_DATA = 0;
+  static final int SCHEMA_OBJECT = 1;
+  static final int SCHEMA_ARRAY = 2;
+  static final int SCHEMA_STRING = 3;
+  static final int SCHEMA_NUMBER = 4;
+  static final int SCHEMA_INTEGER = 5;
+  static final int SCHEMA_BOOLEAN = 6;
+  static final int SCHEMA_NULL = 7;
+
+  /* Security scheme kinds */
+  static final int SECURITY_NOSEC = 0;
+  static final int SECURITY_APIKEY = 1;
+  static final int SECURITY_BASIC = 2;
+  static final int SECURITY_DIGEST = 3;
+  static final int SECURITY_BEARER = 4;
+  static final int SECURITY_PSK = 5;
+  static final int SECURITY_OAUTH2 = 6;
+
+  /* RDF term kinds */
+  static final int TERM_NONE = 0;
+  static final int TERM_IRI = 1;
+  static final int TERM_BNODE = 2;
+  static final int TERM_TYPED_LITERAL = 3;
+  static final int TERM_LANGUAGE_LITERAL = 4;
+
+  private boolean includeGraphs;
+
+  private final Map<String, Integer> strings;
+  private final Map<DataSchema, Integer> schemas;
+  private final DataOutputStream schemaTable;
+  private final ByteArrayOutputStream schemaBytes;
+
+  public TDSnapshotWriter() {
+    this.includeGraphs = false;
+    this.strings = new LinkedHashMap<>();
+    this.schemas = new HashMap<>();
+    this.schemaBytes = new ByteArrayOutputStream();
+    this.schemaTable = new DataOutputStream(schemaBytes);
+  }
+
+  /**
+   * Sets whether the RDF graphs of the TDs are included in the snapshot. By default, only the object
+   * model of the TDs is included.
+   *
+   * @param includeGraphs <code>true</code> to include the RDF graphs
+   * @return this <code>TDSnapshotWriter</code>
+   */
+  public TDSnapshotWriter setIncludeGraphs(boolean includeGraphs) {
+    this.includeGraphs = includeGraphs;
+    return this;
+  }
+
+  /**
+   * Writes a snapshot of the given TDs to a file. An existing file is replaced.
+   *
+   * @param tds the TDs to be written, in the order in which they are read
+   * @param path the path of the snapshot file
+   * @throws IOException if an I/O error occurs writing the file
+   */
+  public void write(Collection<ThingDescription> tds, Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      write(tds, out);
+    }
+  }
+
+  /**
+   * Writes a snapshot of the given TDs to an output stream. The stream is not closed.
+   *
+   * @param tds the TDs to be written, in the order in which they are read
+   * @param out the output stream
+   * @throws IOException if an I/O error occurs writing to the stream
+   */
+  public void write(Collection<ThingDescription> tds, OutputStream out) throws IOException {
+    strings.clear();
+    schemas.clear();
+    schemaBytes.reset();
+
+    // The string and schema tables are written first, so the TDs are encoded beforehand
+    ByteArrayOutputStream tdBytes = new ByteArrayOutputStream();
+    DataOutputStream tdOut = new DataOutputStream(tdBytes);
+
+    writeVarInt(tdOut, tds.size());
+    for (ThingDescription td : tds) {
+      writeThingDescription(tdOut, td);
+    }
+    tdOut.flush();
+    schemaTable.flush();
+
+    DataOutputStream dataOut = new DataOutputStream(out);
+    dataOut.writeInt(MAGIC);
+    dataOut.writeShort(VERSION);
+    dataOut.writeByte(includeGraphs ? FLAG_GRAPHS : 0);
+
+    writeVarInt(dataOut, strings.size());
+    for (String string : strings.keySet()) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(dataOut, bytes.length);
+      dataOut.write(bytes);
+    }
+
+    writeVarInt(dataOut, schemas.size());
+    schemaBytes.writeTo(dataOut);
+    tdBytes.writeTo(dataOut);
+    dataOut.flush();
+  }
+
+  private void writeThingDescription(DataOutputStream out, ThingDescription td) throws IOException {
+    writeString(out, td.getTitle());
+    writeOptionalString(out, td.getThingURI());
+    writeOptionalString(out, td.getBaseURI());
+    writeStrings(out, td.getSemanticTypes());
+
+    Map<String, SecurityScheme> definitions = td.getSecurityDefinitions();
+    writeVarInt(out, definitions.size());
+    for (Map.Entry<String, SecurityScheme> definition : definitions.entrySet()) {
+      writeString(out, definition.getKey());
+      out.writeBoolean(td.getSecuritySchemes().contains(definition.getValue()));
+      writeSecurityScheme(out, definition.getValue());
+    }
+
+    writeVarInt(out, td.getProperties().size());
+    for (PropertyAffordance property : td.getProperties()) {
+      writeAffordance(out, property);
+      writeSchemaReference(out, property.getDataSchema());
+      out.writeBoolean(property.isObservable());
+    }
+
+    writeVarInt(out, td.getActions().size());
+    for (ActionAffordance action : td.getActions()) {
+      writeAffordance(out, action);
+      writeOptionalSchema(out, action.getInputSchema());
+      writeOptionalSchema(out, action.getOutputSchema());
+    }
+
+    writeVarInt(out, td.getEvents().size());
+    for (EventAffordance event : td.getEvents()) {
+      writeAffordance(out, event);
+      writeOptionalSchema(out, event.getSubscriptionSchema());
+      writeOptionalSchema(out, event.getNotificationSchema());
+      writeOptionalSchema(out, event.getCancellationSchema());
+    }
+
+    if (includeGraphs) {
+      writeGraph(out, td.getGraph());
+    }
+  }
+
+  private void writeSecurityScheme(DataOutputStream out, SecurityScheme scheme) throws IOException {
+    if (scheme instanceof APIKeySecurityScheme) {
+      out.writeByte(SECURITY_APIKEY);
+      writeTokenBasedSecurityScheme(out, (TokenBasedSecurityScheme) scheme);
+    } else if (scheme instanceof BasicSecurityScheme) {
+      out.writeByte(SECURITY_BASIC);
+      writeTokenBasedSecurityScheme(out, (TokenBasedSecurityScheme) scheme);
+    } else if (scheme instanceof DigestSecurityScheme) {
+      out.writeByte(SECURITY_DIGEST);
+      writeTokenBasedSecurityScheme(out, (TokenBasedSecurityScheme) scheme);
+      writeString(out, ((DigestSecurityScheme) scheme).getQoP().toString());
+    } else if (scheme instanceof BearerSecurityScheme) {
+      BearerSecurityScheme bearer = (BearerSecurityScheme) scheme;
+      out.writeByte(SECURITY_BEARER);
+      writeTokenBasedSecurityScheme(out, bearer);
+      writeOptionalString(out, bearer.getAuthorization());
+      writeString(out, bearer.getAlg());
+      writeString(out, bearer.getFormat());
+    } else if (scheme instanceof PSKSecurityScheme) {
+      out.writeByte(SECURITY_PSK);
+      writeOptionalString(out, ((PSKSecurityScheme) scheme).getIdentity());
+    } else if (scheme instanceof OAuth2SecurityScheme) {
+      OAuth2SecurityScheme oauth = (OAuth2SecurityScheme) scheme;
+      out.writeByte(SECURITY_OAUTH2);
+      writeString(out, oauth.getFlow());
+      writeOptionalString(out, oauth.getAuthorization());
+      writeOptionalString(out, oauth.getToken());
+      writeOptionalString(out, oauth.getRefresh());
+      writeStrings(out, oauth.getScopes().orElse(Collections.emptySet()));
+    } else if (SecurityScheme.NOSEC.equals(scheme.getSchemeName())) {
+      out.writeByte(SECURITY_NOSEC);
+    } else {
+      throw new InvalidTDException("Unsupported security scheme: " + scheme.getSchemeName());
+    }
+
+    writeStrings(out, scheme.getSemanticTypes());
+  }
+
+  private void writeTokenBasedSecurityScheme(DataOutputStream out, TokenBasedSecurityScheme scheme)
+      throws IOException {
+    writeString(out, scheme.getTokenLocation().toString());
+    writeOptionalString(out, scheme.getTokenName());
+  }
+
+  private void writeAffordance(DataOutputStream out, InteractionAffordance affordance)
+      throws IOException {
+    writeString(out, affordance.getName());
+    writeOptionalString(out, affordance.getTitle());
+    writeStrings(out, affordance.getSemanticTypes());
+
+    writeVarInt(out, affordance.getForms().size());
+    for (Form form : affordance.getForms()) {
+      writeString(out, form.getTarget());
+      writeString(out, form.getContentType());
+      writeOptionalString(out, form.getMethodName());
+      writeOptionalString(out, form.getSubProtocol());
+      writeStrings(out, form.getOperationTypes());
+    }
+
+    Optional<Map<String, DataSchema>> uriVariables = affordance.getUriVariables();
+    out.writeBoolean(uriVariables.isPresent());
+    if (uriVariables.isPresent()) {
+      writeSchemaMap(out, uriVariables.get());
+    }
+  }
+
+  private void writeOptionalSchema(DataOutputStream out, Optional<DataSchema> schema)
+      throws IOException {
+    writeVarInt(out, schema.isPresent() ? addSchema(schema.get()) + 1 : 0);
+  }
+
+  private void writeSchemaReference(DataOutputStream out, DataSchema schema) throws IOException {
+    writeVarInt(out, addSchema(schema));
+  }
+
+  private void writeSchemaMap(DataOutputStream out, Map<String, DataSchema> schemaMap)
+      throws IOException {
+    writeVarInt(out, schemaMap.size());
+    for (Map.Entry<String, DataSchema> entry : schemaMap.entrySet()) {
+      writeString(out, entry.getKey());
+      writeSchemaReference(out, entry.getValue());
+    }
+  }
+
+  private void writeSchemaList(DataOutputStream out, List<DataSchema> schemaList) throws IOException {
+    writeVarInt(out, schemaList.size());
+    for (DataSchema schema : schemaList) {
+      writeSchemaReference(out, schema);
+    }
+  }
+
+  /*
+   * Subschemas are added to the schema table before their parents, such that the reader can resolve
+   * all schema references while reading the table sequentially.
+   */
+  private int addSchema(DataSchema schema) throws IOException {
+    Integer index = schemas.get(schema);
+    if (index != null) {
+      return index;
+    }
+
+    ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    DataOutputStream record = new DataOutputStream(recordBytes);
+
+    record.writeByte(getSchemaKind(schema));
+    writeStrings(record, schema.getSemanticTypes());
+    writeStrings(record, schema.getEnumeration());
+    writeOptionalString(record, schema.getContentMediaType());
+    writeSchemaList(record, schema.getValidSchemas());
+
+    if (schema instanceof ObjectSchema) {
+      ObjectSchema objectSchema = (ObjectSchema) schema;
+      writeSchemaMap(record, objectSchema.getProperties());
+      writeStrings(record, objectSchema.getRequiredProperties());
+    } else if (schema instanceof ArraySchema) {
+      ArraySchema arraySchema = (ArraySchema) schema;
+      writeSchemaList(record, arraySchema.getItems());
+      writeOptionalInt(record, arraySchema.getMinItems());
+      writeOptionalInt(record, arraySchema.getMaxItems());
+    } else if (schema instanceof NumberSchema) {
+      NumberSchema numberSchema = (NumberSchema) schema;
+      writeOptionalDouble(record, numberSchema.getMinimum());
+      writeOptionalDouble(record, numberSchema.getMaximum());
+    }
+
+    record.flush();
+    recordBytes.writeTo(schemaTable);
+
+    index = schemas.size();
+    schemas.put(schema, index);
+    return index;
+  }
+
+  private static int getSchemaKind(DataSchema schema) {
+    switch (schema.getDatatype()) {
+      case DataSchema.OBJECT:
+        return SCHEMA_OBJECT;
+      case DataSchema.ARRAY:
+        return SCHEMA_ARRAY;
+      case DataSchema.STRING:
+        return SCHEMA_STRING;
+      case DataSchema.NUMBER:
+        return SCHEMA_NUMBER;
+      case DataSchema.INTEGER:
+        return SCHEMA_INTEGER;
+      case DataSchema.BOOLEAN:
+        return SCHEMA_BOOLEAN;
+      case DataSchema.NULL:
+        return SCHEMA_NULL;
+      default:
+        return SCHEMA_DATA;
+    }
+  }
+
+  private void writeGraph(DataOutputStream out, Optional<Model> graph) throws IOException {
+    out.writeBoolean(graph.isPresent());
+    if (!graph.isPresent()) {
+      return;
+    }
+
+    Set<Namespace> namespaces = graph.get().getNamespaces();
+    writeVarInt(out, namespaces.size());
+    for (Namespace namespace : namespaces) {
+      writeString(out, namespace.getPrefix());
+      writeString(out, namespace.getName());
+    }
+
+    writeVarInt(out, graph.get().size());
+    for (Statement statement : graph.get()) {
+      writeTerm(out, statement.getSubject());
+      writeTerm(out, statement.getPredicate());
+      writeTerm(out, statement.getObject());
+      writeTerm(out, statement.getContext());
+    }
+  }
+
+  private void writeTerm(DataOutputStream out, Value term) throws IOException {
+    if (term == null) {
+      out.writeByte(TERM_NONE);
+    } else if (term.isIRI()) {
+      out.writeByte(TERM_IRI);
+      writeString(out, term.stringValue());
+    } else if (term.isBNode()) {
+      out.writeByte(TERM_BNODE);
+      writeString(out, ((BNode) term).getID());
+    } else if (term.isLiteral()) {
+      Literal literal = (Literal) term;
+      if (literal.getLanguage().isPresent()) {
+        out.writeByte(TERM_LANGUAGE_LITERAL);
+        writeString(out, literal.getLabel());
+        writeString(out, literal.getLanguage().get());
+      } else {
+        out.writeByte(TERM_TYPED_LITERAL);
+        writeString(out, literal.getLabel());
+        writeString(out, literal.getDatatype().stringValue());
+      }
+    } else {
+      throw new InvalidTDException("Unsupported RDF term in TD graph: " + term);
+    }
+  }
+
+  private void writeString(DataOutputStream out, String value) throws IOException {
+    Integer index = strings.get(value);
+    if (index == null) {
+      index = strings.size();
+      strings.put(value, index);
+    }
+
+    writeVarInt(out, index);
+  }
+
+  private void writeOptionalString(DataOutputStream out, Optional<String> value) throws IOException {
+    if (value.isPresent()) {
+      out.writeBoolean(true);
+      writeString(out, value.get());
+    } else {
+      out.writeBoolean(false);
+    }
+  }
+
+  private void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+    writeVarInt(out, values.size());
+    for (String value : values) {
+      writeString(out, value);
+    }
+  }
+
+  private static void writeOptionalInt(DataOutputStream out, Optional<Integer> value)
+      throws IOException {
+    out.writeBoolean(value.isPresent());
+    if (value.isPresent()) {
+      writeVarInt(out, value.get());
+    }
+  }
+
+  private static void writeOptionalDouble(DataOutputStream out, Optional<Double> value)
+      throws IOException {
+    out.writeBoolean(value.isPresent());
+    if (value.isPresent()) {
+      out.writeDouble(value.get());
+    }
+  }
+
+  /*
+   * Unsigned LEB128 encoding, the values written are never negative.
+   */
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+}
@@ -0,0 +1,55 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.*;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps IRIs given as strings to the <code>IRI</code> constants defined in the
+ * <code>vocabularies</code> package, such that writers do not create a new <code>IRI</code> for
+ * each vocabulary term they write (e.g., semantic types and operation types).
+ */
+final class VocabularyIRIs {
+  private static final Map<String, IRI> IRIS = loadIRIs(TD.class, HCTL.class, HTV.class, COV.class,
+    JSONSchema.class, WoTSec.class, DCT.class);
+
+  private VocabularyIRIs() { }
+
+  /**
+   * Returns the <code>IRI</code> constant for a vocabulary term, or a new <code>IRI</code> if the
+   * given IRI is not a known vocabulary term.
+   *
+   * @param iri the IRI as a string
+   * @return the IRI
+   * @throws IllegalArgumentException if the string is not a valid IRI
+   */
+  static IRI toIRI(String iri) {
+    IRI constant = IRIS.get(iri);
+    return (constant == null) ? SimpleValueFactory.getInstance().createIRI(iri) : constant;
+  }
+
+  private static Map<String, IRI> loadIRIs(Class<?>... vocabularies) {
+    Map<String, IRI> iris = new HashMap<>();
+
+    for (Class<?> vocabulary : vocabularies) {
+      for (Field field : vocabulary.getFields()) {
+        if (field.getType() == IRI.class && Modifier.isStatic(field.getModifiers())) {
+          try {
+            IRI iri = (IRI) field.get(null);
+            iris.put(iri.stringValue(), iri);
+          } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      }
+    }
+
+    return Collections.unmodifiableMap(iris);
+  }
+}
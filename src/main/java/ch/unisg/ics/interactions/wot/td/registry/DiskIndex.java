@@ -0,0 +1,286 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * A read-only, memory-mapped index file of a {@link PersistentThingRegistry}. The file has one section
+ * per indexed attribute (URI, title, semantic type, and operation type). Each section is an
+ * open-addressing hash table that maps a key to the offsets of the matching records in the data file.
+ * <p>
+ * Layout of the file (big-endian):
+ * <pre>
+ * header:  int magic, int version, long dataLength, int count, int[SECTIONS] sectionOffsets
+ * section: int bucketCount, bucketCount * (int keyOffset, int postingsOffset, int postingsCount),
+ *          keys (int length, UTF-8 bytes), postings (long offsets)
+ * </pre>
+ * Empty buckets have a key offset of -1. Offsets within the index are absolute positions in the file.
+ * The data length is the length of the data file covered by the index: records appended after that
+ * position are replayed when the registry is opened.
+ */
+final class DiskIndex {
+  static final int URI = 0;
+  static final int TITLE = 1;
+  static final int SEMANTIC_TYPE = 2;
+  static final int OPERATION_TYPE = 3;
+  static final int SECTIONS = 4;
+
+  private static final int MAGIC = 0x57544449;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 20 + 4 * SECTIONS;
+  private static final int BUCKET_SIZE = 12;
+  private static final long[] NONE = new long[0];
+
+  private final ByteBuffer buffer;
+  private final long dataLength;
+  private final int count;
+  private final int[] sectionOffsets;
+
+  private DiskIndex(ByteBuffer buffer, long dataLength, int count, int[] sectionOffsets) {
+    this.buffer = buffer;
+    this.dataLength = dataLength;
+    this.count = count;
+    this.sectionOffsets = sectionOffsets;
+  }
+
+  /*
+   * An index without entries, which covers the given length of the data file.
+   */
+  static DiskIndex empty(long dataLength) {
+    return new DiskIndex(null, dataLength, 0, null);
+  }
+
+  /*
+   * Maps an index file. The index is rejected if it is missing, if it was written with another
+   * version of the format, or if it covers more data than the data file contains (e.g., if the data
+   * file was truncated after a crash).
+   */
+  static Optional<DiskIndex> open(Path path, long maxDataLength) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        return Optional.empty();
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      return Optional.empty();
+    }
+
+    long dataLength = buffer.getLong(8);
+    int count = buffer.getInt(16);
+    if (dataLength > maxDataLength || count < 0) {
+      return Optional.empty();
+    }
+
+    int[] sectionOffsets = new int[SECTIONS];
+    for (int i = 0; i < SECTIONS; i++) {
+      sectionOffsets[i] = buffer.getInt(20 + 4 * i);
+      if (sectionOffsets[i] < HEADER_SIZE || sectionOffsets[i] > buffer.limit() - 4) {
+        return Optional.empty();
+      }
+    }
+
+    return Optional.of(new DiskIndex(buffer, dataLength, count, sectionOffsets));
+  }
+
+  /*
+   * Writes an index file. The file is first written next to the target and then atomically moved,
+   * such that a crash leaves either the previous index or the new index in place.
+   */
+  static void write(Path path, long dataLength, int count, List<Map<String, List<Long>>> sections)
+      throws IOException {
+    int size = HEADER_SIZE;
+    for (Map<String, List<Long>> section : sections) {
+      size += getSectionSize(section);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(dataLength).putInt(count);
+
+    int sectionOffset = HEADER_SIZE;
+    for (Map<String, List<Long>> section : sections) {
+      buffer.putInt(sectionOffset);
+      sectionOffset += getSectionSize(section);
+    }
+
+    for (Map<String, List<Long>> section : sections) {
+      writeSection(buffer, section);
+    }
+
+    Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+
+    Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  long getDataLength() {
+    return dataLength;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  /*
+   * Gets the offsets of the records indexed under a given key.
+   */
+  long[] lookup(int section, String key) {
+    if (buffer == null) {
+      return NONE;
+    }
+
+    int start = sectionOffsets[section];
+    int mask = buffer.getInt(start) - 1;
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      int bucket = start + 4 + i * BUCKET_SIZE;
+      int keyOffset = buffer.getInt(bucket);
+
+      if (keyOffset < 0) {
+        return NONE;
+      }
+      if (keyEquals(keyOffset, keyBytes)) {
+        return readPostings(bucket);
+      }
+    }
+  }
+
+  /*
+   * Iterates over all the keys of a section and their record offsets.
+   */
+  void forEach(int section, BiConsumer<String, long[]> action) {
+    if (buffer == null) {
+      return;
+    }
+
+    int start = sectionOffsets[section];
+    int bucketCount = buffer.getInt(start);
+
+    for (int i = 0; i < bucketCount; i++) {
+      int bucket = start + 4 + i * BUCKET_SIZE;
+      int keyOffset = buffer.getInt(bucket);
+
+      if (keyOffset >= 0) {
+        byte[] keyBytes = new byte[buffer.getInt(keyOffset)];
+        buffer.slice(keyOffset + 4, keyBytes.length).get(keyBytes);
+        action.accept(new String(keyBytes, StandardCharsets.UTF_8), readPostings(bucket));
+      }
+    }
+  }
+
+  private boolean keyEquals(int keyOffset, byte[] keyBytes) {
+    if (buffer.getInt(keyOffset) != keyBytes.length) {
+      return false;
+    }
+
+    for (int i = 0; i < keyBytes.length; i++) {
+      if (buffer.get(keyOffset + 4 + i) != keyBytes[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private long[] readPostings(int bucket) {
+    int postingsOffset = buffer.getInt(bucket + 4);
+    long[] postings = new long[buffer.getInt(bucket + 8)];
+
+    for (int i = 0; i < postings.length; i++) {
+      postings[i] = buffer.getLong(postingsOffset + 8 * i);
+    }
+
+    return postings;
+  }
+
+  private static void writeSection(ByteBuffer buffer, Map<String, List<Long>> section) {
+    int start = buffer.position();
+    int bucketCount = getBucketCount(section.size());
+
+    List<byte[]> keys = new ArrayList<>(section.size());
+    for (String key : section.keySet()) {
+      keys.add(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int[] buckets = new int[bucketCount * 3];
+    Arrays.fill(buckets, -1);
+
+    int keyOffset = start + 4 + bucketCount * BUCKET_SIZE;
+    int postingsOffset = keyOffset;
+    for (byte[] key : keys) {
+      postingsOffset += 4 + key.length;
+    }
+
+    int keyIndex = 0;
+    for (Map.Entry<String, List<Long>> entry : section.entrySet()) {
+      int i = hash(entry.getKey()) & (bucketCount - 1);
+      while (buckets[3 * i] >= 0) {
+        i = (i + 1) & (bucketCount - 1);
+      }
+
+      buckets[3 * i] = keyOffset;
+      buckets[3 * i + 1] = postingsOffset;
+      buckets[3 * i + 2] = entry.getValue().size();
+
+      keyOffset += 4 + keys.get(keyIndex++).length;
+      postingsOffset += 8 * entry.getValue().size();
+    }
+
+    buffer.putInt(bucketCount);
+    for (int value : buckets) {
+      buffer.putInt(value);
+    }
+    for (byte[] key : keys) {
+      buffer.putInt(key.length).put(key);
+    }
+    for (List<Long> postings : section.values()) {
+      postings.forEach(buffer::putLong);
+    }
+  }
+
+  private static int getSectionSize(Map<String, List<Long>> section) {
+    int size = 4 + getBucketCount(section.size()) * BUCKET_SIZE;
+
+    for (Map.Entry<String, List<Long>> entry : section.entrySet()) {
+      size += 4 + entry.getKey().getBytes(StandardCharsets.UTF_8).length
+        + 8 * entry.getValue().size();
+    }
+
+    return size;
+  }
+
+  /*
+   * The load factor is at most 0.5, such that probing always ends on an empty bucket.
+   */
+  private static int getBucketCount(int keyCount) {
+    return Math.max(2, Integer.highestOneBit(Math.max(1, keyCount * 2 - 1)) << 1);
+  }
+
+  private static int hash(String key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+}
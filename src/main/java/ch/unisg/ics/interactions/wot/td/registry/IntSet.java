@@ -0,0 +1,119 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative integers backed by an open-addressing hash table with linear probing, which
+ * avoids boxing the dictionary identifiers stored in the indexes of a {@link TDGraphStore}. Not
+ * thread-safe.
+ */
+final class IntSet {
+  private static final int EMPTY = -1;
+
+  private int[] slots;
+  private int size;
+
+  IntSet() {
+    this.slots = new int[4];
+    Arrays.fill(slots, EMPTY);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean contains(int value) {
+    int mask = slots.length - 1;
+
+    for (int i = mix(value) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+      if (slots[i] == value) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  boolean add(int value) {
+    if ((size + 1) * 2 > slots.length) {
+      resize(slots.length * 2);
+    }
+
+    int mask = slots.length - 1;
+    int i = mix(value) & mask;
+
+    while (slots[i] != EMPTY) {
+      if (slots[i] == value) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+
+    slots[i] = value;
+    size++;
+    return true;
+  }
+
+  /*
+   * Removes a value and shifts back the values of the same probe sequence, such that lookups never
+   * stop early on the emptied slot.
+   */
+  boolean remove(int value) {
+    int mask = slots.length - 1;
+    int i = mix(value) & mask;
+
+    while (slots[i] != value) {
+      if (slots[i] == EMPTY) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+
+    slots[i] = EMPTY;
+    size--;
+
+    for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+      int home = mix(slots[j]) & mask;
+
+      if (((j - home) & mask) >= ((j - i) & mask)) {
+        slots[i] = slots[j];
+        slots[j] = EMPTY;
+        i = j;
+      }
+    }
+
+    return true;
+  }
+
+  void forEach(IntConsumer action) {
+    for (int value : slots) {
+      if (value != EMPTY) {
+        action.accept(value);
+      }
+    }
+  }
+
+  private void resize(int capacity) {
+    int[] previous = slots;
+
+    slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    size = 0;
+
+    for (int value : previous) {
+      if (value != EMPTY) {
+        add(value);
+      }
+    }
+  }
+
+  private static int mix(int value) {
+    int h = value * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,686 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
+import ch.unisg.ics.interactions.wot.td.io.TDSnapshotReader;
+import ch.unisg.ics.interactions.wot.td.io.TDSnapshotWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A registry of TDs persisted in a directory, which can hold more TDs than fit in memory and can be
+ * reopened without parsing the TDs again. A <code>PersistentThingRegistry</code> is opened using a
+ * <code>PersistentThingRegistry.Builder</code>.
+ * <p>
+ * TDs are stored in an append-only data file as records in the format of {@link TDSnapshotWriter}.
+ * Registering or unregistering a TD appends a record, and each record is protected by a CRC-32
+ * checksum. The registry also maintains a memory-mapped index file (see {@link DiskIndex}) that
+ * maps Thing URIs, titles, semantic types of Things, and operation types of forms to records. Changes
+ * made since the index file was last written are held in memory and are merged into the index file
+ * when the registry is checkpointed: after a configurable number of changes, and when the registry is
+ * closed.
+ * <p>
+ * TDs are decoded on demand and the most recently read TDs are kept in memory. When the registry is
+ * opened, records appended after the last checkpoint are replayed. A record that was only partially
+ * written, e.g. because the process crashed, is discarded and the data file is truncated. If the
+ * index file is missing or does not match the data file, it is rebuilt from the data file.
+ * <p>
+ * A registry is safe for use by multiple threads. A directory can only be opened by one registry at
+ * a time.
+ */
+public class PersistentThingRegistry implements Closeable {
+  static final String DATA_FILE = "tds.data";
+  static final String INDEX_FILE = "tds.index";
+
+  private static final int DATA_MAGIC = 0x57544452;
+  private static final int DATA_VERSION = 1;
+  private static final int DATA_HEADER_SIZE = 8;
+  private static final int RECORD_HEADER_SIZE = 9;
+
+  private static final byte RECORD_REGISTER = 1;
+  private static final byte RECORD_UNREGISTER = 2;
+
+  private final Path indexPath;
+  private final FileChannel data;
+  private final FileLock lock;
+  private final boolean syncOnWrite;
+  private final int checkpointInterval;
+  private final Map<Long, ThingDescription> cache;
+
+  private final Map<String, Entry> changes;
+  private final Set<Long> supersededOffsets;
+  private DiskIndex index;
+  private long dataLength;
+  private boolean closed;
+
+  private PersistentThingRegistry(Path directory, int cacheSize, boolean syncOnWrite,
+      int checkpointInterval) throws IOException {
+    Files.createDirectories(directory);
+
+    this.indexPath = directory.resolve(INDEX_FILE);
+    this.data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE,
+      StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.lock = tryLock(data);
+    if (lock == null) {
+      data.close();
+      throw new IOException("The registry is already open: " + directory);
+    }
+
+    this.syncOnWrite = syncOnWrite;
+    this.checkpointInterval = checkpointInterval;
+    this.cache = new LinkedHashMap<Long, ThingDescription>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, ThingDescription> eldest) {
+        return size() > cacheSize;
+      }
+    };
+
+    this.changes = new LinkedHashMap<>();
+    this.supersededOffsets = new HashSet<>();
+
+    try {
+      recover();
+    } catch (IOException | RuntimeException e) {
+      close(false);
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the registry stored in a directory with the default options, or creates a new registry if
+   * the directory does not contain one.
+   *
+   * @param directory the directory of the registry
+   * @return the registry
+   * @throws IOException if an I/O error occurs while opening the registry
+   */
+  public static PersistentThingRegistry open(Path directory) throws IOException {
+    return new Builder(directory).open();
+  }
+
+  /**
+   * Registers a TD. A TD previously registered with the same Thing URI is replaced.
+   *
+   * @param td the TD to be registered
+   * @throws IllegalArgumentException if the TD does not have a Thing URI
+   * @throws IOException if an I/O error occurs while writing the TD
+   */
+  public synchronized void register(ThingDescription td) throws IOException {
+    ensureOpen();
+
+    if (!td.getThingURI().isPresent()) {
+      throw new IllegalArgumentException("Only TDs with a Thing URI can be registered.");
+    }
+
+    Entry entry = new Entry(td.getThingURI().get(), td.getTitle(), td.getSemanticTypes(),
+      getOperationTypes(td));
+
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    new TDSnapshotWriter().setIncludeGraphs(true).write(Collections.singletonList(td), snapshot);
+
+    ByteBuffer payload = ByteBuffer.allocate(getSize(entry) + 4 + snapshot.size());
+    putString(payload, entry.uri);
+    putString(payload, entry.title);
+    putStrings(payload, entry.semanticTypes);
+    putStrings(payload, entry.operationTypes);
+    payload.putInt(snapshot.size()).put(snapshot.toByteArray());
+
+    entry.offset = append(RECORD_REGISTER, payload);
+    apply(entry);
+    cache.put(entry.offset, td);
+
+    checkpointIfNeeded();
+  }
+
+  /**
+   * Removes the TD registered with a given Thing URI.
+   *
+   * @param thingURI the Thing URI
+   * @return <code>true</code> if a TD was removed
+   * @throws IOException if an I/O error occurs while writing the change
+   */
+  public synchronized boolean unregister(String thingURI) throws IOException {
+    ensureOpen();
+
+    if (getOffset(thingURI) < 0) {
+      return false;
+    }
+
+    ByteBuffer payload = ByteBuffer.allocate(getSize(thingURI));
+    putString(payload, thingURI);
+
+    append(RECORD_UNREGISTER, payload);
+    apply(new Entry(thingURI));
+
+    checkpointIfNeeded();
+    return true;
+  }
+
+  /**
+   * Gets the TD registered with a given Thing URI.
+   *
+   * @param thingURI the Thing URI
+   * @return an <code>Optional</code> with the TD (empty if not found)
+   * @throws IOException if an I/O error occurs while reading the TD
+   */
+  public synchronized Optional<ThingDescription> get(String thingURI) throws IOException {
+    ensureOpen();
+
+    long offset = getOffset(thingURI);
+    return (offset < 0) ? Optional.empty() : Optional.of(read(offset));
+  }
+
+  /**
+   * Gets the TDs with a given title.
+   *
+   * @param title the title
+   * @return the list of TDs, in no particular order
+   * @throws IOException if an I/O error occurs while reading the TDs
+   */
+  public synchronized List<ThingDescription> getThingsByTitle(String title) throws IOException {
+    return find(DiskIndex.TITLE, title);
+  }
+
+  /**
+   * Gets the TDs annotated with a given semantic type.
+   *
+   * @param type the semantic type, typically an IRI defined in some ontology
+   * @return the list of TDs, in no particular order
+   * @throws IOException if an I/O error occurs while reading the TDs
+   */
+  public synchronized List<ThingDescription> getThingsBySemanticType(String type)
+      throws IOException {
+    return find(DiskIndex.SEMANTIC_TYPE, type);
+  }
+
+  /**
+   * Gets the TDs that have at least one form for a given operation type.
+   *
+   * @param operationType the operation type
+   * @return the list of TDs, in no particular order
+   * @throws IOException if an I/O error occurs while reading the TDs
+   */
+  public synchronized List<ThingDescription> getThingsByOperationType(String operationType)
+      throws IOException {
+    return find(DiskIndex.OPERATION_TYPE, operationType);
+  }
+
+  /**
+   * Gets the number of registered TDs.
+   *
+   * @return the number of TDs
+   */
+  public synchronized int size() {
+    int size = index.getCount() - supersededOffsets.size();
+
+    for (Entry entry : changes.values()) {
+      if (entry.isRegistered()) {
+        size++;
+      }
+    }
+
+    return size;
+  }
+
+  /**
+   * Writes the data file to disk and merges the changes held in memory into the index file.
+   *
+   * @throws IOException if an I/O error occurs while writing the index
+   */
+  public synchronized void checkpoint() throws IOException {
+    ensureOpen();
+
+    if (changes.isEmpty() && index.getDataLength() == dataLength) {
+      return;
+    }
+
+    data.force(true);
+
+    List<Map<String, List<Long>>> sections = new ArrayList<>();
+    for (int i = 0; i < DiskIndex.SECTIONS; i++) {
+      Map<String, List<Long>> section = new HashMap<>();
+
+      index.forEach(i, (key, offsets) -> {
+        for (long offset : offsets) {
+          if (!supersededOffsets.contains(offset)) {
+            section.computeIfAbsent(key, k -> new ArrayList<>()).add(offset);
+          }
+        }
+      });
+
+      for (Entry entry : changes.values()) {
+        if (entry.isRegistered()) {
+          for (String key : entry.getKeys(i)) {
+            section.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.offset);
+          }
+        }
+      }
+
+      sections.add(section);
+    }
+
+    DiskIndex.write(indexPath, dataLength, size(), sections);
+
+    this.index = DiskIndex.open(indexPath, dataLength)
+      .orElseThrow(() -> new IOException("Could not read the index: " + indexPath));
+    this.changes.clear();
+    this.supersededOffsets.clear();
+  }
+
+  /**
+   * Checkpoints and closes the registry.
+   *
+   * @throws IOException if an I/O error occurs while writing the index
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    close(true);
+  }
+
+  private void close(boolean checkpoint) throws IOException {
+    if (closed) {
+      return;
+    }
+
+    try {
+      if (checkpoint) {
+        checkpoint();
+      }
+    } finally {
+      closed = true;
+      cache.clear();
+      data.close();
+    }
+  }
+
+  private static FileLock tryLock(FileChannel channel) throws IOException {
+    try {
+      return channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Already locked by this JVM
+      return null;
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("The registry is closed.");
+    }
+  }
+
+  private void checkpointIfNeeded() throws IOException {
+    if (changes.size() >= checkpointInterval) {
+      checkpoint();
+    }
+  }
+
+  /*
+   * Reads the index file and replays the records appended after the last checkpoint. Replay stops at
+   * the first record that is incomplete or does not match its checksum, and the data file is
+   * truncated at that record.
+   */
+  private void recover() throws IOException {
+    long size = data.size();
+
+    if (size < DATA_HEADER_SIZE) {
+      ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE).putInt(DATA_MAGIC).putInt(DATA_VERSION);
+      header.flip();
+      data.truncate(0);
+      writeFully(header, 0);
+      data.force(true);
+      size = DATA_HEADER_SIZE;
+    } else {
+      ByteBuffer header = readFully(0, DATA_HEADER_SIZE);
+      if (header.getInt() != DATA_MAGIC || header.getInt() != DATA_VERSION) {
+        throw new InvalidTDException("Not a TD registry data file, or unsupported version.");
+      }
+    }
+
+    Optional<DiskIndex> storedIndex = DiskIndex.open(indexPath, size);
+    this.index = storedIndex.orElse(DiskIndex.empty(DATA_HEADER_SIZE));
+
+    long offset = Math.max(index.getDataLength(), DATA_HEADER_SIZE);
+    while (offset < size) {
+      Optional<Entry> entry = readEntry(offset, size);
+      if (!entry.isPresent()) {
+        data.truncate(offset);
+        data.force(true);
+        break;
+      }
+
+      apply(entry.get());
+      offset = entry.get().end;
+    }
+
+    this.dataLength = offset;
+
+    if (!storedIndex.isPresent()) {
+      checkpoint();
+    }
+  }
+
+  private void apply(Entry entry) {
+    long[] indexed = index.lookup(DiskIndex.URI, entry.uri);
+    if (indexed.length > 0) {
+      supersededOffsets.add(indexed[0]);
+    }
+
+    changes.remove(entry.uri);
+    changes.put(entry.uri, entry);
+  }
+
+  private long getOffset(String uri) {
+    Entry entry = changes.get(uri);
+    if (entry != null) {
+      return entry.offset;
+    }
+
+    long[] indexed = index.lookup(DiskIndex.URI, uri);
+    return (indexed.length == 0) ? -1 : indexed[0];
+  }
+
+  private List<ThingDescription> find(int section, String key) throws IOException {
+    ensureOpen();
+
+    List<ThingDescription> tds = new ArrayList<>();
+
+    for (long offset : index.lookup(section, key)) {
+      if (!supersededOffsets.contains(offset)) {
+        tds.add(read(offset));
+      }
+    }
+
+    for (Entry entry : changes.values()) {
+      if (entry.isRegistered() && entry.getKeys(section).contains(key)) {
+        tds.add(read(entry.offset));
+      }
+    }
+
+    return tds;
+  }
+
+  private ThingDescription read(long offset) throws IOException {
+    ThingDescription td = cache.get(offset);
+    if (td != null) {
+      return td;
+    }
+
+    ByteBuffer header = readFully(offset, RECORD_HEADER_SIZE);
+    ByteBuffer payload = readFully(offset + RECORD_HEADER_SIZE, header.getInt());
+
+    getString(payload);
+    getString(payload);
+    getStrings(payload);
+    getStrings(payload);
+    int snapshotLength = payload.getInt();
+    payload.limit(payload.position() + snapshotLength);
+
+    td = TDSnapshotReader.readFromBuffer(payload.slice()).get(0);
+    cache.put(offset, td);
+
+    return td;
+  }
+
+  /*
+   * Reads the record at the given offset, or returns an empty Optional if the record is incomplete or
+   * corrupted.
+   */
+  private Optional<Entry> readEntry(long offset, long size) throws IOException {
+    if (size - offset < RECORD_HEADER_SIZE) {
+      return Optional.empty();
+    }
+
+    ByteBuffer header = readFully(offset, RECORD_HEADER_SIZE);
+    int length = header.getInt();
+    int checksum = header.getInt();
+    byte kind = header.get();
+
+    if (length < 0 || size - offset - RECORD_HEADER_SIZE < length) {
+      return Optional.empty();
+    }
+
+    ByteBuffer payload = readFully(offset + RECORD_HEADER_SIZE, length);
+    if (checksum(kind, payload) != checksum) {
+      return Optional.empty();
+    }
+
+    try {
+      Entry entry;
+      if (kind == RECORD_REGISTER) {
+        entry = new Entry(getString(payload), getString(payload), getStrings(payload),
+          getStrings(payload));
+        entry.offset = offset;
+      } else if (kind == RECORD_UNREGISTER) {
+        entry = new Entry(getString(payload));
+      } else {
+        return Optional.empty();
+      }
+
+      entry.end = offset + RECORD_HEADER_SIZE + length;
+      return Optional.of(entry);
+    } catch (RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  private long append(byte kind, ByteBuffer payload) throws IOException {
+    payload.flip();
+
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.remaining());
+    record.putInt(payload.remaining()).putInt(checksum(kind, payload)).put(kind).put(payload);
+    record.flip();
+
+    long offset = dataLength;
+    writeFully(record, offset);
+    if (syncOnWrite) {
+      data.force(false);
+    }
+
+    dataLength = offset + record.limit();
+    return offset;
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += data.write(buffer, position);
+    }
+  }
+
+  private ByteBuffer readFully(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+
+    while (buffer.hasRemaining()) {
+      if (data.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the data file at offset " + position);
+      }
+    }
+
+    buffer.flip();
+    return buffer;
+  }
+
+  private static int checksum(byte kind, ByteBuffer payload) {
+    CRC32 crc = new CRC32();
+    crc.update(kind);
+    crc.update(payload.duplicate());
+    return (int) crc.getValue();
+  }
+
+  private static Set<String> getOperationTypes(ThingDescription td) {
+    Set<String> operationTypes = new HashSet<>();
+
+    Stream.of(td.getProperties(), td.getActions(), td.getEvents())
+      .flatMap(List::stream)
+      .map(InteractionAffordance::getForms)
+      .flatMap(List::stream)
+      .map(Form::getOperationTypes)
+      .forEach(operationTypes::addAll);
+
+    return operationTypes;
+  }
+
+  private static int getSize(Entry entry) {
+    int size = getSize(entry.uri) + getSize(entry.title) + 8;
+    for (String type : entry.semanticTypes) {
+      size += getSize(type);
+    }
+    for (String type : entry.operationTypes) {
+      size += getSize(type);
+    }
+    return size;
+  }
+
+  private static int getSize(String value) {
+    return 4 + value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private static void putString(ByteBuffer buffer, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.putInt(bytes.length).put(bytes);
+  }
+
+  private static void putStrings(ByteBuffer buffer, Set<String> values) {
+    buffer.putInt(values.size());
+    values.forEach(value -> putString(buffer, value));
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Set<String> getStrings(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    Set<String> values = new HashSet<>();
+    for (int i = 0; i < count; i++) {
+      values.add(getString(buffer));
+    }
+    return values;
+  }
+
+  /*
+   * A change made since the last checkpoint: a registered TD with the keys under which it is indexed,
+   * or an unregistered Thing URI (with an offset of -1).
+   */
+  private static final class Entry {
+    private final String uri;
+    private final String title;
+    private final Set<String> semanticTypes;
+    private final Set<String> operationTypes;
+    private long offset;
+    private long end;
+
+    private Entry(String uri, String title, Set<String> semanticTypes, Set<String> operationTypes) {
+      this.uri = uri;
+      this.title = title;
+      this.semanticTypes = semanticTypes;
+      this.operationTypes = operationTypes;
+    }
+
+    private Entry(String uri) {
+      this(uri, null, Collections.emptySet(), Collections.emptySet());
+      this.offset = -1;
+    }
+
+    private boolean isRegistered() {
+      return offset >= 0;
+    }
+
+    private Set<String> getKeys(int section) {
+      switch (section) {
+        case DiskIndex.URI:
+          return Collections.singleton(uri);
+        case DiskIndex.TITLE:
+          return Collections.singleton(title);
+        case DiskIndex.SEMANTIC_TYPE:
+          return semanticTypes;
+        default:
+          return operationTypes;
+      }
+    }
+  }
+
+  /**
+   * Helper class used to open a <code>PersistentThingRegistry</code>.
+   * <p>
+   * Implements a fluent API.
+   */
+  public static class Builder {
+    private final Path directory;
+    private int cacheSize;
+    private boolean syncOnWrite;
+    private int checkpointInterval;
+
+    public Builder(Path directory) {
+      this.directory = directory;
+      this.cacheSize = 256;
+      this.syncOnWrite = true;
+      this.checkpointInterval = 10000;
+    }
+
+    /**
+     * Sets the maximum number of decoded TDs kept in memory (default: 256).
+     *
+     * @param cacheSize the maximum number of cached TDs
+     * @return this <code>Builder</code>
+     */
+    public Builder setCacheSize(int cacheSize) {
+      if (cacheSize < 0) {
+        throw new IllegalArgumentException("The cache size should not be negative.");
+      }
+
+      this.cacheSize = cacheSize;
+      return this;
+    }
+
+    /**
+     * Sets whether each change is forced to the storage device before the method that made the
+     * change returns (default: <code>true</code>). Otherwise, changes made shortly before a crash of
+     * the operating system may be lost.
+     *
+     * @param syncOnWrite <code>true</code> to force each change to the storage device
+     * @return this <code>Builder</code>
+     */
+    public Builder setSyncOnWrite(boolean syncOnWrite) {
+      this.syncOnWrite = syncOnWrite;
+      return this;
+    }
+
+    /**
+     * Sets the number of changes held in memory before the index file is rewritten (default: 10000).
+     *
+     * @param checkpointInterval the number of changes between checkpoints
+     * @return this <code>Builder</code>
+     */
+    public Builder setCheckpointInterval(int checkpointInterval) {
+      if (checkpointInterval < 1) {
+        throw new IllegalArgumentException("The checkpoint interval should be at least 1.");
+      }
+
+      this.checkpointInterval = checkpointInterval;
+      return this;
+    }
+
+    public PersistentThingRegistry open() throws IOException {
+      return new PersistentThingRegistry(directory, cacheSize, syncOnWrite, checkpointInterval);
+    }
+  }
+}
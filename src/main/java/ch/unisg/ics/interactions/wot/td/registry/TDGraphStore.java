@@ -0,0 +1,699 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.io.TDGraphWriter;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * An in-memory store of the RDF graphs of many TDs, which answers basic graph patterns (i.e.,
+ * conjunctions of triple patterns) across all the TDs, e.g.:
+ * <pre>
+ * List&lt;Map&lt;String, Value&gt;&gt; solutions = store.select(Arrays.asList(
+ *   TDGraphStore.pattern(TDGraphStore.variable("thing"), RDF.TYPE, lampType),
+ *   TDGraphStore.pattern(TDGraphStore.variable("thing"), TD.HAS_ACTION_AFFORDANCE,
+ *     TDGraphStore.variable("action")),
+ *   TDGraphStore.pattern(TDGraphStore.variable("action"), RDF.TYPE, toggleType)));
+ * </pre>
+ * The graph of a TD is the graph written by {@link TDGraphWriter}. Each RDF term is encoded once in a
+ * dictionary, and the encoded triples are indexed in subject-predicate-object, predicate-object-subject
+ * and object-subject-predicate order, such that a triple pattern with any combination of bound
+ * positions is answered by an index lookup. Patterns are joined with index nested loops: at each step,
+ * the pattern with the fewest matches given the variables bound so far is evaluated next.
+ * <p>
+ * TDs are added and removed incrementally. Blank nodes are scoped to the TD they belong to, such that
+ * blank nodes of different TDs are never merged. A triple asserted by several TDs is stored once, and
+ * stays in the store until all these TDs are removed. Nodes bound in solutions can be mapped back to
+ * the TDs and affordances they describe with {@link #getThing(Value)} and {@link #getAffordance(Value)}.
+ * <p>
+ * A store is safe for use by multiple threads: queries run concurrently, while adding or removing a
+ * TD excludes other operations.
+ */
+public class TDGraphStore {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private static final int UNBOUND = -1;
+
+  private final ReadWriteLock lock;
+
+  private final Map<Value, Integer> ids;
+  private final List<Value> terms;
+  private final Deque<Integer> freeIds;
+  private int[] termCounts;
+
+  private final TripleIndex spo;
+  private final TripleIndex pos;
+  private final TripleIndex osp;
+  private final Map<Triple, Integer> sharedTriples;
+  private int tripleCount;
+
+  private final Map<String, Registration> things;
+  private final Map<Value, Registration> nodes;
+  private long registrationCount;
+
+  public TDGraphStore() {
+    this.lock = new ReentrantReadWriteLock();
+
+    this.ids = new HashMap<>();
+    this.terms = new ArrayList<>();
+    this.freeIds = new ArrayDeque<>();
+    this.termCounts = new int[64];
+
+    this.spo = new TripleIndex();
+    this.pos = new TripleIndex();
+    this.osp = new TripleIndex();
+    this.sharedTriples = new HashMap<>();
+
+    this.things = new HashMap<>();
+    this.nodes = new HashMap<>();
+  }
+
+  /**
+   * Creates a variable to be used in a triple pattern.
+   *
+   * @param name the name of the variable
+   * @return the variable
+   */
+  public static Variable variable(String name) {
+    return new Variable(name);
+  }
+
+  /**
+   * Creates a triple pattern. Each position is either an RDF term or a {@link Variable}.
+   *
+   * @param subject the subject: a <code>Resource</code> or a variable
+   * @param predicate the predicate: an <code>IRI</code> or a variable
+   * @param object the object: a <code>Value</code> or a variable
+   * @return the triple pattern
+   * @throws IllegalArgumentException if a position is neither an RDF term of the expected kind nor a
+   * variable
+   */
+  public static TriplePattern pattern(Object subject, Object predicate, Object object) {
+    return new TriplePattern(check(subject, Resource.class), check(predicate, IRI.class),
+      check(object, Value.class));
+  }
+
+  /**
+   * Adds the graph of a TD to the store. A TD previously added with the same Thing URI is replaced.
+   *
+   * @param td the TD to be added
+   * @throws IllegalArgumentException if the TD does not have a Thing URI
+   */
+  public void add(ThingDescription td) {
+    if (!td.getThingURI().isPresent()) {
+      throw new IllegalArgumentException("Only TDs with a Thing URI can be added.");
+    }
+
+    Model model = new LinkedHashModel();
+    new TDGraphWriter(td).write(new StatementCollector(model));
+
+    lock.writeLock().lock();
+    try {
+      removeThing(td.getThingURI().get());
+
+      Registration registration = new Registration(td, "t" + (++registrationCount) + "-");
+      int[] encoded = new int[model.size() * 3];
+      int i = 0;
+
+      for (Statement statement : model) {
+        int subject = encode(registration.scope(statement.getSubject()));
+        int predicate = encode(statement.getPredicate());
+        int object = encode(registration.scope(statement.getObject()));
+
+        addTriple(subject, predicate, object);
+        encoded[i++] = subject;
+        encoded[i++] = predicate;
+        encoded[i++] = object;
+      }
+
+      registration.triples = encoded;
+      indexNodes(registration, model);
+      things.put(td.getThingURI().get(), registration);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the graph of the TD added with a given Thing URI.
+   *
+   * @param thingURI the Thing URI
+   * @return <code>true</code> if a TD was removed
+   */
+  public boolean remove(String thingURI) {
+    lock.writeLock().lock();
+    try {
+      return removeThing(thingURI);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of distinct triples in the store.
+   *
+   * @return the number of triples
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return tripleCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Evaluates a basic graph pattern.
+   *
+   * @param patterns the triple patterns, which must all be matched
+   * @return the solutions, each mapping the names of the variables to RDF terms, in no particular
+   * order
+   */
+  public List<Map<String, Value>> select(List<TriplePattern> patterns) {
+    List<String> variables = new ArrayList<>();
+    for (TriplePattern pattern : patterns) {
+      for (Object position : pattern.positions) {
+        if (position instanceof Variable && !variables.contains(((Variable) position).name)) {
+          variables.add(((Variable) position).name);
+        }
+      }
+    }
+
+    lock.readLock().lock();
+    try {
+      List<int[]> encodedPatterns = new ArrayList<>();
+      for (TriplePattern pattern : patterns) {
+        int[] encoded = new int[3];
+
+        for (int i = 0; i < 3; i++) {
+          Object position = pattern.positions[i];
+
+          if (position instanceof Variable) {
+            // Variables are encoded as negative numbers, starting at -2
+            encoded[i] = -2 - variables.indexOf(((Variable) position).name);
+          } else {
+            Integer id = ids.get((Value) position);
+            if (id == null) {
+              return new ArrayList<>();
+            }
+            encoded[i] = id;
+          }
+        }
+
+        encodedPatterns.add(encoded);
+      }
+
+      int[] bindings = new int[variables.size()];
+      Arrays.fill(bindings, UNBOUND);
+
+      List<Map<String, Value>> solutions = new ArrayList<>();
+      evaluate(encodedPatterns, bindings, solution -> {
+        Map<String, Value> values = new HashMap<>();
+        for (int i = 0; i < solution.length; i++) {
+          values.put(variables.get(i), terms.get(solution[i]));
+        }
+        solutions.add(values);
+      });
+
+      return solutions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Evaluates a basic graph pattern and gets the distinct TDs that describe the nodes bound to a
+   * given variable (see {@link #getThing(Value)}).
+   *
+   * @param patterns the triple patterns, which must all be matched
+   * @param variable the name of the variable
+   * @return the list of TDs, in no particular order
+   */
+  public List<ThingDescription> selectThings(List<TriplePattern> patterns, String variable) {
+    Set<ThingDescription> tds = new LinkedHashSet<>();
+
+    for (Map<String, Value> solution : select(patterns)) {
+      Value node = solution.get(variable);
+      if (node != null) {
+        getThing(node).ifPresent(tds::add);
+      }
+    }
+
+    return new ArrayList<>(tds);
+  }
+
+  /**
+   * Gets the TD that describes a given node: either the Thing itself, or one of its interaction
+   * affordances.
+   *
+   * @param node a node bound in a solution
+   * @return an <code>Optional</code> with the TD (empty if the node is not a Thing or an affordance)
+   */
+  public Optional<ThingDescription> getThing(Value node) {
+    lock.readLock().lock();
+    try {
+      Registration registration = nodes.get(node);
+      return (registration == null) ? Optional.empty() : Optional.of(registration.td);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the interaction affordance described by a given node.
+   *
+   * @param node a node bound in a solution
+   * @return an <code>Optional</code> with the affordance (empty if the node is not an affordance)
+   */
+  public Optional<InteractionAffordance> getAffordance(Value node) {
+    lock.readLock().lock();
+    try {
+      Registration registration = nodes.get(node);
+      return (registration == null) ? Optional.empty()
+        : Optional.ofNullable(registration.affordances.get(node));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void evaluate(List<int[]> patterns, int[] bindings, SolutionHandler handler) {
+    if (patterns.isEmpty()) {
+      handler.handle(bindings.clone());
+      return;
+    }
+
+    int best = 0;
+    long bestEstimate = Long.MAX_VALUE;
+    for (int i = 0; i < patterns.size(); i++) {
+      int[] pattern = patterns.get(i);
+      long estimate = estimate(resolve(pattern[0], bindings), resolve(pattern[1], bindings),
+        resolve(pattern[2], bindings));
+
+      if (estimate < bestEstimate) {
+        best = i;
+        bestEstimate = estimate;
+      }
+    }
+
+    if (bestEstimate == 0) {
+      return;
+    }
+
+    int[] pattern = patterns.get(best);
+    List<int[]> remaining = new ArrayList<>(patterns);
+    remaining.remove(best);
+
+    forEachMatch(resolve(pattern[0], bindings), resolve(pattern[1], bindings),
+      resolve(pattern[2], bindings), (subject, predicate, object) -> {
+        int[] triple = {subject, predicate, object};
+        int[] previous = bindings.clone();
+
+        for (int i = 0; i < 3; i++) {
+          if (pattern[i] < UNBOUND) {
+            int variable = -2 - pattern[i];
+
+            if (bindings[variable] == UNBOUND) {
+              bindings[variable] = triple[i];
+            } else if (bindings[variable] != triple[i]) {
+              // The same variable occurs twice in the pattern with different values
+              System.arraycopy(previous, 0, bindings, 0, bindings.length);
+              return;
+            }
+          }
+        }
+
+        evaluate(remaining, bindings, handler);
+        System.arraycopy(previous, 0, bindings, 0, bindings.length);
+      });
+  }
+
+  private static int resolve(int position, int[] bindings) {
+    return (position >= 0) ? position : bindings[-2 - position];
+  }
+
+  private long estimate(int subject, int predicate, int object) {
+    if (subject != UNBOUND && predicate != UNBOUND && object != UNBOUND) {
+      return spo.contains(subject, predicate, object) ? 1 : 0;
+    } else if (subject != UNBOUND && predicate != UNBOUND) {
+      return spo.size(subject, predicate);
+    } else if (predicate != UNBOUND && object != UNBOUND) {
+      return pos.size(predicate, object);
+    } else if (subject != UNBOUND && object != UNBOUND) {
+      return osp.size(object, subject);
+    } else if (subject != UNBOUND) {
+      return spo.size(subject);
+    } else if (predicate != UNBOUND) {
+      return pos.size(predicate);
+    } else if (object != UNBOUND) {
+      return osp.size(object);
+    }
+
+    return tripleCount;
+  }
+
+  private void forEachMatch(int subject, int predicate, int object, TripleHandler handler) {
+    if (subject != UNBOUND && predicate != UNBOUND && object != UNBOUND) {
+      if (spo.contains(subject, predicate, object)) {
+        handler.handle(subject, predicate, object);
+      }
+    } else if (subject != UNBOUND && predicate != UNBOUND) {
+      spo.forEach(subject, predicate, o -> handler.handle(subject, predicate, o));
+    } else if (predicate != UNBOUND && object != UNBOUND) {
+      pos.forEach(predicate, object, s -> handler.handle(s, predicate, object));
+    } else if (subject != UNBOUND && object != UNBOUND) {
+      osp.forEach(object, subject, p -> handler.handle(subject, p, object));
+    } else if (subject != UNBOUND) {
+      spo.forEach(subject, (p, o) -> handler.handle(subject, p, o));
+    } else if (predicate != UNBOUND) {
+      pos.forEach(predicate, (o, s) -> handler.handle(s, predicate, o));
+    } else if (object != UNBOUND) {
+      osp.forEach(object, (s, p) -> handler.handle(s, p, object));
+    } else {
+      spo.forEach((s, p, o) -> handler.handle(s, p, o));
+    }
+  }
+
+  private int encode(Value term) {
+    Integer id = ids.get(term);
+    if (id != null) {
+      return id;
+    }
+
+    int newId;
+    if (freeIds.isEmpty()) {
+      newId = terms.size();
+      terms.add(term);
+      if (newId >= termCounts.length) {
+        termCounts = Arrays.copyOf(termCounts, termCounts.length * 2);
+      }
+    } else {
+      newId = freeIds.pop();
+      terms.set(newId, term);
+    }
+
+    ids.put(term, newId);
+    return newId;
+  }
+
+  private void addTriple(int subject, int predicate, int object) {
+    if (!spo.add(subject, predicate, object)) {
+      sharedTriples.merge(new Triple(subject, predicate, object), 1, Integer::sum);
+      return;
+    }
+
+    pos.add(predicate, object, subject);
+    osp.add(object, subject, predicate);
+
+    termCounts[subject]++;
+    termCounts[predicate]++;
+    termCounts[object]++;
+    tripleCount++;
+  }
+
+  private void removeTriple(int subject, int predicate, int object) {
+    Triple triple = new Triple(subject, predicate, object);
+    Integer owners = sharedTriples.get(triple);
+
+    if (owners != null) {
+      if (owners == 1) {
+        sharedTriples.remove(triple);
+      } else {
+        sharedTriples.put(triple, owners - 1);
+      }
+      return;
+    }
+
+    spo.remove(subject, predicate, object);
+    pos.remove(predicate, object, subject);
+    osp.remove(object, subject, predicate);
+
+    release(subject);
+    release(predicate);
+    release(object);
+    tripleCount--;
+  }
+
+  /*
+   * Terms that no longer occur in any triple are removed from the dictionary and their identifiers
+   * are reused.
+   */
+  private void release(int id) {
+    if (--termCounts[id] == 0) {
+      ids.remove(terms.get(id));
+      terms.set(id, null);
+      freeIds.push(id);
+    }
+  }
+
+  private boolean removeThing(String thingURI) {
+    Registration registration = things.remove(thingURI);
+    if (registration == null) {
+      return false;
+    }
+
+    int[] triples = registration.triples;
+    for (int i = 0; i < triples.length; i += 3) {
+      removeTriple(triples[i], triples[i + 1], triples[i + 2]);
+    }
+
+    registration.affordances.keySet().forEach(nodes::remove);
+    nodes.remove(registration.thingNode);
+    return true;
+  }
+
+  /*
+   * Maps the Thing node and the affordance nodes of a TD graph to the TD. Affordance nodes are matched
+   * with the affordances of the TD by name.
+   */
+  private void indexNodes(Registration registration, Model model) {
+    ThingDescription td = registration.td;
+    registration.thingNode = rdf.createIRI(td.getThingURI().get());
+    nodes.put(registration.thingNode, registration);
+
+    Map<Resource, String> names = new HashMap<>();
+    for (Statement statement : model.filter(null, TD.NAME, null)) {
+      names.put(statement.getSubject(), statement.getObject().stringValue());
+    }
+
+    for (Statement statement : model.filter(registration.thingNode, null, null)) {
+      if (!(statement.getObject() instanceof Resource)) {
+        continue;
+      }
+
+      String name = names.get((Resource) statement.getObject());
+      if (name == null) {
+        continue;
+      }
+
+      Optional<? extends InteractionAffordance> affordance = Optional.empty();
+      if (TD.HAS_PROPERTY_AFFORDANCE.equals(statement.getPredicate())) {
+        affordance = td.getPropertyByName(name);
+      } else if (TD.HAS_ACTION_AFFORDANCE.equals(statement.getPredicate())) {
+        affordance = td.getActionByName(name);
+      } else if (TD.HAS_EVENT_AFFORDANCE.equals(statement.getPredicate())) {
+        affordance = td.getEventByName(name);
+      }
+
+      if (affordance.isPresent()) {
+        Value node = registration.scope(statement.getObject());
+        registration.affordances.put(node, affordance.get());
+        nodes.put(node, registration);
+      }
+    }
+  }
+
+  private static Object check(Object position, Class<? extends Value> termClass) {
+    if (position instanceof Variable || termClass.isInstance(position)) {
+      return position;
+    }
+
+    throw new IllegalArgumentException("Expected a variable or a " + termClass.getSimpleName()
+      + ": " + position);
+  }
+
+  /**
+   * A variable in a triple pattern.
+   */
+  public static final class Variable {
+    private final String name;
+
+    private Variable(String name) {
+      this.name = Objects.requireNonNull(name);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return "?" + name;
+    }
+  }
+
+  /**
+   * A triple pattern, in which each position is either an RDF term or a variable.
+   */
+  public static final class TriplePattern {
+    private final Object[] positions;
+
+    private TriplePattern(Object subject, Object predicate, Object object) {
+      this.positions = new Object[]{subject, predicate, object};
+    }
+
+    @Override
+    public String toString() {
+      return positions[0] + " " + positions[1] + " " + positions[2] + " .";
+    }
+  }
+
+  private interface TripleHandler {
+    void handle(int subject, int predicate, int object);
+  }
+
+  private interface SolutionHandler {
+    void handle(int[] solution);
+  }
+
+  private interface PairHandler {
+    void handle(int second, int third);
+  }
+
+  private static final class Registration {
+    private final ThingDescription td;
+    private final String blankNodePrefix;
+    private final Map<Value, InteractionAffordance> affordances;
+    private IRI thingNode;
+    private int[] triples;
+
+    private Registration(ThingDescription td, String blankNodePrefix) {
+      this.td = td;
+      this.blankNodePrefix = blankNodePrefix;
+      this.affordances = new HashMap<>();
+    }
+
+    private Value scope(Value value) {
+      if (value instanceof BNode) {
+        return rdf.createBNode(blankNodePrefix + ((BNode) value).getID());
+      }
+      return value;
+    }
+  }
+
+  private static final class Triple {
+    private final int subject;
+    private final int predicate;
+    private final int object;
+
+    private Triple(int subject, int predicate, int object) {
+      this.subject = subject;
+      this.predicate = predicate;
+      this.object = object;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Triple)) {
+        return false;
+      }
+      Triple triple = (Triple) other;
+      return subject == triple.subject && predicate == triple.predicate && object == triple.object;
+    }
+
+    @Override
+    public int hashCode() {
+      return (subject * 31 + predicate) * 31 + object;
+    }
+  }
+
+  /*
+   * An index of encoded triples in one order: first -> second -> set of thirds.
+   */
+  private static final class TripleIndex {
+    private final Map<Integer, Level> index = new HashMap<>();
+
+    private boolean add(int first, int second, int third) {
+      Level level = index.computeIfAbsent(first, k -> new Level());
+      if (level.children.computeIfAbsent(second, k -> new IntSet()).add(third)) {
+        level.size++;
+        return true;
+      }
+      return false;
+    }
+
+    private void remove(int first, int second, int third) {
+      Level level = index.get(first);
+      IntSet thirds = level.children.get(second);
+
+      if (thirds.remove(third)) {
+        level.size--;
+        if (thirds.isEmpty()) {
+          level.children.remove(second);
+        }
+        if (level.children.isEmpty()) {
+          index.remove(first);
+        }
+      }
+    }
+
+    private boolean contains(int first, int second, int third) {
+      IntSet thirds = get(first, second);
+      return thirds != null && thirds.contains(third);
+    }
+
+    private int size(int first) {
+      Level level = index.get(first);
+      return (level == null) ? 0 : level.size;
+    }
+
+    private int size(int first, int second) {
+      IntSet thirds = get(first, second);
+      return (thirds == null) ? 0 : thirds.size();
+    }
+
+    private void forEach(int first, int second, IntConsumer action) {
+      IntSet thirds = get(first, second);
+      if (thirds != null) {
+        thirds.forEach(action);
+      }
+    }
+
+    private void forEach(int first, PairHandler action) {
+      Level level = index.get(first);
+      if (level == null) {
+        return;
+      }
+
+      for (Map.Entry<Integer, IntSet> entry : level.children.entrySet()) {
+        int second = entry.getKey();
+        entry.getValue().forEach(third -> action.handle(second, third));
+      }
+    }
+
+    private void forEach(TripleHandler action) {
+      for (Map.Entry<Integer, Level> entry : index.entrySet()) {
+        int first = entry.getKey();
+        forEach(first, (second, third) -> action.handle(first, second, third));
+      }
+    }
+
+    private IntSet get(int first, int second) {
+      Level level = index.get(first);
+      return (level == null) ? null : level.children.get(second);
+    }
+  }
+
+  private static final class Level {
+    private final Map<Integer, IntSet> children = new HashMap<>();
+    private int size;
+  }
+}
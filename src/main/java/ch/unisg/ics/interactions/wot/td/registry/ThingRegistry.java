@@ -0,0 +1,489 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, in-memory registry of TDs. TDs are registered by Thing URI, and the registry
+ * maintains indexes of the TDs by semantic type, and of their interaction affordances by semantic
+ * type, operation type, protocol (see {@link Form#getProtocol()}) and content type. Queries over
+ * affordances are answered by intersecting the index entries that match each criterion, starting with
+ * the smallest one, e.g.:
+ * <pre>
+ * List&lt;ThingRegistry.Match&lt;ActionAffordance&gt;&gt; matches = registry.queryActions()
+ *   .addSemanticType("http://example.org/#Toggle")
+ *   .setProtocol("CoAP")
+ *   .find();
+ * </pre>
+ * <p>
+ * Reads do not acquire locks. Writes are serialized per Thing URI using lock striping, such that TDs
+ * with different URIs can be registered concurrently. Like the iterators of concurrent collections,
+ * queries are weakly consistent: a query that runs concurrently with the registration of a TD may
+ * or may not include the affordances of that TD.
+ */
+public class ThingRegistry {
+  private static final int LOCK_STRIPES = 64;
+
+  private final ConcurrentMap<String, Registration> things;
+  private final ConcurrentMap<String, Set<String>> thingsBySemanticType;
+  private final Object[] locks;
+
+  private final AffordanceIndexes<PropertyAffordance> properties;
+  private final AffordanceIndexes<ActionAffordance> actions;
+  private final AffordanceIndexes<EventAffordance> events;
+
+  public ThingRegistry() {
+    this.things = new ConcurrentHashMap<>();
+    this.thingsBySemanticType = new ConcurrentHashMap<>();
+
+    this.locks = new Object[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.locks[i] = new Object();
+    }
+
+    this.properties = new AffordanceIndexes<>(ThingDescription::getProperties, r -> r.properties);
+    this.actions = new AffordanceIndexes<>(ThingDescription::getActions, r -> r.actions);
+    this.events = new AffordanceIndexes<>(ThingDescription::getEvents, r -> r.events);
+  }
+
+  /**
+   * Registers a TD. A TD previously registered with the same Thing URI is replaced.
+   *
+   * @param td the TD to be registered
+   * @return an <code>Optional</code> with the replaced TD (empty if none)
+   * @throws IllegalArgumentException if the TD does not have a Thing URI
+   */
+  public Optional<ThingDescription> register(ThingDescription td) {
+    if (!td.getThingURI().isPresent()) {
+      throw new IllegalArgumentException("Only TDs with a Thing URI can be registered.");
+    }
+
+    String uri = td.getThingURI().get();
+
+    synchronized (getLock(uri)) {
+      Registration registration = new Registration(td, properties.index(td), actions.index(td),
+        events.index(td));
+      Registration previous = things.put(uri, registration);
+
+      if (previous != null) {
+        unindex(uri, previous);
+      }
+
+      for (String type : td.getSemanticTypes()) {
+        addToIndex(thingsBySemanticType, type, uri);
+      }
+
+      return (previous == null) ? Optional.empty() : Optional.of(previous.td);
+    }
+  }
+
+  /**
+   * Removes the TD registered with a given Thing URI.
+   *
+   * @param thingURI the Thing URI
+   * @return an <code>Optional</code> with the removed TD (empty if not found)
+   */
+  public Optional<ThingDescription> unregister(String thingURI) {
+    synchronized (getLock(thingURI)) {
+      Registration previous = things.remove(thingURI);
+
+      if (previous == null) {
+        return Optional.empty();
+      }
+
+      unindex(thingURI, previous);
+      return Optional.of(previous.td);
+    }
+  }
+
+  /**
+   * Gets the TD registered with a given Thing URI.
+   *
+   * @param thingURI the Thing URI
+   * @return an <code>Optional</code> with the TD (empty if not found)
+   */
+  public Optional<ThingDescription> get(String thingURI) {
+    Registration registration = things.get(thingURI);
+    return (registration == null) ? Optional.empty() : Optional.of(registration.td);
+  }
+
+  /**
+   * Gets the number of registered TDs.
+   *
+   * @return the number of TDs
+   */
+  public int size() {
+    return things.size();
+  }
+
+  /**
+   * Gets the TDs annotated with a given semantic type.
+   *
+   * @param type the semantic type, typically an IRI defined in some ontology
+   * @return the list of TDs, in no particular order
+   */
+  public List<ThingDescription> getThingsBySemanticType(String type) {
+    List<ThingDescription> tds = new ArrayList<>();
+
+    for (String uri : thingsBySemanticType.getOrDefault(type, Collections.emptySet())) {
+      get(uri).filter(td -> td.getSemanticTypes().contains(type)).ifPresent(tds::add);
+    }
+
+    return tds;
+  }
+
+  /**
+   * Creates a query over the property affordances of the registered TDs.
+   *
+   * @return the query
+   */
+  public Query<PropertyAffordance> queryProperties() {
+    return new Query<>(this, properties);
+  }
+
+  /**
+   * Creates a query over the action affordances of the registered TDs.
+   *
+   * @return the query
+   */
+  public Query<ActionAffordance> queryActions() {
+    return new Query<>(this, actions);
+  }
+
+  /**
+   * Creates a query over the event affordances of the registered TDs.
+   *
+   * @return the query
+   */
+  public Query<EventAffordance> queryEvents() {
+    return new Query<>(this, events);
+  }
+
+  private void unindex(String uri, Registration registration) {
+    properties.unindex(registration);
+    actions.unindex(registration);
+    events.unindex(registration);
+
+    Registration current = things.get(uri);
+
+    for (String type : registration.td.getSemanticTypes()) {
+      if (current == null || !current.td.getSemanticTypes().contains(type)) {
+        removeFromIndex(thingsBySemanticType, type, uri);
+      }
+    }
+  }
+
+  private Object getLock(String uri) {
+    return locks[(uri.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+  }
+
+  /*
+   * Index entries are added and removed atomically with respect to the key, such that an entry is not
+   * added to a set of values that is concurrently removed from the index because it became empty.
+   */
+  private static <V> void addToIndex(ConcurrentMap<String, Set<V>> index, String key, V value) {
+    index.compute(key, (k, values) -> {
+      Set<V> updated = (values == null) ? ConcurrentHashMap.newKeySet() : values;
+      updated.add(value);
+      return updated;
+    });
+  }
+
+  private static <V> void removeFromIndex(ConcurrentMap<String, Set<V>> index, String key, V value) {
+    index.computeIfPresent(key, (k, values) -> {
+      values.remove(value);
+      return values.isEmpty() ? null : values;
+    });
+  }
+
+  /**
+   * A query over the interaction affordances of the registered TDs. The criteria added to a query
+   * are combined with a logical AND. Criteria on forms are met by individual forms: each operation
+   * type must be provided by a form that also has the protocol and content type of the query, if
+   * any. For instance, a property with an HTTP form for <code>td:readProperty</code> and a CoAP form
+   * for <code>td:observeProperty</code> does not match a query for <code>td:readProperty</code>
+   * over CoAP.
+   * <p>
+   * Implements a fluent API.
+   *
+   * @param <T> the type of interaction affordances
+   */
+  public static final class Query<T extends InteractionAffordance> {
+    private final ThingRegistry registry;
+    private final AffordanceIndexes<T> indexes;
+    private final Set<String> semanticTypes;
+    private final Set<String> operationTypes;
+    private final Set<String> thingSemanticTypes;
+    private Optional<String> protocol;
+    private Optional<String> contentType;
+
+    private Query(ThingRegistry registry, AffordanceIndexes<T> indexes) {
+      this.registry = registry;
+      this.indexes = indexes;
+      this.semanticTypes = new HashSet<>();
+      this.operationTypes = new HashSet<>();
+      this.thingSemanticTypes = new HashSet<>();
+      this.protocol = Optional.empty();
+      this.contentType = Optional.empty();
+    }
+
+    /**
+     * Matches affordances annotated with a given semantic type.
+     *
+     * @param type the semantic type of the affordance
+     * @return this <code>Query</code>
+     */
+    public Query<T> addSemanticType(String type) {
+      this.semanticTypes.add(type);
+      return this;
+    }
+
+    /**
+     * Matches affordances that have a form for a given operation type.
+     *
+     * @param operationType the operation type
+     * @return this <code>Query</code>
+     */
+    public Query<T> addOperationType(String operationType) {
+      this.operationTypes.add(operationType);
+      return this;
+    }
+
+    /**
+     * Matches affordances that have a form for a given protocol, e.g. <code>HTTP</code> or
+     * <code>CoAP</code>.
+     *
+     * @param protocol the protocol
+     * @return this <code>Query</code>
+     */
+    public Query<T> setProtocol(String protocol) {
+      this.protocol = Optional.of(protocol);
+      return this;
+    }
+
+    /**
+     * Matches affordances that have a form for a given content type.
+     *
+     * @param contentType the content type
+     * @return this <code>Query</code>
+     */
+    public Query<T> setContentType(String contentType) {
+      this.contentType = Optional.of(contentType);
+      return this;
+    }
+
+    /**
+     * Matches affordances of Things annotated with a given semantic type.
+     *
+     * @param type the semantic type of the Thing
+     * @return this <code>Query</code>
+     */
+    public Query<T> addThingSemanticType(String type) {
+      this.thingSemanticTypes.add(type);
+      return this;
+    }
+
+    /**
+     * Runs the query.
+     *
+     * @return the matching affordances, in no particular order
+     */
+    public List<Match<T>> find() {
+      List<Set<Match<T>>> candidates = new ArrayList<>();
+
+      semanticTypes.forEach(type -> candidates.add(lookup(indexes.bySemanticType, type)));
+      operationTypes.forEach(type -> candidates.add(lookup(indexes.byOperationType, type)));
+      protocol.ifPresent(p -> candidates.add(lookup(indexes.byProtocol, p)));
+      contentType.ifPresent(type -> candidates.add(lookup(indexes.byContentType, type)));
+
+      if (candidates.isEmpty()) {
+        return findByThings();
+      }
+
+      candidates.sort(Comparator.comparingInt(Set::size));
+
+      List<Match<T>> matches = new ArrayList<>();
+      for (Match<T> match : candidates.get(0)) {
+        if (matches(match, candidates) && match.td.getSemanticTypes().containsAll(thingSemanticTypes)
+            && hasMatchingForms(match.affordance)) {
+          matches.add(match);
+        }
+      }
+
+      return matches;
+    }
+
+    private List<Match<T>> findByThings() {
+      Collection<Registration> registrations = registry.things.values();
+
+      if (!thingSemanticTypes.isEmpty()) {
+        registrations = new ArrayList<>();
+        String type = thingSemanticTypes.iterator().next();
+
+        for (String uri : registry.thingsBySemanticType.getOrDefault(type, Collections.emptySet())) {
+          Registration registration = registry.things.get(uri);
+          if (registration != null) {
+            registrations.add(registration);
+          }
+        }
+      }
+
+      List<Match<T>> matches = new ArrayList<>();
+      for (Registration registration : registrations) {
+        if (registration.td.getSemanticTypes().containsAll(thingSemanticTypes)) {
+          matches.addAll(indexes.getMatches(registration));
+        }
+      }
+
+      return matches;
+    }
+
+    /*
+     * The indexes cover the operation types, protocols and content types of all the forms of an
+     * affordance, so candidates are checked again form by form.
+     */
+    private boolean hasMatchingForms(T affordance) {
+      if (operationTypes.isEmpty()) {
+        return hasMatchingForm(affordance, null);
+      }
+
+      for (String operationType : operationTypes) {
+        if (!hasMatchingForm(affordance, operationType)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private boolean hasMatchingForm(T affordance, String operationType) {
+      for (Form form : affordance.getForms()) {
+        if ((operationType == null || form.hasOperationType(operationType))
+            && (!protocol.isPresent() || form.hasProtocol(protocol.get()))
+            && (!contentType.isPresent() || contentType.get().equals(form.getContentType()))) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    private static <T extends InteractionAffordance> boolean matches(Match<T> match,
+        List<Set<Match<T>>> candidates) {
+      for (int i = 1; i < candidates.size(); i++) {
+        if (!candidates.get(i).contains(match)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static <T extends InteractionAffordance> Set<Match<T>> lookup(
+        ConcurrentMap<String, Set<Match<T>>> index, String key) {
+      return index.getOrDefault(key, Collections.emptySet());
+    }
+  }
+
+  /**
+   * An interaction affordance found in the registry, together with the TD that provides it.
+   *
+   * @param <T> the type of interaction affordance
+   */
+  public static final class Match<T extends InteractionAffordance> {
+    private final ThingDescription td;
+    private final T affordance;
+
+    private Match(ThingDescription td, T affordance) {
+      this.td = td;
+      this.affordance = affordance;
+    }
+
+    public ThingDescription getThingDescription() {
+      return td;
+    }
+
+    public T getAffordance() {
+      return affordance;
+    }
+  }
+
+  private static final class Registration {
+    private final ThingDescription td;
+    private final List<Match<PropertyAffordance>> properties;
+    private final List<Match<ActionAffordance>> actions;
+    private final List<Match<EventAffordance>> events;
+
+    private Registration(ThingDescription td, List<Match<PropertyAffordance>> properties,
+        List<Match<ActionAffordance>> actions, List<Match<EventAffordance>> events) {
+      this.td = td;
+      this.properties = properties;
+      this.actions = actions;
+      this.events = events;
+    }
+  }
+
+  /*
+   * The indexes of one kind of interaction affordances. Index entries are the Match instances
+   * created when a TD is registered, which are compared by identity.
+   */
+  private static final class AffordanceIndexes<T extends InteractionAffordance> {
+    private final Function<ThingDescription, List<T>> affordances;
+    private final Function<Registration, List<Match<T>>> matches;
+    private final ConcurrentMap<String, Set<Match<T>>> bySemanticType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Match<T>>> byOperationType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Match<T>>> byProtocol = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Match<T>>> byContentType = new ConcurrentHashMap<>();
+
+    private AffordanceIndexes(Function<ThingDescription, List<T>> affordances,
+        Function<Registration, List<Match<T>>> matches) {
+      this.affordances = affordances;
+      this.matches = matches;
+    }
+
+    private List<Match<T>> index(ThingDescription td) {
+      List<Match<T>> matches = new ArrayList<>();
+
+      for (T affordance : affordances.apply(td)) {
+        Match<T> match = new Match<>(td, affordance);
+        matches.add(match);
+        forEachKey(match, (index, key) -> addToIndex(index, key, match));
+      }
+
+      return matches;
+    }
+
+    private void unindex(Registration registration) {
+      for (Match<T> match : getMatches(registration)) {
+        forEachKey(match, (index, key) -> removeFromIndex(index, key, match));
+      }
+    }
+
+    private List<Match<T>> getMatches(Registration registration) {
+      return matches.apply(registration);
+    }
+
+    private void forEachKey(Match<T> match,
+        BiConsumer<ConcurrentMap<String, Set<Match<T>>>, String> action) {
+      Set<String> operationTypes = new HashSet<>();
+      Set<String> protocols = new HashSet<>();
+      Set<String> contentTypes = new HashSet<>();
+
+      for (Form form : match.affordance.getForms()) {
+        operationTypes.addAll(form.getOperationTypes());
+        form.getProtocol().ifPresent(protocols::add);
+        contentTypes.add(form.getContentType());
+      }
+
+      match.affordance.getSemanticTypes().forEach(type -> action.accept(bySemanticType, type));
+      operationTypes.forEach(type -> action.accept(byOperationType, type));
+      protocols.forEach(protocol -> action.accept(byProtocol, protocol));
+      contentTypes.forEach(type -> action.accept(byContentType, type));
+    }
+  }
+}
@@ -1,27 +1,32 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 public class ArraySchema extends DataSchema {
   final private List<DataSchema> items;
-  final private Optional<Integer> minItems;
-  final private Optional<Integer> maxItems;
+  // Null if not specified
+  final private Integer minItems;
+  final private Integer maxItems;
+  private final int hashCode;
 
   protected ArraySchema(Set<String> semanticTypes, Set<String> enumeration,
                         Optional<String> contentMediaType, List<DataSchema> dataSchemas,
                         List<DataSchema> items, Optional<Integer> minItems, Optional<Integer> maxItems) {
     super(DataSchema.ARRAY, semanticTypes, enumeration, contentMediaType, dataSchemas);
 
-    this.items = items;
-    this.minItems = minItems;
-    this.maxItems = maxItems;
+    this.items = CompactCollections.copyOf(items);
+    this.minItems = minItems.orElse(null);
+    this.maxItems = maxItems.orElse(null);
+    this.hashCode = Objects.hash(super.hashCode(), this.items, this.minItems, this.maxItems);
   }
 
   public boolean validate(List<Object> values) {
@@ -34,11 +39,11 @@ public class ArraySchema extends DataSchema {
   }
 
   public Optional<Integer> getMinItems() {
-    return minItems;
+    return Optional.ofNullable(minItems);
   }
 
   public Optional<Integer> getMaxItems() {
-    return maxItems;
+    return Optional.ofNullable(maxItems);
   }
 
   public Optional<DataSchema> getFirstItemSchema(String datatype) {
@@ -55,6 +60,22 @@ public class ArraySchema extends DataSchema {
     return getFirstItemSchema(datatype).isPresent();
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (!super.equals(obj)) {
+      return false;
+    }
+
+    ArraySchema other = (ArraySchema) obj;
+    return items.equals(other.items) && Objects.equals(minItems, other.minItems)
+      && Objects.equals(maxItems, other.maxItems);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
   @Override
   public List<Object> parseJson(JsonElement element) {
     if (!element.isJsonArray()) {
@@ -64,10 +85,10 @@ public class ArraySchema extends DataSchema {
     JsonArray arrayPayload = element.getAsJsonArray();
 
     /* Array size validation */
-    if (minItems.isPresent() && arrayPayload.size() < minItems.get()) {
+    if (minItems != null && arrayPayload.size() < minItems) {
       throw new IllegalArgumentException("The array has less items than the required minimum.");
     }
-    if (maxItems.isPresent() && arrayPayload.size() > maxItems.get()) {
+    if (maxItems != null && arrayPayload.size() > maxItems) {
       throw new IllegalArgumentException("The array has more items than the required maximum.");
     }
 
@@ -1,11 +1,20 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
 
+/**
+ * A data schema based on JSON Schema, as used in TDs. Data schemas are instantiated using the builders
+ * of the classes that extend <code>DataSchema</code>.
+ * <p>
+ * Data schemas are immutable: semantic types, enumerations, and subschemas are frozen into compact
+ * unmodifiable collections at construction, such that schemas can be shared safely across threads
+ * and across TDs (see {@link SchemaInterner}).
+ */
 public class DataSchema {
   public static final String OBJECT = "object";
   public static final String ARRAY = "array";
@@ -21,8 +30,11 @@ public class DataSchema {
   final private String datatype;
   final private Set<String> semanticTypes;
   final private Set<String> enumeration;
-  private final Optional<String> contentMediaType;
+  // Null if not specified
+  private final String contentMediaType;
   private final List<DataSchema> dataSchemas;
+  // Schemas are immutable, so their hash codes are computed once
+  private final int hashCode;
 
   protected DataSchema(Set<String> semanticTypes, Set<String> enumeration,
                        Optional<String> contentMediaType, List<DataSchema> dataSchemas) {
@@ -32,10 +44,12 @@ public class DataSchema {
   protected DataSchema(String datatype, Set<String> semanticTypes, Set<String> enumeration,
                        Optional<String> contentMediaType, List<DataSchema> dataSchemas) {
     this.datatype = datatype;
-    this.semanticTypes = semanticTypes;
-    this.enumeration = enumeration;
-    this.contentMediaType = contentMediaType;
-    this.dataSchemas = dataSchemas;
+    this.semanticTypes = CompactCollections.copyOfStrings(semanticTypes);
+    this.enumeration = CompactCollections.copyOfStrings(enumeration);
+    this.contentMediaType = CompactCollections.intern(contentMediaType.orElse(null));
+    this.dataSchemas = CompactCollections.copyOf(dataSchemas);
+    this.hashCode = Objects.hash(this.datatype, this.semanticTypes, this.enumeration,
+      this.contentMediaType, this.dataSchemas);
   }
 
   public Object parseJson(JsonElement element) {
@@ -76,7 +90,7 @@ public class DataSchema {
   }
 
   public Optional<String> getContentMediaType() {
-    return contentMediaType;
+    return Optional.ofNullable(contentMediaType);
   }
 
   public List<DataSchema> getValidSchemas() {
@@ -107,12 +121,41 @@ public class DataSchema {
     return schemas;
   }
 
-  public static DataSchema getEmptySchema() {
-    Set<String> semanticTypes = Collections.unmodifiableSet(new HashSet<String>());
-    Set<String> enumeration = Collections.unmodifiableSet(new HashSet<String>());
-    List<DataSchema> dataSchemas = Collections.unmodifiableList(new ArrayList<>());
+  /**
+   * Two data schemas are equal if they are of the same class and have the same structure, i.e. the
+   * same datatype, semantic types, enumeration, content media type, subschemas, and type-specific
+   * constraints. Schemas with different hash codes are rejected without comparing their structure.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+
+    DataSchema other = (DataSchema) obj;
+    if (hashCode() != other.hashCode()) {
+      return false;
+    }
 
-    return new DataSchema(semanticTypes, enumeration, Optional.empty(), dataSchemas);
+    return datatype.equals(other.datatype)
+      && semanticTypes.equals(other.semanticTypes)
+      && enumeration.equals(other.enumeration)
+      && Objects.equals(contentMediaType, other.contentMediaType)
+      && dataSchemas.equals(other.dataSchemas);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  public static DataSchema getEmptySchema() {
+    return new DataSchema(Collections.emptySet(), Collections.emptySet(), Optional.empty(),
+      Collections.emptyList());
   }
 
   public static class Builder extends JsonSchemaBuilder<DataSchema,DataSchema.Builder> {
@@ -16,11 +16,11 @@ public class IntegerSchema extends NumberSchema {
   }
 
   public Optional<Integer> getMinimumAsInteger() {
-    return minimum.map(min -> min.intValue());
+    return getMinimum().map(min -> min.intValue());
   }
 
   public Optional<Integer> getMaximumAsInteger() {
-    return maximum.map(max -> max.intValue());
+    return getMaximum().map(max -> max.intValue());
   }
 
   @Override
@@ -3,12 +3,14 @@ package ch.unisg.ics.interactions.wot.td.schemas;
 import com.google.gson.JsonElement;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 public class NumberSchema extends DataSchema {
   final protected Optional<Double> minimum;
   final protected Optional<Double> maximum;
+  private final int hashCode;
 
   protected NumberSchema(Set<String> semanticTypes, Set<String> enumeration,
                          Optional<String> contentMediaType, List<DataSchema> dataSchemas,
@@ -22,6 +24,7 @@ public class NumberSchema extends DataSchema {
     super(numberType, semanticTypes, enumeration, contentMediaType, dataSchemas);
     this.minimum = minimum;
     this.maximum = maximum;
+    this.hashCode = Objects.hash(super.hashCode(), minimum, maximum);
   }
 
   public Optional<Double> getMinimum() {
@@ -32,6 +35,21 @@ public class NumberSchema extends DataSchema {
     return maximum;
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (!super.equals(obj)) {
+      return false;
+    }
+
+    NumberSchema other = (NumberSchema) obj;
+    return minimum.equals(other.minimum) && maximum.equals(other.maximum);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
   @Override
   public Object parseJson(JsonElement element) {
     if (element == null || !element.isJsonPrimitive()) {
@@ -1,6 +1,7 @@
 package ch.unisg.ics.interactions.wot.td.schemas;
 
 import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
+import ch.unisg.ics.interactions.wot.td.util.CompactCollections;
 import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -11,14 +12,16 @@ import java.util.stream.Collectors;
 public class ObjectSchema extends DataSchema {
   final private Map<String, DataSchema> properties;
   final private List<String> required;
+  private final int hashCode;
 
   protected ObjectSchema(Set<String> semanticTypes, Set<String> enumeration,
                          Optional<String> contentMediaType, List<DataSchema> dataSchemas,
                          Map<String, DataSchema> properties, List<String> required) {
     super(DataSchema.OBJECT, semanticTypes, enumeration, contentMediaType, dataSchemas);
 
-    this.properties = properties;
-    this.required = required;
+    this.properties = CompactCollections.copyOf(properties);
+    this.required = CompactCollections.copyOfStringList(required);
+    this.hashCode = Objects.hash(super.hashCode(), this.properties, this.required);
   }
 
   public boolean validate(Map<String, Object> values) {
@@ -123,6 +126,21 @@ public class ObjectSchema extends DataSchema {
     return required.contains(propName);
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (!super.equals(obj)) {
+      return false;
+    }
+
+    ObjectSchema other = (ObjectSchema) obj;
+    return properties.equals(other.properties) && required.equals(other.required);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
   public static final class Builder extends DataSchema.JsonSchemaBuilder<ObjectSchema, ObjectSchema.Builder> {
     final private Map<String, DataSchema> properties;
     final private List<String> required;
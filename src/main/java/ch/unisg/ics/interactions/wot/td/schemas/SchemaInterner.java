@@ -0,0 +1,54 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pool of data schemas that returns a canonical instance for each group of structurally equal
+ * schemas (see {@link DataSchema#equals(Object)}). When many TDs use the same schemas (e.g., TDs of
+ * devices of the same model), interning their schemas keeps a single instance of each schema in
+ * memory, including its semantic types and subschemas.
+ * <p>
+ * Data schemas are immutable, so interned instances can be shared safely across TDs. The pool is
+ * safe for use by multiple threads, and it holds strong references to all interned schemas.
+ */
+public final class SchemaInterner {
+  private final ConcurrentMap<DataSchema, DataSchema> schemas;
+
+  public SchemaInterner() {
+    this.schemas = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the canonical instance of a data schema. If no structurally equal schema was interned
+   * before, the given schema becomes the canonical instance.
+   * <p>
+   * Subschemas are not interned by this method, schemas should be interned bottom-up such that
+   * canonical instances also share their subschemas.
+   *
+   * @param schema the data schema to intern
+   * @param <T> the type of the data schema
+   * @return the canonical instance of the data schema
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends DataSchema> T intern(T schema) {
+    DataSchema canonical = schemas.putIfAbsent(schema, schema);
+    return (canonical == null) ? schema : (T) canonical;
+  }
+
+  /**
+   * Gets the number of canonical schemas in this pool.
+   *
+   * @return the number of interned schemas
+   */
+  public int size() {
+    return schemas.size();
+  }
+
+  /**
+   * Removes all schemas from this pool. Schemas interned before remain valid.
+   */
+  public void clear() {
+    schemas.clear();
+  }
+}
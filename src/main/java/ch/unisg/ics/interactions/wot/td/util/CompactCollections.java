@@ -0,0 +1,180 @@
+package ch.unisg.ics.interactions.wot.td.util;
+
+import java.util.*;
+
+/**
+ * Static factory methods for the immutable collections held by TDs, interaction affordances, forms,
+ * and data schemas. The builders of these objects accumulate values in resizable collections, which
+ * are copied into compact immutable collections when an object is built:
+ * <ul>
+ *   <li>sets of strings (e.g., semantic types) are backed by a sorted array of interned strings, which
+ *   also gives them a deterministic iteration order;</li>
+ *   <li>other sets are backed by an array in the iteration order of the source set;</li>
+ *   <li>lists are copied with <code>List.copyOf</code>;</li>
+ *   <li>maps with at most one entry use <code>Map.of</code>, larger maps are copied into a hash map
+ *   that is sized for its entries.</li>
+ * </ul>
+ * All returned collections throw an <code>UnsupportedOperationException</code> on modification.
+ */
+public final class CompactCollections {
+
+  private CompactCollections() { }
+
+  /**
+   * Interns a string such that equal strings held by many TDs (e.g., IRIs of semantic types, media
+   * types) share a single instance.
+   *
+   * @param value the string to intern, can be <code>null</code>
+   * @return the canonical instance of the string, or <code>null</code>
+   */
+  public static String intern(String value) {
+    return (value == null) ? null : value.intern();
+  }
+
+  /**
+   * Copies a collection of strings into an immutable set of interned strings, sorted in natural
+   * order.
+   *
+   * @param values the strings to copy
+   * @return the immutable set
+   */
+  public static Set<String> copyOfStrings(Collection<String> values) {
+    if (values.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    String[] elements = new String[values.size()];
+    int size = 0;
+    for (String value : values) {
+      elements[size++] = Objects.requireNonNull(value).intern();
+    }
+
+    Arrays.sort(elements);
+
+    int distinct = 1;
+    for (int i = 1; i < size; i++) {
+      if (!elements[i].equals(elements[distinct - 1])) {
+        elements[distinct++] = elements[i];
+      }
+    }
+
+    return new ArraySet<>((distinct == size) ? elements : Arrays.copyOf(elements, distinct), true);
+  }
+
+  /**
+   * Copies a list of strings into an immutable list of interned strings.
+   *
+   * @param values the strings to copy
+   * @return the immutable list, in the order of the source list
+   */
+  public static List<String> copyOfStringList(List<String> values) {
+    if (values.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    String[] elements = new String[values.size()];
+    int i = 0;
+    for (String value : values) {
+      elements[i++] = Objects.requireNonNull(value).intern();
+    }
+
+    return List.of(elements);
+  }
+
+  /**
+   * Copies a list into an immutable list.
+   *
+   * @param values the elements to copy, which cannot be <code>null</code>
+   * @param <T> the type of the elements
+   * @return the immutable list, in the order of the source list
+   */
+  public static <T> List<T> copyOf(List<T> values) {
+    return List.copyOf(values);
+  }
+
+  /**
+   * Copies a set into an immutable set.
+   *
+   * @param values the elements to copy, which cannot be <code>null</code>
+   * @param <T> the type of the elements
+   * @return the immutable set, in the iteration order of the source set
+   */
+  public static <T> Set<T> copyOf(Set<T> values) {
+    if (values.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Object[] elements = values.toArray();
+    for (Object element : elements) {
+      Objects.requireNonNull(element);
+    }
+
+    return new ArraySet<>(elements, false);
+  }
+
+  /**
+   * Copies a map into an immutable map.
+   *
+   * @param map the entries to copy, which cannot have <code>null</code> keys or values
+   * @param <K> the type of the keys
+   * @param <V> the type of the values
+   * @return the immutable map
+   */
+  public static <K, V> Map<K, V> copyOf(Map<K, V> map) {
+    if (map.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    if (map.size() == 1) {
+      Map.Entry<K, V> entry = map.entrySet().iterator().next();
+      return Map.of(entry.getKey(), entry.getValue());
+    }
+
+    return Collections.unmodifiableMap(new HashMap<>(map));
+  }
+
+  /*
+   * An immutable set backed by an array. If the elements are sorted strings, lookups use a binary
+   * search, otherwise they scan the array, which is fast for the small sets held by TDs.
+   */
+  private static final class ArraySet<E> extends AbstractSet<E> {
+    private final Object[] elements;
+    private final boolean sorted;
+
+    private ArraySet(Object[] elements, boolean sorted) {
+      this.elements = elements;
+      this.sorted = sorted;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+      if (sorted) {
+        return value instanceof String && Arrays.binarySearch(elements, value) >= 0;
+      }
+
+      for (Object element : elements) {
+        if (element.equals(value)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+      return (Iterator<E>) Arrays.asList(elements).iterator();
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+      return elements.clone();
+    }
+  }
+}
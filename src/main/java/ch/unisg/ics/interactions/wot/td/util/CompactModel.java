@@ -0,0 +1,191 @@
+package ch.unisg.ics.interactions.wot.td.util;
+
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.AbstractModel;
+import org.eclipse.rdf4j.model.impl.SimpleNamespace;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+import java.util.*;
+
+/**
+ * A read-only RDF graph with a compact encoding: each distinct RDF term is stored once in a
+ * dictionary, and statements are stored as an array of dictionary indexes. Statements are created on
+ * the fly when iterating over the graph, and lookups scan all the statements, which is suitable for
+ * graphs of the size of a TD.
+ * <p>
+ * All methods that would modify the graph throw an <code>UnsupportedOperationException</code>.
+ */
+public final class CompactModel extends AbstractModel {
+  private static final long serialVersionUID = 1L;
+  private static final int DEFAULT_CONTEXT = -1;
+
+  private final Set<Namespace> namespaces;
+  private final Value[] terms;
+  // Subject, predicate, object and context of each statement
+  private final int[] statements;
+
+  public CompactModel(Model model) {
+    Set<Namespace> namespaceSet = new LinkedHashSet<>();
+    for (Namespace namespace : model.getNamespaces()) {
+      namespaceSet.add(new SimpleNamespace(namespace.getPrefix(), namespace.getName()));
+    }
+    this.namespaces = Collections.unmodifiableSet(namespaceSet);
+
+    Map<Value, Integer> dictionary = new HashMap<>();
+    List<Value> termList = new ArrayList<>();
+    int[] encoded = new int[model.size() * 4];
+    int i = 0;
+
+    for (Statement statement : model) {
+      encoded[i++] = encode(statement.getSubject(), dictionary, termList);
+      encoded[i++] = encode(statement.getPredicate(), dictionary, termList);
+      encoded[i++] = encode(statement.getObject(), dictionary, termList);
+      encoded[i++] = encode(statement.getContext(), dictionary, termList);
+    }
+
+    this.terms = termList.toArray(new Value[0]);
+    this.statements = (i == encoded.length) ? encoded : Arrays.copyOf(encoded, i);
+  }
+
+  private CompactModel(Set<Namespace> namespaces, Value[] terms, int[] statements) {
+    this.namespaces = namespaces;
+    this.terms = terms;
+    this.statements = statements;
+  }
+
+  private static int encode(Value term, Map<Value, Integer> dictionary, List<Value> termList) {
+    if (term == null) {
+      return DEFAULT_CONTEXT;
+    }
+
+    return dictionary.computeIfAbsent(term, t -> {
+      termList.add(t);
+      return termList.size() - 1;
+    });
+  }
+
+  @Override
+  public Set<Namespace> getNamespaces() {
+    return namespaces;
+  }
+
+  @Override
+  public Model unmodifiable() {
+    return this;
+  }
+
+  @Override
+  public void setNamespace(Namespace namespace) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public Optional<Namespace> removeNamespace(String prefix) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public boolean add(Resource subj, IRI pred, Value obj, Resource... contexts) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public boolean remove(Resource subj, IRI pred, Value obj, Resource... contexts) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public boolean clear(Resource... contexts) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public void removeTermIteration(Iterator<Statement> iter, Resource subj, IRI pred, Value obj,
+      Resource... contexts) {
+    throw new UnsupportedOperationException("The graph is read-only.");
+  }
+
+  @Override
+  public boolean contains(Resource subj, IRI pred, Value obj, Resource... contexts) {
+    for (int i = 0; i < statements.length; i += 4) {
+      if (matches(i, subj, pred, obj, contexts)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public Model filter(Resource subj, IRI pred, Value obj, Resource... contexts) {
+    int[] filtered = new int[statements.length];
+    int n = 0;
+
+    for (int i = 0; i < statements.length; i += 4) {
+      if (matches(i, subj, pred, obj, contexts)) {
+        System.arraycopy(statements, i, filtered, n, 4);
+        n += 4;
+      }
+    }
+
+    return new CompactModel(namespaces, terms, Arrays.copyOf(filtered, n));
+  }
+
+  @Override
+  public Iterator<Statement> iterator() {
+    return new Iterator<Statement>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < statements.length;
+      }
+
+      @Override
+      public Statement next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        Statement statement = decode(next);
+        next += 4;
+        return statement;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return statements.length / 4;
+  }
+
+  private Statement decode(int i) {
+    int context = statements[i + 3];
+
+    return SimpleValueFactory.getInstance().createStatement((Resource) terms[statements[i]],
+      (IRI) terms[statements[i + 1]], terms[statements[i + 2]],
+      context == DEFAULT_CONTEXT ? null : (Resource) terms[context]);
+  }
+
+  private boolean matches(int i, Resource subj, IRI pred, Value obj, Resource... contexts) {
+    if ((subj != null && !subj.equals(terms[statements[i]]))
+        || (pred != null && !pred.equals(terms[statements[i + 1]]))
+        || (obj != null && !obj.equals(terms[statements[i + 2]]))) {
+      return false;
+    }
+
+    if (contexts == null || contexts.length == 0) {
+      return true;
+    }
+
+    int context = statements[i + 3];
+    for (Resource c : contexts) {
+      if (c == null ? context == DEFAULT_CONTEXT
+          : context != DEFAULT_CONTEXT && c.equals(terms[context])) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -9,6 +9,10 @@ public final class COV {
   public static final String methodName = PREFIX + "methodName";
   public static final String observe = PREFIX + "observe";
 
+  /* Vocabulary terms as IRIs */
+  public static final IRI METHOD_NAME = createIRI("methodName");
+  public static final IRI OBSERVE = createIRI("observe");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
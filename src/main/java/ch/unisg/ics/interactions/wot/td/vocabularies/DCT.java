@@ -7,7 +7,10 @@ public final class DCT {
   public static final String PREFIX = "http://purl.org/dc/terms/";
   
   public static final String title = PREFIX + "title";
-  
+
+  /* Vocabulary terms as IRIs */
+  public static final IRI TITLE = createIRI("title");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
@@ -12,6 +12,13 @@ public final class HCTL {
   public static final String forContentType = PREFIX + "forContentType";
   public static final String forSubProtocol = PREFIX + "forSubProtocol";
   
+  /* Vocabulary terms as IRIs */
+  public static final IRI HAS_TARGET = createIRI("hasTarget");
+  public static final IRI HAS_OPERATION_TYPE = createIRI("hasOperationType");
+
+  public static final IRI FOR_CONTENT_TYPE = createIRI("forContentType");
+  public static final IRI FOR_SUB_PROTOCOL = createIRI("forSubProtocol");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
@@ -8,6 +8,9 @@ public final class HTV {
   
   public static final String methodName = PREFIX + "methodName";
   
+  /* Vocabulary terms as IRIs */
+  public static final IRI METHOD_NAME = createIRI("methodName");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
@@ -38,6 +38,39 @@ public final class JSONSchema {
   public static final String writeOnly = PREFIX + "writeOnly";
   public static final String contentMediaType = PREFIX + "contentMediaType";
 
+  /* Vocabulary terms as IRIs */
+
+  /* Classes */
+  public static final IRI ARRAY_SCHEMA = createIRI("ArraySchema");
+  public static final IRI BOOLEAN_SCHEMA = createIRI("BooleanSchema");
+  public static final IRI DATA_SCHEMA = createIRI("DataSchema");
+  public static final IRI INTEGER_SCHEMA = createIRI("IntegerSchema");
+  public static final IRI NULL_SCHEMA = createIRI("NullSchema");
+  public static final IRI NUMBER_SCHEMA = createIRI("NumberSchema");
+  public static final IRI OBJECT_SCHEMA = createIRI("ObjectSchema");
+  public static final IRI STRING_SCHEMA = createIRI("StringSchema");
+
+  /* Object properties */
+  public static final IRI ALL_OF = createIRI("allOf");
+  public static final IRI ANY_OF = createIRI("anyOf");
+  public static final IRI ITEMS = createIRI("items");
+  public static final IRI ONE_OF = createIRI("oneOf");
+  public static final IRI PROPERTIES = createIRI("properties");
+
+  /* Datatype properties */
+  public static final IRI CONSTANT = createIRI("constant");
+  public static final IRI ENUMERATION = createIRI("enum");
+  public static final IRI FORMAT = createIRI("format");
+  public static final IRI MAX_ITEMS = createIRI("maxItems");
+  public static final IRI MAXIMUM = createIRI("maximum");
+  public static final IRI MIN_ITEMS = createIRI("minItems");
+  public static final IRI MINIMUM = createIRI("minimum");
+  public static final IRI PROPERTY_NAME = createIRI("propertyName");
+  public static final IRI READ_ONLY = createIRI("readOnly");
+  public static final IRI REQUIRED = createIRI("required");
+  public static final IRI WRITE_ONLY = createIRI("writeOnly");
+  public static final IRI CONTENT_MEDIA_TYPE = createIRI("contentMediaType");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
@@ -46,6 +46,48 @@ public final class TD {
   public static final String subscribeEvent = PREFIX + "subscribeEvent";
   public static final String unsubscribeEvent = PREFIX + "unsubscribeEvent";
 
+  /* Vocabulary terms as IRIs */
+
+  /* Classes */
+  public static final IRI THING = createIRI("Thing");
+  public static final IRI ACTION_AFFORDANCE = createIRI("ActionAffordance");
+  public static final IRI PROPERTY_AFFORDANCE = createIRI("PropertyAffordance");
+  public static final IRI EVENT_AFFORDANCE = createIRI("EventAffordance");
+
+  /* Object properties */
+  public static final IRI HAS_BASE = createIRI("hasBase");
+  public static final IRI NAME = createIRI("name");
+  public static final IRI TITLE = createIRI("title");
+
+  public static final IRI HAS_INTERACTION_AFFORDANCE = createIRI("hasInteractionAffordance");
+  public static final IRI HAS_ACTION_AFFORDANCE = createIRI("hasActionAffordance");
+  public static final IRI HAS_PROPERTY_AFFORDANCE = createIRI("hasPropertyAffordance");
+  public static final IRI HAS_EVENT_AFFORDANCE = createIRI("hasEventAffordance");
+
+  public static final IRI HAS_SECURITY_CONFIGURATION = createIRI("hasSecurityConfiguration");
+
+  public static final IRI IS_OBSERVABLE = createIRI("isObservable");
+
+  public static final IRI HAS_INPUT_SCHEMA = createIRI("hasInputSchema");
+  public static final IRI HAS_OUTPUT_SCHEMA = createIRI("hasOutputSchema");
+
+  public static final IRI HAS_SUBSCRIPTION_SCHEMA = createIRI("hasSubscriptionSchema");
+  public static final IRI HAS_NOTIFICATION_SCHEMA = createIRI("hasNotificationSchema");
+  public static final IRI HAS_CANCELLATION_SCHEMA = createIRI("hasCancellationSchema");
+
+  public static final IRI HAS_FORM = createIRI("hasForm");
+
+  public static final IRI HAS_URI_TEMPLATE_SCHEMA = createIRI("hasUriTemplateSchema");
+
+  /* Named individuals */
+  public static final IRI READ_PROPERTY = createIRI("readProperty");
+  public static final IRI WRITE_PROPERTY = createIRI("writeProperty");
+  public static final IRI INVOKE_ACTION = createIRI("invokeAction");
+  public static final IRI OBSERVE_PROPERTY = createIRI("observeProperty");
+  public static final IRI UNOBSERVE_PROPERTY = createIRI("unobserveProperty");
+  public static final IRI SUBSCRIBE_EVENT = createIRI("subscribeEvent");
+  public static final IRI UNSUBSCRIBE_EVENT = createIRI("unsubscribeEvent");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
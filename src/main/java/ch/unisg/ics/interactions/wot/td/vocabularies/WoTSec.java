@@ -30,6 +30,32 @@ public final class WoTSec {
   public static final String flow = PREFIX + "flow";
   public static final String scopes = PREFIX + "scopes";
 
+  /* Vocabulary terms as IRIs */
+
+  /* Classes */
+  public static final IRI NO_SECURITY_SCHEME = createIRI("NoSecurityScheme");
+  public static final IRI API_KEY_SECURITY_SCHEME = createIRI("APIKeySecurityScheme");
+  public static final IRI BASIC_SECURITY_SCHEME = createIRI("BasicSecurityScheme");
+  public static final IRI DIGEST_SECURITY_SCHEME = createIRI("DigestSecurityScheme");
+  public static final IRI BEARER_SECURITY_SCHEME = createIRI("BearerSecurityScheme");
+  public static final IRI PSK_SECURITY_SCHEME = createIRI("PSKSecurityScheme");
+  public static final IRI OAUTH2_SECURITY_SCHEME = createIRI("OAuth2SecurityScheme");
+
+  /* Object properties */
+  public static final IRI AUTHORIZATION = createIRI("authorization");
+  public static final IRI TOKEN = createIRI("token");
+  public static final IRI REFRESH = createIRI("refresh");
+
+  /* Datatype properties */
+  public static final IRI IN = createIRI("in");
+  public static final IRI NAME = createIRI("name");
+  public static final IRI QOP = createIRI("qop");
+  public static final IRI ALG = createIRI("alg");
+  public static final IRI FORMAT = createIRI("format");
+  public static final IRI IDENTITY = createIRI("identity");
+  public static final IRI FLOW = createIRI("flow");
+  public static final IRI SCOPES = createIRI("scopes");
+
   public static IRI createIRI(String fragment) {
     return SimpleValueFactory.getInstance().createIRI(PREFIX + fragment);
   }
@@ -4,20 +4,39 @@ import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
 import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
 import ch.unisg.ics.interactions.wot.td.affordances.Form;
 import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
 import ch.unisg.ics.interactions.wot.td.io.InvalidTDException;
 import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.util.CompactModel;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 
 public class ThingDescriptionTest {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
 
   private ThingDescription commonTd;
 
@@ -223,6 +242,69 @@ public class ThingDescriptionTest {
     assertFalse(event2.isPresent());
   }
 
+  @Test
+  public void testGetAffordanceByNameAmongManyAffordances() {
+    ThingDescription.Builder builder = new ThingDescription.Builder("A Thing");
+    for (int i = 0; i < 500; i++) {
+      builder.addProperty(new PropertyAffordance.Builder("prop" + i,
+          new Form.Builder("http://example.org/prop" + i).build())
+        .build());
+    }
+    builder.addProperty(new PropertyAffordance.Builder("prop0",
+        new Form.Builder("http://example.org/duplicate").build())
+      .build());
+
+    ThingDescription td = builder.build();
+
+    assertEquals(501, td.getProperties().size());
+    assertEquals("prop0", td.getProperties().get(0).getName());
+    assertEquals("prop499", td.getProperties().get(499).getName());
+    assertEquals("http://example.org/prop42", td.getPropertyByName("prop42").get().getForms().get(0)
+      .getTarget());
+    // The first affordance with a given name is returned
+    assertSame(td.getProperties().get(0), td.getPropertyByName("prop0").get());
+    assertFalse(td.getPropertyByName("prop500").isPresent());
+  }
+
+  @Test
+  public void testAffordancesNotAffectedByReusedBuilder() {
+    ThingDescription.Builder builder = new ThingDescription.Builder("A Thing")
+      .addAction(commonTd.getActions().get(0));
+    ThingDescription td = builder.build();
+
+    builder.addAction(commonTd.getActions().get(1));
+
+    assertEquals(1, td.getActions().size());
+    assertFalse(td.getActionByName("openVentilator").isPresent());
+    assertTrue(builder.build().getActionByName("openVentilator").isPresent());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testAffordancesUnmodifiable() {
+    commonTd.getEvents().clear();
+  }
+
+  @Test
+  public void testGetAffordancesBySemanticTypes() {
+    List<ActionAffordance> modifyEnv = commonTd.getActionsBySemanticTypes(Arrays.asList("ex:ModifyEnv"));
+    assertEquals(2, modifyEnv.size());
+    assertEquals("setTemp", modifyEnv.get(0).getName());
+    assertEquals("openVentilator", modifyEnv.get(1).getName());
+
+    List<ActionAffordance> openVentilator = commonTd.getActionsBySemanticTypes(
+      Arrays.asList("ex:ModifyEnv", "ex:OpenVentilator"));
+    assertEquals(1, openVentilator.size());
+    assertEquals("openVentilator", openVentilator.get(0).getName());
+
+    List<PropertyAffordance> values = commonTd.getPropertiesBySemanticTypes(
+      Arrays.asList("ex:Value", "ex:AirQuality"));
+    assertEquals(1, values.size());
+    assertEquals("air-quality", values.get(0).getName());
+
+    assertTrue(commonTd.getEventsBySemanticTypes(Arrays.asList("ex:Alarm", "ex:Unknown")).isEmpty());
+    assertEquals(2, commonTd.getEventsBySemanticTypes(Collections.emptyList()).size());
+  }
+
   @Test
   public void testGetEventsByOperationType() {
     List<EventAffordance> subscribeEvents = commonTd.getEventsByOperationType(TD.subscribeEvent);
@@ -241,4 +323,120 @@ public class ThingDescriptionTest {
     Optional<EventAffordance> unknownEvent = commonTd.getFirstEventBySemanticType("ex:NoAlarm");
     assertFalse(unknownEvent.isPresent());
   }
+
+  @Test
+  public void testCacheSerialization() {
+    ByteBuffer turtle = commonTd.getSerialization(TDFormat.RDF_TURTLE);
+
+    assertTrue(turtle.isReadOnly());
+    assertTrue(StandardCharsets.UTF_8.decode(turtle).toString().contains(commonTd.getTitle()));
+    assertEquals(turtle.rewind(), commonTd.getSerialization(TDFormat.RDF_TURTLE));
+
+    byte[] bytes = commonTd.getSerializationBytes(TDFormat.RDF_TURTLE);
+    bytes[0] = 0;
+    assertNotEquals(0, commonTd.getSerializationBytes(TDFormat.RDF_TURTLE)[0]);
+  }
+
+  @Test
+  public void testCacheCompressedSerialization() throws IOException {
+    ByteBuffer compressed = commonTd.getCompressedSerialization(TDFormat.RDF_JSONLD);
+    byte[] compressedBytes = new byte[compressed.remaining()];
+    compressed.get(compressedBytes);
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedBytes))) {
+      assertArrayEquals(commonTd.getSerializationBytes(TDFormat.RDF_JSONLD), IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  public void testThingIsNotModifiedByBuilder() {
+    ThingDescription.Builder builder = new ThingDescription.Builder("My Thing")
+      .addSemanticType("ex:Lamp")
+      .addProperty(new PropertyAffordance.Builder("status",
+        new Form.Builder("http://example.org/status").build()).build());
+    ThingDescription td = builder.build();
+
+    builder.addSemanticType("ex:Switch")
+      .addProperty(new PropertyAffordance.Builder("level",
+        new Form.Builder("http://example.org/level").build()).build())
+      .addSecurityScheme("apikey", new APIKeySecurityScheme.Builder().build());
+
+    assertEquals(Collections.singleton("ex:Lamp"), td.getSemanticTypes());
+    assertEquals(1, td.getProperties().size());
+    assertEquals(1, td.getSecuritySchemes().size());
+    assertEquals(Collections.singleton("nosec"), td.getSecurityDefinitions().keySet());
+  }
+
+  @Test
+  public void testGraphIsNotModifiedByBuilder() {
+    IRI thing = rdf.createIRI("http://example.org/lamp");
+    Model source = new LinkedHashModel();
+    source.setNamespace("ex", "http://example.org/#");
+    source.add(thing, RDF.TYPE, rdf.createIRI("http://example.org/#Lamp"));
+
+    ThingDescription.Builder builder = new ThingDescription.Builder("My Lamp")
+      .addThingURI(thing.stringValue())
+      .addGraph(source);
+    ThingDescription td = builder.build();
+    String turtle = new String(td.getSerializationBytes(TDFormat.RDF_TURTLE), StandardCharsets.UTF_8);
+
+    builder.addTriple(thing, DCTERMS.CREATOR, rdf.createLiteral("Alice"));
+    source.add(thing, DCTERMS.TITLE, rdf.createLiteral("Lamp"));
+
+    assertEquals(1, td.getGraph().get().size());
+    assertEquals("http://example.org/#", td.getGraph().get().getNamespace("ex").get().getName());
+    assertEquals(turtle,
+      new String(td.getSerializationBytes(TDFormat.RDF_TURTLE), StandardCharsets.UTF_8));
+    assertEquals(2, builder.build().getGraph().get().size());
+
+    assertUnmodifiable(() -> td.getGraph().get().add(thing, DCTERMS.TITLE, rdf.createLiteral("Lamp")));
+  }
+
+  @Test
+  public void testAddReadOnlyGraph() {
+    IRI thing = rdf.createIRI("http://example.org/lamp");
+    Model compact = new CompactModel(new ModelBuilder()
+      .add(thing, RDF.TYPE, rdf.createIRI("http://example.org/#Lamp"))
+      .build());
+
+    ThingDescription td = new ThingDescription.Builder("My Lamp")
+      .addGraph(compact)
+      .build();
+    assertSame(compact, td.getGraph().get());
+
+    ThingDescription extended = new ThingDescription.Builder("My Lamp")
+      .addGraph(td.getGraph().get())
+      .addTriple(thing, DCTERMS.CREATOR, rdf.createLiteral("Alice"))
+      .build();
+    assertEquals(2, extended.getGraph().get().size());
+    assertEquals(1, td.getGraph().get().size());
+
+    ThingDescription copy = new ThingDescription.Builder("My Lamp")
+      .addGraph(extended.getGraph().get())
+      .addTriple(thing, DCTERMS.TITLE, rdf.createLiteral("Lamp"))
+      .build();
+    assertEquals(3, copy.getGraph().get().size());
+  }
+
+  @Test
+  public void testThingIsUnmodifiable() {
+    Form form = commonTd.getProperties().get(0).getForms().get(0);
+
+    assertUnmodifiable(() -> commonTd.getSemanticTypes().add("ex:Switch"));
+    assertUnmodifiable(() -> commonTd.getSecuritySchemes().clear());
+    assertUnmodifiable(() -> commonTd.getSecurityDefinitions().remove("nosec_sc"));
+    assertUnmodifiable(() -> commonTd.getProperties().remove(0));
+    assertUnmodifiable(() -> commonTd.getActions().get(0).getSemanticTypes().add("ex:Switch"));
+    assertUnmodifiable(() -> commonTd.getActions().get(0).getForms().clear());
+    assertUnmodifiable(() -> form.getOperationTypes().add(TD.invokeAction));
+  }
+
+  private static void assertUnmodifiable(Runnable modification) {
+    try {
+      modification.run();
+      fail("Expected an UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
 }
@@ -26,7 +26,10 @@ public class ActionAffordanceTest {
   public void testOneForm() {
     List<Form> forms = testAction.getForms();
     assertEquals(1, forms.size());
-    assertEquals(form, forms.get(0));
+    // Default values are applied to a copy of the form
+    assertEquals(form.getTarget(), forms.get(0).getTarget());
+    assertTrue(forms.get(0).hasOperationType(TD.invokeAction));
+    assertTrue(form.getOperationTypes().isEmpty());
   }
 
   @Test
@@ -52,9 +55,9 @@ public class ActionAffordanceTest {
     List<Form> forms = action.getForms();
 
     assertEquals(3, forms.size());
-    assertEquals(form1, forms.get(0));
-    assertEquals(form2, forms.get(1));
-    assertEquals(form3, forms.get(2));
+    assertEquals(form1.getMethodName(), forms.get(0).getMethodName());
+    assertEquals(form2.getMethodName(), forms.get(1).getMethodName());
+    assertEquals(form3.getMethodName(), forms.get(2).getMethodName());
   }
 
   @Test
@@ -29,7 +29,10 @@ public class EventAffordanceTest {
   public void testOneForm() {
     List<Form> forms = testEvent.getForms();
     assertEquals(1, forms.size());
-    assertEquals(form, forms.get(0));
+    // Default values are applied to a copy of the form
+    assertEquals(form.getTarget(), forms.get(0).getTarget());
+    assertTrue(forms.get(0).hasOperationType(TD.subscribeEvent));
+    assertTrue(form.getOperationTypes().isEmpty());
   }
 
   @Test
@@ -55,9 +58,9 @@ public class EventAffordanceTest {
     List<Form> forms = event.getForms();
 
     assertEquals(3, forms.size());
-    assertEquals(form1, forms.get(0));
-    assertEquals(form2, forms.get(1));
-    assertEquals(form3, forms.get(2));
+    assertEquals(form1.getMethodName(), forms.get(0).getMethodName());
+    assertEquals(form2.getMethodName(), forms.get(1).getMethodName());
+    assertEquals(form3.getMethodName(), forms.get(2).getMethodName());
   }
 
   @Test
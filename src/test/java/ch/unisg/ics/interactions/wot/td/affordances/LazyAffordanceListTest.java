@@ -0,0 +1,131 @@
+package ch.unisg.ics.interactions.wot.td.affordances;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class LazyAffordanceListTest {
+
+  private AtomicInteger loadCount;
+  private LazyAffordanceList<ActionAffordance> actions;
+
+  @Before
+  public void init() {
+    loadCount = new AtomicInteger();
+    actions = new LazyAffordanceList<>(Arrays.asList("a", "b", "c"),
+      Arrays.asList(loader("a"), loader("b"), loader("c")));
+  }
+
+  @Test
+  public void testGetByNameMaterializesOnlyMatchingAffordance() {
+    assertEquals(3, actions.size());
+    assertEquals(0, loadCount.get());
+
+    assertEquals("b", actions.getByName("b").get().getName());
+    assertEquals(1, loadCount.get());
+    assertFalse(actions.isMaterialized(0));
+    assertTrue(actions.isMaterialized(1));
+    assertFalse(actions.isMaterialized(2));
+
+    assertFalse(actions.getByName("d").isPresent());
+    assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  public void testMemoizeAffordances() {
+    ActionAffordance action = actions.get(0);
+
+    assertSame(action, actions.get(0));
+    assertSame(action, actions.getByName("a").get());
+    assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  public void testIterateInOrder() {
+    List<String> names = new ArrayList<>();
+    for (ActionAffordance action : actions) {
+      names.add(action.getName());
+    }
+
+    assertEquals(Arrays.asList("a", "b", "c"), names);
+    assertEquals(3, loadCount.get());
+  }
+
+  @Test
+  public void testConcurrentAccessReturnsSameInstance() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      List<Callable<ActionAffordance>> tasks = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        tasks.add(() -> actions.get(2));
+      }
+
+      ActionAffordance expected = actions.get(2);
+      for (Future<ActionAffordance> future : executor.invokeAll(tasks)) {
+        assertSame(expected, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testReleaseLoadersOnceMaterialized() throws InterruptedException {
+    // Stands for the graph captured by the loaders of a TD
+    Object graph = new Object();
+    WeakReference<Object> graphRef = new WeakReference<>(graph);
+
+    LazyAffordanceList<ActionAffordance> list = new LazyAffordanceList<>(Arrays.asList("a"),
+      Arrays.asList(loader("a", graph)));
+    graph = null;
+
+    assertFalse(isCollected(graphRef));
+
+    ActionAffordance action = list.get(0);
+    assertTrue(isCollected(graphRef));
+    assertSame(action, list.get(0));
+    assertEquals(1, loadCount.get());
+  }
+
+  private static boolean isCollected(WeakReference<?> ref) throws InterruptedException {
+    for (int i = 0; i < 10 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    return ref.get() == null;
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    actions.add(new ActionAffordance.Builder("d", new Form.Builder("http://example.org/d").build())
+      .build());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNamesAndLoadersMismatch() {
+    new LazyAffordanceList<>(Arrays.asList("a"), new ArrayList<Supplier<ActionAffordance>>());
+  }
+
+  private Supplier<ActionAffordance> loader(String name, Object capturedState) {
+    Supplier<ActionAffordance> loader = loader(name);
+    return () -> (capturedState == null) ? null : loader.get();
+  }
+
+  private Supplier<ActionAffordance> loader(String name) {
+    return () -> {
+      loadCount.incrementAndGet();
+      return new ActionAffordance.Builder(name, new Form.Builder("http://example.org/" + name).build())
+        .build();
+    };
+  }
+}
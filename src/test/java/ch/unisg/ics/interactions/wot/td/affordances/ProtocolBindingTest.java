@@ -46,4 +46,41 @@ public class ProtocolBindingTest {
     assertFalse(ProtocolBinding.getDefaultMethod(href, operationType).isPresent());
     assertFalse(ProtocolBinding.getDefaultSubProtocol(href, operationType).isPresent());
   }
+
+  @Test
+  public void testProtocolFromUriScheme() {
+    assertEquals(Optional.of("HTTP"), ProtocolBinding.getProtocol("https://example.org/1"));
+    assertEquals(Optional.of("HTTP"), ProtocolBinding.getProtocol("HTTP://example.org/1"));
+    assertEquals(Optional.of("CoAP"), ProtocolBinding.getProtocol("coaps://example.org/1"));
+    assertEquals(Optional.of("HTTP"),
+      ProtocolBinding.getProtocol("http://example.org/proxy?target=coap://example.org/1"));
+
+    assertFalse(ProtocolBinding.getProtocol("/relative/coap://example.org").isPresent());
+    assertFalse(ProtocolBinding.getProtocol("httpx://example.org/1").isPresent());
+    assertFalse(ProtocolBinding.getProtocol("").isPresent());
+  }
+
+  @Test
+  public void testFormDefaultBindings() {
+    Form form = new Form.Builder("coap://example.org/1")
+      .addOperationType(TD.observeProperty)
+      .addOperationType("http://example.org#customOp")
+      .build();
+
+    assertTrue(form.hasProtocol("CoAP"));
+    assertFalse(form.hasProtocol("HTTP"));
+    assertEquals(Optional.of("GET"), form.getMethodName(TD.observeProperty));
+    assertEquals(Optional.of(COV.observe), form.getSubProtocol(TD.observeProperty));
+    assertFalse(form.getMethodName("http://example.org#customOp").isPresent());
+    assertTrue(form.hasOperationType("http://example.org#customOp"));
+    assertFalse(form.hasOperationType(TD.readProperty));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFormUnknownOperationType() {
+    new Form.Builder("http://example.org/1")
+      .addOperationType(TD.readProperty)
+      .build()
+      .getMethodName(TD.writeProperty);
+  }
 }
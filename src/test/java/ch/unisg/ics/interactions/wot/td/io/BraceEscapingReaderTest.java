@@ -0,0 +1,81 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class BraceEscapingReaderTest {
+
+  @Test
+  public void testEscapeBracesInIRIs() throws IOException {
+    assertEquals("<http://example.org/%7Bname%7D/%7Bid%7D> a <http://example.org/Thing> .",
+      escape("<http://example.org/{name}/{id}> a <http://example.org/Thing> ."));
+  }
+
+  @Test
+  public void testKeepBracesInLiterals() throws IOException {
+    String turtle = "<http://example.org/{a}> <http://example.org/p> \"{b}\", '{c}', \"\"\"{\"d\"}\"\"\" ;\n" +
+      "  <http://example.org/q> \"\\\"{e}\" .";
+
+    assertEquals("<http://example.org/%7Ba%7D> <http://example.org/p> \"{b}\", '{c}', \"\"\"{\"d\"}\"\"\" ;\n" +
+      "  <http://example.org/q> \"\\\"{e}\" .", escape(turtle));
+  }
+
+  @Test
+  public void testKeepBracesInComments() throws IOException {
+    assertEquals("# <{comment}>\n<http://example.org/%7Bx%7D> .",
+      escape("# <{comment}>\n<http://example.org/{x}> ."));
+  }
+
+  @Test
+  public void testEmptyStringLiteral() throws IOException {
+    assertEquals("<a> <b> \"\" ; <c> <http://example.org/%7Bx%7D> .",
+      escape("<a> <b> \"\" ; <c> <http://example.org/{x}> ."));
+  }
+
+  @Test
+  public void testReadWithSmallBuffers() throws IOException {
+    Reader reader = new BraceEscapingReader(new StringReader("<{}{}>"));
+    StringWriter writer = new StringWriter();
+
+    char[] buffer = new char[2];
+    int n;
+    while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+      writer.write(buffer, 0, n);
+    }
+
+    assertEquals("<%7B%7D%7B%7D>", writer.toString());
+  }
+
+  @Test
+  public void testReadSingleCharacters() throws IOException {
+    Reader reader = new BraceEscapingReader(new StringReader("<{x}>"));
+    StringBuilder builder = new StringBuilder();
+
+    int c;
+    while ((c = reader.read()) != -1) {
+      builder.append((char) c);
+    }
+
+    assertEquals("<%7Bx%7D>", builder.toString());
+  }
+
+  private String escape(String turtle) throws IOException {
+    StringWriter writer = new StringWriter();
+
+    try (Reader reader = new BraceEscapingReader(new StringReader(turtle))) {
+      char[] buffer = new char[8192];
+      int n;
+      while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+        writer.write(buffer, 0, n);
+      }
+    }
+
+    return writer.toString();
+  }
+}
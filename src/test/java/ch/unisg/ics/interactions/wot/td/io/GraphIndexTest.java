@@ -0,0 +1,83 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class GraphIndexTest {
+  private static final IRI THING = SimpleValueFactory.getInstance().createIRI("http://example.org/#thing");
+  private static final IRI PROPERTY_1 = SimpleValueFactory.getInstance().createIRI("http://example.org/#p1");
+  private static final IRI PROPERTY_2 = SimpleValueFactory.getInstance().createIRI("http://example.org/#p2");
+
+  private final Model model = new ModelBuilder()
+    .add(THING, RDF.TYPE, TD.THING)
+    .add(THING, TD.TITLE, "My Thing")
+    .add(THING, TD.HAS_PROPERTY_AFFORDANCE, PROPERTY_2)
+    .add(THING, TD.HAS_PROPERTY_AFFORDANCE, PROPERTY_1)
+    .add(PROPERTY_1, TD.NAME, "p1")
+    .add(PROPERTY_2, TD.NAME, "p2")
+    .build();
+
+  @Test
+  public void testLookupObjects() {
+    GraphIndex index = new GraphIndex(model);
+
+    assertEquals("My Thing", index.objectLiteral(THING, TD.TITLE).get().stringValue());
+    assertEquals(TD.THING, index.objectIRI(THING, RDF.TYPE).get());
+    assertTrue(index.contains(THING, RDF.TYPE, TD.THING));
+    assertFalse(index.contains(THING, RDF.TYPE, TD.ACTION_AFFORDANCE));
+    assertFalse(index.objectIRI(THING, TD.TITLE).isPresent());
+    assertTrue(index.objectStrings(PROPERTY_1, TD.HAS_FORM).isEmpty());
+  }
+
+  @Test
+  public void testObjectsKeepGraphOrder() {
+    GraphIndex index = new GraphIndex(model);
+
+    List<Value> properties = index.objectResources(THING, TD.HAS_PROPERTY_AFFORDANCE).stream()
+      .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList(PROPERTY_2, PROPERTY_1), properties);
+  }
+
+  @Test
+  public void testLookupSubject() {
+    GraphIndex index = new GraphIndex(model);
+
+    assertEquals(THING, index.subject(TD.HAS_PROPERTY_AFFORDANCE).get());
+    assertEquals(PROPERTY_1, index.subject(TD.NAME).get());
+    assertFalse(index.subject(TD.HAS_FORM).isPresent());
+  }
+
+  @Test
+  public void testTrackUnreadStatements() {
+    GraphIndex index = new GraphIndex(model, true);
+
+    index.objectLiteral(THING, TD.TITLE);
+    index.objectResources(THING, TD.HAS_PROPERTY_AFFORDANCE);
+    index.contains(THING, RDF.TYPE, TD.THING);
+    index.objectString(PROPERTY_1, TD.NAME);
+
+    Model unread = index.unreadStatements(model);
+
+    assertEquals(2, unread.size());
+    assertTrue(unread.contains(THING, RDF.TYPE, TD.THING));
+    assertTrue(unread.contains(PROPERTY_2, TD.NAME, null));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnreadStatementsWithoutTracking() {
+    new GraphIndex(model).unreadStatements(model);
+  }
+}
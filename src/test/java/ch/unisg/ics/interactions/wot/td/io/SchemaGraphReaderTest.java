@@ -344,6 +344,47 @@ public class SchemaGraphReaderTest {
     assertEquals(DataSchema.OBJECT, array.getItems().get(1).getDatatype());
   }
 
+  @Test
+  public void testReadSharedSchemaNodeOnce() throws RDFParseException, RDFHandlerException,
+      IOException {
+    String testObject =
+      "@prefix js: <https://www.w3.org/2019/wot/json-schema#> .\n" +
+        "[ a js:ObjectSchema, <http://example.org/#UserAccount> ;\n" +
+        "    js:properties [\n" +
+        "        a js:ArraySchema ;\n" +
+        "        js:propertyName \"admins\" ;\n" +
+        "        js:items <http://example.org/#name> ;\n" +
+        "    ], [\n" +
+        "        a js:ArraySchema ;\n" +
+        "        js:propertyName \"members\" ;\n" +
+        "        js:items <http://example.org/#name> ;\n" +
+        "    ] ] .\n" +
+        "<http://example.org/#name> a js:StringSchema .\n";
+
+    ObjectSchema object = assertObjectMetadata(testObject, PREFIX + "UserAccount", 2, 0);
+
+    ArraySchema admins = (ArraySchema) object.getProperty("admins").get();
+    ArraySchema members = (ArraySchema) object.getProperty("members").get();
+    assertSame(admins.getItems().get(0), members.getItems().get(0));
+  }
+
+  @Test
+  public void testReadCyclicSchema() throws RDFParseException, RDFHandlerException, IOException {
+    String testObject =
+      "@prefix js: <https://www.w3.org/2019/wot/json-schema#> .\n" +
+        "<http://example.org/#node> a js:ObjectSchema ;\n" +
+        "    js:properties <http://example.org/#next> .\n" +
+        "<http://example.org/#next> a js:ObjectSchema ;\n" +
+        "    js:propertyName \"next\" ;\n" +
+        "    js:properties <http://example.org/#node> .\n";
+
+    Model model = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE, testObject, IO_BASE_IRI);
+
+    InvalidTDException exception = assertThrows(InvalidTDException.class, () ->
+      SchemaGraphReader.readDataSchema(rdf.createIRI(PREFIX + "node"), model));
+    assertTrue(exception.getMessage().startsWith("Cyclic data schema definition"));
+  }
+
 
   private ObjectSchema assertObjectMetadata(String testSemObject, String semType, int props, int req)
       throws RDFParseException, RDFHandlerException, IOException {
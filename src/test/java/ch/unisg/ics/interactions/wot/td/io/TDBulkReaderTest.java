@@ -0,0 +1,110 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TDBulkReaderTest {
+
+  private static final String TURTLE_TD =
+    "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"Turtle Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] .";
+
+  private static final String JSONLD_TD = "[ {\n" +
+    "  \"@id\" : \"_:security\",\n" +
+    "  \"@type\" : [ \"https://www.w3.org/2019/wot/security#NoSecurityScheme\" ]\n" +
+    "}, {\n" +
+    "  \"@id\" : \"http://example.org/#jsonld-thing\",\n" +
+    "  \"@type\" : [ \"https://www.w3.org/2019/wot/td#Thing\" ],\n" +
+    "  \"https://www.w3.org/2019/wot/td#title\" : [ {\n" +
+    "    \"@value\" : \"JSON-LD Thing\"\n" +
+    "  } ],\n" +
+    "  \"https://www.w3.org/2019/wot/td#hasSecurityConfiguration\" : [ {\n" +
+    "    \"@id\" : \"_:security\"\n" +
+    "  } ]\n" +
+    "} ]";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testReadDirectory() throws IOException {
+    Path root = folder.getRoot().toPath();
+    Path turtle = write(root.resolve("a.ttl"), TURTLE_TD);
+    Path jsonld = write(Files.createDirectory(root.resolve("sub")).resolve("b.jsonld"), JSONLD_TD);
+    write(root.resolve("notes.txt"), "not a TD");
+
+    Map<Path, TDBulkReader.Result> results = new TDBulkReader(2).readDirectory(root);
+
+    assertEquals(Arrays.asList(turtle, jsonld), results.keySet().stream().collect(Collectors.toList()));
+    assertEquals("Turtle Thing", results.get(turtle).getThingDescription().get().getTitle());
+    assertEquals("JSON-LD Thing", results.get(jsonld).getThingDescription().get().getTitle());
+  }
+
+  @Test
+  public void testReportFailuresWithoutAborting() throws IOException {
+    Path root = folder.getRoot().toPath();
+    Path valid = write(root.resolve("valid.ttl"), TURTLE_TD);
+    Path invalid = write(root.resolve("invalid.ttl"), "<http://example.org/#thing> a .");
+    Path missing = root.resolve("missing.ttl");
+    Path unknown = write(root.resolve("thing.xml"), "<thing/>");
+
+    Map<Path, TDBulkReader.Result> results = new TDBulkReader(2)
+      .readPaths(Arrays.asList(invalid, valid, missing, unknown));
+
+    assertEquals(Arrays.asList(invalid, valid, missing, unknown),
+      results.keySet().stream().collect(Collectors.toList()));
+
+    assertTrue(results.get(valid).isSuccess());
+    assertFalse(results.get(valid).getError().isPresent());
+
+    assertFalse(results.get(invalid).isSuccess());
+    assertTrue(results.get(invalid).getError().get() instanceof InvalidTDException);
+
+    assertFalse(results.get(missing).isSuccess());
+    assertTrue(results.get(missing).getError().get() instanceof IOException);
+
+    assertFalse(results.get(unknown).isSuccess());
+    assertTrue(results.get(unknown).getError().get() instanceof InvalidTDException);
+  }
+
+  @Test
+  public void testReadThingDescriptions() throws IOException {
+    Path root = folder.getRoot().toPath();
+    Path first = write(root.resolve("first.ttl"), TURTLE_TD);
+    Path invalid = write(root.resolve("invalid.jsonld"), "{");
+    Path second = write(root.resolve("second.json"), JSONLD_TD);
+
+    List<String> titles = new TDBulkReader()
+      .readThingDescriptions(Arrays.asList(first, invalid, second))
+      .map(ThingDescription::getTitle)
+      .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("Turtle Thing", "JSON-LD Thing"), titles);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() {
+    new TDBulkReader(0);
+  }
+
+  private Path write(Path path, String content) throws IOException {
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,173 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.StringSchema;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TDBulkWriterTest {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  @Test
+  public void testWriteNamedGraphs() throws IOException {
+    List<ThingDescription> tds = Arrays.asList(getTestTD(0), getTestTD(1), getAnonymousTD());
+
+    Model quads = parse(write(new TDBulkWriter(), tds), RDFFormat.NQUADS);
+
+    Set<Resource> contexts = quads.contexts();
+    assertEquals(3, contexts.size());
+    assertFalse(contexts.contains(null));
+
+    Resource anonymousGraph = null;
+    for (Resource context : contexts) {
+      if (context instanceof BNode) {
+        assertNull(anonymousGraph);
+        anonymousGraph = context;
+      }
+    }
+    assertNotNull(anonymousGraph);
+
+    assertIsomorphic(toModel(tds.get(0)), getGraph(quads, rdf.createIRI("http://example.org/lamp0")));
+    assertIsomorphic(toModel(tds.get(1)), getGraph(quads, rdf.createIRI("http://example.org/lamp1")));
+    assertIsomorphic(toModel(tds.get(2)), getGraph(quads, anonymousGraph));
+  }
+
+  @Test
+  public void testWriteTriples() throws IOException {
+    List<ThingDescription> tds = Arrays.asList(getTestTD(0), getTestTD(1), getAnonymousTD());
+
+    Model triples = parse(write(new TDBulkWriter().setNamedGraphs(false), tds), RDFFormat.NTRIPLES);
+
+    Model expected = new LinkedHashModel();
+    tds.forEach(td -> expected.addAll(toModel(td)));
+
+    assertTrue(triples.contexts().equals(Collections.singleton(null)));
+    assertIsomorphic(expected, triples);
+  }
+
+  @Test
+  public void testWriteParallelChunksInOrder() throws IOException {
+    List<ThingDescription> tds = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      tds.add((i % 5 == 0) ? getAnonymousTD() : getTestTD(i));
+    }
+
+    String sequential = write(new TDBulkWriter(), tds);
+    String parallel = write(new TDBulkWriter(3).setChunkSize(2), tds);
+
+    assertEquals(sequential, parallel);
+    assertIsomorphic(parse(sequential, RDFFormat.NQUADS), parse(parallel, RDFFormat.NQUADS));
+    assertEquals(25, parse(parallel, RDFFormat.NQUADS).contexts().size());
+
+    sequential = write(new TDBulkWriter().setNamedGraphs(false), tds);
+    parallel = write(new TDBulkWriter(3).setChunkSize(2).setNamedGraphs(false), tds);
+
+    assertEquals(sequential, parallel);
+    assertIsomorphic(parse(sequential, RDFFormat.NTRIPLES), parse(parallel, RDFFormat.NTRIPLES));
+  }
+
+  @Test
+  public void testEscapeTerms() throws IOException {
+    ThingDescription td = new ThingDescription.Builder("Say \"hello\"\n\\ world")
+      .addThingURI("http://example.org/thing")
+      .addAction(new ActionAffordance.Builder("fade",
+          new Form.Builder("http://example.org/fade{?duration}").build())
+        .build())
+      .build();
+
+    String ntriples = write(new TDBulkWriter().setNamedGraphs(false), Collections.singletonList(td));
+
+    assertTrue(ntriples.contains("\"Say \\\"hello\\\"\\n\\\\ world\""));
+    assertTrue(ntriples.contains("<http://example.org/fade%7B?duration%7D>"));
+    assertIsomorphic(toModel(td), parse(ntriples, RDFFormat.NTRIPLES));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectInvalidParallelism() {
+    new TDBulkWriter(0);
+  }
+
+  private static String write(TDBulkWriter writer, List<ThingDescription> tds) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(tds, out);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static Model toModel(ThingDescription td) {
+    Model model = new LinkedHashModel();
+    new TDGraphWriter(td).write(new StatementCollector(model));
+    return model;
+  }
+
+  private static Model parse(String document, RDFFormat format) {
+    try {
+      return Rio.parse(new StringReader(document), "", format);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /*
+   * Gets the statements of a named graph, without their context.
+   */
+  private static Model getGraph(Model quads, Resource context) {
+    Model graph = new LinkedHashModel();
+    for (Statement statement : quads.filter(null, null, null, context)) {
+      graph.add(statement.getSubject(), statement.getPredicate(), statement.getObject());
+    }
+    return graph;
+  }
+
+  private static void assertIsomorphic(Model expected, Model actual) {
+    assertEquals(expected.size(), actual.size());
+    assertTrue(Models.isomorphic(expected, actual));
+  }
+
+  private static ThingDescription getAnonymousTD() {
+    return new ThingDescription.Builder("Anonymous Thing")
+      .addProperty(new PropertyAffordance.Builder("name",
+          new Form.Builder("http://example.org/name").build())
+        .addDataSchema(new StringSchema.Builder().build())
+        .build())
+      .build();
+  }
+
+  private static ThingDescription getTestTD(int index) {
+    return new ThingDescription.Builder("Lamp " + index)
+      .addThingURI("http://example.org/lamp" + index)
+      .addSemanticType("http://example.org/#Lamp")
+      .addProperty(new PropertyAffordance.Builder("status",
+          new Form.Builder("http://example.org/lamp" + index + "/status")
+            .addOperationType(TD.readProperty)
+            .build())
+        .addDataSchema(new ObjectSchema.Builder()
+          .addProperty("brightness", new NumberSchema.Builder().addMaximum(100.0).build())
+          .build())
+        .build())
+      .build();
+  }
+}
@@ -0,0 +1,169 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TDCacheTest {
+
+  private static final String TD_TEMPLATE =
+    "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"%s\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] .";
+
+  private HttpServer server;
+  private AtomicInteger fullResponses;
+
+  @Before
+  public void init() throws IOException {
+    fullResponses = new AtomicInteger();
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/td", exchange -> {
+      if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
+
+      fullResponses.incrementAndGet();
+      byte[] body = td("Served Thing").getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("ETag", "\"v1\"");
+      exchange.getResponseHeaders().add("Content-Type", "text/turtle");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @After
+  public void stop() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testReadFromStringHitsCache() {
+    TDCache cache = new TDCache.Builder().build();
+
+    ThingDescription td = cache.readFromString(TDFormat.RDF_TURTLE, td("My Thing"));
+
+    assertSame(td, cache.readFromString(TDFormat.RDF_TURTLE, td("My Thing")));
+    assertNotSame(td, cache.readFromString(TDFormat.RDF_TURTLE, td("Other Thing")));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    TDCache cache = new TDCache.Builder().setMaximumSize(2).build();
+
+    ThingDescription first = cache.readFromString(TDFormat.RDF_TURTLE, td("First"));
+    cache.readFromString(TDFormat.RDF_TURTLE, td("Second"));
+    cache.readFromString(TDFormat.RDF_TURTLE, td("First"));
+    cache.readFromString(TDFormat.RDF_TURTLE, td("Third"));
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertSame(first, cache.readFromString(TDFormat.RDF_TURTLE, td("First")));
+
+    cache.readFromString(TDFormat.RDF_TURTLE, td("Second"));
+    assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void testEvictExpiredEntries() {
+    MutableClock clock = new MutableClock();
+    TDCache cache = new TDCache.Builder()
+      .setMaximumAge(Duration.ofMinutes(5))
+      .setClock(clock)
+      .build();
+
+    ThingDescription td = cache.readFromString(TDFormat.RDF_TURTLE, td("My Thing"));
+    clock.advance(Duration.ofMinutes(5));
+    assertSame(td, cache.readFromString(TDFormat.RDF_TURTLE, td("My Thing")));
+
+    clock.advance(Duration.ofSeconds(1));
+    assertNotSame(td, cache.readFromString(TDFormat.RDF_TURTLE, td("My Thing")));
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testRevalidateURL() throws IOException {
+    TDCache cache = new TDCache.Builder().build();
+    String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+      + "/td";
+
+    ThingDescription td = cache.readFromURL(TDFormat.RDF_TURTLE, url);
+    assertEquals("Served Thing", td.getTitle());
+
+    assertSame(td, cache.readFromURL(TDFormat.RDF_TURTLE, url));
+    assertEquals(1, fullResponses.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    cache.invalidateAll();
+    cache.readFromURL(TDFormat.RDF_TURTLE, url);
+    assertEquals(2, fullResponses.get());
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testInvalidTDIsNotCached() {
+    TDCache cache = new TDCache.Builder().build();
+
+    try {
+      cache.readFromString(TDFormat.RDF_TURTLE, "<http://example.org/#thing> a <http://example.org/#Thing> .");
+    } finally {
+      assertEquals(0, cache.size());
+    }
+  }
+
+  private static String td(String title) {
+    return String.format(TD_TEMPLATE, title);
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.EPOCH;
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
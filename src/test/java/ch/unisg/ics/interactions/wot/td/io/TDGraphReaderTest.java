@@ -5,23 +5,31 @@ import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
 import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
 import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
 import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.LazyAffordanceList;
 import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
 import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.IntegerSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.NumberSchema;
 import ch.unisg.ics.interactions.wot.td.schemas.ObjectSchema;
+import ch.unisg.ics.interactions.wot.td.schemas.SchemaInterner;
 import ch.unisg.ics.interactions.wot.td.security.*;
 import ch.unisg.ics.interactions.wot.td.security.TokenBasedSecurityScheme.TokenLocation;
 import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
 import ch.unisg.ics.interactions.wot.td.vocabularies.COV;
 import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
 import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.junit.Test;
 
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -272,6 +280,66 @@ public class TDGraphReaderTest {
     assertEquals("http://example.org/", reader.readBaseURI().get());
   }
 
+  @Test
+  public void testReadRelativeIRIsWithBaseURI() {
+    String testTD = PREFIXES +
+      "<#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasBase <http://example.org/things/> ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance ;\n" +
+      "        td:name \"my_property\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <property> ;\n" +
+      "            hctl:hasOperationType td:readProperty;\n" +
+      "        ] ;\n" +
+      "    ] ;\n" +
+      "    td:hasActionAffordance [\n" +
+      "        a td:ActionAffordance ;\n" +
+      "        td:name \"my_action\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <../actions/{id}> ;\n" +
+      "            hctl:hasOperationType td:invokeAction;\n" +
+      "        ] ;\n" +
+      "    ] .";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD);
+
+    assertEquals("http://example.org/things/#thing", td.getThingURI().get());
+    assertEquals("http://example.org/things/", td.getBaseURI().get());
+    assertEquals("http://example.org/things/property",
+      td.getProperties().get(0).getForms().get(0).getTarget());
+    assertEquals("http://example.org/actions/%7Bid%7D",
+      td.getActions().get(0).getForms().get(0).getTarget());
+    assertTrue(td.getGraph().get().stream().noneMatch(st -> st.toString().contains(".invalid")));
+  }
+
+  @Test
+  public void testReadRelativeIRIsWithBaseURIFromJSONLD() {
+    String testTD = TEST_SIMPLE_TD_JSONLD
+      .replace("\"http://example.org/#thing\"", "\"#thing\"")
+      .replace("\"http://example.org/action/\"", "\"action/\"")
+      .replace("\"@type\" : [ \"https://www.w3.org/2019/wot/td#ActionAffordance\" ],",
+        "\"@type\" : [ \"https://www.w3.org/2019/wot/td#ActionAffordance\" ],\n" +
+        "  \"https://www.w3.org/2019/wot/td#name\" : [ { \"@value\" : \"my_action\" } ],");
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_JSONLD, testTD);
+
+    assertEquals("http://example.org/#thing", td.getThingURI().get());
+    assertEquals("http://example.org/action/", td.getActions().get(0).getForms().get(0).getTarget());
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testReadRelativeIRIsWithoutBaseURI() {
+    String testTD = PREFIXES +
+      "<#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] .";
+
+    TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD);
+  }
+
   //Test security schemes
   @Test
   public void testReadOneSecurityScheme() {
@@ -318,6 +386,29 @@ public class TDGraphReaderTest {
     assertEquals("X-API-Key", ((APIKeySecurityScheme) scheme).getTokenName().get());
   }
 
+  @Test
+  public void testReadDeterministicSecurityNames() {
+    String testTD = PREFIXES +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    dct:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:APIKeySecurityScheme ; wotsec:name \"X-API-Key\" ],\n" +
+      "      [ a wotsec:APIKeySecurityScheme ; wotsec:name \"X-Other-Key\" ],\n" +
+      "      [ a wotsec:BasicSecurityScheme ], [ a wotsec:BasicSecurityScheme ],\n" +
+      "      ex:psk_sc .\n" +
+      "ex:psk_sc a wotsec:PSKSecurityScheme .";
+
+    Map<String, SecurityScheme> schemes = new TDGraphReader(RDFFormat.TURTLE, testTD)
+      .readSecuritySchemes();
+    assertEquals(5, schemes.size());
+    assertEquals(2, getSecurityNamesforSchemeName(SecurityScheme.APIKEY, schemes).size());
+    assertEquals(2, getSecurityNamesforSchemeName(SecurityScheme.BASIC, schemes).size());
+    assertTrue(schemes.get("psk_sc") instanceof PSKSecurityScheme);
+
+    assertEquals(schemes.keySet(), new TDGraphReader(RDFFormat.TURTLE, testTD)
+      .readSecuritySchemes().keySet());
+  }
+
   @Test
   public void testAPIKeySecuritySchemeDefaultValues() {
     String testTD = PREFIXES +
@@ -1510,6 +1601,52 @@ public class TDGraphReaderTest {
     assertEquals("forkliftRobot", forklift.getTitle());
   }
 
+  @Test
+  public void testReadTDFromPath() throws IOException {
+    ThingDescription forklift = TDGraphReader.readFromPath(TDFormat.RDF_TURTLE,
+      Paths.get("samples/forkliftRobot.ttl"));
+
+    assertEquals("forkliftRobot", forklift.getTitle());
+  }
+
+  @Test
+  public void testReadTDFromStream() throws IOException {
+    InputStream in = new ByteArrayInputStream(TEST_SIMPLE_TD.getBytes(StandardCharsets.UTF_8));
+    ThingDescription td = TDGraphReader.readFromStream(TDFormat.RDF_TURTLE, in);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(1, td.getProperties().size());
+  }
+
+  @Test
+  public void testReadTDFromChannel() throws IOException {
+    try (ReadableByteChannel channel = FileChannel.open(Paths.get("samples/simple_td.ttl"))) {
+      ThingDescription td = TDGraphReader.readFromChannel(TDFormat.RDF_TURTLE, channel);
+
+      assertEquals("My Thing", td.getTitle());
+    }
+  }
+
+  @Test
+  public void testReadUTF8TDFromStream() throws IOException {
+    String testTD = TEST_SIMPLE_TD.replace("td:title \"My Thing\"", "td:title \"Mÿ Thïng ✓\"");
+    InputStream in = new ByteArrayInputStream(testTD.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("Mÿ Thïng ✓", TDGraphReader.readFromStream(TDFormat.RDF_TURTLE, in).getTitle());
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadTDFromStreamIOError() throws IOException {
+    InputStream in = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Stream closed");
+      }
+    };
+
+    TDGraphReader.readFromStream(TDFormat.RDF_TURTLE, in);
+  }
+
   @Test
   public void testReadSimpleFullTD() {
     ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD);
@@ -1791,6 +1928,161 @@ public class TDGraphReaderTest {
     assertEquals(DataSchema.STRING,uriVariableSchema1.getDatatype());
   }
 
+  @Test
+  public void testReadBracesInIRIsAndLiterals() {
+    String testTD = PREFIXES +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My {Templated} Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance ;\n" +
+      "        td:name \"my_property\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <http://example.org/property/{name}> ;\n" +
+      "            hctl:hasOperationType td:readProperty;\n" +
+      "        ] ;\n" +
+      "        td:hasUriTemplateSchema [ a js:StringSchema; td:name \"name\" ] ;\n" +
+      "    ] .";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD);
+
+    assertEquals("My {Templated} Thing", td.getTitle());
+    assertEquals("http://example.org/property/%7Bname%7D",
+      td.getProperties().get(0).getForms().get(0).getTarget());
+  }
+
+  @Test
+  public void testReadLazyTD() {
+    TDReadOptions options = new TDReadOptions.Builder().setLazy(true).build();
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD, options);
+
+    assertTrue(td.getActions() instanceof LazyAffordanceList);
+    LazyAffordanceList<ActionAffordance> actions = (LazyAffordanceList<ActionAffordance>) td.getActions();
+    assertFalse(actions.isMaterialized(0));
+
+    ActionAffordance action = td.getActionByName("my_action").get();
+    assertTrue(actions.isMaterialized(0));
+    assertSame(action, td.getActions().get(0));
+    assertEquals("My Action", action.getTitle().get());
+    assertEquals(DataSchema.OBJECT, action.getInputSchema().get().getDatatype());
+    assertForm(action.getForms().get(0), "PUT", "http://example.org/action", "application/json",
+      TD.invokeAction);
+
+    assertFalse(td.getActionByName("unknown_action").isPresent());
+
+    ThingDescription eagerTD = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD);
+
+    assertEquals(eagerTD.getProperties().size(), td.getProperties().size());
+    assertEquals(eagerTD.getPropertyByName("my_property").get().getForms().size(),
+      td.getPropertyByName("my_property").get().getForms().size());
+    assertEquals(eagerTD.getEvents().get(0).getNotificationSchema().get().getDatatype(),
+      td.getEvents().get(0).getNotificationSchema().get().getDatatype());
+  }
+
+  @Test
+  public void testReadLazyTDWithInvalidAffordance() {
+    String testTD = PREFIXES +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasActionAffordance [\n" +
+      "        a td:ActionAffordance ;\n" +
+      "        td:name \"valid_action\" ;\n" +
+      "        td:hasForm [ hctl:hasTarget <http://example.org/action> ] ;\n" +
+      "    ], [\n" +
+      "        a td:ActionAffordance ;\n" +
+      "        td:name \"invalid_action\" ;\n" +
+      "    ] .";
+
+    TDReadOptions options = new TDReadOptions.Builder().setLazy(true).build();
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD, options);
+
+    assertEquals(2, td.getActions().size());
+    assertTrue(td.getActionByName("valid_action").isPresent());
+
+    try {
+      td.getActionByName("invalid_action");
+      fail("Expected InvalidTDException");
+    } catch (InvalidTDException e) {
+      assertEquals("Invalid action definition.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testReadTDWithoutGraph() {
+    TDReadOptions options = new TDReadOptions.Builder()
+      .setGraphMode(TDReadOptions.GraphMode.NONE)
+      .build();
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD, options);
+
+    assertEquals("My Thing", td.getTitle());
+    assertEquals(1, td.getActions().size());
+    assertFalse(td.getGraph().isPresent());
+  }
+
+  @Test
+  public void testReadTDWithUnrepresentedGraph() {
+    String testTD = PREFIXES +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    dct:creator \"Andrei\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance, js:IntegerSchema ;\n" +
+      "        td:name \"my_property\" ;\n" +
+      "        td:hasForm [ hctl:hasTarget <http://example.org/property> ] ;\n" +
+      "    ] .\n" +
+      "<http://example.org/#other> dct:title \"Other\" .";
+
+    TDReadOptions options = new TDReadOptions.Builder()
+      .setGraphMode(TDReadOptions.GraphMode.UNREPRESENTED)
+      .setLazy(true)
+      .build();
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD, options);
+
+    assertEquals(1, td.getProperties().size());
+
+    Model graph = td.getGraph().get();
+    assertEquals(2, graph.size());
+    assertTrue(graph.contains(SimpleValueFactory.getInstance().createIRI("http://example.org/#thing"),
+      DCTERMS.CREATOR, null));
+    assertTrue(graph.contains(null, DCTERMS.TITLE, null));
+  }
+
+  @Test
+  public void testReadTDWithCompactGraph() {
+    TDReadOptions options = new TDReadOptions.Builder()
+      .setCompactGraph(true)
+      .build();
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD, options);
+    ThingDescription fullTD = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD);
+
+    Model graph = td.getGraph().get();
+    assertTrue(Models.isomorphic(fullTD.getGraph().get(), graph));
+    assertEquals(fullTD.getGraph().get().getNamespaces(), graph.getNamespaces());
+    assertThrows(UnsupportedOperationException.class, () -> graph.remove(null, null, null));
+  }
+
+  @Test
+  public void testReadTDsWithSchemaInterner() {
+    SchemaInterner interner = new SchemaInterner();
+    TDReadOptions options = new TDReadOptions.Builder()
+      .setSchemaInterner(interner)
+      .build();
+
+    ThingDescription first = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD, options);
+    ThingDescription second = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD, options);
+    ThingDescription notInterned = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, TEST_SIMPLE_TD);
+
+    DataSchema input = first.getActionByName("my_action").get().getInputSchema().get();
+    assertSame(input, second.getActionByName("my_action").get().getInputSchema().get());
+    assertSame(first.getProperties().get(0).getDataSchema(), second.getProperties().get(0).getDataSchema());
+
+    DataSchema notInternedInput = notInterned.getActionByName("my_action").get().getInputSchema().get();
+    assertNotSame(input, notInternedInput);
+    assertEquals(input, notInternedInput);
+  }
+
   private void assertForm(Form form, String methodName, String target,
                           String contentType, String operationType) {
     assertEquals(methodName, form.getMethodName().get());
@@ -23,13 +23,17 @@ import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.*;
 
-import static org.junit.Assert.assertThrows;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class TDGraphWriterTest {
   private static final String THING_TITLE = "My Thing";
@@ -1038,6 +1042,42 @@ public class TDGraphWriterTest {
     assertIsomorphicGraphs(testTD,td);
   }
 
+  @Test
+  public void testWriteToStream() throws IOException {
+    ThingDescription td = new ThingDescription.Builder(THING_TITLE)
+      .addThingURI(THING_IRI)
+      .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme())
+      .addProperty(new PropertyAffordance.Builder("my_property",
+          new Form.Builder("http://example.org/property{?unit}").build())
+        .addDataSchema(new ObjectSchema.Builder()
+          .addProperty("value", new NumberSchema.Builder().addMaximum(100.0).build())
+          .build())
+        .addUriVariable("unit", new StringSchema.Builder().build())
+        .build())
+      .addTriple(SimpleValueFactory.getInstance().createIRI(THING_IRI), DCTERMS.CREATOR,
+        SimpleValueFactory.getInstance().createLiteral("Andrei"))
+      .build();
+
+    TDGraphWriter writer = new TDGraphWriter(td).setNamespace("td", "https://www.w3.org/2019/wot/td#");
+    Model expectedModel = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE,
+      writer.write(RDFFormat.TURTLE), IO_BASE_IRI);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(out, RDFFormat.TURTLE);
+    String turtle = out.toString("UTF-8");
+    assertTrue(turtle.startsWith("@prefix td: <https://www.w3.org/2019/wot/td#> ."));
+    assertTrue(Models.isomorphic(expectedModel, ReadWriteUtils.readModelFromString(RDFFormat.TURTLE,
+      turtle, IO_BASE_IRI)));
+
+    expectedModel = ReadWriteUtils.readModelFromString(RDFFormat.JSONLD,
+      writer.write(RDFFormat.JSONLD), IO_BASE_IRI);
+
+    StringWriter jsonld = new StringWriter();
+    writer.write(jsonld, RDFFormat.JSONLD);
+    assertTrue(Models.isomorphic(expectedModel, ReadWriteUtils.readModelFromString(RDFFormat.JSONLD,
+      jsonld.toString(), IO_BASE_IRI)));
+  }
+
   private void assertIsomorphicGraphs(String expectedTD, ThingDescription td) throws RDFParseException,
     RDFHandlerException, IOException {
     Model expectedModel = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE, expectedTD, IO_BASE_IRI);
@@ -1062,6 +1102,95 @@ public class TDGraphWriterTest {
     assertTrue(Models.isomorphic(expectedModel, tdModel));
   }
 
+  @Test
+  public void testWriteReadTDInEveryGraphMode() {
+    String testTD = PREFIXES +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    dct:creator \"Andrei\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasActionAffordance [\n" +
+      "        a td:ActionAffordance ;\n" +
+      "        td:name \"my_action\" ;\n" +
+      "        td:hasForm [\n" +
+      "            htv:methodName \"PUT\" ;\n" +
+      "            hctl:hasTarget <http://example.org/action> ;\n" +
+      "            hctl:forContentType \"application/json\" ;\n" +
+      "            hctl:hasOperationType td:invokeAction ;\n" +
+      "        ] ;\n" +
+      "    ] .";
+
+    Model fullModel = writeReadModel(testTD, new TDReadOptions.Builder().build());
+    Model unrepresentedModel = writeReadModel(testTD, new TDReadOptions.Builder()
+      .setGraphMode(TDReadOptions.GraphMode.UNREPRESENTED).build());
+    Model compactModel = writeReadModel(testTD, new TDReadOptions.Builder()
+      .setCompactGraph(true).build());
+    Model noGraphModel = writeReadModel(testTD, new TDReadOptions.Builder()
+      .setGraphMode(TDReadOptions.GraphMode.NONE).build());
+
+    ValueFactory rdf = SimpleValueFactory.getInstance();
+    assertTrue(fullModel.contains(rdf.createIRI(THING_IRI), DCTERMS.CREATOR,
+      rdf.createLiteral("Andrei")));
+    assertFalse(noGraphModel.contains(null, DCTERMS.CREATOR, null));
+
+    assertTrue(Models.isomorphic(fullModel, unrepresentedModel));
+    assertTrue(Models.isomorphic(fullModel, compactModel));
+  }
+
+  @Test
+  public void testWriteComputesUnrepresentedGraphOnce() throws IOException {
+    String testTD = PREFIXES +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    dct:creator \"Andrei\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasActionAffordance [\n" +
+      "        a td:ActionAffordance ;\n" +
+      "        td:name \"my_action\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <http://example.org/action> ;\n" +
+      "            hctl:hasOperationType td:invokeAction ;\n" +
+      "        ] ;\n" +
+      "    ] .";
+
+    ThingDescription td = TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_TURTLE, testTD);
+    ThingDescription unrepresentedTD = TDGraphReader.readFromString(
+      ThingDescription.TDFormat.RDF_TURTLE, testTD, new TDReadOptions.Builder()
+        .setGraphMode(TDReadOptions.GraphMode.UNREPRESENTED).build());
+
+    try (MockedStatic<TDGraphReader> reader = Mockito.mockStatic(TDGraphReader.class,
+        Mockito.CALLS_REAL_METHODS)) {
+      // The reader already knows the unrepresented statements
+      TDGraphWriter.write(unrepresentedTD);
+      reader.verify(() -> TDGraphReader.removeRepresentedStatements(Mockito.any()), Mockito.never());
+
+      String turtle = TDGraphWriter.write(td);
+      new TDGraphWriter(td).write(new ByteArrayOutputStream(), RDFFormat.TURTLE);
+      new TDGraphWriter(td).write(new StringWriter(), RDFFormat.JSONLD);
+      Model model = new LinkedHashModel();
+      new TDGraphWriter(td).write(new StatementCollector(model));
+
+      reader.verify(() -> TDGraphReader.removeRepresentedStatements(Mockito.any()), Mockito.times(1));
+
+      ValueFactory rdf = SimpleValueFactory.getInstance();
+      assertTrue(model.contains(rdf.createIRI(THING_IRI), DCTERMS.CREATOR, rdf.createLiteral("Andrei")));
+      assertEquals(1, model.filter(null, TD.HAS_ACTION_AFFORDANCE, null).size());
+      assertTrue(Models.isomorphic(model, ReadWriteUtils.readModelFromString(RDFFormat.TURTLE,
+        turtle, IO_BASE_IRI)));
+    }
+  }
+
+  private Model writeReadModel(String testTD, TDReadOptions options) {
+    ThingDescription td = TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_TURTLE, testTD, options);
+    String description = TDGraphWriter.write(td);
+
+    ThingDescription readTD = TDGraphReader.readFromString(ThingDescription.TDFormat.RDF_TURTLE, description);
+    assertEquals(1, readTD.getActions().size());
+    assertEquals("my_action", readTD.getActions().get(0).getName());
+
+    return readTD.getGraph().get();
+  }
+
   private ThingDescription constructThingDescription(List<PropertyAffordance> properties,
       List<ActionAffordance> actions) {
     ThingDescription.Builder builder = new ThingDescription.Builder(THING_TITLE)
@@ -0,0 +1,227 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class TDJsonReaderTest {
+
+  private static final String TEST_TD_JSON = "{\n" +
+    "  \"@context\": [\"https://www.w3.org/2019/wot/td/v1\", {\n" +
+    "    \"ex\": \"http://example.org/#\",\n" +
+    "    \"@language\": \"en\"\n" +
+    "  }],\n" +
+    "  \"@type\": [\"Thing\", \"ex:Robot\"],\n" +
+    "  \"id\": \"http://example.org/robot\",\n" +
+    "  \"title\": \"My Robot\",\n" +
+    "  \"description\": \"A robot arm\",\n" +
+    "  \"securityDefinitions\": {\n" +
+    "    \"apikey_sc\": {\"scheme\": \"apikey\", \"in\": \"header\", \"name\": \"X-API-Key\"}\n" +
+    "  },\n" +
+    "  \"security\": \"apikey_sc\",\n" +
+    "  \"base\": \"http://example.org/robot/\",\n" +
+    "  \"properties\": {\n" +
+    "    \"position\": {\n" +
+    "      \"@type\": \"ex:Position\",\n" +
+    "      \"type\": \"object\",\n" +
+    "      \"observable\": true,\n" +
+    "      \"properties\": {\n" +
+    "        \"x\": {\"type\": \"integer\", \"minimum\": 0, \"maximum\": 100},\n" +
+    "        \"y\": {\"type\": \"number\"}\n" +
+    "      },\n" +
+    "      \"required\": [\"x\"],\n" +
+    "      \"forms\": [{\"href\": \"position\", \"op\": \"readproperty\"}]\n" +
+    "    }\n" +
+    "  },\n" +
+    "  \"actions\": {\n" +
+    "    \"moveTo\": {\n" +
+    "      \"@type\": \"ex:MoveTo\",\n" +
+    "      \"title\": \"Move To\",\n" +
+    "      \"uriVariables\": {\"speed\": {\"type\": \"string\", \"enum\": [\"slow\", \"fast\"]}},\n" +
+    "      \"input\": {\"type\": \"array\", \"minItems\": 2, \"items\": {\"type\": \"number\"}},\n" +
+    "      \"output\": {\"type\": \"boolean\"},\n" +
+    "      \"forms\": [{\n" +
+    "        \"href\": \"move{?speed}\",\n" +
+    "        \"htv:methodName\": \"PUT\",\n" +
+    "        \"contentType\": \"application/json\"\n" +
+    "      }]\n" +
+    "    }\n" +
+    "  },\n" +
+    "  \"events\": {\n" +
+    "    \"overheating\": {\n" +
+    "      \"data\": {\"type\": \"string\"},\n" +
+    "      \"forms\": [{\"href\": \"http://example.org/robot/oh\", \"subprotocol\": \"longpoll\"}]\n" +
+    "    }\n" +
+    "  }\n" +
+    "}";
+
+  @Test
+  public void testReadTD() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, TEST_TD_JSON);
+
+    assertEquals("My Robot", td.getTitle());
+    assertEquals("http://example.org/robot", td.getThingURI().get());
+    assertEquals("http://example.org/robot/", td.getBaseURI().get());
+    assertTrue(td.getSemanticTypes().contains(TD.Thing));
+    assertTrue(td.getSemanticTypes().contains("http://example.org/#Robot"));
+    assertFalse(td.getGraph().isPresent());
+  }
+
+  @Test
+  public void testReadSecurityDefinitions() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, TEST_TD_JSON);
+
+    SecurityScheme scheme = td.getSecuritySchemeByDefinition("apikey_sc").get();
+    assertTrue(scheme instanceof APIKeySecurityScheme);
+    assertTrue(scheme.getSemanticTypes().contains(WoTSec.APIKeySecurityScheme));
+    assertEquals("X-API-Key", ((APIKeySecurityScheme) scheme).getTokenName().get());
+    assertEquals(1, td.getSecuritySchemes().size());
+  }
+
+  @Test
+  public void testReadProperty() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, TEST_TD_JSON);
+
+    PropertyAffordance property = td.getPropertyByName("position").get();
+    assertTrue(property.isObservable());
+    assertTrue(property.getSemanticTypes().contains(TD.PropertyAffordance));
+    assertTrue(property.getSemanticTypes().contains("http://example.org/#Position"));
+
+    Form form = property.getForms().get(0);
+    assertEquals("http://example.org/robot/position", form.getTarget());
+    assertEquals("application/json", form.getContentType());
+    assertTrue(form.getOperationTypes().contains(TD.readProperty));
+    assertFalse(form.getOperationTypes().contains(TD.writeProperty));
+
+    ObjectSchema schema = (ObjectSchema) property.getDataSchema();
+    assertTrue(schema.getSemanticTypes().contains("http://example.org/#Position"));
+    assertEquals(1, schema.getRequiredProperties().size());
+    IntegerSchema x = (IntegerSchema) schema.getProperty("x").get();
+    assertEquals(0, x.getMinimum().get().intValue());
+    assertEquals(100, x.getMaximum().get().intValue());
+    assertEquals(DataSchema.NUMBER, schema.getProperty("y").get().getDatatype());
+  }
+
+  @Test
+  public void testReadAction() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, TEST_TD_JSON);
+
+    ActionAffordance action = td.getActionByName("moveTo").get();
+    assertEquals("Move To", action.getTitle().get());
+    assertTrue(action.getSemanticTypes().contains("http://example.org/#MoveTo"));
+
+    Form form = action.getFirstForm().get();
+    assertEquals("http://example.org/robot/move{?speed}", form.getTarget());
+    assertEquals("PUT", form.getMethodName().get());
+    assertTrue(form.getOperationTypes().contains(TD.invokeAction));
+
+    StringSchema speed = (StringSchema) action.getUriVariables().get().get("speed");
+    assertEquals(2, speed.getEnumeration().size());
+
+    ArraySchema input = (ArraySchema) action.getInputSchema().get();
+    assertEquals(2, input.getMinItems().get().intValue());
+    assertEquals(DataSchema.NUMBER, input.getItems().get(0).getDatatype());
+    assertTrue(input.getSemanticTypes().contains(JSONSchema.ArraySchema));
+    assertEquals(DataSchema.BOOLEAN, action.getOutputSchema().get().getDatatype());
+  }
+
+  @Test
+  public void testReadEvent() {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, TEST_TD_JSON);
+
+    EventAffordance event = td.getEventByName("overheating").get();
+    assertEquals(DataSchema.STRING, event.getNotificationSchema().get().getDatatype());
+
+    Form form = event.getForms().get(0);
+    assertEquals("longpoll", form.getSubProtocol().get());
+    assertTrue(form.getOperationTypes().contains(TD.subscribeEvent));
+  }
+
+  @Test
+  public void testFallBackToJSONLD() {
+    String testTD = "{\n" +
+      "  \"@context\": {\"td\": \"https://www.w3.org/2019/wot/td#\"},\n" +
+      "  \"@id\": \"http://example.org/lamp\",\n" +
+      "  \"@type\": \"td:Thing\",\n" +
+      "  \"td:title\": \"My Lamp\",\n" +
+      "  \"td:hasSecurityConfiguration\": {\n" +
+      "    \"@type\": \"https://www.w3.org/2019/wot/security#NoSecurityScheme\"\n" +
+      "  }\n" +
+      "}";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, testTD);
+
+    assertEquals("My Lamp", td.getTitle());
+    assertEquals("http://example.org/lamp", td.getThingURI().get());
+    assertTrue(td.getGraph().isPresent());
+  }
+
+  @Test
+  public void testReadTDWithoutTitle() {
+    String testTD = "{\n" +
+      "  \"@context\": \"https://www.w3.org/2019/wot/td/v1\",\n" +
+      "  \"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}},\n" +
+      "  \"security\": [\"nosec_sc\"]\n" +
+      "}";
+
+    try {
+      TDGraphReader.readFromString(TDFormat.JSON, testTD);
+      fail("Expected InvalidTDException");
+    } catch (InvalidTDException e) {
+      assertEquals("Missing mandatory title.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testReadTDWithInvalidAffordance() {
+    String testTD = "{\n" +
+      "  \"title\": \"My Lamp\",\n" +
+      "  \"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}},\n" +
+      "  \"security\": \"nosec_sc\",\n" +
+      "  \"actions\": {\"toggle\": {\"forms\": []}}\n" +
+      "}";
+
+    try {
+      TDGraphReader.readFromString(TDFormat.JSON, testTD);
+      fail("Expected InvalidTDException");
+    } catch (InvalidTDException e) {
+      assertEquals("Invalid action definition.", e.getMessage());
+    }
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testReadInvalidJSON() {
+    TDGraphReader.readFromString(TDFormat.JSON, "{\"title\": \"My Lamp\",");
+  }
+
+  @Test
+  public void testReadUntypedProperty() {
+    String testTD = "{\n" +
+      "  \"title\": \"My Lamp\",\n" +
+      "  \"securityDefinitions\": {\"nosec_sc\": {\"scheme\": \"nosec\"}},\n" +
+      "  \"security\": \"nosec_sc\",\n" +
+      "  \"properties\": {\"status\": {\"forms\": [{\"href\": \"http://example.org/status\"}]}}\n" +
+      "}";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.JSON, testTD);
+
+    Optional<PropertyAffordance> property = td.getPropertyByName("status");
+    assertTrue(property.isPresent());
+    assertEquals(DataSchema.DATA, property.get().getDataSchema().getDatatype());
+    assertTrue(property.get().getForms().get(0).getOperationTypes().contains(TD.writeProperty));
+  }
+}
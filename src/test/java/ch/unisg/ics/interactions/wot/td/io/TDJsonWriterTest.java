@@ -0,0 +1,162 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.*;
+import ch.unisg.ics.interactions.wot.td.security.BearerSecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class TDJsonWriterTest {
+  private static final String IO_BASE_IRI = "http://example.org/";
+
+  private static ThingDescription getTestTD() {
+    return new ThingDescription.Builder("My Lamp")
+      .addThingURI("http://example.org/lamp")
+      .addSemanticType("http://example.org/#Lamp")
+      .addBaseURI("http://example.org/lamp/")
+      .addSecurityScheme("bearer_sc", new BearerSecurityScheme.Builder()
+        .addAuthorization("http://example.org/auth")
+        .build())
+      .addSecurityScheme("nosec_sc", SecurityScheme.getNoSecurityScheme(), false)
+      .addProperty(new PropertyAffordance.Builder("status",
+          new Form.Builder("http://example.org/lamp/status")
+            .addOperationType(TD.readProperty)
+            .setMethodName("GET")
+            .build())
+        .addSemanticType("http://example.org/#Status")
+        .addTitle("Status")
+        .addDataSchema(new ObjectSchema.Builder()
+          .addProperty("color", new ArraySchema.Builder()
+            .addItem(new IntegerSchema.Builder().addMinimum(0).addMaximum(255).build())
+            .addMinItems(3)
+            .addMaxItems(3)
+            .build())
+          .addProperty("mode", new StringSchema.Builder()
+            .addEnum(java.util.Collections.singleton("on"))
+            .build())
+          .addRequiredProperties("mode")
+          .build())
+        .addObserve()
+        .build())
+      .addAction(new ActionAffordance.Builder("fade",
+          new Form.Builder("coap://example.org/lamp/fade{?duration}")
+            .setMethodName("POST")
+            .build())
+        .addUriVariable("duration", new NumberSchema.Builder().addMaximum(10.5).build())
+        .addInputSchema(new NumberSchema.Builder()
+          .addSemanticType("http://example.org/#Brightness")
+          .build())
+        .build())
+      .addEvent(new EventAffordance.Builder("overheating",
+          new Form.Builder("http://example.org/lamp/overheating")
+            .addSubProtocol("websub")
+            .build())
+        .addNotificationSchema(new BooleanSchema.Builder().build())
+        .build())
+      .build();
+  }
+
+  @Test
+  public void testWriteCompactJson() {
+    String description = new TDJsonWriter(getTestTD())
+      .setNamespace("ex", "http://example.org/#")
+      .write();
+
+    JsonObject td = JsonParser.parseString(description).getAsJsonObject();
+
+    assertEquals("https://www.w3.org/2019/wot/td/v1",
+      td.getAsJsonArray("@context").get(0).getAsString());
+    assertEquals("ex:Lamp", td.get("@type").getAsString());
+    assertEquals("bearer_sc", td.getAsJsonArray("security").get(0).getAsString());
+    assertEquals(1, td.getAsJsonArray("security").size());
+
+    JsonObject property = td.getAsJsonObject("properties").getAsJsonObject("status");
+    assertEquals("object", property.get("type").getAsString());
+    assertEquals("ex:Status", property.get("@type").getAsString());
+    assertTrue(property.get("observable").getAsBoolean());
+    assertEquals("readproperty", property.getAsJsonArray("forms").get(0).getAsJsonObject()
+      .getAsJsonArray("op").get(0).getAsString());
+    assertEquals("GET", property.getAsJsonArray("forms").get(0).getAsJsonObject()
+      .get("htv:methodName").getAsString());
+
+    JsonObject action = td.getAsJsonObject("actions").getAsJsonObject("fade");
+    assertFalse(action.has("@type"));
+    assertEquals("POST", action.getAsJsonArray("forms").get(0).getAsJsonObject()
+      .get("cov:methodName").getAsString());
+    assertEquals("coap://example.org/lamp/fade{?duration}", action.getAsJsonArray("forms").get(0)
+      .getAsJsonObject().get("href").getAsString());
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    ThingDescription td = getTestTD();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TDJsonWriter(td).write(out);
+    ThingDescription readTD = TDGraphReader.readFromString(TDFormat.JSON,
+      new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+    // Read natively, without JSON-LD expansion
+    assertFalse(readTD.getGraph().isPresent());
+    assertEquals(td.getSecurityDefinitions().keySet(), readTD.getSecurityDefinitions().keySet());
+    assertEquals("http://example.org/auth", ((BearerSecurityScheme) readTD
+      .getSecuritySchemeByDefinition("bearer_sc").get()).getAuthorization().get());
+    assertEquals("coap://example.org/lamp/fade{?duration}", readTD.getActions().get(0).getForms()
+      .get(0).getTarget());
+
+    assertIsomorphic(TDGraphWriter.write(td), TDGraphWriter.write(readTD));
+  }
+
+  @Test
+  public void testRoundTripTDFromGraph() throws IOException {
+    String testTD = "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix htv: <http://www.w3.org/2011/http#> .\n" +
+      "@prefix hctl: <https://www.w3.org/2019/wot/hypermedia#> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "@prefix js: <https://www.w3.org/2019/wot/json-schema#> .\n" +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing ;\n" +
+      "    td:title \"My Thing\" ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:NoSecurityScheme ] ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance, js:NumberSchema ;\n" +
+      "        td:name \"my_property\" ;\n" +
+      "        js:minimum -100.05 ;\n" +
+      "        td:hasForm [\n" +
+      "            htv:methodName \"PUT\" ;\n" +
+      "            hctl:hasTarget <http://example.org/property> ;\n" +
+      "            hctl:forContentType \"application/json\";\n" +
+      "            hctl:hasOperationType td:writeProperty;\n" +
+      "        ] ;\n" +
+      "    ] .";
+
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, testTD);
+    ThingDescription readTD = TDGraphReader.readFromString(TDFormat.JSON, TDJsonWriter.write(td));
+
+    assertIsomorphic(TDGraphWriter.write(td), TDGraphWriter.write(readTD));
+  }
+
+  private static void assertIsomorphic(String expected, String actual) throws IOException {
+    Model expectedModel = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE, expected, IO_BASE_IRI);
+    Model actualModel = ReadWriteUtils.readModelFromString(RDFFormat.TURTLE, actual, IO_BASE_IRI);
+
+    assertTrue(Models.isomorphic(expectedModel, actualModel));
+  }
+}
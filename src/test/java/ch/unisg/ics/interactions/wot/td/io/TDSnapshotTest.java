@@ -0,0 +1,255 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.ThingDescription.TDFormat;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.schemas.DataSchema;
+import ch.unisg.ics.interactions.wot.td.security.APIKeySecurityScheme;
+import ch.unisg.ics.interactions.wot.td.security.SecurityScheme;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TDSnapshotTest {
+
+  private static final String TEST_TD =
+    "@prefix td: <https://www.w3.org/2019/wot/td#> .\n" +
+      "@prefix htv: <http://www.w3.org/2011/http#> .\n" +
+      "@prefix hctl: <https://www.w3.org/2019/wot/hypermedia#> .\n" +
+      "@prefix dct: <http://purl.org/dc/terms/> .\n" +
+      "@prefix wotsec: <https://www.w3.org/2019/wot/security#> .\n" +
+      "@prefix js: <https://www.w3.org/2019/wot/json-schema#> .\n" +
+      "@prefix ex: <http://example.org/#> .\n" +
+      "\n" +
+      "<http://example.org/#thing> a td:Thing, ex:Lamp ;\n" +
+      "    td:title \"%s\" ;\n" +
+      "    ex:manufacturer \"ACME\"@en ;\n" +
+      "    td:hasSecurityConfiguration [ a wotsec:APIKeySecurityScheme ;\n" +
+      "        wotsec:in \"header\" ;\n" +
+      "        wotsec:name \"X-API-Key\" ] ;\n" +
+      "    td:hasBase <http://example.org/> ;\n" +
+      "    td:hasPropertyAffordance [\n" +
+      "        a td:PropertyAffordance, js:ObjectSchema, ex:Status ;\n" +
+      "        td:name \"status\" ;\n" +
+      "        td:title \"Status\" ;\n" +
+      "        td:isObservable true ;\n" +
+      "        js:properties [\n" +
+      "            a js:ArraySchema ;\n" +
+      "            js:propertyName \"colors\" ;\n" +
+      "            js:minItems 1 ;\n" +
+      "            js:items [ a js:IntegerSchema ; js:minimum 0 ; js:maximum 255 ] ;\n" +
+      "        ] ;\n" +
+      "        js:properties [\n" +
+      "            a js:StringSchema ;\n" +
+      "            js:propertyName \"mode\" ;\n" +
+      "            js:enum \"on\", \"off\" ;\n" +
+      "        ] ;\n" +
+      "        js:required \"mode\" ;\n" +
+      "        td:hasForm [\n" +
+      "            htv:methodName \"GET\" ;\n" +
+      "            hctl:hasTarget <http://example.org/status> ;\n" +
+      "            hctl:forContentType \"application/json\";\n" +
+      "            hctl:hasOperationType td:readProperty;\n" +
+      "            hctl:forSubProtocol \"websub\";\n" +
+      "        ] ;\n" +
+      "    ] ;\n" +
+      "    td:hasActionAffordance [\n" +
+      "        a td:ActionAffordance, ex:Toggle ;\n" +
+      "        td:name \"toggle\" ;\n" +
+      "        td:hasUriTemplateSchema [\n" +
+      "            a js:NumberSchema ;\n" +
+      "            td:name \"delay\" ;\n" +
+      "            js:maximum 10.5 ;\n" +
+      "        ] ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <http://example.org/toggle{?delay}> ;\n" +
+      "            hctl:forContentType \"application/json\";\n" +
+      "            hctl:hasOperationType td:invokeAction;\n" +
+      "        ] ;\n" +
+      "        td:hasInputSchema [ a js:BooleanSchema ] ;\n" +
+      "    ] ;\n" +
+      "    td:hasEventAffordance [\n" +
+      "        a td:EventAffordance ;\n" +
+      "        td:name \"overheating\" ;\n" +
+      "        td:hasForm [\n" +
+      "            hctl:hasTarget <http://example.org/overheating> ;\n" +
+      "            hctl:forContentType \"application/json\";\n" +
+      "            hctl:hasOperationType td:subscribeEvent;\n" +
+      "        ] ;\n" +
+      "        td:hasNotificationSchema [ a js:BooleanSchema ] ;\n" +
+      "    ] .";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTripWithoutGraphs() throws IOException {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, td("My Lamp"));
+
+    ThingDescription snapshotTD = TDSnapshotReader.readFromBytes(snapshot(
+      new TDSnapshotWriter(), Collections.singletonList(td))).get(0);
+
+    assertFalse(snapshotTD.getGraph().isPresent());
+    assertEquals(td.getTitle(), snapshotTD.getTitle());
+    assertEquals(td.getThingURI(), snapshotTD.getThingURI());
+    assertEquals(td.getBaseURI(), snapshotTD.getBaseURI());
+    assertEquals(td.getSemanticTypes(), snapshotTD.getSemanticTypes());
+    assertEquals(td.getSecurityDefinitions().keySet(), snapshotTD.getSecurityDefinitions().keySet());
+
+    APIKeySecurityScheme security = (APIKeySecurityScheme) snapshotTD.getSecuritySchemes().iterator().next();
+    assertEquals("X-API-Key", security.getTokenName().get());
+
+    PropertyAffordance property = snapshotTD.getProperties().get(0);
+    assertEquals(td.getProperties().get(0).getDataSchema(), property.getDataSchema());
+    assertTrue(property.isObservable());
+    assertEquals(td.getProperties().get(0).getSemanticTypes(), property.getSemanticTypes());
+
+    Form form = property.getForms().get(0);
+    assertEquals("http://example.org/status", form.getTarget());
+    assertEquals("GET", form.getMethodName().get());
+    assertEquals("websub", form.getSubProtocol().get());
+
+    ActionAffordance action = snapshotTD.getActions().get(0);
+    assertEquals(td.getActions().get(0).getUriVariables(), action.getUriVariables());
+    assertEquals(td.getActions().get(0).getInputSchema(), action.getInputSchema());
+    assertFalse(action.getOutputSchema().isPresent());
+
+    assertIsomorphic(TDGraphWriter.write(withoutGraph(td)), TDGraphWriter.write(snapshotTD));
+  }
+
+  @Test
+  public void testRoundTripWithGraphs() throws IOException {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, td("My Lamp"));
+
+    Path path = folder.getRoot().toPath().resolve("tds.snapshot");
+    new TDSnapshotWriter().setIncludeGraphs(true).write(Collections.singletonList(td), path);
+    ThingDescription snapshotTD = TDSnapshotReader.readFromPath(path).get(0);
+
+    assertTrue(Models.isomorphic(td.getGraph().get(), snapshotTD.getGraph().get()));
+    assertEquals(td.getGraph().get().getNamespaces(), snapshotTD.getGraph().get().getNamespaces());
+    assertIsomorphic(TDGraphWriter.write(td), TDGraphWriter.write(snapshotTD));
+  }
+
+  @Test
+  public void testShareSchemasAcrossTDs() throws IOException {
+    List<ThingDescription> tds = Arrays.asList(
+      TDGraphReader.readFromString(TDFormat.RDF_TURTLE, td("First Lamp")),
+      TDGraphReader.readFromString(TDFormat.RDF_TURTLE, td("Second Lamp")));
+
+    List<ThingDescription> snapshotTDs = TDSnapshotReader.readFromBytes(snapshot(
+      new TDSnapshotWriter(), tds));
+
+    assertEquals(2, snapshotTDs.size());
+    assertEquals("First Lamp", snapshotTDs.get(0).getTitle());
+    assertEquals("Second Lamp", snapshotTDs.get(1).getTitle());
+
+    DataSchema first = snapshotTDs.get(0).getProperties().get(0).getDataSchema();
+    DataSchema second = snapshotTDs.get(1).getProperties().get(0).getDataSchema();
+    assertSame(first, second);
+    assertSame(snapshotTDs.get(0).getActions().get(0).getInputSchema().get(),
+      snapshotTDs.get(1).getEvents().get(0).getNotificationSchema().get());
+  }
+
+  @Test
+  public void testRoundTripNoSecurity() throws IOException {
+    ThingDescription td = new ThingDescription.Builder("My Thing").build();
+
+    ThingDescription snapshotTD = TDSnapshotReader.readFromBytes(snapshot(
+      new TDSnapshotWriter(), Collections.singletonList(td))).get(0);
+
+    assertEquals(SecurityScheme.NOSEC, snapshotTD.getSecuritySchemes().iterator().next()
+      .getSchemeName());
+    assertTrue(snapshotTD.getProperties().isEmpty());
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testRejectInvalidMagic() {
+    TDSnapshotReader.readFromBytes("not a snapshot".getBytes());
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testRejectUnsupportedVersion() throws IOException {
+    byte[] bytes = snapshot(new TDSnapshotWriter(), Collections.emptyList());
+    bytes[5] = 2;
+
+    TDSnapshotReader.readFromBytes(bytes);
+  }
+
+  @Test(expected = InvalidTDException.class)
+  public void testRejectTruncatedSnapshot() throws IOException {
+    ThingDescription td = TDGraphReader.readFromString(TDFormat.RDF_TURTLE, td("My Lamp"));
+    byte[] bytes = snapshot(new TDSnapshotWriter(), Collections.singletonList(td));
+
+    TDSnapshotReader.readFromBytes(Arrays.copyOf(bytes, bytes.length - 10));
+  }
+
+  @Test
+  public void testRejectCorruptedCounts() throws IOException {
+    byte[] header = Arrays.copyOf(snapshot(new TDSnapshotWriter(), Collections.emptyList()), 7);
+
+    // Negative, larger than the snapshot, and Integer.MAX_VALUE string counts
+    assertRejected(header, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x0F);
+    assertRejected(header, (byte) 0x10, (byte) 0x00);
+    assertRejected(header, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x07);
+    // A string longer than the snapshot
+    assertRejected(header, (byte) 0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F);
+  }
+
+  private static void assertRejected(byte[] header, byte... body) {
+    byte[] bytes = Arrays.copyOf(header, header.length + body.length);
+    System.arraycopy(body, 0, bytes, header.length, body.length);
+
+    try {
+      TDSnapshotReader.readFromBytes(bytes);
+      fail("Expected an InvalidTDException");
+    } catch (InvalidTDException e) {
+      assertTrue(e.getMessage().startsWith("Invalid count"));
+    }
+  }
+
+  private static byte[] snapshot(TDSnapshotWriter writer, List<ThingDescription> tds)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(tds, out);
+    return out.toByteArray();
+  }
+
+  private static ThingDescription withoutGraph(ThingDescription td) {
+    return new ThingDescription.Builder(td.getTitle())
+      .addThingURI(td.getThingURI().get())
+      .addBaseURI(td.getBaseURI().get())
+      .addSemanticTypes(td.getSemanticTypes())
+      .addSecuritySchemes(td.getSecurityDefinitions())
+      .addProperties(td.getProperties())
+      .addActions(td.getActions())
+      .addEvents(td.getEvents())
+      .build();
+  }
+
+  private static void assertIsomorphic(String expected, String actual) throws IOException {
+    Model expectedModel = Rio.parse(new StringReader(expected), "", RDFFormat.TURTLE);
+    Model actualModel = Rio.parse(new StringReader(actual), "", RDFFormat.TURTLE);
+
+    assertTrue(Models.isomorphic(expectedModel, actualModel));
+  }
+
+  private static String td(String title) {
+    return String.format(TEST_TD, title);
+  }
+}
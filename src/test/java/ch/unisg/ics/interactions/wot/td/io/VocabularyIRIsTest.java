@@ -0,0 +1,34 @@
+package ch.unisg.ics.interactions.wot.td.io;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.DCT;
+import ch.unisg.ics.interactions.wot.td.vocabularies.JSONSchema;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import ch.unisg.ics.interactions.wot.td.vocabularies.WoTSec;
+import org.eclipse.rdf4j.model.IRI;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VocabularyIRIsTest {
+
+  @Test
+  public void testVocabularyTermsAreConstants() {
+    assertSame(TD.HAS_FORM, VocabularyIRIs.toIRI(TD.hasForm));
+    assertSame(TD.READ_PROPERTY, VocabularyIRIs.toIRI(TD.readProperty));
+    assertSame(JSONSchema.OBJECT_SCHEMA, VocabularyIRIs.toIRI(JSONSchema.ObjectSchema));
+    assertSame(WoTSec.API_KEY_SECURITY_SCHEME, VocabularyIRIs.toIRI(WoTSec.APIKeySecurityScheme));
+    assertSame(DCT.TITLE, VocabularyIRIs.toIRI(DCT.title));
+  }
+
+  @Test
+  public void testOtherIRIs() {
+    IRI iri = VocabularyIRIs.toIRI("http://example.org/#Lamp");
+
+    assertEquals("http://example.org/#Lamp", iri.stringValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidIRI() {
+    VocabularyIRIs.toIRI("lamp");
+  }
+}
@@ -0,0 +1,243 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PersistentThingRegistryTest {
+  private static final String LAMP = "http://example.org/#Lamp";
+  private static final String SWITCH = "http://example.org/#Switch";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRegisterAndReopen() throws IOException {
+    Path directory = folder.getRoot().toPath();
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      registry.register(getSwitch("http://example.org/switch", "Hall Switch"));
+
+      assertRegistryContents(registry);
+    }
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      assertRegistryContents(registry);
+
+      ThingDescription td = registry.get("http://example.org/lamp1").get();
+      assertEquals("status", td.getProperties().get(0).getName());
+      assertEquals("http://example.org/lamp1/status", td.getProperties().get(0).getForms().get(0)
+        .getTarget());
+    }
+  }
+
+  @Test
+  public void testReplaceAndUnregisterAcrossCheckpoints() throws IOException {
+    Path directory = folder.getRoot().toPath();
+
+    try (PersistentThingRegistry registry = new PersistentThingRegistry.Builder(directory)
+        .setCheckpointInterval(2)
+        .setCacheSize(0)
+        .open()) {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      registry.register(getLamp("http://example.org/lamp1", "Bedroom Lamp", LAMP));
+
+      assertEquals(2, registry.size());
+      assertTrue(registry.getThingsByTitle("Kitchen Lamp").isEmpty());
+      assertEquals("Bedroom Lamp", registry.get("http://example.org/lamp1").get().getTitle());
+
+      assertTrue(registry.unregister("http://example.org/lamp2"));
+      assertFalse(registry.unregister("http://example.org/lamp2"));
+      assertFalse(registry.unregister("http://example.org/unknown"));
+
+      assertEquals(1, registry.size());
+      assertEquals(1, registry.getThingsBySemanticType(LAMP).size());
+    }
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      assertEquals(1, registry.size());
+      assertFalse(registry.get("http://example.org/lamp2").isPresent());
+      assertEquals(Set.of("Bedroom Lamp"), titles(registry.getThingsBySemanticType(LAMP)));
+    }
+  }
+
+  @Test
+  public void testRecoverWithoutCheckpoint() throws IOException {
+    Path directory = folder.newFolder("registry").toPath();
+    Path crashed = folder.newFolder("crashed").toPath();
+
+    PersistentThingRegistry registry = PersistentThingRegistry.open(directory);
+    try {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.checkpoint();
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      registry.register(getSwitch("http://example.org/switch", "Hall Switch"));
+
+      // The index covers only the first TD, the other TDs are only in the data file
+      copyFiles(directory, crashed);
+    } finally {
+      registry.close();
+    }
+
+    try (PersistentThingRegistry recovered = PersistentThingRegistry.open(crashed)) {
+      assertRegistryContents(recovered);
+    }
+  }
+
+  @Test
+  public void testRecoverFromTornWrite() throws IOException {
+    Path directory = folder.newFolder("registry").toPath();
+    Path crashed = folder.newFolder("crashed").toPath();
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      registry.register(getSwitch("http://example.org/switch", "Hall Switch"));
+      copyFiles(directory, crashed);
+    }
+
+    Path data = crashed.resolve(PersistentThingRegistry.DATA_FILE);
+    long size = Files.size(data);
+
+    // A record header announcing more bytes than were written
+    Files.write(data, new byte[]{0, 0, 1, 0, 42, 42, 42, 42, 1, 7, 7}, StandardOpenOption.APPEND);
+
+    try (PersistentThingRegistry recovered = PersistentThingRegistry.open(crashed)) {
+      assertRegistryContents(recovered);
+      assertEquals(size, Files.size(data));
+
+      recovered.register(getLamp("http://example.org/lamp3", "Garden Lamp", LAMP));
+    }
+
+    try (PersistentThingRegistry recovered = PersistentThingRegistry.open(crashed)) {
+      assertEquals(4, recovered.size());
+      assertEquals("Garden Lamp", recovered.get("http://example.org/lamp3").get().getTitle());
+    }
+  }
+
+  @Test
+  public void testRecoverFromCorruptedRecord() throws IOException {
+    Path directory = folder.newFolder("registry").toPath();
+    Path crashed = folder.newFolder("crashed").toPath();
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.checkpoint();
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      copyFiles(directory, crashed);
+    }
+
+    Path data = crashed.resolve(PersistentThingRegistry.DATA_FILE);
+    byte[] bytes = Files.readAllBytes(data);
+    bytes[bytes.length - 5] ^= (byte) 0xFF;
+    Files.write(data, bytes);
+
+    try (PersistentThingRegistry recovered = PersistentThingRegistry.open(crashed)) {
+      assertEquals(1, recovered.size());
+      assertTrue(recovered.get("http://example.org/lamp1").isPresent());
+      assertFalse(recovered.get("http://example.org/lamp2").isPresent());
+    }
+  }
+
+  @Test
+  public void testRebuildMissingIndex() throws IOException {
+    Path directory = folder.getRoot().toPath();
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      registry.register(getLamp("http://example.org/lamp1", "Kitchen Lamp", LAMP));
+      registry.register(getLamp("http://example.org/lamp2", "Hall Lamp", LAMP));
+      registry.register(getSwitch("http://example.org/switch", "Hall Switch"));
+    }
+
+    Files.delete(directory.resolve(PersistentThingRegistry.INDEX_FILE));
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      assertTrue(Files.exists(directory.resolve(PersistentThingRegistry.INDEX_FILE)));
+      assertRegistryContents(registry);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectConcurrentOpen() throws IOException {
+    Path directory = folder.getRoot().toPath();
+
+    try (PersistentThingRegistry registry = PersistentThingRegistry.open(directory)) {
+      assertEquals(0, registry.size());
+      PersistentThingRegistry.open(directory);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRejectClosedRegistry() throws IOException {
+    PersistentThingRegistry registry = PersistentThingRegistry.open(folder.getRoot().toPath());
+    registry.close();
+
+    registry.get("http://example.org/lamp1");
+  }
+
+  private static void assertRegistryContents(PersistentThingRegistry registry) throws IOException {
+    assertEquals(3, registry.size());
+    assertEquals("Kitchen Lamp", registry.get("http://example.org/lamp1").get().getTitle());
+    assertFalse(registry.get("http://example.org/unknown").isPresent());
+
+    assertEquals(Set.of("Kitchen Lamp", "Hall Lamp"), titles(registry.getThingsBySemanticType(LAMP)));
+    assertEquals(Set.of("Hall Switch"), titles(registry.getThingsBySemanticType(SWITCH)));
+    assertEquals(Set.of("Hall Lamp"), titles(registry.getThingsByTitle("Hall Lamp")));
+    assertEquals(Set.of("Kitchen Lamp", "Hall Lamp"),
+      titles(registry.getThingsByOperationType(TD.readProperty)));
+    assertEquals(Set.of("Hall Switch"), titles(registry.getThingsByOperationType(TD.invokeAction)));
+  }
+
+  private static Set<String> titles(List<ThingDescription> tds) {
+    return tds.stream().map(ThingDescription::getTitle).collect(Collectors.toSet());
+  }
+
+  private static void copyFiles(Path source, Path target) throws IOException {
+    for (String file : new String[]{PersistentThingRegistry.DATA_FILE,
+        PersistentThingRegistry.INDEX_FILE}) {
+      if (Files.exists(source.resolve(file))) {
+        Files.copy(source.resolve(file), target.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  private static ThingDescription getLamp(String uri, String title, String type) {
+    return new ThingDescription.Builder(title)
+      .addThingURI(uri)
+      .addSemanticType(type)
+      .addProperty(new PropertyAffordance.Builder("status",
+          new Form.Builder(uri + "/status")
+            .addOperationType(TD.readProperty)
+            .build())
+        .build())
+      .build();
+  }
+
+  private static ThingDescription getSwitch(String uri, String title) {
+    return new ThingDescription.Builder(title)
+      .addThingURI(uri)
+      .addSemanticType(SWITCH)
+      .addAction(new ActionAffordance.Builder("toggle", new Form.Builder(uri + "/toggle").build())
+        .build())
+      .build();
+  }
+}
@@ -0,0 +1,224 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static ch.unisg.ics.interactions.wot.td.registry.TDGraphStore.pattern;
+import static ch.unisg.ics.interactions.wot.td.registry.TDGraphStore.variable;
+import static org.junit.Assert.*;
+
+public class TDGraphStoreTest {
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  private static final IRI LAMP = rdf.createIRI("http://example.org/#Lamp");
+  private static final IRI SWITCH = rdf.createIRI("http://example.org/#Switch");
+  private static final IRI TOGGLE = rdf.createIRI("http://example.org/#Toggle");
+  private static final IRI LOCATION = rdf.createIRI("http://example.org/#location");
+
+  private TDGraphStore store;
+
+  @Before
+  public void init() {
+    store = new TDGraphStore();
+    store.add(getLamp("http://example.org/lamp1", "Kitchen Lamp"));
+    store.add(getLamp("http://example.org/lamp2", "Hall Lamp"));
+    store.add(getSwitch("http://example.org/switch", "Hall Switch"));
+  }
+
+  @Test
+  public void testSelectWithJoins() {
+    List<Map<String, Value>> solutions = store.select(Arrays.asList(
+      pattern(variable("thing"), RDF.TYPE, LAMP),
+      pattern(variable("thing"), TD.HAS_ACTION_AFFORDANCE, variable("action")),
+      pattern(variable("action"), RDF.TYPE, TOGGLE),
+      pattern(variable("action"), TD.NAME, variable("name"))));
+
+    assertEquals(2, solutions.size());
+    assertEquals(Set.of("http://example.org/lamp1", "http://example.org/lamp2"),
+      values(solutions, "thing"));
+    assertEquals(Set.of("toggle"), values(solutions, "name"));
+  }
+
+  @Test
+  public void testSelectJoinAcrossThings() {
+    // Things that share the title of another Thing's semantic type
+    store.add(new ThingDescription.Builder("Hall Lamp")
+      .addThingURI("http://example.org/lamp3")
+      .addSemanticType(SWITCH.stringValue())
+      .build());
+
+    List<Map<String, Value>> solutions = store.select(Arrays.asList(
+      pattern(variable("lamp"), RDF.TYPE, LAMP),
+      pattern(variable("lamp"), TD.TITLE, variable("title")),
+      pattern(variable("other"), TD.TITLE, variable("title")),
+      pattern(variable("other"), RDF.TYPE, SWITCH)));
+
+    assertEquals(1, solutions.size());
+    assertEquals("http://example.org/lamp2", solutions.get(0).get("lamp").stringValue());
+    assertEquals("http://example.org/lamp3", solutions.get(0).get("other").stringValue());
+  }
+
+  @Test
+  public void testSelectRepeatedVariable() {
+    store.add(new ThingDescription.Builder("Loop")
+      .addThingURI("http://example.org/loop")
+      .addTriple(rdf.createIRI("http://example.org/loop"), LOCATION,
+        rdf.createIRI("http://example.org/loop"))
+      .addTriple(rdf.createIRI("http://example.org/loop"), LOCATION,
+        rdf.createIRI("http://example.org/room"))
+      .build());
+
+    List<Map<String, Value>> solutions = store.select(Collections.singletonList(
+      pattern(variable("x"), LOCATION, variable("x"))));
+
+    assertEquals(1, solutions.size());
+    assertEquals("http://example.org/loop", solutions.get(0).get("x").stringValue());
+  }
+
+  @Test
+  public void testSelectUnknownTerm() {
+    assertTrue(store.select(Collections.singletonList(
+      pattern(variable("thing"), RDF.TYPE, rdf.createIRI("http://example.org/#Unknown"))))
+      .isEmpty());
+  }
+
+  @Test
+  public void testSelectThingsAndAffordances() {
+    List<TDGraphStore.TriplePattern> patterns = Arrays.asList(
+      pattern(variable("thing"), TD.HAS_ACTION_AFFORDANCE, variable("action")),
+      pattern(variable("action"), RDF.TYPE, TOGGLE));
+
+    assertEquals(Set.of("Kitchen Lamp", "Hall Lamp", "Hall Switch"),
+      store.selectThings(patterns, "action").stream().map(ThingDescription::getTitle)
+        .collect(Collectors.toSet()));
+
+    for (Map<String, Value> solution : store.select(patterns)) {
+      Optional<InteractionAffordance> action = store.getAffordance(solution.get("action"));
+      assertTrue(action.isPresent());
+      assertEquals("toggle", action.get().getName());
+      assertTrue(action.get() instanceof ActionAffordance);
+
+      assertFalse(store.getAffordance(solution.get("thing")).isPresent());
+      assertEquals(solution.get("thing").stringValue(),
+        store.getThing(solution.get("thing")).get().getThingURI().get());
+    }
+
+    assertFalse(store.getThing(TOGGLE).isPresent());
+  }
+
+  @Test
+  public void testAddRemoveAndReplace() {
+    int size = store.size();
+
+    assertTrue(store.remove("http://example.org/lamp1"));
+    assertFalse(store.remove("http://example.org/lamp1"));
+    assertEquals(Set.of("http://example.org/lamp2"),
+      values(store.select(Collections.singletonList(pattern(variable("thing"), RDF.TYPE, LAMP))),
+        "thing"));
+
+    store.add(getLamp("http://example.org/lamp1", "Kitchen Lamp"));
+    assertEquals(size, store.size());
+
+    store.add(getLamp("http://example.org/lamp1", "Bedroom Lamp"));
+    assertEquals(size, store.size());
+    assertEquals(Set.of("Bedroom Lamp", "Hall Lamp"), values(store.select(Arrays.asList(
+      pattern(variable("thing"), RDF.TYPE, LAMP),
+      pattern(variable("thing"), TD.TITLE, variable("title")))), "title"));
+
+    store.remove("http://example.org/lamp1");
+    store.remove("http://example.org/lamp2");
+    store.remove("http://example.org/switch");
+    assertEquals(0, store.size());
+    assertTrue(store.select(Collections.singletonList(
+      pattern(variable("s"), variable("p"), variable("o")))).isEmpty());
+  }
+
+  @Test
+  public void testSharedTriples() {
+    IRI room = rdf.createIRI("http://example.org/kitchen");
+
+    store.add(new ThingDescription.Builder("Kitchen")
+      .addThingURI(room.stringValue())
+      .addTriple(room, LOCATION, room)
+      .build());
+    store.add(new ThingDescription.Builder("Kitchen Mirror")
+      .addThingURI("http://example.org/mirror")
+      .addTriple(room, LOCATION, room)
+      .build());
+
+    List<TDGraphStore.TriplePattern> patterns = Collections.singletonList(
+      pattern(room, LOCATION, variable("location")));
+    assertEquals(1, store.select(patterns).size());
+
+    store.remove(room.stringValue());
+    assertEquals(1, store.select(patterns).size());
+
+    store.remove("http://example.org/mirror");
+    assertTrue(store.select(patterns).isEmpty());
+  }
+
+  @Test
+  public void testBlankNodesAreScopedToThings() {
+    // Both lamps use the same blank node labels for their affordances and forms
+    List<Map<String, Value>> solutions = store.select(Arrays.asList(
+      pattern(variable("thing"), TD.HAS_PROPERTY_AFFORDANCE, variable("property")),
+      pattern(variable("property"), TD.NAME, variable("name"))));
+
+    assertEquals(2, solutions.size());
+    assertEquals(2, values(solutions, "property").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectLiteralPredicate() {
+    pattern(variable("s"), rdf.createLiteral("p"), variable("o"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectThingWithoutURI() {
+    store.add(new ThingDescription.Builder("Lamp").build());
+  }
+
+  private static Set<String> values(List<Map<String, Value>> solutions, String variable) {
+    return solutions.stream().map(solution -> solution.get(variable).stringValue())
+      .collect(Collectors.toSet());
+  }
+
+  private static ThingDescription getLamp(String uri, String title) {
+    return new ThingDescription.Builder(title)
+      .addThingURI(uri)
+      .addSemanticType(LAMP.stringValue())
+      .addProperty(new PropertyAffordance.Builder("status",
+          new Form.Builder(uri + "/status")
+            .addOperationType(TD.readProperty)
+            .build())
+        .build())
+      .addAction(new ActionAffordance.Builder("toggle", new Form.Builder(uri + "/toggle").build())
+        .addSemanticType(TOGGLE.stringValue())
+        .build())
+      .build();
+  }
+
+  private static ThingDescription getSwitch(String uri, String title) {
+    return new ThingDescription.Builder(title)
+      .addThingURI(uri)
+      .addSemanticType(SWITCH.stringValue())
+      .addAction(new ActionAffordance.Builder("toggle", new Form.Builder(uri + "/toggle").build())
+        .addSemanticType(TOGGLE.stringValue())
+        .build())
+      .build();
+  }
+}
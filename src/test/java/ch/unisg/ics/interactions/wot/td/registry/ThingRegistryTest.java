@@ -0,0 +1,240 @@
+package ch.unisg.ics.interactions.wot.td.registry;
+
+import ch.unisg.ics.interactions.wot.td.ThingDescription;
+import ch.unisg.ics.interactions.wot.td.affordances.ActionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.EventAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.Form;
+import ch.unisg.ics.interactions.wot.td.affordances.InteractionAffordance;
+import ch.unisg.ics.interactions.wot.td.affordances.PropertyAffordance;
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ThingRegistryTest {
+  private static final String LAMP = "http://example.org/#Lamp";
+  private static final String TOGGLE = "http://example.org/#Toggle";
+  private static final String STATUS = "http://example.org/#Status";
+  private static final String SENSOR = "http://example.org/#Sensor";
+
+  private ThingRegistry registry;
+
+  @Before
+  public void init() {
+    registry = new ThingRegistry();
+    registry.register(getLamp("http://example.org/lamp1", "coap://example.org/lamp1", LAMP));
+    registry.register(getLamp("http://example.org/lamp2", "http://example.org/lamp2", LAMP));
+    registry.register(getLamp("http://example.org/switch", "coap://example.org/switch",
+      "http://example.org/#Switch"));
+  }
+
+  @Test
+  public void testGetThing() {
+    assertEquals(3, registry.size());
+    assertEquals("http://example.org/lamp1", registry.get("http://example.org/lamp1").get()
+      .getThingURI().get());
+    assertFalse(registry.get("http://example.org/unknown").isPresent());
+    assertEquals(2, registry.getThingsBySemanticType(LAMP).size());
+  }
+
+  @Test
+  public void testQueryActionsByTypeAndProtocol() {
+    List<ThingRegistry.Match<ActionAffordance>> matches = registry.queryActions()
+      .addSemanticType(TOGGLE)
+      .setProtocol("CoAP")
+      .find();
+
+    assertEquals(2, matches.size());
+    assertEquals(setOf("http://example.org/lamp1", "http://example.org/switch"), getThingURIs(matches));
+    assertEquals("toggle", matches.get(0).getAffordance().getName());
+
+    matches = registry.queryActions()
+      .addSemanticType(TOGGLE)
+      .setProtocol("CoAP")
+      .addThingSemanticType(LAMP)
+      .find();
+
+    assertEquals(1, matches.size());
+    assertEquals("http://example.org/lamp1", matches.get(0).getThingDescription().getThingURI().get());
+  }
+
+  @Test
+  public void testQueryPropertiesByOperationAndContentType() {
+    assertEquals(3, registry.queryProperties()
+      .addOperationType(TD.readProperty)
+      .setContentType("application/json")
+      .find().size());
+
+    assertTrue(registry.queryProperties()
+      .addOperationType(TD.readProperty)
+      .setContentType("text/plain")
+      .find().isEmpty());
+
+    assertTrue(registry.queryEvents().find().isEmpty());
+  }
+
+  @Test
+  public void testQueryMatchesFormLevelCriteriaOnSameForm() {
+    registry.register(new ThingDescription.Builder("Sensor")
+      .addThingURI("http://example.org/sensor")
+      .addSemanticType(SENSOR)
+      .addProperty(new PropertyAffordance.Builder("temperature", Arrays.asList(
+          new Form.Builder("http://example.org/sensor/temperature")
+            .addOperationType(TD.readProperty)
+            .build(),
+          new Form.Builder("coap://example.org/sensor/temperature")
+            .addOperationType(TD.observeProperty)
+            .setContentType("application/cbor")
+            .build()))
+        .build())
+      .build());
+
+    // readproperty is only available over HTTP, observeproperty only over CoAP
+    assertTrue(registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .addOperationType(TD.readProperty)
+      .setProtocol("CoAP")
+      .find().isEmpty());
+    assertTrue(registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .addOperationType(TD.observeProperty)
+      .setContentType("application/json")
+      .find().isEmpty());
+    assertTrue(registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .setProtocol("HTTP")
+      .setContentType("application/cbor")
+      .find().isEmpty());
+
+    assertEquals(setOf("http://example.org/sensor"), getThingURIs(registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .addOperationType(TD.observeProperty)
+      .setProtocol("CoAP")
+      .find()));
+    assertEquals(setOf("http://example.org/sensor"), getThingURIs(registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .addOperationType(TD.readProperty)
+      .addOperationType(TD.observeProperty)
+      .find()));
+    assertEquals(1, registry.queryProperties()
+      .addThingSemanticType(SENSOR)
+      .addOperationType(TD.readProperty)
+      .setProtocol("HTTP")
+      .find().size());
+  }
+
+  @Test
+  public void testQueryByThingTypeOnly() {
+    List<ThingRegistry.Match<PropertyAffordance>> matches = registry.queryProperties()
+      .addThingSemanticType(LAMP)
+      .find();
+
+    assertEquals(setOf("http://example.org/lamp1", "http://example.org/lamp2"), getThingURIs(matches));
+    assertEquals(3, registry.queryProperties().find().size());
+  }
+
+  @Test
+  public void testReplaceThing() {
+    ThingDescription previous = registry.get("http://example.org/lamp1").get();
+
+    ThingDescription replacement = new ThingDescription.Builder("Lamp")
+      .addThingURI("http://example.org/lamp1")
+      .addEvent(new EventAffordance.Builder("overheating",
+          new Form.Builder("coap://example.org/lamp1/overheating").build())
+        .build())
+      .build();
+
+    assertSame(previous, registry.register(replacement).get());
+    assertEquals(3, registry.size());
+
+    assertEquals(setOf("http://example.org/switch"), getThingURIs(registry.queryActions()
+      .addSemanticType(TOGGLE).setProtocol("CoAP").find()));
+    assertEquals(1, registry.getThingsBySemanticType(LAMP).size());
+    assertEquals(1, registry.queryEvents().setProtocol("CoAP").find().size());
+  }
+
+  @Test
+  public void testUnregisterThing() {
+    assertTrue(registry.unregister("http://example.org/switch").isPresent());
+    assertFalse(registry.unregister("http://example.org/switch").isPresent());
+
+    assertEquals(2, registry.size());
+    assertEquals(setOf("http://example.org/lamp1"), getThingURIs(registry.queryActions()
+      .setProtocol("CoAP").find()));
+    assertTrue(registry.getThingsBySemanticType("http://example.org/#Switch").isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectThingWithoutURI() {
+    registry.register(new ThingDescription.Builder("Anonymous").build());
+  }
+
+  @Test
+  public void testConcurrentRegistrations() throws Exception {
+    ThingRegistry concurrentRegistry = new ThingRegistry();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        int thread = i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 250; j++) {
+            String uri = "http://example.org/lamp" + thread + "-" + j;
+            concurrentRegistry.register(getLamp(uri, "coap://example.org/" + j, LAMP));
+            if (j % 5 == 0) {
+              concurrentRegistry.unregister(uri);
+            }
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1600, concurrentRegistry.size());
+    assertEquals(1600, concurrentRegistry.getThingsBySemanticType(LAMP).size());
+    assertEquals(1600, concurrentRegistry.queryActions()
+      .addSemanticType(TOGGLE)
+      .setProtocol("CoAP")
+      .addThingSemanticType(LAMP)
+      .find().size());
+  }
+
+  private static <T extends InteractionAffordance> Set<String> getThingURIs(
+      List<ThingRegistry.Match<T>> matches) {
+    return matches.stream()
+      .map(match -> match.getThingDescription().getThingURI().get())
+      .collect(Collectors.toSet());
+  }
+
+  private static Set<String> setOf(String... values) {
+    return new HashSet<>(Arrays.asList(values));
+  }
+
+  private static ThingDescription getLamp(String uri, String base, String type) {
+    return new ThingDescription.Builder("Lamp")
+      .addThingURI(uri)
+      .addSemanticType(type)
+      .addProperty(new PropertyAffordance.Builder("status",
+          new Form.Builder(base + "/status").build())
+        .addSemanticType(STATUS)
+        .build())
+      .addAction(new ActionAffordance.Builder("toggle",
+          new Form.Builder(base + "/toggle").build())
+        .addSemanticType(TOGGLE)
+        .build())
+      .build();
+  }
+}
@@ -510,4 +510,51 @@ public class DataSchemaTest {
     String actualMessage = exception.getMessage();
     assertTrue(actualMessage.contains(expectedMessage));
   }
+
+  @Test
+  public void testStructuralEquality() {
+    ObjectSchema copy = new ObjectSchema.Builder()
+      .addSemanticType("http://example.com#User")
+      .addProperty("full_name", new StringSchema.Builder()
+        .addSemanticType("http://example.com#FullName")
+        .build())
+      .addProperty("id", new IntegerSchema.Builder()
+        .addSemanticType("http://example.com#Id")
+        .build())
+      .addRequiredProperties("id")
+      .build();
+
+    assertEquals(userSchema, copy);
+    assertEquals(userSchema.hashCode(), copy.hashCode());
+    assertNotEquals(userSchema, userGroupSchema);
+  }
+
+  @Test
+  public void testStructuralEqualityOfConstraints() {
+    assertEquals(new IntegerSchema.Builder().addMinimum(0).build(),
+      new IntegerSchema.Builder().addMinimum(0).build());
+    assertNotEquals(new IntegerSchema.Builder().addMinimum(0).build(),
+      new IntegerSchema.Builder().addMinimum(1).build());
+    assertNotEquals(new IntegerSchema.Builder().build(), new NumberSchema.Builder().build());
+    assertNotEquals(new ArraySchema.Builder().addMaxItems(2).build(),
+      new ArraySchema.Builder().addMaxItems(3).build());
+    assertNotEquals(new StringSchema.Builder().addEnum(new HashSet<>(Arrays.asList("on", "off"))).build(),
+      new StringSchema.Builder().build());
+    assertNotEquals(new StringSchema.Builder().build(), new BooleanSchema.Builder().build());
+  }
+
+  @Test
+  public void testSchemaIsNotModifiedByBuilder() {
+    StringSchema.Builder builder = new StringSchema.Builder().addSemanticType("http://example.com#Name");
+    StringSchema schema = builder.build();
+
+    builder.addSemanticType("http://example.com#FullName");
+
+    assertEquals(1, schema.getSemanticTypes().size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSchemaIsUnmodifiable() {
+    userSchema.getSemanticTypes().add("http://example.com#Admin");
+  }
 }
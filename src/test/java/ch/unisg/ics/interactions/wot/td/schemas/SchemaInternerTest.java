@@ -0,0 +1,65 @@
+package ch.unisg.ics.interactions.wot.td.schemas;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SchemaInternerTest {
+
+  @Test
+  public void testInternEqualSchemas() {
+    SchemaInterner interner = new SchemaInterner();
+
+    IntegerSchema first = interner.intern(new IntegerSchema.Builder().addMinimum(0).build());
+    IntegerSchema second = interner.intern(new IntegerSchema.Builder().addMinimum(0).build());
+    IntegerSchema other = interner.intern(new IntegerSchema.Builder().addMinimum(1).build());
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals(2, interner.size());
+  }
+
+  @Test
+  public void testInternNestedSchemas() {
+    SchemaInterner interner = new SchemaInterner();
+
+    ObjectSchema first = interner.intern(new ObjectSchema.Builder()
+      .addProperty("name", interner.intern(new StringSchema.Builder().build()))
+      .build());
+    ObjectSchema second = interner.intern(new ObjectSchema.Builder()
+      .addProperty("name", interner.intern(new StringSchema.Builder().build()))
+      .build());
+
+    assertSame(first, second);
+    assertSame(first.getProperty("name").get(),
+      interner.intern(new StringSchema.Builder().build()));
+  }
+
+  @Test
+  public void testInternDeeplyNestedSchemas() {
+    SchemaInterner interner = new SchemaInterner();
+
+    // Hash codes are computed once per schema, such that interning bottom-up does not traverse the
+    // subschemas again at each level
+    DataSchema first = new StringSchema.Builder().build();
+    DataSchema second = new StringSchema.Builder().build();
+    for (int i = 0; i < 20000; i++) {
+      first = interner.intern(new ArraySchema.Builder().addItem(interner.intern(first)).build());
+      second = interner.intern(new ArraySchema.Builder().addItem(interner.intern(second)).build());
+    }
+
+    assertSame(first, second);
+    assertEquals(20001, interner.size());
+  }
+
+  @Test
+  public void testClear() {
+    SchemaInterner interner = new SchemaInterner();
+    StringSchema schema = interner.intern(new StringSchema.Builder().build());
+
+    interner.clear();
+
+    assertEquals(0, interner.size());
+    assertNotSame(schema, interner.intern(new StringSchema.Builder().build()));
+  }
+}
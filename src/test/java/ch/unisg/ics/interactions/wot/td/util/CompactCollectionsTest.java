@@ -0,0 +1,95 @@
+package ch.unisg.ics.interactions.wot.td.util;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompactCollectionsTest {
+
+  @Test
+  public void testCopyOfStrings() {
+    Set<String> values = new HashSet<>(Arrays.asList("ex:C", "ex:A", "ex:B"));
+    Set<String> copy = CompactCollections.copyOfStrings(values);
+
+    assertEquals(values, copy);
+    assertEquals(copy, values);
+    assertEquals(values.hashCode(), copy.hashCode());
+    assertEquals(Arrays.asList("ex:A", "ex:B", "ex:C"), new ArrayList<>(copy));
+    assertTrue(copy.contains("ex:B"));
+    assertFalse(copy.contains("ex:D"));
+    assertFalse(copy.contains(42));
+
+    values.add("ex:D");
+    assertEquals(3, copy.size());
+  }
+
+  @Test
+  public void testCopyOfStringsRemovesDuplicates() {
+    Set<String> copy = CompactCollections.copyOfStrings(Arrays.asList("ex:B", "ex:A", "ex:B"));
+
+    assertEquals(2, copy.size());
+    assertEquals(Arrays.asList("ex:A", "ex:B"), new ArrayList<>(copy));
+  }
+
+  @Test
+  public void testCopyOfStringsInternsStrings() {
+    String value = new String("http://example.org/#Lamp");
+
+    assertSame(value.intern(), CompactCollections.copyOfStrings(Collections.singleton(value))
+      .iterator().next());
+    assertSame(value.intern(), CompactCollections.copyOfStringList(Collections.singletonList(value))
+      .get(0));
+  }
+
+  @Test
+  public void testCopyOfSetKeepsOrder() {
+    Set<Integer> values = new LinkedHashSet<>(Arrays.asList(3, 1, 2));
+    Set<Integer> copy = CompactCollections.copyOf(values);
+
+    assertEquals(values, copy);
+    assertEquals(Arrays.asList(3, 1, 2), new ArrayList<>(copy));
+    assertTrue(copy.contains(1));
+    assertFalse(copy.contains(4));
+  }
+
+  @Test
+  public void testCopyOfMap() {
+    Map<String, Integer> values = new HashMap<>();
+    assertTrue(CompactCollections.copyOf(values).isEmpty());
+
+    values.put("a", 1);
+    assertEquals(values, CompactCollections.copyOf(values));
+
+    values.put("b", 2);
+    Map<String, Integer> copy = CompactCollections.copyOf(values);
+    values.put("c", 3);
+    assertEquals(2, copy.size());
+  }
+
+  @Test
+  public void testCollectionsAreUnmodifiable() {
+    Set<String> strings = CompactCollections.copyOfStrings(Arrays.asList("ex:A", "ex:B"));
+    Set<Integer> integers = CompactCollections.copyOf(new HashSet<>(Arrays.asList(1, 2)));
+
+    List<Runnable> modifications = Arrays.asList(
+      () -> strings.add("ex:C"),
+      () -> strings.remove("ex:A"),
+      () -> strings.clear(),
+      () -> strings.iterator().remove(),
+      () -> integers.add(3),
+      () -> integers.removeIf(value -> value == 1),
+      () -> CompactCollections.copyOfStringList(Arrays.asList("ex:A")).add("ex:B"),
+      () -> CompactCollections.copyOf(Map.of("a", 1, "b", 2)).put("c", 3));
+
+    for (Runnable modification : modifications) {
+      try {
+        modification.run();
+        fail("Expected an UnsupportedOperationException");
+      } catch (UnsupportedOperationException e) {
+        // Expected
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package ch.unisg.ics.interactions.wot.td.util;
+
+import ch.unisg.ics.interactions.wot.td.vocabularies.TD;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompactModelTest {
+  private static final IRI THING = SimpleValueFactory.getInstance().createIRI("http://example.org/#thing");
+  private static final IRI GRAPH = SimpleValueFactory.getInstance().createIRI("http://example.org/graph");
+
+  private final Model model = new ModelBuilder()
+    .setNamespace("td", TD.PREFIX)
+    .add(THING, RDF.TYPE, TD.THING)
+    .add(THING, TD.TITLE, "My Thing")
+    .namedGraph(GRAPH)
+    .add(THING, TD.TITLE, "My Thing")
+    .build();
+
+  @Test
+  public void testSameStatements() {
+    Model compactModel = new CompactModel(model);
+
+    assertEquals(3, compactModel.size());
+    assertEquals(model, compactModel);
+    assertTrue(Models.isomorphic(model, compactModel));
+    assertEquals(model.getNamespaces(), compactModel.getNamespaces());
+  }
+
+  @Test
+  public void testContainsAndFilter() {
+    Model compactModel = new CompactModel(model);
+
+    assertTrue(compactModel.contains(THING, RDF.TYPE, TD.THING));
+    assertFalse(compactModel.contains(THING, RDF.TYPE, TD.ACTION_AFFORDANCE));
+    assertTrue(compactModel.contains(THING, TD.TITLE, null, GRAPH));
+    assertFalse(compactModel.contains(THING, RDF.TYPE, null, GRAPH));
+    assertTrue(compactModel.contains(THING, RDF.TYPE, null, (Resource) null));
+
+    assertEquals(2, compactModel.filter(THING, TD.TITLE, null).size());
+    assertEquals(1, compactModel.filter(null, null, null, GRAPH).size());
+    assertEquals("My Thing", Models.objectString(compactModel.filter(THING, TD.TITLE, null)).get());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    new CompactModel(model).add(THING, TD.TITLE, SimpleValueFactory.getInstance().createLiteral("x"));
+  }
+}